@@ -4,21 +4,33 @@ import com.cp.compiler.exceptions.ThrottlingException;
 import com.cp.compiler.mappers.JsonMapper;
 import com.cp.compiler.wellknownconstants.WellKnownMetrics;
 import com.cp.compiler.services.CompilerService;
+import com.rabbitmq.client.Channel;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.MessagePostProcessor;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.AmqpHeaders;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The type Rabbit consumer.
+ * Throttled requests are not retried on the listener thread,
+ * they are requeued with a delay through the queue of throttled requests.
+ * Messages are acknowledged once their result (or the throttled request) has been published and confirmed.
+ * A request whose result can't be published is retried through the queue of throttled requests,
+ * it's moved to the dead letter queue after the max number of failures instead of being redelivered forever.
  *
  * @author Zakaria Maaraki
  */
@@ -27,6 +39,14 @@ import javax.annotation.PostConstruct;
 @Component
 public class RabbitConsumer {
     
+    private static final String THROTTLING_RETRIES_HEADER = "x-throttling-retries";
+    
+    private static final String PUBLISH_FAILURES_HEADER = "x-publish-failures";
+    
+    private static final String BROKER_TAG = "broker";
+    
+    private static final String QUEUE_TAG = "queue";
+    
     @Qualifier("proxy")
     @Autowired
     private CompilerService compilerService;
@@ -37,51 +57,148 @@ public class RabbitConsumer {
     @Autowired
     private MeterRegistry meterRegistry;
     
+    @Value("${spring.rabbitmq.queues.input}")
+    private String inputQueue;
+    
     @Value("${spring.rabbitmq.queues.output}")
     private String outputQueue;
     
     @Value("${spring.rabbitmq.throttling-duration}")
     private long throttlingDuration;
     
+    @Value("${spring.rabbitmq.throttling-max-retries:30}")
+    private int maxRetries;
+    
+    @Value("${spring.rabbitmq.confirm-timeout:10000}")
+    private long confirmTimeout;
+    
+    @Value("${spring.rabbitmq.max-publish-failures:5}")
+    private int maxPublishFailures;
+    
     private Counter throttlingRetriesCounter;
     
+    private Counter throttlingDroppedCounter;
+    
+    private Counter deadLetteredCounter;
+    
+    private Timer processingTimer;
+    
+    private Timer publishTimer;
+    
     /**
      * Init.
      */
     @PostConstruct
     public void init() {
-        throttlingRetriesCounter = meterRegistry.counter(WellKnownMetrics.AMQP_THROTTLING_RETRIES, "broker", "rabbitmq");
+        throttlingRetriesCounter = meterRegistry.counter(WellKnownMetrics.AMQP_THROTTLING_RETRIES, BROKER_TAG, "rabbitmq");
+        throttlingDroppedCounter = meterRegistry.counter(WellKnownMetrics.AMQP_THROTTLING_DROPPED, BROKER_TAG, "rabbitmq");
+        deadLetteredCounter = meterRegistry.counter(WellKnownMetrics.AMQP_DEAD_LETTERED, BROKER_TAG, "rabbitmq");
+        processingTimer = meterRegistry.timer(
+                WellKnownMetrics.AMQP_PROCESSING_TIMER, BROKER_TAG, "rabbitmq", QUEUE_TAG, inputQueue);
+        publishTimer = meterRegistry.timer(
+                WellKnownMetrics.AMQP_PUBLISH_TIMER, BROKER_TAG, "rabbitmq", QUEUE_TAG, outputQueue);
     }
     
     /**
      * Listen.
      *
-     * @param jsonRequest the json request
-     * @throws Exception the exception
+     * @param jsonRequest     the json request
+     * @param retries         the number of throttling retries of the request, null for a new request
+     * @param publishFailures the number of times the result of the request could not be published, null for none
+     * @param channel         the channel
+     * @param deliveryTag     the delivery tag
+     * @throws IOException the io exception
      */
     @RabbitListener(queues = "${spring.rabbitmq.queues.input}")
-    public void listen(String jsonRequest) {
+    public void listen(String jsonRequest,
+                       @Header(name = THROTTLING_RETRIES_HEADER, required = false) Integer retries,
+                       @Header(name = PUBLISH_FAILURES_HEADER, required = false) Integer publishFailures,
+                       Channel channel,
+                       @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag) throws IOException {
+        long startTime = System.nanoTime();
+        int throttlingRetries = retries == null ? 0 : retries;
+        int failures = publishFailures == null ? 0 : publishFailures;
         try {
-            String jsonResult = transform(jsonRequest);
-            rabbitTemplate.convertAndSend(outputQueue, jsonResult);
+            handle(jsonRequest, throttlingRetries, failures);
+            channel.basicAck(deliveryTag, false);
         } catch (Exception e) {
-            log.error("Error : {}", e);
+            log.error("Error while publishing the result : {}", e);
+            retryAfterPublishFailure(jsonRequest, throttlingRetries, failures + 1, channel, deliveryTag);
+        } finally {
+            processingTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
         }
     }
     
-    private String transform(String jsonRequest) throws Exception {
+    private void handle(String jsonRequest, int retries, int publishFailures) {
+        String jsonResult;
         try {
-            return JsonMapper.transform(jsonRequest, compilerService);
+            jsonResult = JsonMapper.transform(jsonRequest, compilerService);
         } catch (ThrottlingException throttlingException) {
             log.info("Request throttled {}, retrying after {}", throttlingException, throttlingDuration);
-            return retryAfter(jsonRequest);
+            retryLater(jsonRequest, retries, publishFailures);
+            return;
+        } catch (Exception e) {
+            // Invalid requests are dropped
+            log.error("Error : {}", e);
+            return;
         }
+        publishTimer.record(() -> publishAndConfirm(outputQueue, jsonResult, message -> message));
     }
     
-    private String retryAfter(String jsonRequest) throws Exception {
+    private void retryLater(String jsonRequest, int retries, int publishFailures) {
+        if (retries >= maxRetries) {
+            log.warn("Request dropped after {} throttling retries", retries);
+            throttlingDroppedCounter.increment();
+            return;
+        }
         throttlingRetriesCounter.increment();
-        Thread.sleep(throttlingDuration);
-        return transform(jsonRequest);
+        publishAndConfirm(RabbitQueuesConfig.getThrottledQueueName(inputQueue), jsonRequest, message -> {
+            message.getMessageProperties().setExpiration(String.valueOf(throttlingDuration));
+            message.getMessageProperties().setHeader(THROTTLING_RETRIES_HEADER, retries + 1);
+            if (publishFailures > 0) {
+                message.getMessageProperties().setHeader(PUBLISH_FAILURES_HEADER, publishFailures);
+            }
+            return message;
+        });
     }
     
+    // A requeued message is redelivered with the same headers, the number of failures is counted by republishing it
+    private void retryAfterPublishFailure(String jsonRequest,
+                                          int retries,
+                                          int publishFailures,
+                                          Channel channel,
+                                          long deliveryTag) throws IOException {
+        boolean deadLetter = publishFailures >= maxPublishFailures;
+        try {
+            if (deadLetter) {
+                log.warn("Request moved to the dead letter queue after {} publish failures", publishFailures);
+                publishAndConfirm(RabbitQueuesConfig.getDeadLetterQueueName(inputQueue), jsonRequest, message -> {
+                    message.getMessageProperties().setHeader(PUBLISH_FAILURES_HEADER, publishFailures);
+                    return message;
+                });
+                deadLetteredCounter.increment();
+            } else {
+                publishAndConfirm(RabbitQueuesConfig.getThrottledQueueName(inputQueue), jsonRequest, message -> {
+                    message.getMessageProperties().setExpiration(String.valueOf(throttlingDuration));
+                    message.getMessageProperties().setHeader(THROTTLING_RETRIES_HEADER, retries);
+                    message.getMessageProperties().setHeader(PUBLISH_FAILURES_HEADER, publishFailures);
+                    return message;
+                });
+            }
+            channel.basicAck(deliveryTag, false);
+        } catch (Exception e) {
+            // The broker does not confirm any publication, the request is requeued until the max number of failures
+            log.error("Error while publishing the request, dead letter = {} : {}", deadLetter, e);
+            channel.basicNack(deliveryTag, false, !deadLetter);
+        }
+    }
+    
+    // Throws an AmqpException if the broker does not confirm the message
+    private void publishAndConfirm(String queue, String body, MessagePostProcessor messagePostProcessor) {
+        rabbitTemplate.invoke(operations -> {
+            operations.convertAndSend(queue, (Object) body, messagePostProcessor);
+            operations.waitForConfirmsOrDie(confirmTimeout);
+            return null;
+        });
+    }
 }
@@ -0,0 +1,114 @@
+package com.cp.compiler.amqp;
+
+import com.cp.compiler.services.Resources;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * The type Rabbit queues config.
+ */
+@Slf4j
+@Profile("rabbitmq")
+@Configuration
+public class RabbitQueuesConfig {
+    
+    private static final String THROTTLED_QUEUE_SUFFIX = ".throttled";
+    
+    private static final String DEAD_LETTER_QUEUE_SUFFIX = ".dead";
+    
+    // Queues are bound to the default exchange with their name as routing key
+    private static final String DEFAULT_EXCHANGE = "";
+    
+    /**
+     * Gets the name of the queue of throttled requests.
+     *
+     * @param inputQueue the input queue
+     * @return the name of the queue of throttled requests
+     */
+    public static String getThrottledQueueName(String inputQueue) {
+        return inputQueue + THROTTLED_QUEUE_SUFFIX;
+    }
+    
+    /**
+     * Gets the name of the dead letter queue.
+     *
+     * @param inputQueue the input queue
+     * @return the name of the queue of requests whose result could not be published
+     */
+    public static String getDeadLetterQueueName(String inputQueue) {
+        return inputQueue + DEAD_LETTER_QUEUE_SUFFIX;
+    }
+    
+    /**
+     * Throttled requests queue.
+     * Throttled requests are published to this queue with the throttling duration as expiration,
+     * once expired they are dead-lettered back to the input queue.
+     *
+     * @param inputQueue the input queue
+     * @return the queue
+     */
+    @Bean
+    public Queue throttledRequestsQueue(@Value("${spring.rabbitmq.queues.input}") String inputQueue) {
+        return QueueBuilder
+                .durable(getThrottledQueueName(inputQueue))
+                .deadLetterExchange(DEFAULT_EXCHANGE)
+                .deadLetterRoutingKey(inputQueue)
+                .build();
+    }
+    
+    /**
+     * Dead letter queue.
+     * Requests whose result could not be published after the max number of failures are moved to this queue,
+     * they are kept there until they are inspected.
+     *
+     * @param inputQueue the input queue
+     * @return the queue
+     */
+    @Bean
+    public Queue deadLetterQueue(@Value("${spring.rabbitmq.queues.input}") String inputQueue) {
+        return QueueBuilder.durable(getDeadLetterQueueName(inputQueue)).build();
+    }
+    
+    /**
+     * Rabbit listener container factory, the configuration of spring boot with manual acks
+     * and as many consumers as executions that can run in parallel.
+     *
+     * @param configurer        the spring boot configurer
+     * @param connectionFactory the connection factory
+     * @param resources         the resources
+     * @param consumers         the number of consumers, 0 means as many as executions that can run in parallel
+     * @param prefetch          the number of unacknowledged messages per consumer
+     * @return the simple rabbit listener container factory
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            Resources resources,
+            @Value("${spring.rabbitmq.consumers:0}") int consumers,
+            @Value("${spring.rabbitmq.prefetch:1}") int prefetch) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        
+        if (consumers <= 0) {
+            consumers = resources.getMaxParallelExecutions();
+        }
+        log.info("Rabbit consumers = {}, prefetch = {}", consumers, prefetch);
+        
+        factory.setConcurrentConsumers(consumers);
+        factory.setMaxConcurrentConsumers(consumers);
+        factory.setPrefetchCount(prefetch);
+        // Messages are acknowledged once their result has been published and confirmed
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        return factory;
+    }
+}
@@ -0,0 +1,46 @@
+package com.cp.compiler.config;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.core.DefaultDockerClientConfig;
+import com.github.dockerjava.core.DockerClientConfig;
+import com.github.dockerjava.core.DockerClientImpl;
+import com.github.dockerjava.httpclient5.ApacheDockerHttpClient;
+import com.github.dockerjava.transport.DockerHttpClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The type Docker api config, the client of the Docker Engine API used when compiler.docker.client is set to api.
+ */
+@Configuration
+@ConditionalOnProperty(name = "compiler.docker.client", havingValue = "api")
+public class DockerApiConfig {
+    
+    @Value("${compiler.docker.host:unix:///var/run/docker.sock}")
+    private String dockerHost;
+    
+    @Value("${compiler.docker.max-connections:100}")
+    private int maxConnections;
+    
+    /**
+     * Docker client talking to the daemon over its socket, connections are pooled and kept alive between calls.
+     *
+     * @return the docker client
+     */
+    @Bean(destroyMethod = "close")
+    public DockerClient getDockerClient() {
+        DockerClientConfig config = DefaultDockerClientConfig.createDefaultConfigBuilder()
+                .withDockerHost(dockerHost)
+                .build();
+        
+        DockerHttpClient httpClient = new ApacheDockerHttpClient.Builder()
+                .dockerHost(config.getDockerHost())
+                .sslConfig(config.getSSLConfig())
+                .maxConnections(maxConnections)
+                .build();
+        
+        return DockerClientImpl.getInstance(config, httpClient);
+    }
+}
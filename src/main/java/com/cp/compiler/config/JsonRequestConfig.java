@@ -0,0 +1,52 @@
+package com.cp.compiler.config;
+
+import com.cp.compiler.mappers.StreamingRequestConverter;
+import com.cp.compiler.mappers.StreamingRequestReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The type Json request config.
+ * Json requests of the rest api are read with a streaming parser, large fields are spilled to local files.
+ */
+@Slf4j
+@Configuration
+public class JsonRequestConfig implements WebMvcConfigurer {
+    
+    private static final long KILOBYTE = 1024;
+    
+    @Value("${compiler.json.streaming.enabled:true}")
+    private boolean enabled;
+    
+    // in KB
+    @Value("${compiler.json.streaming.max-in-memory-size:1024}")
+    private long maxInMemorySize;
+    
+    @Value("${compiler.json.streaming.spill-directory:payloads}")
+    private String spillDirectory;
+    
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        if (!enabled) {
+            return;
+        }
+        Path directory = Path.of(spillDirectory);
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            log.warn("Can't create the spill directory {}, json requests are read in memory: {}", directory, e);
+            return;
+        }
+        // Before the jackson converter
+        converters.add(0, new StreamingRequestConverter(
+                new StreamingRequestReader(maxInMemorySize * KILOBYTE, directory)));
+    }
+}
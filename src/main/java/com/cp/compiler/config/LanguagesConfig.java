@@ -1,9 +1,10 @@
 package com.cp.compiler.config;
 
-import com.cp.compiler.executions.*;
 import com.cp.compiler.executions.CExecution;
 import com.cp.compiler.executions.CPPExecution;
 import com.cp.compiler.executions.CSExecution;
+import com.cp.compiler.executions.Execution;
+import com.cp.compiler.executions.ExecutionFactory;
 import com.cp.compiler.executions.GoExecution;
 import com.cp.compiler.executions.HaskellExecution;
 import com.cp.compiler.executions.JavaExecution;
@@ -13,22 +14,56 @@ import com.cp.compiler.executions.RubyExecution;
 import com.cp.compiler.executions.RustExecution;
 import com.cp.compiler.executions.ScalaExecution;
 import com.cp.compiler.models.Language;
+import com.cp.compiler.models.LanguageDefinition;
 import com.cp.compiler.templates.EntrypointFileGenerator;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.PostConstruct;
+import java.util.EnumMap;
+import java.util.Map;
 
 /**
  * The type Configure languages.
- * Any new language added should be registered in the factory
+ * Languages are defined in the configuration (compiler.languages) and registered in the factory at startup,
+ * a language without a definition is not registered.
  */
+@Slf4j
 @Configuration
+@ConfigurationProperties(prefix = "compiler")
 public class LanguagesConfig {
     
+    // The execution of each language, any new language added should have one
+    private static final Map<Language, ExecutionConstructor> EXECUTIONS = Map.ofEntries(
+            Map.entry(Language.JAVA, JavaExecution::new),
+            Map.entry(Language.PYTHON, PythonExecution::new),
+            Map.entry(Language.C, CExecution::new),
+            Map.entry(Language.CPP, CPPExecution::new),
+            Map.entry(Language.GO, GoExecution::new),
+            Map.entry(Language.CS, CSExecution::new),
+            Map.entry(Language.KOTLIN, KotlinExecution::new),
+            Map.entry(Language.SCALA, ScalaExecution::new),
+            Map.entry(Language.RUST, RustExecution::new),
+            Map.entry(Language.RUBY, RubyExecution::new),
+            Map.entry(Language.HASKELL, HaskellExecution::new));
+    
     private EntrypointFileGenerator entrypointFileGenerator;
     
     private MeterRegistry meterRegistry;
     
+    /**
+     * The definitions of the languages.
+     */
+    @Getter
+    @Setter
+    private Map<Language, LanguageDefinition> languages = new EnumMap<>(Language.class);
+    
     /**
      * Instantiates a new Configure languages.
      *
@@ -38,145 +73,39 @@ public class LanguagesConfig {
     public LanguagesConfig(MeterRegistry meterRegistry, EntrypointFileGenerator entryPointFileGenerator) {
         this.entrypointFileGenerator = entryPointFileGenerator;
         this.meterRegistry = meterRegistry;
-        configure();
     }
     
-    private void configure() {
-        // Register factories
-        register(Language.JAVA,
-                (sourceCode, inputFile, expectedOutputFile, timeLimit, memoryLimit) -> {
-                    Counter executionsCounter = meterRegistry.counter(Language.JAVA.getExecutionCounter());
-                    return new JavaExecution(
-                            sourceCode,
-                            inputFile,
-                            expectedOutputFile,
-                            timeLimit,
-                            memoryLimit,
-                            executionsCounter,
-                            entrypointFileGenerator);
-                });
-    
-        register(Language.PYTHON,
-                (sourceCode, inputFile, expectedOutputFile, timeLimit, memoryLimit) -> {
-                    Counter executionsCounter = meterRegistry.counter(Language.PYTHON.getExecutionCounter());
-                    return new PythonExecution(
-                            sourceCode,
-                            inputFile,
-                            expectedOutputFile,
-                            timeLimit,
-                            memoryLimit,
-                            executionsCounter,
-                            entrypointFileGenerator);
-                });
-    
-        register(Language.C,
-                (sourceCode, inputFile, expectedOutputFile, timeLimit, memoryLimit) -> {
-                    Counter executionsCounter = meterRegistry.counter(Language.C.getExecutionCounter());
-                    return new CExecution(
-                            sourceCode,
-                            inputFile,
-                            expectedOutputFile,
-                            timeLimit,
-                            memoryLimit,
-                            executionsCounter,
-                            entrypointFileGenerator);
-                });
-    
-        register(Language.CPP,
-                (sourceCode, inputFile, expectedOutputFile, timeLimit, memoryLimit) -> {
-                    Counter executionsCounter = meterRegistry.counter(Language.CPP.getExecutionCounter());
-                    return new CPPExecution(
-                            sourceCode,
-                            inputFile,
-                            expectedOutputFile,
-                            timeLimit,
-                            memoryLimit,
-                            executionsCounter,
-                            entrypointFileGenerator);
-                });
-    
-        register(Language.GO,
-                (sourceCode, inputFile, expectedOutputFile, timeLimit, memoryLimit) -> {
-                    Counter executionsCounter = meterRegistry.counter(Language.GO.getExecutionCounter());
-                    return new GoExecution(
-                            sourceCode,
-                            inputFile,
-                            expectedOutputFile,
-                            timeLimit,
-                            memoryLimit,
-                            executionsCounter,
-                            entrypointFileGenerator);
-                });
-    
-        register(Language.CS,
-                (sourceCode, inputFile, expectedOutputFile, timeLimit, memoryLimit) -> {
-                    Counter executionsCounter = meterRegistry.counter(Language.CS.getExecutionCounter());
-                    return new CSExecution(
-                            sourceCode,
-                            inputFile,
-                            expectedOutputFile,
-                            timeLimit,
-                            memoryLimit,
-                            executionsCounter,
-                            entrypointFileGenerator);
-                });
-    
-        register(Language.KOTLIN,
-                (sourceCode, inputFile, expectedOutputFile, timeLimit, memoryLimit) -> {
-                    Counter executionsCounter = meterRegistry.counter(Language.KOTLIN.getExecutionCounter());
-                    return new KotlinExecution(
-                            sourceCode,
-                            inputFile,
-                            expectedOutputFile,
-                            timeLimit,
-                            memoryLimit,
-                            executionsCounter,
-                            entrypointFileGenerator);
-                });
-    
-        register(Language.SCALA,
-                (sourceCode, inputFile, expectedOutputFile, timeLimit, memoryLimit) -> {
-                    Counter executionsCounter = meterRegistry.counter(Language.SCALA.getExecutionCounter());
-                    return new ScalaExecution(
-                            sourceCode,
-                            inputFile,
-                            expectedOutputFile,
-                            timeLimit,
-                            memoryLimit,
-                            executionsCounter,
-                            entrypointFileGenerator);
-                });
-    
-        register(Language.RUST,
-                (sourceCode, inputFile, expectedOutputFile, timeLimit, memoryLimit) -> {
-                    Counter executionsCounter = meterRegistry.counter(Language.RUST.getExecutionCounter());
-                    return new RustExecution(
-                            sourceCode,
-                            inputFile,
-                            expectedOutputFile,
-                            timeLimit,
-                            memoryLimit,
-                            executionsCounter,
-                            entrypointFileGenerator);
-                });
+    /**
+     * Register the defined languages once the configuration is bound.
+     */
+    @PostConstruct
+    public void configure() {
+        for (Language language : Language.values()) {
+            LanguageDefinition definition = languages.get(language);
+            if (definition == null) {
+                log.warn("No definition found for {}, the language will not be available", language);
+                continue;
+            }
+            validate(language, definition);
+            ExecutionFactory.registerDefinition(language, definition);
+            register(language, EXECUTIONS.get(language));
+        }
+        log.info("{} languages have been registered", ExecutionFactory.getRegisteredFactories().size());
+    }
     
-        register(Language.RUBY,
-                (sourceCode, inputFile, expectedOutputFile, timeLimit, memoryLimit) -> {
-                    Counter executionsCounter = meterRegistry.counter(Language.RUBY.getExecutionCounter());
-                    return new RubyExecution(
-                            sourceCode,
-                            inputFile,
-                            expectedOutputFile,
-                            timeLimit,
-                            memoryLimit,
-                            executionsCounter,
-                            entrypointFileGenerator);
-                });
+    private void validate(Language language, LanguageDefinition definition) {
+        if (definition.getExecutionCommand() == null || definition.getExecutionCommand().isBlank()) {
+            throw new IllegalStateException("No execution command defined for the language " + language);
+        }
+        // Compiles the template, so an invalid one fails the startup instead of the executions
+        entrypointFileGenerator.createEntrypointFile(definition.getTemplate(), Map.of());
+    }
     
-        register(Language.HASKELL,
+    private void register(Language language, ExecutionConstructor executionConstructor) {
+        ExecutionFactory.register(language,
                 (sourceCode, inputFile, expectedOutputFile, timeLimit, memoryLimit) -> {
-                    Counter executionsCounter = meterRegistry.counter(Language.HASKELL.getExecutionCounter());
-                    return new HaskellExecution(
+                    Counter executionsCounter = meterRegistry.counter(language.getExecutionCounter());
+                    return executionConstructor.create(
                             sourceCode,
                             inputFile,
                             expectedOutputFile,
@@ -187,7 +116,30 @@ public class LanguagesConfig {
                 });
     }
     
-    private void register(Language language, AbstractExecutionFactory executionFactory) {
-        ExecutionFactory.register(language, executionFactory );
+    /**
+     * The constructor of the execution of a language.
+     */
+    @FunctionalInterface
+    private interface ExecutionConstructor {
+        
+        /**
+         * Create execution.
+         *
+         * @param sourceCode              the source code
+         * @param inputFile               the input file
+         * @param expectedOutputFile      the expected output file
+         * @param timeLimit               the time limit
+         * @param memoryLimit             the memory limit
+         * @param executionCounter        the execution counter
+         * @param entrypointFileGenerator the entrypoint file generator
+         * @return the execution
+         */
+        Execution create(MultipartFile sourceCode,
+                         MultipartFile inputFile,
+                         MultipartFile expectedOutputFile,
+                         int timeLimit,
+                         int memoryLimit,
+                         Counter executionCounter,
+                         EntrypointFileGenerator entrypointFileGenerator);
     }
 }
@@ -1,14 +1,50 @@
 package com.cp.compiler.config;
 
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
 public class RestConfig {
     
+    @Value("${compiler.features.push-notification.delivery.max-connections:100}")
+    private int maxConnections;
+    
+    @Value("${compiler.features.push-notification.delivery.max-connections-per-host:10}")
+    private int maxConnectionsPerHost;
+    
+    // in millis
+    @Value("${compiler.features.push-notification.delivery.timeout:10000}")
+    private int timeout;
+    
+    /**
+     * Rest template with pooled connections, connections to the same host are kept alive between responses.
+     *
+     * @return the rest template
+     */
     @Bean
     public RestTemplate getRestTemplate() {
-        return new RestTemplate();
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerHost);
+        
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(timeout)
+                .setConnectionRequestTimeout(timeout)
+                .setSocketTimeout(timeout)
+                .build();
+        
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .build();
+        
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
     }
 }
@@ -9,6 +9,7 @@ import com.cp.compiler.wellknownconstants.WellKnownParams;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import org.slf4j.MDC;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -41,7 +42,8 @@ public class CompilerController {
      * @param request    object
      * @param preferPush the prefer push
      * @param url        the url
-     * @return The verdict of the execution (Accepted, Wrong Answer, Time Limit Exceeded, Memory Limit Exceeded, Compilation Error, RunTime Error)
+     * @param tenant     the tenant
+     * @return The verdict of the execution (Accepted, Wrong Answer, Time Limit Exceeded, Memory Limit Exceeded, Compilation Error, RunTime Error, Output Limit Exceeded)
      * @throws IOException the io exception
      */
     @PostMapping("/compile/json")
@@ -52,7 +54,8 @@ public class CompilerController {
     )
     public ResponseEntity<Object> compile(@ApiParam(value = "request") @RequestBody Request request,
                                           @RequestHeader(value = WellKnownParams.PREFER_PUSH, required = false) String preferPush,
-                                          @RequestHeader(value = WellKnownParams.URL, required = false) String url)
+                                          @RequestHeader(value = WellKnownParams.URL, required = false) String url,
+                                          @RequestHeader(value = WellKnownParams.TENANT, required = false) String tenant)
             throws IOException {
         
         Execution execution = ExecutionFactory.createExecution(
@@ -63,6 +66,66 @@ public class CompilerController {
                 request.getMemoryLimit(),
                 request.getLanguage());
         
+        execution.setTenant(tenant);
+        
+        boolean isLongRunning = WellKnownHeaders.PREFER_PUSH.equals(preferPush);
+        
+        ResponseEntity<Object> response = null;
+        try(MDC.MDCCloseable mdc = MDC.putCloseable("compiler.language", execution.getLanguage().toString())) {
+            response = compiler.compile(execution, isLongRunning, url);
+            return response;
+        } finally {
+            // Accepted long running executions delete their payload files once they end
+            if (response == null || response.getStatusCode() != HttpStatus.ACCEPTED) {
+                execution.deletePayloadFiles();
+            }
+        }
+    }
+    
+    /**
+     * Take as a parameter a json object containing several test cases,
+     * the source code is compiled once and executed with the input of each test case
+     *
+     * @param batchRequest the batch request
+     * @param preferPush   the prefer push
+     * @param url          the url
+     * @param tenant       the tenant
+     * @return The verdict of the first test case that fails (or Accepted) and the result of each executed test case
+     * @throws IOException the io exception
+     */
+    @PostMapping("/compile/batch")
+    @ApiOperation(
+            value = "Batch",
+            notes = "You should provide the source code, the test cases (input not required and expected output), "
+                    + "time limit and memory limit",
+            response = Response.class
+    )
+    public ResponseEntity<Object> compileBatch(@ApiParam(value = "batch request") @RequestBody BatchRequest batchRequest,
+                                               @RequestHeader(value = WellKnownParams.PREFER_PUSH, required = false) String preferPush,
+                                               @RequestHeader(value = WellKnownParams.URL, required = false) String url,
+                                               @RequestHeader(value = WellKnownParams.TENANT, required = false) String tenant)
+            throws IOException {
+        
+        if (batchRequest.getTestCases() == null || batchRequest.getTestCases().isEmpty()) {
+            return ResponseEntity
+                    .badRequest()
+                    .body("Bad request, at least one test case must be provided");
+        }
+        
+        Execution execution = ExecutionFactory.createExecution(
+                batchRequest.getSourceCode(),
+                null,
+                null,
+                batchRequest.getTimeLimit(),
+                batchRequest.getMemoryLimit(),
+                batchRequest.getLanguage());
+        
+        execution.setTestCases(batchRequest.getExecutionTestCases());
+        execution.setFailFast(batchRequest.isFailFast());
+        execution.setParallel(batchRequest.isParallel());
+        
+        execution.setTenant(tenant);
+        
         boolean isLongRunning = WellKnownHeaders.PREFER_PUSH.equals(preferPush);
         
         try(MDC.MDCCloseable mdc = MDC.putCloseable("compiler.language", execution.getLanguage().toString())) {
@@ -81,7 +144,8 @@ public class CompilerController {
      * @param memoryLimit Memory limit of the execution, must be between 0 and 1000 MB
      * @param preferPush  the prefer push
      * @param url         the url
-     * @return The verdict of the execution (Accepted, Wrong Answer, Time Limit Exceeded, Memory Limit Exceeded, Compilation Error, RunTime Error)
+     * @param tenant      the tenant
+     * @return The verdict of the execution (Accepted, Wrong Answer, Time Limit Exceeded, Memory Limit Exceeded, Compilation Error, RunTime Error, Output Limit Exceeded)
      * @throws Exception the exception
      */
     @PostMapping("/compile")
@@ -111,11 +175,14 @@ public class CompilerController {
             @RequestParam(value = WellKnownParams.MEMORY_LIMIT) int memoryLimit,
 
             @RequestHeader(value = WellKnownParams.PREFER_PUSH, required = false) String preferPush,
-            @RequestHeader(value = WellKnownParams.URL, required = false) String url) {
+            @RequestHeader(value = WellKnownParams.URL, required = false) String url,
+            @RequestHeader(value = WellKnownParams.TENANT, required = false) String tenant) {
         
         Execution execution = ExecutionFactory.createExecution(
                 sourceCode, inputFile, outputFile, timeLimit, memoryLimit, language);
         
+        execution.setTenant(tenant);
+        
         boolean isLongRunning = WellKnownHeaders.PREFER_PUSH.equals(preferPush);
     
         try(MDC.MDCCloseable mdc = MDC.putCloseable("compiler.language", execution.getLanguage().toString())) {
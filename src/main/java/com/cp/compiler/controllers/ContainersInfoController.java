@@ -1,7 +1,9 @@
 package com.cp.compiler.controllers;
 
+import com.cp.compiler.models.ContainerStatsSample;
 import com.cp.compiler.models.Response;
 import com.cp.compiler.services.ContainerService;
+import com.cp.compiler.services.ContainerStatsSampler;
 import io.swagger.annotations.ApiOperation;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -9,6 +11,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  * Container Info Rest Controller
@@ -21,13 +24,17 @@ public class ContainersInfoController {
     
     private ContainerService containerService;
     
+    private ContainerStatsSampler containerStatsSampler;
+    
     /**
      * Instantiates a new Containers info controller.
      *
-     * @param containerService the container service
+     * @param containerService      the container service
+     * @param containerStatsSampler the container stats sampler
      */
-    public ContainersInfoController(ContainerService containerService) {
+    public ContainersInfoController(ContainerService containerService, ContainerStatsSampler containerStatsSampler) {
         this.containerService = containerService;
+        this.containerStatsSampler = containerStatsSampler;
     }
     
     /**
@@ -42,7 +49,7 @@ public class ContainersInfoController {
             response = Response.class
     )
     public ResponseEntity<String> getRunningContainers() {
-        return ResponseEntity.ok().body(containerService.getRunningContainers());
+        return ResponseEntity.ok().body(containerStatsSampler.getRunningContainers());
     }
     
     /**
@@ -57,22 +64,38 @@ public class ContainersInfoController {
             response = Response.class
     )
     public ResponseEntity<String> getImages() {
-        return ResponseEntity.ok().body(containerService.getImages());
+        return ResponseEntity.ok().body(containerStatsSampler.getImages());
     }
     
     /**
      * Gets running containers stats.
      *
-     * @return stats about running containers
+     * @return stats about running containers, from the latest sample
      */
     @GetMapping("/stats")
     @ApiOperation(
             value = "Container Stats Memory and CPU Usage",
-            notes = "Display Stats about running containers (Memory and CPU usage)",
-            response = Response.class
+            notes = "Display Stats about running containers (CPU, Memory, Network and Block IO usage) from the latest sample",
+            response = ContainerStatsSample.class
+    )
+    public ResponseEntity<ContainerStatsSample> getRunningContainersStats() {
+        return ResponseEntity.ok().body(containerStatsSampler.getLatestSample());
+    }
+    
+    /**
+     * Gets the history of running containers stats.
+     *
+     * @return the kept samples of stats about running containers
+     */
+    @GetMapping("/stats/history")
+    @ApiOperation(
+            value = "History of Container Stats",
+            notes = "Display the kept samples of Stats about running containers, from the oldest to the latest",
+            response = ContainerStatsSample.class,
+            responseContainer = "List"
     )
-    public ResponseEntity<String> getRunningContainersStats() {
-        return ResponseEntity.ok().body(containerService.getContainersStats());
+    public ResponseEntity<List<ContainerStatsSample>> getRunningContainersStatsHistory() {
+        return ResponseEntity.ok().body(containerStatsSampler.getSamples());
     }
     
     /**
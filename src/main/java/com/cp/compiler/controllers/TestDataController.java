@@ -0,0 +1,82 @@
+package com.cp.compiler.controllers;
+
+import com.cp.compiler.models.TestData;
+import com.cp.compiler.services.TestDataStore;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Test data Controller Class, test files are uploaded once and referenced by their hash in requests.
+ */
+@RestController
+@RequestMapping("/api")
+public class TestDataController {
+    
+    private static final String DISABLED_MESSAGE = "The test data store is disabled";
+    
+    private TestDataStore testDataStore;
+    
+    /**
+     * Instantiates a new Test data controller.
+     *
+     * @param testDataStore the test data store
+     */
+    public TestDataController(TestDataStore testDataStore) {
+        this.testDataStore = testDataStore;
+    }
+    
+    /**
+     * Store test data, the content is the body of the request.
+     *
+     * @param content the content
+     * @return the hash of the stored test data
+     * @throws IOException the io exception
+     */
+    @PostMapping(value = "/test-data", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @ApiOperation(
+            value = "Test data",
+            notes = "Store an input or an expected output, the returned hash can be used in json requests "
+                    + "(inputHash and expectedOutputHash) instead of sending the content again",
+            response = TestData.class
+    )
+    public ResponseEntity<Object> store(InputStream content) throws IOException {
+        if (!testDataStore.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(DISABLED_MESSAGE);
+        }
+        String hash = testDataStore.put(content);
+        if (hash == null) {
+            return ResponseEntity
+                    .status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body("The test data exceeds the max size of the test data store");
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(new TestData(hash));
+    }
+    
+    /**
+     * Check that test data is stored, evicted test data should be uploaded again.
+     *
+     * @param hash the hash
+     * @return the stored test data
+     */
+    @GetMapping("/test-data/{hash}")
+    @ApiOperation(
+            value = "Test data",
+            notes = "Check that test data is stored, test data can be evicted and should then be uploaded again",
+            response = TestData.class
+    )
+    public ResponseEntity<Object> get(@PathVariable String hash) {
+        if (!testDataStore.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(DISABLED_MESSAGE);
+        }
+        if (!testDataStore.contains(hash)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("The test data " + hash + " is not stored");
+        }
+        return ResponseEntity.ok(new TestData(hash));
+    }
+}
@@ -0,0 +1,16 @@
+package com.cp.compiler.exceptions;
+
+/**
+ * The type Container output limit exceeded exception.
+ */
+public class ContainerOutputLimitExceededException extends ProcessOutputLimitExceededException {
+    
+    /**
+     * Instantiates a new Container output limit exceeded exception.
+     *
+     * @param message the message
+     */
+    public ContainerOutputLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,25 @@
+package com.cp.compiler.exceptions;
+
+/**
+ * The type Process output limit exceeded exception.
+ */
+public class ProcessOutputLimitExceededException extends RuntimeException {
+    
+    /**
+     * Instantiates a new Process output limit exceeded exception.
+     *
+     * @param maxOutputSize the max output size in bytes
+     */
+    public ProcessOutputLimitExceededException(long maxOutputSize) {
+        super("The process output exceeded the maximum size allowed " + maxOutputSize + " bytes");
+    }
+    
+    /**
+     * Instantiates a new Process output limit exceeded exception.
+     *
+     * @param message the message
+     */
+    public ProcessOutputLimitExceededException(String message) {
+        super(message);
+    }
+}
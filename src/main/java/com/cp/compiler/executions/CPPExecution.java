@@ -1,19 +1,11 @@
 package com.cp.compiler.executions;
 
 import com.cp.compiler.models.Language;
-import com.cp.compiler.wellknownconstants.WellKnownFiles;
-import com.cp.compiler.wellknownconstants.WellKnownTemplates;
 import com.cp.compiler.templates.EntrypointFileGenerator;
-import com.cp.compiler.utils.StatusUtils;
 import io.micrometer.core.instrument.Counter;
 import lombok.Getter;
-import lombok.SneakyThrows;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.FileOutputStream;
-import java.io.OutputStream;
-import java.util.Map;
-
 /**
  * The type Cpp execution.
  */
@@ -40,34 +32,6 @@ public class CPPExecution extends Execution {
         super(sourceCode, inputFile, expectedOutputFile, timeLimit, memoryLimit, executionCounter, entryPointFileGenerator);
     }
     
-    @SneakyThrows
-    @Override
-    protected void createEntrypointFile() {
-        final var commandPrefix = "./exec";
-        final String executionCommand;
-        executionCommand = getInputFile() == null
-                ? commandPrefix + "\n"
-                : commandPrefix + " < " + getInputFile().getOriginalFilename() + "\n";
-    
-        Map<String, String> attributes = Map.of(
-                "rename", "false",
-                "compile", "true",
-                "fileName", Language.CPP.getSourceCodeFileName() ,
-                "defaultName", Language.CPP.getSourceCodeFileName() ,
-                "timeLimit", String.valueOf(getTimeLimit()),
-                "compilationCommand", Language.CPP.getCompilationCommand() + " " + Language.CPP.getSourceCodeFileName() + " -o exec",
-                "compilationErrorStatusCode", String.valueOf(StatusUtils.COMPILATION_ERROR_STATUS),
-                "memoryLimit", String.valueOf(getMemoryLimit()),
-                "executionCommand", executionCommand);
-    
-        String content = getEntrypointFileGenerator()
-                .createEntrypointFile(WellKnownTemplates.ENTRYPOINT_TEMPLATE, attributes);
-    
-        try(OutputStream os = new FileOutputStream(getPath() + "/" + WellKnownFiles.ENTRYPOINT_FILE_NAME)) {
-            os.write(content.getBytes(), 0, content.length());
-        }
-    }
-
     @Override
     public Language getLanguage() {
         return Language.CPP;
@@ -1,19 +1,11 @@
 package com.cp.compiler.executions;
 
 import com.cp.compiler.models.Language;
-import com.cp.compiler.wellknownconstants.WellKnownFiles;
-import com.cp.compiler.wellknownconstants.WellKnownTemplates;
 import com.cp.compiler.templates.EntrypointFileGenerator;
-import com.cp.compiler.utils.StatusUtils;
 import io.micrometer.core.instrument.Counter;
 import lombok.Getter;
-import lombok.SneakyThrows;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.FileOutputStream;
-import java.io.OutputStream;
-import java.util.Map;
-
 /**
  * The type C# execution.
  */
@@ -40,33 +32,6 @@ public class CSExecution extends Execution {
         super(sourceCode, inputFile, expectedOutputFile, timeLimit, memoryLimit, executionCounter, entryPointFileGenerator);
     }
     
-    @SneakyThrows
-    @Override
-    protected void createEntrypointFile() {
-        final var commandPrefix = "mono main.exe";
-        final String executionCommand = getInputFile() == null
-                ? commandPrefix + "\n"
-                : commandPrefix + " < " + getInputFile().getOriginalFilename() + "\n";
-    
-        Map<String, String> attributes = Map.of(
-                "rename", "false",
-                "compile", "true",
-                "defaultName", Language.CS.getSourceCodeFileName(),
-                "fileName", Language.CS.getSourceCodeFileName(),
-                "timeLimit", String.valueOf(getTimeLimit()),
-                "compilationCommand", Language.CS.getCompilationCommand() + " " + Language.CS.getSourceCodeFileName(),
-                "compilationErrorStatusCode", String.valueOf(StatusUtils.COMPILATION_ERROR_STATUS),
-                "memoryLimit", String.valueOf(getMemoryLimit()),
-                "executionCommand", executionCommand);
-    
-        String content = getEntrypointFileGenerator()
-                .createEntrypointFile(WellKnownTemplates.ENTRYPOINT_TEMPLATE, attributes);
-    
-        try(OutputStream os = new FileOutputStream(getPath() + "/" + WellKnownFiles.ENTRYPOINT_FILE_NAME)) {
-            os.write(content.getBytes(), 0, content.length());
-        }
-    }
-
     @Override
     public Language getLanguage() {
         return Language.CS;
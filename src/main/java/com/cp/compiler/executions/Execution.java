@@ -1,19 +1,28 @@
 package com.cp.compiler.executions;
 
 import com.cp.compiler.models.Language;
+import com.cp.compiler.models.LanguageDefinition;
 import com.cp.compiler.templates.EntrypointFileGenerator;
 import com.cp.compiler.utils.FileUtils;
+import com.cp.compiler.utils.StatusUtils;
+import com.cp.compiler.wellknownconstants.WellKnownFiles;
 import io.micrometer.core.instrument.Counter;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NonNull;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.FileSystemUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -26,14 +35,63 @@ public abstract class Execution {
     
     private static final String IMAGE_PREFIX_NAME = "image-";
     
-    private static final String EXECUTION_FOLDER_PREFIX_NAME = "execution-";
+    /**
+     * The constant EXECUTION_FOLDER_PREFIX_NAME.
+     */
+    public static final String EXECUTION_FOLDER_PREFIX_NAME = "execution-";
+    
+    private static final String RENAME_ATTRIBUTE = "rename";
+    
+    private static final String COMPILE_ATTRIBUTE = "compile";
+    
+    private static final String DEFAULT_NAME_ATTRIBUTE = "defaultName";
+    
+    private static final String FILE_NAME_ATTRIBUTE = "fileName";
+    
+    private static final String TIME_LIMIT_ATTRIBUTE = "timeLimit";
+    
+    private static final String MEMORY_LIMIT_ATTRIBUTE = "memoryLimit";
+    
+    private static final String COMPILATION_COMMAND_ATTRIBUTE = "compilationCommand";
+    
+    private static final String COMPILATION_ERROR_STATUS_CODE_ATTRIBUTE = "compilationErrorStatusCode";
+    
+    private static final String EXECUTION_COMMAND_ATTRIBUTE = "executionCommand";
+    
+    private static final String COMPILATION_CACHE_ATTRIBUTE = "compilationCache";
+    
+    private static final String TEST_CASES_ATTRIBUTE = "testCases";
+    
+    private static final String TEST_CASES_BOUNDARY_ATTRIBUTE = "testCasesBoundary";
+    
+    private static final String FAIL_FAST_ATTRIBUTE = "failFast";
+    
+    private static final String PARALLEL_ATTRIBUTE = "parallel";
+    
+    private static final String RESOURCE_USAGE_BOUNDARY_ATTRIBUTE = "resourceUsageBoundary";
+    
+    private static final String TEST_CASES_BOUNDARY_PREFIX = "test-case-";
+    
+    private static final String RESOURCE_USAGE_BOUNDARY_PREFIX = "resource-usage-";
+    
+    private static final String TEST_CASE_INPUT_FILE_PREFIX = "input-";
+    
+    /**
+     * The tenant of executions that do not provide one.
+     */
+    public static final String DEFAULT_TENANT = "default";
+    
+    private static final String TEST_CASE_INPUT_FILE_EXTENSION = ".txt";
     
     @NonNull
     private MultipartFile sourceCodeFile;
     
+    // Set when a reference to stored test data is resolved
+    @Setter
     private MultipartFile inputFile;
     
     @NonNull
+    @Setter
     private MultipartFile expectedOutputFile;
     
     @NonNull
@@ -58,6 +116,46 @@ public abstract class Execution {
     @Getter
     private final EntrypointFileGenerator entrypointFileGenerator;
     
+    /**
+     * If it's set to true, the entrypoint restores compiled artifacts when they are provided in the execution
+     * directory, otherwise it archives them after the compilation so they can be cached.
+     * It's ignored (and set back to false) for languages that are not compiled.
+     */
+    @Setter
+    private boolean compilationCacheEnabled;
+    
+    /**
+     * The sha256 of the compiled artifacts reported by the entrypoint before running the program,
+     * the archive is cached only if it still has this hash once the execution ends.
+     */
+    @Setter
+    private String compiledArtifactsHash;
+    
+    /**
+     * Test cases of a batch execution, the source code is compiled once and then executed with the input of each test case.
+     * Empty if the execution is not a batch execution.
+     */
+    @NonNull
+    @Setter
+    private List<ExecutionTestCase> testCases = List.of();
+    
+    /**
+     * Stop running test cases of a batch execution after the first one that fails.
+     */
+    @Setter
+    private boolean failFast;
+    
+    /**
+     * Run test cases of a batch execution in parallel.
+     */
+    @Setter
+    private boolean parallel;
+    
+    /**
+     * The tenant of the execution, executions waiting for resources are scheduled fairly between tenants.
+     */
+    private String tenant = DEFAULT_TENANT;
+    
     /**
      * Instantiates a new Execution.
      *
@@ -87,6 +185,16 @@ public abstract class Execution {
         this.path = getLanguage().getFolderName() + "/" + getExecutionFolderName(); // this should come after the id inits
     }
     
+    /**
+     * Place the execution directory under a staging directory (a tmpfs for example) instead of the language folder,
+     * it should be called before the execution directory is created.
+     *
+     * @param stagingDirectory the staging directory, containing the language folder with the Dockerfile
+     */
+    public void setStagingDirectory(String stagingDirectory) {
+        this.path = Path.of(stagingDirectory, getLanguage().getFolderName(), getExecutionFolderName()).toString();
+    }
+    
     /**
      * Create execution directory.
      *
@@ -100,6 +208,8 @@ public abstract class Execution {
         log.debug("Copying Dockerfile to execution directory");
         copyDockerFileToExecutionDirectory();
         createEntrypointFile();
+        // Runner containers receive the files as they are, without going through the Dockerfile chmod
+        Path.of(path, WellKnownFiles.ENTRYPOINT_FILE_NAME).toFile().setExecutable(true, false);
     }
     
     /**
@@ -111,6 +221,57 @@ public abstract class Execution {
         FileSystemUtils.deleteRecursively(Path.of(path));
     }
     
+    /**
+     * Delete the temporary local files of the payloads of the execution, once the execution ends.
+     * Payloads of large json requests are kept in temporary files instead of the heap.
+     */
+    public void deletePayloadFiles() {
+        deletePayloadFile(sourceCodeFile);
+        deletePayloadFile(inputFile);
+        deletePayloadFile(expectedOutputFile);
+        for (ExecutionTestCase testCase : testCases) {
+            deletePayloadFile(testCase.getInputFile());
+            deletePayloadFile(testCase.getExpectedOutputFile());
+        }
+    }
+    
+    /**
+     * Gets the names of the files of the execution directory that are hard links to files shared with other
+     * executions, the Dockerfile of the language and stored test data. They should not be modified by the execution.
+     *
+     * @return the shared file names
+     */
+    public List<String> getSharedFileNames() {
+        List<String> sharedFileNames = new ArrayList<>();
+        sharedFileNames.add(WellKnownFiles.DOCKERFILE_NAME);
+        if (isBatch()) {
+            for (int index = 1; index <= testCases.size(); index++) {
+                if (isStoredFile(testCases.get(index - 1).getInputFile())) {
+                    sharedFileNames.add(getTestCaseInputFileName(index));
+                }
+            }
+            return sharedFileNames;
+        }
+        if (isStoredFile(expectedOutputFile)) {
+            sharedFileNames.add(expectedOutputFile.getOriginalFilename());
+        }
+        if (isStoredFile(inputFile)) {
+            sharedFileNames.add(inputFile.getOriginalFilename());
+        }
+        return sharedFileNames;
+    }
+    
+    // Empty files are not written to the execution directory
+    private static boolean isStoredFile(MultipartFile file) {
+        return file instanceof PayloadFile && ((PayloadFile) file).getReference() != null && !file.isEmpty();
+    }
+    
+    private static void deletePayloadFile(MultipartFile file) {
+        if (file instanceof PayloadFile) {
+            ((PayloadFile) file).deleteTemporaryFile();
+        }
+    }
+    
     /**
      * Save uploaded files.
      *
@@ -118,12 +279,76 @@ public abstract class Execution {
      */
     protected void saveUploadedFiles() throws IOException {
         FileUtils.saveUploadedFiles(sourceCodeFile, path + "/" + getLanguage().getSourceCodeFileName());
+        if (isBatch()) {
+            saveTestCasesInputFiles();
+            return;
+        }
         FileUtils.saveUploadedFiles(expectedOutputFile, path + "/" + expectedOutputFile.getOriginalFilename());
         if (getInputFile() != null) {
             FileUtils.saveUploadedFiles(getInputFile(), path + "/" + inputFile.getOriginalFilename());
         }
     }
     
+    private void saveTestCasesInputFiles() throws IOException {
+        // Expected outputs are not needed in the container, outputs are compared once the execution ends
+        for (int index = 1; index <= testCases.size(); index++) {
+            MultipartFile testCaseInputFile = testCases.get(index - 1).getInputFile();
+            Path testCaseInputPath = Path.of(path, getTestCaseInputFileName(index));
+            if (testCaseInputFile == null) {
+                Files.createFile(testCaseInputPath);
+            } else {
+                FileUtils.saveUploadedFiles(testCaseInputFile, testCaseInputPath.toString());
+            }
+        }
+    }
+    
+    /**
+     * Is batch boolean.
+     *
+     * @return true if the execution runs several test cases
+     */
+    public boolean isBatch() {
+        return !testCases.isEmpty();
+    }
+    
+    /**
+     * Gets test cases boundary, the prefix of the boundary written by the entrypoint before the output of each test
+     * case, the entrypoint completes it with a random nonce that the programs can't read.
+     *
+     * @return the test cases boundary
+     */
+    public String getTestCasesBoundary() {
+        return TEST_CASES_BOUNDARY_PREFIX + id;
+    }
+    
+    /**
+     * Gets resource usage boundary, written by the entrypoint before the resource usage of the container.
+     *
+     * @return the resource usage boundary
+     */
+    public String getResourceUsageBoundary() {
+        return RESOURCE_USAGE_BOUNDARY_PREFIX + id;
+    }
+    
+    /**
+     * Sets tenant.
+     *
+     * @param tenant the tenant, the default tenant is used if it's null or blank
+     */
+    public void setTenant(String tenant) {
+        this.tenant = tenant == null || tenant.isBlank() ? DEFAULT_TENANT : tenant;
+    }
+    
+    /**
+     * Gets the name of the input file of a test case.
+     *
+     * @param index the index of the test case, starting from 1
+     * @return the input file name
+     */
+    public static String getTestCaseInputFileName(int index) {
+        return TEST_CASE_INPUT_FILE_PREFIX + index + TEST_CASE_INPUT_FILE_EXTENSION;
+    }
+    
     /**
      * Gets image name.
      *
@@ -144,17 +369,97 @@ public abstract class Execution {
     
     /**
      * Copy docker file to execution directory.
+     * The Dockerfile of the folder containing the execution directory is hard linked when possible, instead of being
+     * copied for each execution. It's copied with the base image of the language when one is configured.
      *
      * @throws IOException the io exception
      */
     protected void copyDockerFileToExecutionDirectory() throws IOException {
-        FileUtils.copyFile(getLanguage().getFolderName().concat("/Dockerfile"), path.concat("/Dockerfile"));
+        Path dockerfile = Path.of(path).resolveSibling(WellKnownFiles.DOCKERFILE_NAME);
+        String image = ExecutionFactory.getLanguageDefinition(getLanguage()).getImage();
+        if (image != null && !image.isBlank()) {
+            FileUtils.copyDockerfile(dockerfile.toString(), path + "/" + WellKnownFiles.DOCKERFILE_NAME, image);
+            return;
+        }
+        FileUtils.linkOrCopyFile(dockerfile.toString(), path + "/" + WellKnownFiles.DOCKERFILE_NAME);
+    }
+    
+    /**
+     * Render the template with the given attributes, and write the result in the entrypoint file.
+     * Attributes shared by all languages are added to the given ones.
+     *
+     * @param template   the template
+     * @param attributes the attributes of the language
+     * @throws IOException the io exception
+     */
+    protected void writeEntrypointFile(String template, Map<String, String> attributes) throws IOException {
+        Map<String, String> entrypointAttributes = new HashMap<>(attributes);
+        
+        compilationCacheEnabled = compilationCacheEnabled
+                && Boolean.parseBoolean(attributes.getOrDefault(COMPILE_ATTRIBUTE, Boolean.TRUE.toString()));
+        entrypointAttributes.put(COMPILATION_CACHE_ATTRIBUTE, String.valueOf(compilationCacheEnabled));
+        entrypointAttributes.put(RESOURCE_USAGE_BOUNDARY_ATTRIBUTE, getResourceUsageBoundary());
+        
+        if (isBatch()) {
+            entrypointAttributes.put(TEST_CASES_ATTRIBUTE, String.valueOf(testCases.size()));
+            entrypointAttributes.put(TEST_CASES_BOUNDARY_ATTRIBUTE, getTestCasesBoundary());
+            entrypointAttributes.put(FAIL_FAST_ATTRIBUTE, String.valueOf(failFast));
+            entrypointAttributes.put(PARALLEL_ATTRIBUTE, String.valueOf(parallel));
+        }
+        
+        String content = entrypointFileGenerator.createEntrypointFile(template, entrypointAttributes);
+        
+        Files.writeString(Path.of(path, WellKnownFiles.ENTRYPOINT_FILE_NAME), content, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Gets the execution command of the entrypoint, redirecting the input file to the given command.
+     * The input file of a batch execution is chosen by the entrypoint for each test case.
+     *
+     * @param commandPrefix the command that runs the program
+     * @return the execution command
+     */
+    protected String getExecutionCommand(String commandPrefix) {
+        if (isBatch()) {
+            return commandPrefix + " < \"$inputFile\"\n";
+        }
+        return getInputFile() == null
+                ? commandPrefix + "\n"
+                : commandPrefix + " < " + getInputFile().getOriginalFilename() + "\n";
     }
     
     /**
-     * Creates entrypoint file
+     * Creates entrypoint file from the definition of the language.
+     *
+     * @throws IOException the io exception
      */
-    protected abstract void createEntrypointFile();
+    protected void createEntrypointFile() throws IOException {
+        LanguageDefinition definition = ExecutionFactory.getLanguageDefinition(getLanguage());
+        String defaultName = getLanguage().getSourceCodeFileName();
+        // Some languages (Java, Kotlin, Scala) need the name of the file to be the same as the name of the class,
+        // so the name of the file is kept as it's sent by the user.
+        String fileName = definition.isKeepFileName() && sourceCodeFile.getOriginalFilename() != null
+                ? sourceCodeFile.getOriginalFilename()
+                : defaultName;
+        String compilationCommand = definition.isCompiled()
+                ? LanguageDefinition.resolveCommand(definition.getCompilationCommand(), fileName)
+                : "";
+        String executionCommand =
+                getExecutionCommand(LanguageDefinition.resolveCommand(definition.getExecutionCommand(), fileName));
+        
+        Map<String, String> attributes = Map.of(
+                RENAME_ATTRIBUTE, String.valueOf(!fileName.equals(defaultName)),
+                COMPILE_ATTRIBUTE, String.valueOf(definition.isCompiled()),
+                DEFAULT_NAME_ATTRIBUTE, defaultName,
+                FILE_NAME_ATTRIBUTE, fileName,
+                TIME_LIMIT_ATTRIBUTE, String.valueOf(timeLimit),
+                COMPILATION_COMMAND_ATTRIBUTE, compilationCommand,
+                COMPILATION_ERROR_STATUS_CODE_ATTRIBUTE, String.valueOf(StatusUtils.COMPILATION_ERROR_STATUS),
+                MEMORY_LIMIT_ATTRIBUTE, String.valueOf(memoryLimit),
+                EXECUTION_COMMAND_ATTRIBUTE, executionCommand);
+        
+        writeEntrypointFile(definition.getTemplate(), attributes);
+    }
 
     /**
      * Get the language represented by the class
@@ -2,6 +2,7 @@ package com.cp.compiler.executions;
 
 import com.cp.compiler.exceptions.FactoryNotFoundException;
 import com.cp.compiler.models.Language;
+import com.cp.compiler.models.LanguageDefinition;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.EnumMap;
@@ -17,6 +18,9 @@ public abstract class ExecutionFactory {
     private static Map<Language, AbstractExecutionFactory> registeredFactories
             = new EnumMap<>(Language.class);
     
+    private static Map<Language, LanguageDefinition> languageDefinitions
+            = new EnumMap<>(Language.class);
+    
     private ExecutionFactory() {}
     
     /**
@@ -29,6 +33,30 @@ public abstract class ExecutionFactory {
         registeredFactories.putIfAbsent(language, factory);
     }
     
+    /**
+     * Register the definition of a language, it replaces the previous one so the latest configuration is used.
+     *
+     * @param language   the language
+     * @param definition the definition
+     */
+    public static void registerDefinition(Language language, LanguageDefinition definition) {
+        languageDefinitions.put(language, definition);
+    }
+    
+    /**
+     * Gets the definition of a language.
+     *
+     * @param language the language
+     * @return the definition
+     */
+    public static LanguageDefinition getLanguageDefinition(Language language) {
+        LanguageDefinition definition = languageDefinitions.get(language);
+        if (definition == null) {
+            throw new FactoryNotFoundException("No definition registered for the language " + language);
+        }
+        return definition;
+    }
+    
     /**
      * Gets registered factories.
      *
@@ -47,8 +75,8 @@ public abstract class ExecutionFactory {
      * @param sourceCode         the source code
      * @param inputFile          the input file
      * @param expectedOutputFile the expected output file
-     * @param timeLimit          the time limit
-     * @param memoryLimit        the memory limit
+     * @param timeLimit          the time limit, the default one of the language is used if it's not set
+     * @param memoryLimit        the memory limit, the default one of the language is used if it's not set
      * @param language           the language
      * @return the execution
      */
@@ -63,6 +91,13 @@ public abstract class ExecutionFactory {
             throw new FactoryNotFoundException("No ExecutionFactory registered for the language " + language);
         }
         
+        // Only limits that are not set are replaced, negative ones are kept so they are rejected by the validation
+        LanguageDefinition definition = languageDefinitions.get(language);
+        if (definition != null) {
+            timeLimit = timeLimit == 0 ? definition.getTimeLimit() : timeLimit;
+            memoryLimit = memoryLimit == 0 ? definition.getMemoryLimit() : memoryLimit;
+        }
+        
         return factory.createExecution(
                 sourceCode,
                 inputFile,
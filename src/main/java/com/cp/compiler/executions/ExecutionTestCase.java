@@ -0,0 +1,23 @@
+package com.cp.compiler.executions;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * The type Execution test case.
+ * A test case of a batch execution, all test cases share the compiled source code of the execution.
+ */
+@Getter
+@AllArgsConstructor
+public class ExecutionTestCase {
+    
+    /**
+     * The input file, can be null
+     */
+    private final MultipartFile inputFile;
+    
+    @NonNull
+    private final MultipartFile expectedOutputFile;
+}
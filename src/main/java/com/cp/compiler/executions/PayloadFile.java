@@ -0,0 +1,268 @@
+package com.cp.compiler.executions;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * The type Payload file.
+ * A file of an execution received in a json request (Rest, Kafka or RabbitMq), its content is kept either in memory
+ * or in a local file, and it's written to the execution directory without intermediate copies.
+ * It can also reference stored test data by its hash, the reference is resolved before the execution.
+ */
+@Slf4j
+public final class PayloadFile implements MultipartFile {
+
+    private final String name;
+
+    // The content of the file, null if the file is backed by a local path
+    private final byte[] content;
+
+    // The local path of the file, null if the content is kept in memory
+    private final Path path;
+
+    // The local file is owned by the payload and deleted once the execution ends
+    private final boolean temporary;
+
+    // The hash of the referenced test data, null if the payload was sent in the request
+    private final String reference;
+
+    private PayloadFile(String name, byte[] content, Path path, boolean temporary, String reference) {
+        this.name = name;
+        this.content = content;
+        this.path = path;
+        this.temporary = temporary;
+        this.reference = reference;
+    }
+
+    /**
+     * Creates a payload file kept in memory.
+     *
+     * @param name    the file name
+     * @param content the content of the file, encoded in UTF-8
+     * @return the payload file
+     */
+    public static PayloadFile of(@NonNull String name, @NonNull String content) {
+        return new PayloadFile(name, content.getBytes(StandardCharsets.UTF_8), null, false, null);
+    }
+
+    /**
+     * Creates a payload file kept in memory, the given array is not copied and should not be modified afterwards.
+     *
+     * @param name    the file name
+     * @param content the content of the file
+     * @return the payload file
+     */
+    public static PayloadFile of(@NonNull String name, @NonNull byte[] content) {
+        return new PayloadFile(name, content, null, false, null);
+    }
+
+    /**
+     * Creates a payload file backed by a local file, the content is read only when the file is written or read.
+     *
+     * @param name the file name
+     * @param path the path of the local file
+     * @return the payload file
+     */
+    public static PayloadFile of(@NonNull String name, @NonNull Path path) {
+        return new PayloadFile(name, null, path, false, null);
+    }
+
+    /**
+     * Creates a payload file backed by a temporary local file, the local file is linked to the execution directory
+     * instead of being copied, and it's deleted with {@link #deleteTemporaryFile()}.
+     *
+     * @param name the file name
+     * @param path the path of the temporary file
+     * @return the payload file
+     */
+    public static PayloadFile ofTemporaryFile(@NonNull String name, @NonNull Path path) {
+        return new PayloadFile(name, null, path, true, null);
+    }
+
+    /**
+     * Creates a payload referencing stored test data, it has no content until it's resolved.
+     *
+     * @param name the file name
+     * @param hash the hash of the test data
+     * @return the payload file
+     */
+    public static PayloadFile ofReference(@NonNull String name, @NonNull String hash) {
+        return new PayloadFile(name, null, null, false, hash);
+    }
+
+    /**
+     * Creates a resolved payload of stored test data, backed by a temporary link to the stored file.
+     *
+     * @param name the file name
+     * @param path the path of the temporary link
+     * @param hash the hash of the test data
+     * @return the payload file
+     */
+    public static PayloadFile ofStoredFile(@NonNull String name, @NonNull Path path, @NonNull String hash) {
+        return new PayloadFile(name, null, path, true, hash);
+    }
+
+    /**
+     * Gets the same payload with another file name, the content is shared.
+     *
+     * @param name the file name
+     * @return the payload file
+     */
+    public PayloadFile withName(@NonNull String name) {
+        return new PayloadFile(name, content, path, temporary, reference);
+    }
+
+    /**
+     * Is temporary boolean.
+     *
+     * @return true if the payload is backed by a temporary local file
+     */
+    public boolean isTemporary() {
+        return temporary;
+    }
+
+    /**
+     * Delete the local file of the payload if it's temporary.
+     */
+    public void deleteTemporaryFile() {
+        if (!temporary) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Error while trying to delete the payload file {}, {}", path, e);
+        }
+    }
+
+    /**
+     * Gets reference.
+     *
+     * @return the hash of the referenced test data, null if the payload was sent in the request
+     */
+    public String getReference() {
+        return reference;
+    }
+
+    /**
+     * Is unresolved reference boolean.
+     *
+     * @return true if the payload references test data that has not been resolved yet
+     */
+    public boolean isUnresolvedReference() {
+        return content == null && path == null;
+    }
+
+    /**
+     * Is in memory boolean.
+     *
+     * @return true if the content is kept in memory, false if it's backed by a local file
+     */
+    public boolean isInMemory() {
+        return content != null;
+    }
+
+    /**
+     * Write the content of the file to the given destination, replacing it if it already exists.
+     *
+     * @param destination the destination
+     * @throws IOException the io exception
+     */
+    public void writeTo(Path destination) throws IOException {
+        checkResolved();
+        if (isInMemory()) {
+            Files.write(destination, content);
+            return;
+        }
+        if (temporary) {
+            try {
+                Files.deleteIfExists(destination);
+                Files.createLink(destination, path);
+                return;
+            } catch (IOException | UnsupportedOperationException e) {
+                // Not on the same file system, or hard links are not supported
+                log.debug("Can't link the payload file {}, it will be copied: {}", path, e.getMessage());
+            }
+        }
+        Files.copy(path, destination, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        return name;
+    }
+
+    @Override
+    public String getContentType() {
+        return null;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getSize() == 0;
+    }
+
+    @Override
+    public long getSize() {
+        if (isUnresolvedReference()) {
+            return 0;
+        }
+        if (isInMemory()) {
+            return content.length;
+        }
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Gets the content of the file, the in memory content is returned as it is and should not be modified.
+     *
+     * @return the content of the file
+     * @throws IOException the io exception
+     */
+    @Override
+    public byte[] getBytes() throws IOException {
+        checkResolved();
+        return isInMemory() ? content : Files.readAllBytes(path);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        checkResolved();
+        return isInMemory() ? new ByteArrayInputStream(content) : Files.newInputStream(path);
+    }
+
+    @Override
+    public void transferTo(File destination) throws IOException {
+        writeTo(destination.toPath());
+    }
+
+    @Override
+    public void transferTo(Path destination) throws IOException {
+        writeTo(destination);
+    }
+
+    private void checkResolved() {
+        if (isUnresolvedReference()) {
+            throw new IllegalStateException("The test data " + reference + " has not been resolved");
+        }
+    }
+}
@@ -1,38 +1,216 @@
 package com.cp.compiler.healthchecks;
 
+import com.cp.compiler.models.Language;
+import com.cp.compiler.services.ContainerPool;
 import com.cp.compiler.services.ContainerService;
+import com.cp.compiler.services.Resources;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 /**
  * The type Container health indicator.
+ * The container engine is checked on a schedule and probes are served from the last check, so they never wait for
+ * the engine. The readiness of the application is refused while the engine is down or the node is saturated.
  */
+@Slf4j
 @Component
 public class ContainerHealthIndicator implements HealthIndicator {
     
-    private ContainerService containerService;
+    private final ContainerService containerService;
+    
+    private final ContainerPool containerPool;
+    
+    private final Resources resources;
+    
+    private final ApplicationAvailability applicationAvailability;
+    
+    private final ApplicationEventPublisher eventPublisher;
+    
+    // Two threads, so the staleness is still checked while a check is stuck on the container engine
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "container-health-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private volatile Health health;
+    
+    // Time of the last check in millis
+    private volatile long lastCheck;
+    
+    @Value("${compiler.health.interval:5000}")
+    private long interval; // in millis
+    
+    @Value("${compiler.health.staleness:30000}")
+    private long staleness; // in millis, 0 means the last check never becomes stale
+    
+    @Value("${compiler.health.readiness.saturation:0.9}")
+    private double saturationThreshold; // 0 means the readiness does not depend on the saturation
     
     /**
      * Instantiates a new Container health indicator.
      *
-     * @param containerService the container service
+     * @param containerService        the container service
+     * @param containerPool           the container pool
+     * @param resources               the resources
+     * @param applicationAvailability the application availability
+     * @param eventPublisher          the event publisher
      */
-    public ContainerHealthIndicator(ContainerService containerService) {
+    public ContainerHealthIndicator(ContainerService containerService,
+                                    ContainerPool containerPool,
+                                    Resources resources,
+                                    ApplicationAvailability applicationAvailability,
+                                    ApplicationEventPublisher eventPublisher) {
         super();
         this.containerService = containerService;
+        this.containerPool = containerPool;
+        this.resources = resources;
+        this.applicationAvailability = applicationAvailability;
+        this.eventPublisher = eventPublisher;
+    }
+    
+    /**
+     * Start checking the container engine once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        log.info("Checking the container engine health every {} ms", interval);
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, interval, TimeUnit.MILLISECONDS);
+        if (staleness > 0) {
+            scheduler.scheduleWithFixedDelay(this::checkStaleness, staleness, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    /**
+     * Stop checking the container engine.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+    
+    /**
+     * Check the container engine and the resources of the node, and update the readiness of the application.
+     */
+    public void refresh() {
+        try {
+            String containerization = containerService.getContainerizationName();
+            long start = System.nanoTime();
+            boolean up = containerService.isUp();
+            long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            
+            double saturation = getSaturation();
+            boolean saturated = saturationThreshold > 0 && saturation >= saturationThreshold;
+            
+            Health.Builder builder = up ? Health.up() : Health.down().withDetail("State", "Container Down");
+            health = builder
+                    .withDetail("Containerization", containerization)
+                    .withDetail("Latency", latency)
+                    .withDetail("Pool", getIdleContainers())
+                    .withDetail("Resources", getResourcesDetails(saturation))
+                    .build();
+            lastCheck = System.currentTimeMillis();
+            
+            updateReadiness(up && !saturated);
+        } catch (Exception e) {
+            log.warn("Error while checking the container engine health: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Refuse traffic if the last check is stale, the check that would update the readiness is stuck.
+     */
+    public void checkStaleness() {
+        long age = System.currentTimeMillis() - lastCheck;
+        if (health != null && staleness > 0 && age > staleness) {
+            log.warn("The last container engine health check is {} ms old", age);
+            updateReadiness(false);
+        }
     }
     
     @Override
     public Health health() {
-        if (containerService.isUp()) {
-            return Health.up()
-                    .withDetail("Containerization", containerService.getContainerizationName())
+        Health lastHealth = health;
+        if (lastHealth == null) {
+            return Health.unknown().withDetail("State", "Not Checked Yet").build();
+        }
+        long age = System.currentTimeMillis() - lastCheck;
+        if (staleness > 0 && age > staleness) {
+            // The check is stuck, most likely on an unresponsive container engine
+            return Health.down()
+                    .withDetails(lastHealth.getDetails())
+                    .withDetail("State", "Stale")
+                    .withDetail("LastCheckAge", age)
                     .build();
         }
-        return Health.down()
-                .withDetail("Containerization", containerService.getContainerizationName())
-                .withDetail("State", "Container Down")
+        return Health.status(lastHealth.getStatus())
+                .withDetails(lastHealth.getDetails())
+                .withDetail("LastCheckAge", age)
                 .build();
     }
+    
+    /**
+     * Gets saturation.
+     *
+     * @return the highest ratio of reserved cpus, reserved memory and executions to their capacity
+     */
+    public double getSaturation() {
+        double cpusSaturation = ratio(resources.getReservedCpus(), resources.getCpusCapacity());
+        double memorySaturation = ratio(resources.getReservedMemory(), resources.getMemoryCapacity());
+        double executionsSaturation = ratio(resources.getNumberOfExecutions(), resources.getMaxRequests());
+        return Math.max(cpusSaturation, Math.max(memorySaturation, executionsSaturation));
+    }
+    
+    private static double ratio(double value, double capacity) {
+        return capacity > 0 ? value / capacity : 0;
+    }
+    
+    private Map<String, Integer> getIdleContainers() {
+        Map<String, Integer> idleContainers = new LinkedHashMap<>();
+        if (containerPool.isEnabled()) {
+            for (Language language : Language.values()) {
+                if (containerPool.isPooled(language)) {
+                    idleContainers.put(language.name(), containerPool.getIdleContainers(language));
+                }
+            }
+        }
+        return idleContainers;
+    }
+    
+    private Map<String, Object> getResourcesDetails(double saturation) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("ReservedCpus", resources.getReservedCpus());
+        details.put("CpusCapacity", resources.getCpusCapacity());
+        details.put("ReservedMemory", resources.getReservedMemory());
+        details.put("MemoryCapacity", resources.getMemoryCapacity());
+        details.put("Executions", resources.getNumberOfExecutions());
+        details.put("MaxRequests", resources.getMaxRequests());
+        details.put("Saturation", saturation);
+        return details;
+    }
+    
+    private void updateReadiness(boolean ready) {
+        ReadinessState readinessState = ready ? ReadinessState.ACCEPTING_TRAFFIC : ReadinessState.REFUSING_TRAFFIC;
+        // Compared with the current state, it's also published by the application when it becomes ready
+        if (applicationAvailability.getReadinessState() != readinessState) {
+            log.info("Readiness changed to {}", readinessState);
+            AvailabilityChangeEvent.publish(eventPublisher, this, readinessState);
+        }
+    }
 }
@@ -66,6 +66,7 @@ public abstract class JsonMapper {
                                                                 request.getTimeLimit(),
                                                                 request.getMemoryLimit(),
                                                                 request.getLanguage());
+        execution.setTenant(request.getTenant());
     
         try(MDC.MDCCloseable mdc = MDC.putCloseable("compiler.language", execution.getLanguage().toString())) {
             
@@ -0,0 +1,62 @@
+package com.cp.compiler.mappers;
+
+import com.cp.compiler.models.Request;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The type Streaming request converter.
+ * Reads json requests with the streaming request reader, it's only used to read requests,
+ * responses are still written by the jackson converter.
+ */
+public class StreamingRequestConverter extends AbstractHttpMessageConverter<Request> {
+    
+    private final StreamingRequestReader streamingRequestReader;
+    
+    /**
+     * Instantiates a new Streaming request converter.
+     *
+     * @param streamingRequestReader the streaming request reader
+     */
+    public StreamingRequestConverter(StreamingRequestReader streamingRequestReader) {
+        super(StandardCharsets.UTF_8, MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.streamingRequestReader = streamingRequestReader;
+    }
+    
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Request.class.equals(clazz);
+    }
+    
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+    
+    @Override
+    protected Request readInternal(Class<? extends Request> clazz, HttpInputMessage inputMessage)
+            throws IOException {
+        MediaType contentType = inputMessage.getHeaders().getContentType();
+        Charset charset = contentType != null && contentType.getCharset() != null
+                ? contentType.getCharset()
+                : getDefaultCharset();
+        try {
+            return streamingRequestReader.read(inputMessage.getBody(), charset);
+        } catch (StreamingRequestReader.JsonRequestException e) {
+            throw new HttpMessageNotReadableException("Invalid json request: " + e.getMessage(), e, inputMessage);
+        }
+    }
+    
+    @Override
+    protected void writeInternal(Request request, HttpOutputMessage outputMessage) {
+        throw new HttpMessageNotWritableException("Requests are not written by the streaming request converter");
+    }
+}
@@ -0,0 +1,407 @@
+package com.cp.compiler.mappers;
+
+import com.cp.compiler.executions.PayloadFile;
+import com.cp.compiler.models.Language;
+import com.cp.compiler.models.StreamedRequest;
+import com.cp.compiler.wellknownconstants.WellKnownFiles;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The type Streaming request reader.
+ * Reads a json request without materializing it, the source code, the input and the expected output are written
+ * in memory up to a threshold, above it they are spilled to temporary local files as they are read.
+ * The heap used by a request is then bounded by the threshold whatever the size of its test.
+ */
+public class StreamingRequestReader {
+    
+    // Field names, the language, the tenant and numbers are small values
+    private static final int MAX_VALUE_LENGTH = 1024;
+    
+    private static final int MAX_DEPTH = 64;
+    
+    private static final int BUFFER_SIZE = 8192;
+    
+    private static final String PAYLOAD_FILE_PREFIX = "payload-";
+    
+    private final long maxInMemorySize;
+    
+    private final Path spillDirectory;
+    
+    /**
+     * Instantiates a new Streaming request reader.
+     *
+     * @param maxInMemorySize the max size in bytes of a field kept in memory
+     * @param spillDirectory  the directory of temporary files
+     */
+    public StreamingRequestReader(long maxInMemorySize, Path spillDirectory) {
+        this.maxInMemorySize = maxInMemorySize;
+        this.spillDirectory = spillDirectory;
+    }
+    
+    /**
+     * Read a json request.
+     *
+     * @param inputStream the input stream of the json request
+     * @param charset     the charset of the json request
+     * @return the streamed request
+     * @throws IOException the io exception, a {@link JsonRequestException} if the request is not valid
+     */
+    public StreamedRequest read(InputStream inputStream, Charset charset) throws IOException {
+        StreamedRequest request = new StreamedRequest();
+        try {
+            new Parser(new BufferedReader(new InputStreamReader(inputStream, charset), BUFFER_SIZE), request).parse();
+        } catch (IOException | RuntimeException e) {
+            request.deletePayloadFiles();
+            throw e;
+        }
+        if (request.getLanguage() == null) {
+            request.deletePayloadFiles();
+            throw new JsonRequestException("The language is required");
+        }
+        return request;
+    }
+    
+    /**
+     * The type Json request exception, thrown if the json request is not valid.
+     */
+    public static class JsonRequestException extends IOException {
+        
+        /**
+         * Instantiates a new Json request exception.
+         *
+         * @param message the message
+         */
+        public JsonRequestException(String message) {
+            super(message);
+        }
+    }
+    
+    // A minimal pull parser, values of unknown fields are skipped
+    private class Parser {
+        
+        private final Reader reader;
+        
+        private final StreamedRequest request;
+        
+        private int current;
+        
+        private boolean hasSourceCode;
+        
+        private boolean hasExpectedOutput;
+        
+        private Parser(Reader reader, StreamedRequest request) throws IOException {
+            this.reader = reader;
+            this.request = request;
+            this.current = reader.read();
+        }
+        
+        private void parse() throws IOException {
+            skipWhitespaces();
+            consume('{');
+            skipWhitespaces();
+            if (current == '}') {
+                consume('}');
+            } else {
+                do {
+                    skipWhitespaces();
+                    String name = readSmallString();
+                    skipWhitespaces();
+                    consume(':');
+                    skipWhitespaces();
+                    readField(name);
+                    skipWhitespaces();
+                } while (tryConsume(','));
+                consume('}');
+            }
+            if (!hasSourceCode || !hasExpectedOutput) {
+                throw new JsonRequestException("The source code and the expected output (or its hash) are required");
+            }
+        }
+        
+        private void readField(String name) throws IOException {
+            switch (name) {
+                case "sourceCode":
+                    // Renamed once the language is known
+                    PayloadFile sourceCodeFile = readPayload(name);
+                    if (sourceCodeFile != null) {
+                        request.setSourceCodeFile(sourceCodeFile);
+                        hasSourceCode = true;
+                    }
+                    break;
+                case "input":
+                    PayloadFile inputFile = readPayload(WellKnownFiles.INPUT_FILE_NAME);
+                    // A null input does not override a reference
+                    if (inputFile != null) {
+                        request.setInputFile(inputFile);
+                    }
+                    break;
+                case "expectedOutput":
+                    PayloadFile expectedOutputFile = readPayload(WellKnownFiles.EXPECTED_OUTPUT_FILE_NAME);
+                    if (expectedOutputFile != null) {
+                        request.setExpectedOutputFile(expectedOutputFile);
+                        hasExpectedOutput = true;
+                    }
+                    break;
+                case "inputHash":
+                    String inputHash = current == '"' ? readSmallString() : readNull();
+                    if (inputHash != null) {
+                        request.setInputFile(PayloadFile.ofReference(WellKnownFiles.INPUT_FILE_NAME, inputHash));
+                    }
+                    break;
+                case "expectedOutputHash":
+                    String expectedOutputHash = current == '"' ? readSmallString() : readNull();
+                    if (expectedOutputHash != null) {
+                        request.setExpectedOutputFile(
+                                PayloadFile.ofReference(WellKnownFiles.EXPECTED_OUTPUT_FILE_NAME, expectedOutputHash));
+                        hasExpectedOutput = true;
+                    }
+                    break;
+                case "language":
+                    String language = readSmallString();
+                    try {
+                        request.setLanguage(Language.valueOf(language));
+                    } catch (IllegalArgumentException e) {
+                        throw new JsonRequestException("Unknown language " + language);
+                    }
+                    break;
+                case "timeLimit":
+                    request.setTimeLimit(readInt(name));
+                    break;
+                case "memoryLimit":
+                    request.setMemoryLimit(readInt(name));
+                    break;
+                case "tenant":
+                    request.setTenant(current == '"' ? readSmallString() : readNull());
+                    break;
+                default:
+                    skipValue(0);
+            }
+        }
+        
+        private PayloadFile readPayload(String name) throws IOException {
+            if (current != '"') {
+                readNull();
+                return null;
+            }
+            SpillingOutputStream outputStream = new SpillingOutputStream();
+            // Payloads are saved in UTF-8, as the json requests mapped in memory
+            try (Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                readString(writer, Long.MAX_VALUE);
+            } catch (IOException | RuntimeException e) {
+                outputStream.deleteSpilledFile();
+                throw e;
+            }
+            return outputStream.toPayloadFile(name);
+        }
+        
+        private int readInt(String name) throws IOException {
+            String value = current == '"' ? readSmallString() : readLiteral();
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new JsonRequestException("The field " + name + " should be an integer, found " + value);
+            }
+        }
+        
+        private String readNull() throws IOException {
+            String literal = readLiteral();
+            if (!"null".equals(literal)) {
+                throw new JsonRequestException("Unexpected value " + literal);
+            }
+            return null;
+        }
+        
+        private String readSmallString() throws IOException {
+            StringWriter writer = new StringWriter();
+            readString(writer, MAX_VALUE_LENGTH);
+            return writer.toString();
+        }
+        
+        private void readString(Writer writer, long maxLength) throws IOException {
+            consume('"');
+            long length = 0;
+            while (current != '"') {
+                if (current == -1) {
+                    throw new JsonRequestException("Unexpected end of the json request in a string");
+                }
+                if (++length > maxLength) {
+                    throw new JsonRequestException("The value exceeds the max length of " + maxLength);
+                }
+                if (current == '\\') {
+                    current = reader.read();
+                    writer.write(readEscapedCharacter());
+                } else {
+                    writer.write(current);
+                }
+                current = reader.read();
+            }
+            consume('"');
+        }
+        
+        private char readEscapedCharacter() throws IOException {
+            switch (current) {
+                case '"':
+                case '\\':
+                case '/':
+                    return (char) current;
+                case 'b':
+                    return '\b';
+                case 'f':
+                    return '\f';
+                case 'n':
+                    return '\n';
+                case 'r':
+                    return '\r';
+                case 't':
+                    return '\t';
+                case 'u':
+                    int codeUnit = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = Character.digit(reader.read(), 16);
+                        if (digit < 0) {
+                            throw new JsonRequestException("Invalid unicode escape sequence");
+                        }
+                        codeUnit = codeUnit * 16 + digit;
+                    }
+                    return (char) codeUnit;
+                default:
+                    throw new JsonRequestException("Invalid escape sequence");
+            }
+        }
+        
+        // Numbers, true, false and null
+        private String readLiteral() throws IOException {
+            StringBuilder literal = new StringBuilder();
+            while (current != -1 && current != ',' && current != '}' && current != ']'
+                    && !Character.isWhitespace(current)) {
+                if (literal.length() == MAX_VALUE_LENGTH) {
+                    throw new JsonRequestException("The value exceeds the max length of " + MAX_VALUE_LENGTH);
+                }
+                literal.append((char) current);
+                current = reader.read();
+            }
+            if (literal.length() == 0) {
+                throw new JsonRequestException("Missing value");
+            }
+            return literal.toString();
+        }
+        
+        private void skipValue(int depth) throws IOException {
+            if (depth > MAX_DEPTH) {
+                throw new JsonRequestException("The json request exceeds the max depth of " + MAX_DEPTH);
+            }
+            if (current == '"') {
+                readString(Writer.nullWriter(), Long.MAX_VALUE);
+            } else if (current == '{' || current == '[') {
+                char end = current == '{' ? '}' : ']';
+                boolean isObject = current == '{';
+                consume((char) current);
+                skipWhitespaces();
+                if (tryConsume(end)) {
+                    return;
+                }
+                do {
+                    skipWhitespaces();
+                    if (isObject) {
+                        readString(Writer.nullWriter(), MAX_VALUE_LENGTH);
+                        skipWhitespaces();
+                        consume(':');
+                        skipWhitespaces();
+                    }
+                    skipValue(depth + 1);
+                    skipWhitespaces();
+                } while (tryConsume(','));
+                consume(end);
+            } else {
+                readLiteral();
+            }
+        }
+        
+        private void skipWhitespaces() throws IOException {
+            while (current != -1 && Character.isWhitespace(current)) {
+                current = reader.read();
+            }
+        }
+        
+        private boolean tryConsume(char expected) throws IOException {
+            if (current != expected) {
+                return false;
+            }
+            current = reader.read();
+            return true;
+        }
+        
+        private void consume(char expected) throws IOException {
+            if (!tryConsume(expected)) {
+                throw new JsonRequestException("Expected '" + expected + "' in the json request");
+            }
+        }
+    }
+    
+    // Keeps the content in memory up to the threshold, then moves it to a temporary file
+    private class SpillingOutputStream extends OutputStream {
+        
+        private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        
+        private OutputStream file;
+        
+        private Path path;
+        
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+        
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (file == null && memory.size() + length > maxInMemorySize) {
+                spill();
+            }
+            if (file == null) {
+                memory.write(bytes, offset, length);
+            } else {
+                file.write(bytes, offset, length);
+            }
+        }
+        
+        private void spill() throws IOException {
+            path = Files.createTempFile(spillDirectory, PAYLOAD_FILE_PREFIX, null);
+            file = new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE);
+            memory.writeTo(file);
+            memory = null;
+        }
+        
+        @Override
+        public void flush() throws IOException {
+            if (file != null) {
+                file.flush();
+            }
+        }
+        
+        @Override
+        public void close() throws IOException {
+            if (file != null) {
+                file.close();
+            }
+        }
+        
+        private void deleteSpilledFile() throws IOException {
+            close();
+            if (path != null) {
+                Files.deleteIfExists(path);
+            }
+        }
+        
+        private PayloadFile toPayloadFile(String name) {
+            return path == null
+                    ? PayloadFile.of(name, memory.toByteArray())
+                    : PayloadFile.ofTemporaryFile(name, path);
+        }
+    }
+}
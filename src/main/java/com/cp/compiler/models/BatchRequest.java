@@ -0,0 +1,79 @@
+package com.cp.compiler.models;
+
+import com.cp.compiler.executions.ExecutionTestCase;
+import com.cp.compiler.executions.PayloadFile;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The type Batch request.
+ * The source code is compiled once and executed with the input of each test case.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(description = "A request running the same source code against several test cases")
+public class BatchRequest {
+    
+    @NonNull
+    @ApiModelProperty(notes = "The source code")
+    @JsonProperty("sourceCode")
+    private String sourceCode;
+    
+    @NonNull
+    @ApiModelProperty(notes = "The language")
+    @JsonProperty("language")
+    private Language language;
+    
+    @ApiModelProperty(notes = "The time limit in seconds of each test case")
+    @JsonProperty("timeLimit")
+    private int timeLimit;
+    
+    @ApiModelProperty(notes = "The memory limit in MB")
+    @JsonProperty("memoryLimit")
+    private int memoryLimit;
+    
+    @NonNull
+    @ApiModelProperty(notes = "The test cases")
+    @JsonProperty("testCases")
+    private List<TestCase> testCases;
+    
+    @ApiModelProperty(notes = "Stop at the first test case that fails, by default set to false")
+    @JsonProperty("failFast")
+    private boolean failFast;
+    
+    @ApiModelProperty(notes = "Run test cases in parallel, by default set to false")
+    @JsonProperty("parallel")
+    private boolean parallel;
+    
+    /**
+     * Gets source code.
+     *
+     * @return the source code
+     * @throws IOException the io exception
+     */
+    public MultipartFile getSourceCode() throws IOException {
+        return PayloadFile.of(language.getSourceCodeFileName(), this.sourceCode);
+    }
+    
+    /**
+     * Gets execution test cases.
+     *
+     * @return the execution test cases
+     * @throws IOException the io exception
+     */
+    public List<ExecutionTestCase> getExecutionTestCases() throws IOException {
+        List<ExecutionTestCase> executionTestCases = new ArrayList<>(testCases.size());
+        for (int index = 1; index <= testCases.size(); index++) {
+            executionTestCases.add(testCases.get(index - 1).getExecutionTestCase(index));
+        }
+        return executionTestCases;
+    }
+}
@@ -0,0 +1,49 @@
+package com.cp.compiler.models;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The type Container stats.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(description = "Resource usage of a container")
+public class ContainerStats {
+    
+    @ApiModelProperty(notes = "The container id")
+    private String id;
+    
+    @ApiModelProperty(notes = "The container name")
+    private String name;
+    
+    @ApiModelProperty(notes = "The CPU usage in percent of a single cpu")
+    private double cpuPercentage;
+    
+    @ApiModelProperty(notes = "The memory usage in bytes")
+    private long memoryUsage;
+    
+    @ApiModelProperty(notes = "The memory limit in bytes")
+    private long memoryLimit;
+    
+    @ApiModelProperty(notes = "The bytes received on the network")
+    private long networkInput;
+    
+    @ApiModelProperty(notes = "The bytes sent on the network")
+    private long networkOutput;
+    
+    @ApiModelProperty(notes = "The bytes read from block devices")
+    private long blockInput;
+    
+    @ApiModelProperty(notes = "The bytes written to block devices")
+    private long blockOutput;
+    
+    @ApiModelProperty(notes = "The number of processes and threads")
+    private long pids;
+}
@@ -0,0 +1,26 @@
+package com.cp.compiler.models;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The type Container stats sample.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(description = "Resource usage of running containers at a point in time")
+public class ContainerStatsSample {
+    
+    @ApiModelProperty(notes = "The dateTime of the sample")
+    private LocalDateTime dateTime;
+    
+    @ApiModelProperty(notes = "The stats of each running container")
+    private List<ContainerStats> containers;
+}
@@ -0,0 +1,94 @@
+package com.cp.compiler.models;
+
+import com.cp.compiler.wellknownconstants.WellKnownTemplates;
+import lombok.Data;
+
+/**
+ * The type Language definition.
+ * How the source code of a language is compiled and executed, loaded from the configuration at startup.
+ * Commands can use the placeholders {fileName}, the name the source code is compiled under,
+ * and {className}, the same name without its extension.
+ */
+@Data
+public class LanguageDefinition {
+    
+    /**
+     * The file name placeholder of the commands.
+     */
+    public static final String FILE_NAME_PLACEHOLDER = "{fileName}";
+    
+    /**
+     * The class name placeholder of the commands.
+     */
+    public static final String CLASS_NAME_PLACEHOLDER = "{className}";
+    
+    /**
+     * The base image of the Dockerfiles of the language, empty to keep the one of the Dockerfiles.
+     */
+    private String image = "";
+    
+    /**
+     * The entrypoint template.
+     */
+    private String template = WellKnownTemplates.ENTRYPOINT_TEMPLATE;
+    
+    /**
+     * Compile the source code under the name sent by the user instead of the default name of the language,
+     * it's needed when the name of the file must match the name of the class (Java, Kotlin, Scala).
+     */
+    private boolean keepFileName;
+    
+    /**
+     * The compilation command, empty if the language is not compiled.
+     */
+    private String compilationCommand = "";
+    
+    /**
+     * The execution command.
+     */
+    private String executionCommand = "";
+    
+    /**
+     * The default time limit in seconds, used when the request does not set one, 0 means no default.
+     */
+    private int timeLimit;
+    
+    /**
+     * The default memory limit in MB, used when the request does not set one, 0 means no default.
+     */
+    private int memoryLimit;
+    
+    /**
+     * The number of idle containers of the container pool, 0 means the size of the container pool.
+     */
+    private int poolSize;
+    
+    /**
+     * Cache the compiled artifacts of the language when the compilation cache is enabled.
+     */
+    private boolean compilationCache = true;
+    
+    /**
+     * Is compiled boolean.
+     *
+     * @return true if the language has a compilation command
+     */
+    public boolean isCompiled() {
+        return compilationCommand != null && !compilationCommand.isBlank();
+    }
+    
+    /**
+     * Resolve the placeholders of a command.
+     *
+     * @param command  the command
+     * @param fileName the name the source code is compiled under
+     * @return the command
+     */
+    public static String resolveCommand(String command, String fileName) {
+        int extension = fileName.lastIndexOf('.');
+        String className = extension > 0 ? fileName.substring(0, extension) : fileName;
+        return command
+                .replace(FILE_NAME_PLACEHOLDER, fileName)
+                .replace(CLASS_NAME_PLACEHOLDER, className);
+    }
+}
@@ -6,7 +6,7 @@ import lombok.Getter;
 /**
  * The type Process output.
  */
-@Builder
+@Builder(toBuilder = true)
 @Getter
 public class ProcessOutput {
     
@@ -17,5 +17,17 @@ public class ProcessOutput {
     private long executionDuration;
     
     private int status;
+    
+    // in KB, peak memory usage of the container (compilation included), 0 if not reported
+    private long containerPeakMemory;
+    
+    // true if a process of the container has been killed because the container exceeded its memory limit
+    private boolean oomKilled;
+    
+    // in ms, CPU time (user + system) of the program, 0 if not reported
+    private long cpuTime;
+    
+    // sha256 of the compiled artifacts archived by the entrypoint before running the program, null if not archived
+    private String compiledArtifactsHash;
 
 }
@@ -1,13 +1,13 @@
 package com.cp.compiler.models;
 
+import com.cp.compiler.executions.PayloadFile;
 import com.cp.compiler.wellknownconstants.WellKnownFiles;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
-import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.Objects;
 
 @Getter
 @NoArgsConstructor
@@ -17,7 +17,7 @@ public class Request {
     @JsonProperty("input")
     protected String input;
     
-    @NonNull
+    // Not required if the expected output references stored test data
     @JsonProperty("expectedOutput")
     protected String expectedOutput;
     
@@ -37,31 +37,37 @@ public class Request {
     @JsonProperty("memoryLimit")
     protected int memoryLimit;
     
+    // Optional, executions waiting for resources are scheduled fairly between tenants
+    @JsonProperty("tenant")
+    protected String tenant;
+    
+    // Optional, the hash of stored test data used instead of the input
+    @JsonProperty("inputHash")
+    protected String inputHash;
+    
+    // Optional, the hash of stored test data used instead of the expected output
+    @JsonProperty("expectedOutputHash")
+    protected String expectedOutputHash;
+    
     public MultipartFile getSourceCode() throws IOException {
-        return new MockMultipartFile(
-                language.getSourceCodeFileName(),
-                language.getSourceCodeFileName(),
-                null,
-                new ByteArrayInputStream(this.sourceCode.getBytes()));
+        return PayloadFile.of(language.getSourceCodeFileName(), this.sourceCode);
     }
     
     public MultipartFile getExpectedOutput() throws IOException {
-        return new MockMultipartFile(
-                WellKnownFiles.EXPECTED_OUTPUT_FILE_NAME,
-                WellKnownFiles.EXPECTED_OUTPUT_FILE_NAME,
-                null,
-                new ByteArrayInputStream(this.expectedOutput.getBytes()));
+        if (this.expectedOutputHash != null) {
+            return PayloadFile.ofReference(WellKnownFiles.EXPECTED_OUTPUT_FILE_NAME, this.expectedOutputHash);
+        }
+        return PayloadFile.of(WellKnownFiles.EXPECTED_OUTPUT_FILE_NAME, this.expectedOutput);
     }
     
     public MultipartFile getInput() throws IOException {
+        if (this.inputHash != null) {
+            return PayloadFile.ofReference(WellKnownFiles.INPUT_FILE_NAME, this.inputHash);
+        }
         if (this.input == null) {
             return null;
         }
-        return new MockMultipartFile(
-                WellKnownFiles.INPUT_FILE_NAME,
-                WellKnownFiles.INPUT_FILE_NAME,
-                null,
-                new ByteArrayInputStream(this.input.getBytes()));
+        return PayloadFile.of(WellKnownFiles.INPUT_FILE_NAME, this.input);
     }
     
     @SneakyThrows
@@ -81,7 +87,9 @@ public class Request {
         }
         
         return this.language.equals(request.language)
-                && this.expectedOutput.equals(request.expectedOutput)
+                && Objects.equals(this.expectedOutput, request.expectedOutput)
+                && Objects.equals(this.inputHash, request.inputHash)
+                && Objects.equals(this.expectedOutputHash, request.expectedOutputHash)
                 && this.memoryLimit == request.memoryLimit
                 && this.timeLimit == request.timeLimit
                 && this.sourceCode.equals(this.sourceCode);
@@ -1,11 +1,14 @@
 package com.cp.compiler.models;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 /**
  * The type Result.
  *
@@ -36,7 +39,7 @@ public class Result {
     }
     
     @ApiModelProperty(notes = "The value can be one of these : Accepted, Wrong Answer, " +
-            "Compilation Error, Runtime Error, Out Of Memory, Time Limit Exceeded")
+            "Compilation Error, Runtime Error, Out Of Memory, Time Limit Exceeded, Output Limit Exceeded")
     private String statusResponse;
     
     @ApiModelProperty(notes = "The corresponding status code of the status response")
@@ -51,6 +54,17 @@ public class Result {
     @ApiModelProperty(notes = "The expected output")
     private String expectedOutput;
     
-    @ApiModelProperty(notes = "The execution duration in ms")
+    @ApiModelProperty(notes = "The execution duration of the program in ms")
     private long executionDuration;
+    
+    @ApiModelProperty(notes = "The peak memory usage of the container in KB, the compilation included (it runs in the "
+            + "same container), 0 if not available")
+    private long containerPeakMemory;
+    
+    @ApiModelProperty(notes = "The CPU time (user + system) of the program in ms, 0 if not available")
+    private long cpuTime;
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @ApiModelProperty(notes = "The result of each test case that has been executed, only for batch requests")
+    private List<Result> testCasesResults;
 }
@@ -0,0 +1,116 @@
+package com.cp.compiler.models;
+
+import com.cp.compiler.executions.PayloadFile;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * The type Streamed request.
+ * A request read with a streaming parser, the source code, the input and the expected output are kept as payload
+ * files instead of strings, large ones are kept in temporary local files.
+ */
+public class StreamedRequest extends Request {
+    
+    private PayloadFile sourceCodeFile;
+    
+    private PayloadFile inputFile;
+    
+    private PayloadFile expectedOutputFile;
+    
+    /**
+     * Sets source code file, the temporary file of the previous one is deleted (the field is repeated in the json).
+     *
+     * @param sourceCodeFile the source code file
+     */
+    public void setSourceCodeFile(PayloadFile sourceCodeFile) {
+        deleteTemporaryFile(this.sourceCodeFile);
+        this.sourceCodeFile = sourceCodeFile;
+    }
+    
+    /**
+     * Sets input file, the temporary file of the previous one is deleted (the field is repeated in the json).
+     *
+     * @param inputFile the input file
+     */
+    public void setInputFile(PayloadFile inputFile) {
+        deleteTemporaryFile(this.inputFile);
+        this.inputFile = inputFile;
+    }
+    
+    /**
+     * Sets expected output file, the temporary file of the previous one is deleted (the field is repeated in the json).
+     *
+     * @param expectedOutputFile the expected output file
+     */
+    public void setExpectedOutputFile(PayloadFile expectedOutputFile) {
+        deleteTemporaryFile(this.expectedOutputFile);
+        this.expectedOutputFile = expectedOutputFile;
+    }
+    
+    /**
+     * Sets language.
+     *
+     * @param language the language
+     */
+    public void setLanguage(Language language) {
+        this.language = language;
+    }
+    
+    /**
+     * Sets time limit.
+     *
+     * @param timeLimit the time limit
+     */
+    public void setTimeLimit(int timeLimit) {
+        this.timeLimit = timeLimit;
+    }
+    
+    /**
+     * Sets memory limit.
+     *
+     * @param memoryLimit the memory limit
+     */
+    public void setMemoryLimit(int memoryLimit) {
+        this.memoryLimit = memoryLimit;
+    }
+    
+    /**
+     * Sets tenant.
+     *
+     * @param tenant the tenant
+     */
+    public void setTenant(String tenant) {
+        this.tenant = tenant;
+    }
+    
+    @Override
+    public MultipartFile getSourceCode() {
+        // The file name depends on the language, which can come after the source code in the json
+        return sourceCodeFile.withName(language.getSourceCodeFileName());
+    }
+    
+    @Override
+    public MultipartFile getExpectedOutput() {
+        return expectedOutputFile;
+    }
+    
+    @Override
+    public MultipartFile getInput() {
+        return inputFile;
+    }
+    
+    /**
+     * Delete the temporary local files of the request.
+     * Used when the request can't be executed, otherwise files are deleted at the end of the execution.
+     */
+    public void deletePayloadFiles() {
+        deleteTemporaryFile(sourceCodeFile);
+        deleteTemporaryFile(inputFile);
+        deleteTemporaryFile(expectedOutputFile);
+    }
+    
+    private static void deleteTemporaryFile(PayloadFile payloadFile) {
+        if (payloadFile != null) {
+            payloadFile.deleteTemporaryFile();
+        }
+    }
+}
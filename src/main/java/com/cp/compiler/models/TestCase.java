@@ -0,0 +1,59 @@
+package com.cp.compiler.models;
+
+import com.cp.compiler.executions.Execution;
+import com.cp.compiler.executions.ExecutionTestCase;
+import com.cp.compiler.executions.PayloadFile;
+import com.cp.compiler.wellknownconstants.WellKnownFiles;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+
+/**
+ * The type Test case.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(description = "A test case of a batch request")
+public class TestCase {
+    
+    @ApiModelProperty(notes = "The input of the test case (not required)")
+    @JsonProperty("input")
+    private String input;
+    
+    @ApiModelProperty(notes = "The expected output of the test case, required unless expectedOutputHash is set")
+    @JsonProperty("expectedOutput")
+    private String expectedOutput;
+    
+    @ApiModelProperty(notes = "The hash of stored test data used instead of the input (not required)")
+    @JsonProperty("inputHash")
+    private String inputHash;
+    
+    @ApiModelProperty(notes = "The hash of stored test data used instead of the expected output (not required)")
+    @JsonProperty("expectedOutputHash")
+    private String expectedOutputHash;
+    
+    /**
+     * Gets execution test case, references to stored test data are resolved before the execution.
+     *
+     * @param index the index of the test case, starting from 1
+     * @return the execution test case
+     * @throws IOException the io exception
+     */
+    public ExecutionTestCase getExecutionTestCase(int index) throws IOException {
+        MultipartFile inputFile = null;
+        if (inputHash != null) {
+            inputFile = PayloadFile.ofReference(Execution.getTestCaseInputFileName(index), inputHash);
+        } else if (input != null) {
+            inputFile = PayloadFile.of(Execution.getTestCaseInputFileName(index), input);
+        }
+        MultipartFile expectedOutputFile = expectedOutputHash != null
+                ? PayloadFile.ofReference(WellKnownFiles.EXPECTED_OUTPUT_FILE_NAME, expectedOutputHash)
+                : PayloadFile.of(WellKnownFiles.EXPECTED_OUTPUT_FILE_NAME, expectedOutput);
+        return new ExecutionTestCase(inputFile, expectedOutputFile);
+    }
+}
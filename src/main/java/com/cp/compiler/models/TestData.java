@@ -0,0 +1,20 @@
+package com.cp.compiler.models;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The type Test data.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(description = "Stored test data")
+public class TestData {
+    
+    @ApiModelProperty(notes = "The hash of the content, used in the inputHash and expectedOutputHash fields of requests")
+    private String hash;
+}
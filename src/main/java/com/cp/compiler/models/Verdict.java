@@ -35,7 +35,11 @@ public enum Verdict {
     /**
      * Runtime error verdict.
      */
-    RUNTIME_ERROR("Runtime Error", 600, WellKnownMetrics.RUNTIME_ERROR_VERDICT_COUNTER);
+    RUNTIME_ERROR("Runtime Error", 600, WellKnownMetrics.RUNTIME_ERROR_VERDICT_COUNTER),
+    /**
+     * Output limit exceeded verdict.
+     */
+    OUTPUT_LIMIT_EXCEEDED("Output Limit Exceeded", 700, WellKnownMetrics.OUTPUT_LIMIT_EXCEEDED_VERDICT_COUNTER);
     
     @Getter
     private String statusResponse;
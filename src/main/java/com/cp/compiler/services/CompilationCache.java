@@ -0,0 +1,55 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.executions.Execution;
+
+import java.nio.file.Path;
+
+/**
+ * The interface Compilation cache.
+ * Compiled artifacts are stored by a key computed from the language, the compilation command and the source code,
+ * so resubmissions of the same source code skip the compilation.
+ */
+public interface CompilationCache {
+    
+    /**
+     * Is enabled boolean.
+     *
+     * @return true if the compilation cache is enabled
+     */
+    boolean isEnabled();
+    
+    /**
+     * Gets the cache key of an execution.
+     *
+     * @param execution the execution
+     * @return the key, null if the compiled artifacts of the language are not cached
+     */
+    String getKey(Execution execution);
+    
+    /**
+     * Copy cached compiled artifacts to the given destination.
+     *
+     * @param key         the key
+     * @param destination the destination
+     * @return true if compiled artifacts were found and copied
+     */
+    boolean restore(String key, Path destination);
+    
+    /**
+     * Store compiled artifacts, the given file is moved into the cache.
+     * The archive is written in the sandbox of the execution, it's only stored if it's a regular file
+     * with the hash reported before the program ran.
+     *
+     * @param key          the key
+     * @param artifacts    the archive of compiled artifacts
+     * @param expectedHash the expected sha256 of the archive
+     */
+    void put(String key, Path artifacts, String expectedHash);
+    
+    /**
+     * Gets size.
+     *
+     * @return the size of cached artifacts in bytes
+     */
+    long getSize();
+}
@@ -0,0 +1,219 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.exceptions.CompilerServerInternalException;
+import com.cp.compiler.executions.Execution;
+import com.cp.compiler.executions.ExecutionFactory;
+import com.cp.compiler.models.LanguageDefinition;
+import com.cp.compiler.wellknownconstants.WellKnownMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The type Compilation cache.
+ * Archives are stored on disk, the index is kept in memory and evicts the least recently used archives
+ * when the maximum size is exceeded.
+ */
+@Slf4j
+@Service
+public class CompilationCacheDefault implements CompilationCache {
+    
+    private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
+    
+    private static final String HASH_ALGORITHM = "SHA-256";
+    
+    private final MeterRegistry meterRegistry;
+    
+    // Access ordered, so iteration starts from the least recently used archive
+    private final LinkedHashMap<String, Long> archivesSizes = new LinkedHashMap<>(16, 0.75f, true);
+    
+    private long size;
+    
+    private Counter hitCounter;
+    
+    private Counter missCounter;
+    
+    @Getter
+    @Value("${compiler.compilation-cache.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${compiler.compilation-cache.directory:compilation-cache}")
+    private String directory;
+    
+    @Value("${compiler.compilation-cache.max-size:512}")
+    private long maxSize; // in MB
+    
+    /**
+     * Instantiates a new Compilation cache.
+     *
+     * @param meterRegistry the meter registry
+     */
+    public CompilationCacheDefault(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    /**
+     * Init.
+     *
+     * @throws IOException the io exception
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        hitCounter = meterRegistry.counter(WellKnownMetrics.COMPILATION_CACHE_HIT_COUNTER);
+        missCounter = meterRegistry.counter(WellKnownMetrics.COMPILATION_CACHE_MISS_COUNTER);
+        meterRegistry.gauge(WellKnownMetrics.COMPILATION_CACHE_SIZE_GAUGE, this, CompilationCache::getSize);
+        
+        if (enabled) {
+            // The index is in memory, archives left by a previous run are not known anymore
+            FileSystemUtils.deleteRecursively(Path.of(directory));
+            Files.createDirectories(Path.of(directory));
+        }
+    }
+    
+    @Override
+    public String getKey(Execution execution) {
+        LanguageDefinition definition = ExecutionFactory.getLanguageDefinition(execution.getLanguage());
+        if (!definition.isCompilationCache()) {
+            return null;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            digest.update(execution.getLanguage().name().getBytes(StandardCharsets.UTF_8));
+            // Artifacts of another compiler version or other compilation flags are not reused
+            digest.update(definition.getImage().getBytes(StandardCharsets.UTF_8));
+            digest.update(definition.getCompilationCommand().getBytes(StandardCharsets.UTF_8));
+            // Some languages (Java, Kotlin, Scala) compile the file under the name sent by the user
+            String fileName = execution.getSourceCodeFile().getOriginalFilename();
+            if (fileName != null) {
+                digest.update(fileName.getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update(execution.getSourceCodeFile().getBytes());
+            return String.format("%064x", new BigInteger(1, digest.digest()));
+        } catch (NoSuchAlgorithmException | IOException e) {
+            throw new CompilerServerInternalException(e.getMessage());
+        }
+    }
+    
+    @Override
+    public synchronized boolean restore(String key, Path destination) {
+        // get (and not containsKey) marks the archive as recently used
+        if (archivesSizes.get(key) == null) {
+            missCounter.increment();
+            return false;
+        }
+        
+        try {
+            Path archive = Path.of(directory, key);
+            if (!Files.isRegularFile(archive, LinkOption.NOFOLLOW_LINKS)) {
+                throw new IOException("The archive is not a regular file");
+            }
+            Files.copy(archive, destination, StandardCopyOption.REPLACE_EXISTING, LinkOption.NOFOLLOW_LINKS);
+        } catch (IOException e) {
+            log.warn("Error while restoring compiled artifacts {} : {}", key, e);
+            remove(key);
+            missCounter.increment();
+            return false;
+        }
+        
+        hitCounter.increment();
+        return true;
+    }
+    
+    @Override
+    public synchronized void put(String key, Path artifacts, String expectedHash) {
+        try {
+            // A symbolic link would make the cache copy a file of the host into later executions
+            if (!Files.isRegularFile(artifacts, LinkOption.NOFOLLOW_LINKS)) {
+                log.warn("Compiled artifacts {} are not a regular file, they will not be cached", key);
+                Files.deleteIfExists(artifacts);
+                return;
+            }
+            long artifactsSize = Files.size(artifacts);
+            if (archivesSizes.containsKey(key) || artifactsSize > maxSize * BYTES_PER_MEGABYTE) {
+                Files.deleteIfExists(artifacts);
+                return;
+            }
+            // The program runs after the archive is written, it might have replaced it
+            if (!hash(artifacts).equalsIgnoreCase(expectedHash)) {
+                log.warn("Compiled artifacts {} have been modified after the compilation, they will not be cached", key);
+                Files.deleteIfExists(artifacts);
+                return;
+            }
+            
+            Files.move(artifacts, Path.of(directory, key),
+                    StandardCopyOption.REPLACE_EXISTING, LinkOption.NOFOLLOW_LINKS);
+            archivesSizes.put(key, artifactsSize);
+            size += artifactsSize;
+            log.info("Compiled artifacts {} have been cached", key);
+        } catch (IOException e) {
+            log.warn("Error while caching compiled artifacts {} : {}", key, e);
+            return;
+        }
+        
+        evict();
+    }
+    
+    private static String hash(Path file) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(file, LinkOption.NOFOLLOW_LINKS)) {
+            MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return String.format("%064x", new BigInteger(1, digest.digest()));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+    
+    @Override
+    public synchronized long getSize() {
+        return size;
+    }
+    
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> iterator = archivesSizes.entrySet().iterator();
+        while (size > maxSize * BYTES_PER_MEGABYTE && iterator.hasNext()) {
+            Map.Entry<String, Long> leastRecentlyUsed = iterator.next();
+            iterator.remove();
+            size -= leastRecentlyUsed.getValue();
+            deleteArchive(leastRecentlyUsed.getKey());
+        }
+    }
+    
+    private void remove(String key) {
+        Long archiveSize = archivesSizes.remove(key);
+        if (archiveSize != null) {
+            size -= archiveSize;
+            deleteArchive(key);
+        }
+    }
+    
+    private void deleteArchive(String key) {
+        try {
+            Files.deleteIfExists(Path.of(directory, key));
+        } catch (IOException e) {
+            log.warn("Error while deleting compiled artifacts {} : {}", key, e);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.cp.compiler.services;
 
 import com.cp.compiler.executions.Execution;
+import com.cp.compiler.executions.ExecutionTestCase;
+import com.cp.compiler.executions.PayloadFile;
 import com.cp.compiler.wellknownconstants.WellKnownFiles;
 import com.cp.compiler.wellknownconstants.WellKnownMetrics;
 import com.cp.compiler.repositories.HooksRepository;
@@ -18,6 +20,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -43,6 +47,10 @@ public class CompilerProxy implements CompilerService {
     @Value("${compiler.execution-time.min:0}")
     private int minExecutionTime;
     
+    @Getter
+    @Value("${compiler.batch.max-test-cases:100}")
+    private int maxTestCases;
+    
     @Autowired
     private MeterRegistry meterRegistry;
     
@@ -62,10 +70,18 @@ public class CompilerProxy implements CompilerService {
     @Autowired
     private Resources resources;
     
+    @Autowired
+    private ExecutionQueue executionQueue;
+    
+    @Autowired
+    private TestDataStore testDataStore;
+    
     private Counter throttlingCounterMetric;
     
     private static final String EXECUTIONS_GAUGE_DESCRIPTION = "Current number of executions";
     
+    private static final String MEGABYTES = "megabytes";
+    
     /**
      * Init.
      */
@@ -75,6 +91,19 @@ public class CompilerProxy implements CompilerService {
         Gauge.builder(WellKnownMetrics.EXECUTIONS_GAUGE, () -> resources.getNumberOfExecutions())
                 .description(EXECUTIONS_GAUGE_DESCRIPTION)
                 .register(meterRegistry);
+        Gauge.builder(WellKnownMetrics.RESERVED_CPUS_GAUGE, () -> resources.getReservedCpus())
+                .register(meterRegistry);
+        Gauge.builder(WellKnownMetrics.CPUS_CAPACITY_GAUGE, () -> resources.getCpusCapacity())
+                .register(meterRegistry);
+        Gauge.builder(WellKnownMetrics.RESERVED_MEMORY_GAUGE, () -> resources.getReservedMemory())
+                .baseUnit(MEGABYTES)
+                .register(meterRegistry);
+        Gauge.builder(WellKnownMetrics.MEMORY_CAPACITY_GAUGE, () -> resources.getMemoryCapacity())
+                .baseUnit(MEGABYTES)
+                .register(meterRegistry);
+        Gauge.builder(WellKnownMetrics.FREE_NODE_MEMORY_GAUGE, () -> resources.getFreeNodeMemory())
+                .baseUnit(MEGABYTES)
+                .register(meterRegistry);
     }
     
     @Override
@@ -85,23 +114,47 @@ public class CompilerProxy implements CompilerService {
             log.info("Invalid input data: '{}'", requestValidationError.get().getBody());
             return requestValidationError.get();
         }
-        if (resources.allowNewExecution()) {
-            int counter = resources.reserveResources();
-            log.info("New request, total: {}, maxRequests: {}", counter, resources.getMaxRequests());
+        
+        ResponseEntity response = null;
+        try {
+            Optional<ResponseEntity> testDataError = resolveTestData(execution);
+            response = testDataError.isPresent() ? testDataError.get() : reserveResourcesAndCompile(execution);
+            return response;
+        } finally {
+            // Accepted long running executions delete their payload files once they end
+            if (response == null || response.getStatusCode() != HttpStatus.ACCEPTED) {
+                execution.deletePayloadFiles();
+            }
+        }
+    }
+    
+    private ResponseEntity reserveResourcesAndCompile(Execution execution) {
+        // Waits for resources up to the max wait of the queue
+        if (executionQueue.reserveResources(execution)) {
+            log.info("New request, total: {}, maxRequests: {}, reserved cpus: {}/{}, reserved memory: {}/{} MB",
+                    resources.getNumberOfExecutions(),
+                    resources.getMaxRequests(),
+                    resources.getReservedCpus(),
+                    resources.getCpusCapacity(),
+                    resources.getReservedMemory(),
+                    resources.getMemoryCapacity());
             
-            ResponseEntity response;
+            ResponseEntity response = null;
             
             try {
                 response = compileFacade(execution);
             } finally {
-                // in all cases this is the end of the request, then we should decrement the counter
-                resources.cleanup();
+                // Accepted push executions keep their resources until they end, the long running service releases them,
+                // in all other cases this is the end of the request, then we should release the reserved resources
+                if (response == null || response.getStatusCode() != HttpStatus.ACCEPTED) {
+                    executionQueue.releaseResources(execution);
+                }
             }
             return response;
         }
         // The request has been throttled
         throttlingCounterMetric.increment();
-        log.info("Request has been throttled, service reached maximum resources");
+        log.info("Request has been throttled, service reached maximum resources and the queue is full or the max wait elapsed");
         return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
                 .body("Request has been throttled, service reached maximum resources");
     }
@@ -125,7 +178,13 @@ public class CompilerProxy implements CompilerService {
                             + WellKnownFiles.FILE_NAME_REGEX));
         }
     
-        if (!checkFileName(execution.getExpectedOutputFile().getOriginalFilename())) {
+        if (execution.isBatch()) {
+            if (execution.getTestCases().size() > maxTestCases) {
+                return Optional.of(buildOutputError(
+                        "Bad request, the number of test cases must not exceed " + maxTestCases
+                                + ", provided : " + execution.getTestCases().size()));
+            }
+        } else if (!checkFileName(execution.getExpectedOutputFile().getOriginalFilename())) {
             return Optional.of(buildOutputError(
                     "Bad request, expected output file must match the following regex "
                             + WellKnownFiles.FILE_NAME_REGEX));
@@ -158,6 +217,63 @@ public class CompilerProxy implements CompilerService {
         return Optional.ofNullable(null);
     }
     
+    // References to stored test data are replaced with links to the stored files
+    private Optional<ResponseEntity> resolveTestData(Execution execution) {
+        if (isUnresolvedReference(execution.getInputFile())) {
+            PayloadFile inputFile = testDataStore.resolve((PayloadFile) execution.getInputFile());
+            if (inputFile == null) {
+                return Optional.of(buildUnknownTestDataError((PayloadFile) execution.getInputFile()));
+            }
+            execution.setInputFile(inputFile);
+        }
+        if (isUnresolvedReference(execution.getExpectedOutputFile())) {
+            PayloadFile expectedOutputFile = testDataStore.resolve((PayloadFile) execution.getExpectedOutputFile());
+            if (expectedOutputFile == null) {
+                return Optional.of(buildUnknownTestDataError((PayloadFile) execution.getExpectedOutputFile()));
+            }
+            execution.setExpectedOutputFile(expectedOutputFile);
+        }
+        return execution.isBatch() ? resolveTestCasesData(execution) : Optional.empty();
+    }
+    
+    private Optional<ResponseEntity> resolveTestCasesData(Execution execution) {
+        List<ExecutionTestCase> testCases = new ArrayList<>(execution.getTestCases());
+        try {
+            for (int index = 0; index < testCases.size(); index++) {
+                ExecutionTestCase testCase = testCases.get(index);
+                if (isUnresolvedReference(testCase.getInputFile())) {
+                    PayloadFile inputFile = testDataStore.resolve((PayloadFile) testCase.getInputFile());
+                    if (inputFile == null) {
+                        return Optional.of(buildUnknownTestDataError((PayloadFile) testCase.getInputFile()));
+                    }
+                    testCase = new ExecutionTestCase(inputFile, testCase.getExpectedOutputFile());
+                    testCases.set(index, testCase);
+                }
+                if (isUnresolvedReference(testCase.getExpectedOutputFile())) {
+                    PayloadFile expectedOutputFile =
+                            testDataStore.resolve((PayloadFile) testCase.getExpectedOutputFile());
+                    if (expectedOutputFile == null) {
+                        return Optional.of(buildUnknownTestDataError((PayloadFile) testCase.getExpectedOutputFile()));
+                    }
+                    testCases.set(index, new ExecutionTestCase(testCase.getInputFile(), expectedOutputFile));
+                }
+            }
+        } finally {
+            // Resolved links are deleted with the other payload files, even if a later reference is unknown
+            execution.setTestCases(testCases);
+        }
+        return Optional.empty();
+    }
+    
+    private boolean isUnresolvedReference(MultipartFile file) {
+        return file instanceof PayloadFile && ((PayloadFile) file).isUnresolvedReference();
+    }
+    
+    private ResponseEntity buildUnknownTestDataError(PayloadFile reference) {
+        return buildOutputError("Bad request, the test data " + reference.getReference()
+                + " is not stored, it should be uploaded again");
+    }
+    
     private ResponseEntity buildOutputError(String errorMessage) {
         log.info(errorMessage);
         return ResponseEntity.badRequest()
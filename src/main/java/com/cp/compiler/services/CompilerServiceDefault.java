@@ -2,10 +2,17 @@ package com.cp.compiler.services;
 
 import com.cp.compiler.exceptions.*;
 import com.cp.compiler.executions.Execution;
+import com.cp.compiler.executions.ExecutionTestCase;
+import com.cp.compiler.executions.PayloadFile;
 import com.cp.compiler.models.*;
+import com.cp.compiler.utils.BatchUtils;
 import com.cp.compiler.utils.CmdUtils;
+import com.cp.compiler.utils.ResourceUsageUtils;
 import com.cp.compiler.utils.StatusUtils;
+import com.cp.compiler.wellknownconstants.WellKnownFiles;
+import com.cp.compiler.wellknownconstants.WellKnownMetrics;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 
@@ -19,10 +26,16 @@ import javax.annotation.PostConstruct;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Compiler Service Class, this class provides compilation utilities for several programing languages
@@ -35,8 +48,22 @@ public class CompilerServiceDefault implements CompilerService {
     
     private static final long TIME_OUT = 20000; // in ms
     
+    private static final long BYTES_IN_MB = 1024 * 1024;
+    
     private final ContainerService containerService;
     
+    private final RunnerImageService runnerImageService;
+    
+    private final ContainerPool containerPool;
+    
+    private final CompilationCache compilationCache;
+    
+    private final TestDataStore testDataStore;
+    
+    private final ExecutionStaging executionStaging;
+    
+    private final ContainerJanitor containerJanitor;
+    
     private final MeterRegistry meterRegistry;
     
     private final Map<String, Counter> verdictsCounters = new HashMap<>();
@@ -44,14 +71,37 @@ public class CompilerServiceDefault implements CompilerService {
     @Value("${compiler.docker.image.delete:true}")
     private boolean deleteDockerImage;
     
+    // in MB, an output can't be longer, so the expected output returned in the result is truncated to this size
+    @Value("${compiler.execution.max-output-size:64}")
+    private long maxOutputSize;
+    
     /**
      * Instantiates a new Compiler service.
      *
-     * @param containerService the container service
-     * @param meterRegistry    the meter registry
+     * @param containerService   the container service
+     * @param runnerImageService the runner image service
+     * @param containerPool      the container pool
+     * @param compilationCache   the compilation cache
+     * @param testDataStore      the test data store
+     * @param executionStaging   the execution staging
+     * @param containerJanitor   the container janitor
+     * @param meterRegistry      the meter registry
      */
-    public CompilerServiceDefault(ContainerService containerService, MeterRegistry meterRegistry) {
+    public CompilerServiceDefault(ContainerService containerService,
+                                  RunnerImageService runnerImageService,
+                                  ContainerPool containerPool,
+                                  CompilationCache compilationCache,
+                                  TestDataStore testDataStore,
+                                  ExecutionStaging executionStaging,
+                                  ContainerJanitor containerJanitor,
+                                  MeterRegistry meterRegistry) {
         this.containerService = containerService;
+        this.runnerImageService = runnerImageService;
+        this.containerPool = containerPool;
+        this.compilationCache = compilationCache;
+        this.testDataStore = testDataStore;
+        this.executionStaging = executionStaging;
+        this.containerJanitor = containerJanitor;
         this.meterRegistry = meterRegistry;
     }
     
@@ -72,17 +122,29 @@ public class CompilerServiceDefault implements CompilerService {
     public ResponseEntity compile(Execution execution) {
         
         LocalDateTime dateTime = LocalDateTime.now();
-    
-        builderImage(execution);
         
-        Result result = runCode(execution.getImageName(), execution.getExpectedOutputFile());
+        Result result;
         
-        if (deleteDockerImage) {
-            try {
-                containerService.deleteImage(execution.getImageName());
-                log.info("Image {} has been deleted", execution.getImageName());
-            } catch (Exception e) {
-                log.warn("Error, can't delete image {} : {}", execution.getImageName(), e);
+        if (runnerImageService.isReady(execution.getLanguage())) {
+            result = runInRunnerContainer(execution);
+        } else {
+            builderImage(execution);
+            
+            result = runCode(
+                    () -> containerService.runContainer(
+                            execution.getImageName(), getTimeout(execution), execution.getMemoryLimit()),
+                    execution);
+            
+            if (deleteDockerImage && containerJanitor.isEnabled()) {
+                // Deleted in the background, with the images of other executions
+                containerJanitor.collectImage(execution.getImageName());
+            } else if (deleteDockerImage) {
+                try {
+                    containerService.deleteImage(execution.getImageName());
+                    log.info("Image {} has been deleted", execution.getImageName());
+                } catch (Exception e) {
+                    log.warn("Error, can't delete image {} : {}", execution.getImageName(), e);
+                }
             }
         }
         
@@ -96,28 +158,150 @@ public class CompilerServiceDefault implements CompilerService {
                 .body(new Response(result, dateTime));
     }
     
-    private Result runCode(String imageName, MultipartFile outputFile) {
+    private Result runInRunnerContainer(Execution execution) {
+        String key = compilationCache.isEnabled() ? compilationCache.getKey(execution) : null;
+        
+        execution.setCompilationCacheEnabled(key != null);
+        createExecutionDirectory(execution);
+        
+        // Compiled artifacts of a cache miss are archived by the entrypoint and stored once the execution ends
+        String compilationCacheKey = null;
+        if (execution.isCompilationCacheEnabled()) {
+            Path artifacts = Path.of(execution.getPath(), WellKnownFiles.COMPILED_ARTIFACTS_FILE_NAME);
+            if (!compilationCache.restore(key, artifacts)) {
+                compilationCacheKey = key;
+            }
+        }
+        
+        Language language = execution.getLanguage();
+        String pooledContainerId = containerPool.checkout(language);
+        
+        try {
+            if (pooledContainerId != null && updatePooledContainerLimits(pooledContainerId, execution)) {
+                log.info("Running the execution in the pooled container: {}", pooledContainerId);
+                return runInContainer(
+                        execution,
+                        pooledContainerId,
+                        () -> containerService.executeInContainer(pooledContainerId, getTimeout(execution)),
+                        compilationCacheKey,
+                        false);
+            }
+            return runInNewRunnerContainer(execution, compilationCacheKey);
+        } finally {
+            if (pooledContainerId != null) {
+                containerPool.release(language, pooledContainerId);
+            }
+            deleteExecutionDirectory(execution);
+        }
+    }
     
-        BufferedReader expectedOutputReader;
-        String expectedOutput;
+    // Pooled containers are started before knowing the memory limit of the execution
+    private boolean updatePooledContainerLimits(String containerId, Execution execution) {
         try {
-            expectedOutputReader = new BufferedReader(new InputStreamReader(outputFile.getInputStream()));
-            expectedOutput = CmdUtils.readOutput(expectedOutputReader);
+            containerService.updateContainerLimits(containerId, execution.getMemoryLimit());
+            return true;
         } catch (Exception e) {
-            throw new CompilerServerInternalException("Unexpected error while reading the expected output file");
+            log.warn("Error, can't update the limits of the pooled container {}, a new container is used: {}",
+                    containerId, e);
+            return false;
         }
+    }
+    
+    private Result runInNewRunnerContainer(Execution execution, String compilationCacheKey) {
+        String runnerImageName = runnerImageService.getRunnerImageName(execution.getLanguage());
+        log.info("Creating a container from the runner image: {}", runnerImageName);
+        boolean mounted = executionStaging.isBindMountEnabled();
+        String containerId = mounted
+                ? containerService.createContainer(
+                        runnerImageName, execution.getMemoryLimit(), execution.getPath(), execution.getSharedFileNames())
+                : containerService.createContainer(runnerImageName, execution.getMemoryLimit());
+        
+        try {
+            return runInContainer(
+                    execution,
+                    containerId,
+                    () -> containerService.startContainer(containerId, getTimeout(execution)),
+                    compilationCacheKey,
+                    mounted);
+        } finally {
+            try {
+                containerService.deleteContainer(containerId);
+                log.info("Container {} has been deleted", containerId);
+            } catch (Exception e) {
+                log.warn("Error, can't delete container {} : {}", containerId, e);
+            }
+        }
+    }
+    
+    private Result runInContainer(Execution execution,
+                                  String containerId,
+                                  Supplier<ProcessOutput> containerRun,
+                                  String compilationCacheKey,
+                                  boolean mounted) {
+        // A bind mounted execution directory is already the working directory of the container
+        if (!mounted) {
+            containerService.copyToContainer(execution.getPath(), containerId);
+        }
+        
+        Result result = runCode(containerRun, execution);
+        
+        if (compilationCacheKey != null && result.getStatusCode() != Verdict.COMPILATION_ERROR.getStatusCode()) {
+            storeCompiledArtifacts(execution, containerId, compilationCacheKey, mounted);
+        }
+        return result;
+    }
+    
+    private void storeCompiledArtifacts(Execution execution,
+                                        String containerId,
+                                        String compilationCacheKey,
+                                        boolean mounted) {
+        if (execution.getCompiledArtifactsHash() == null) {
+            log.debug("Compiled artifacts of the execution {} have not been reported", execution.getId());
+            return;
+        }
+        Path artifacts = Path.of(execution.getPath(), WellKnownFiles.COMPILED_ARTIFACTS_FILE_NAME);
+        try {
+            if (!mounted) {
+                containerService.copyFromContainer(
+                        containerId,
+                        WellKnownFiles.COMPILED_ARTIFACTS_FILE_NAME,
+                        artifacts.toString());
+            }
+            compilationCache.put(compilationCacheKey, artifacts, execution.getCompiledArtifactsHash());
+        } catch (Exception e) {
+            // The compilation might not have completed (a timeout for example)
+            log.debug("Compiled artifacts of the execution {} have not been cached: {}", execution.getId(), e);
+        }
+    }
+    
+    private Result runCode(Supplier<ProcessOutput> containerRun, Execution execution) {
+        
+        if (execution.isBatch()) {
+            return runTestCases(containerRun, execution);
+        }
+        
+        String expectedOutput = readExpectedOutput(execution.getExpectedOutputFile());
     
         ProcessOutput containerOutput;
         try {
-            containerOutput = containerService.runContainer(imageName, TIME_OUT);
-            Verdict verdict = getVerdict(containerOutput, expectedOutput);
+            containerOutput = ResourceUsageUtils.extractResourceUsage(
+                    containerRun.get(), execution.getResourceUsageBoundary());
+            execution.setCompiledArtifactsHash(containerOutput.getCompiledArtifactsHash());
+            recordResourceUsage(execution, containerOutput);
+            Verdict verdict = checkCpuTime(
+                    getVerdict(containerOutput, execution.getExpectedOutputFile(), containerOutput.isOomKilled()),
+                    containerOutput.getCpuTime(),
+                    execution.getTimeLimit() * 1000L);
         
-            return new Result(
+            Result result = new Result(
                     verdict,
                     containerOutput.getStdOut(),
                     containerOutput.getStdErr(),
                     expectedOutput,
                     containerOutput.getExecutionDuration());
+            result.setContainerPeakMemory(containerOutput.getContainerPeakMemory());
+            result.setCpuTime(containerOutput.getCpuTime());
+            return result;
         
         } catch(ContainerOperationTimeoutException exception) {
             log.info("{}", exception);
@@ -127,21 +311,199 @@ public class CompilerServiceDefault implements CompilerService {
                     "The execution exceeded the time limit",
                     expectedOutput,
                     0);
+        } catch(ContainerOutputLimitExceededException exception) {
+            log.info("{}", exception);
+            return new Result(
+                    Verdict.OUTPUT_LIMIT_EXCEEDED,
+                    "",
+                    "The execution exceeded the output limit",
+                    expectedOutput,
+                    0);
+        }
+    }
+    
+    private Result runTestCases(Supplier<ProcessOutput> containerRun, Execution execution) {
+        
+        List<String> expectedOutputs = new ArrayList<>(execution.getTestCases().size());
+        for (ExecutionTestCase testCase : execution.getTestCases()) {
+            expectedOutputs.add(readExpectedOutput(testCase.getExpectedOutputFile()));
+        }
+        
+        ProcessOutput containerOutput;
+        try {
+            containerOutput = ResourceUsageUtils.extractResourceUsage(
+                    containerRun.get(), execution.getResourceUsageBoundary());
+        } catch(ContainerOperationTimeoutException exception) {
+            log.info("{}", exception);
+            return new Result(
+                    Verdict.TIME_LIMIT_EXCEEDED,
+                    "",
+                    "The execution exceeded the time limit",
+                    "",
+                    0);
+        } catch(ContainerOutputLimitExceededException exception) {
+            log.info("{}", exception);
+            return new Result(
+                    Verdict.OUTPUT_LIMIT_EXCEEDED,
+                    "",
+                    "The execution exceeded the output limit",
+                    "",
+                    0);
         }
+        
+        execution.setCompiledArtifactsHash(containerOutput.getCompiledArtifactsHash());
+        recordResourceUsage(execution, containerOutput);
+        
+        // The entrypoint exits before running test cases if the compilation fails
+        if (containerOutput.getStatus() != StatusUtils.ACCEPTED_OR_WRONG_ANSWER_STATUS) {
+            Result result = new Result(
+                    StatusUtils.statusResponse(containerOutput.getStatus(), containerOutput.isOomKilled(), false),
+                    containerOutput.getStdOut(),
+                    containerOutput.getStdErr(),
+                    "",
+                    containerOutput.getExecutionDuration());
+            result.setContainerPeakMemory(containerOutput.getContainerPeakMemory());
+            result.setCpuTime(containerOutput.getCpuTime());
+            return result;
+        }
+        
+        List<ProcessOutput> testCasesOutputs = BatchUtils.parseTestCasesOutputs(
+                containerOutput.getStdOut(), execution.getTestCasesBoundary());
+        
+        List<Result> testCasesResults = new ArrayList<>(testCasesOutputs.size());
+        Verdict verdict = Verdict.ACCEPTED;
+        String error = "";
+        
+        for (int index = 0; index < testCasesOutputs.size() && index < expectedOutputs.size(); index++) {
+            ProcessOutput testCaseOutput = testCasesOutputs.get(index);
+            String expectedOutput = expectedOutputs.get(index);
+            // Test cases share the container, a test case that fails after an OOM kill is considered out of memory
+            Verdict testCaseVerdict = checkCpuTime(
+                    getVerdict(
+                            testCaseOutput,
+                            execution.getTestCases().get(index).getExpectedOutputFile(),
+                            containerOutput.isOomKilled()),
+                    testCaseOutput.getCpuTime(),
+                    execution.getTimeLimit() * 1000L);
+            
+            Result testCaseResult = new Result(
+                    testCaseVerdict,
+                    testCaseOutput.getStdOut(),
+                    testCaseOutput.getStdErr(),
+                    expectedOutput,
+                    testCaseOutput.getExecutionDuration());
+            testCaseResult.setCpuTime(testCaseOutput.getCpuTime());
+            testCasesResults.add(testCaseResult);
+            
+            // The verdict of the batch is the verdict of the first test case that fails
+            if (testCaseVerdict != Verdict.ACCEPTED && verdict == Verdict.ACCEPTED) {
+                verdict = testCaseVerdict;
+                error = "Test case " + (index + 1) + " failed";
+                if (execution.isFailFast()) {
+                    break;
+                }
+            }
+        }
+        
+        if (verdict == Verdict.ACCEPTED && testCasesResults.size() < expectedOutputs.size()) {
+            verdict = Verdict.RUNTIME_ERROR;
+            error = "Only " + testCasesResults.size() + " test cases out of " + expectedOutputs.size() + " have been executed";
+        }
+        
+        // The CPU time of each test case is reported by the entrypoint, the one of the container by the cgroup
+        if (verdict == Verdict.ACCEPTED) {
+            verdict = checkCpuTime(
+                    verdict, containerOutput.getCpuTime(), testCasesResults.size() * execution.getTimeLimit() * 1000L);
+            if (verdict != Verdict.ACCEPTED) {
+                error = "The test cases exceeded the time limit";
+            }
+        }
+        
+        Result result = new Result(verdict, "", error, "", containerOutput.getExecutionDuration());
+        result.setContainerPeakMemory(containerOutput.getContainerPeakMemory());
+        result.setCpuTime(containerOutput.getCpuTime());
+        result.setTestCasesResults(testCasesResults);
+        return result;
     }
     
-    private Verdict getVerdict(ProcessOutput containerOutput, String expectedOutput) {
-        boolean result = CmdUtils.compareOutput(containerOutput.getStdOut(), expectedOutput);
-        return StatusUtils.statusResponse(containerOutput.getStatus(), result);
+    // The timeout of the entrypoint bounds the wall time, a program can still use more CPU time with threads
+    private Verdict checkCpuTime(Verdict verdict, long cpuTime, long cpuTimeLimit) {
+        if ((verdict == Verdict.ACCEPTED || verdict == Verdict.WRONG_ANSWER) && cpuTime > cpuTimeLimit) {
+            log.info("The CPU time {} ms exceeded the time limit", cpuTime);
+            return Verdict.TIME_LIMIT_EXCEEDED;
+        }
+        return verdict;
     }
     
-    private void builderImage(Execution execution) {
-        try {
-            log.info("Creating execution directory: {}", execution.getExecutionFolderName());
-            execution.createExecutionDirectory();
-        } catch (Throwable e) {
-            throw new CompilerServerInternalException(e.getMessage());
+    // Values that are not reported by the entrypoint (cgroup not readable for example) are not recorded
+    private void recordResourceUsage(Execution execution, ProcessOutput containerOutput) {
+        String language = execution.getLanguage().name().toLowerCase();
+        if (containerOutput.getCpuTime() > 0) {
+            DistributionSummary.builder(WellKnownMetrics.EXECUTION_CPU_TIME_SUMMARY)
+                    .baseUnit("milliseconds")
+                    .tag("language", language)
+                    .register(meterRegistry)
+                    .record(containerOutput.getCpuTime());
         }
+        if (containerOutput.getExecutionDuration() > 0) {
+            DistributionSummary.builder(WellKnownMetrics.EXECUTION_WALL_TIME_SUMMARY)
+                    .baseUnit("milliseconds")
+                    .tag("language", language)
+                    .register(meterRegistry)
+                    .record(containerOutput.getExecutionDuration());
+        }
+        if (containerOutput.getContainerPeakMemory() > 0) {
+            DistributionSummary.builder(WellKnownMetrics.EXECUTION_CONTAINER_PEAK_MEMORY_SUMMARY)
+                    .baseUnit("kilobytes")
+                    .tag("language", language)
+                    .register(meterRegistry)
+                    .record(containerOutput.getContainerPeakMemory());
+        }
+    }
+    
+    // Returned in the result, the comparison streams the expected output instead
+    private String readExpectedOutput(MultipartFile expectedOutputFile) {
+        long maxLength = maxOutputSize > 0 ? maxOutputSize * BYTES_IN_MB : CmdUtils.UNLIMITED_OUTPUT_SIZE;
+        try (Reader expectedOutputReader = openExpectedOutput(expectedOutputFile)) {
+            return CmdUtils.readOutput(expectedOutputReader, maxLength);
+        } catch (Exception e) {
+            throw new CompilerServerInternalException("Unexpected error while reading the expected output file");
+        }
+    }
+    
+    private Reader openExpectedOutput(MultipartFile expectedOutputFile) throws IOException {
+        // Expected outputs of stored test data are shared between executions, hot ones are kept in memory
+        if (expectedOutputFile instanceof PayloadFile && ((PayloadFile) expectedOutputFile).getReference() != null) {
+            return new StringReader(testDataStore.getExpectedOutput((PayloadFile) expectedOutputFile));
+        }
+        return new BufferedReader(new InputStreamReader(expectedOutputFile.getInputStream()));
+    }
+    
+    private long getTimeout(Execution execution) {
+        if (!execution.isBatch()) {
+            return TIME_OUT;
+        }
+        // Test cases might run sequentially, each one of them can take up to the time limit
+        return TIME_OUT + execution.getTestCases().size() * execution.getTimeLimit() * 1000L;
+    }
+    
+    // The expected output is read as it's compared, until the first mismatch
+    private Verdict getVerdict(ProcessOutput containerOutput, MultipartFile expectedOutputFile, boolean oomKilled) {
+        long mismatchPosition;
+        try (Reader expectedOutputReader = openExpectedOutput(expectedOutputFile)) {
+            mismatchPosition = CmdUtils.findMismatch(new StringReader(containerOutput.getStdOut()), expectedOutputReader);
+        } catch (IOException e) {
+            throw new CompilerServerInternalException("Unexpected error while comparing outputs");
+        }
+        if (mismatchPosition != CmdUtils.NO_MISMATCH) {
+            log.debug("The output does not match the expected output at position {}", mismatchPosition);
+        }
+        return StatusUtils.statusResponse(
+                containerOutput.getStatus(), oomKilled, mismatchPosition == CmdUtils.NO_MISMATCH);
+    }
+    
+    private void builderImage(Execution execution) {
+        createExecutionDirectory(execution);
         
         try {
             log.info("Building the docker image: {}", execution.getImageName());
@@ -154,12 +516,26 @@ public class CompilerServiceDefault implements CompilerService {
                 throw new ContainerBuildException("Error while building container image: " + exception.getMessage());
             }
         } finally {
-            try {
-                execution.deleteExecutionDirectory();
-                log.info("Execution directory {} has been deleted", execution.getExecutionFolderName());
-            } catch (IOException e) {
-                log.warn("Error while trying to delete execution directory, {}", e);
-            }
+            deleteExecutionDirectory(execution);
+        }
+    }
+    
+    private void createExecutionDirectory(Execution execution) {
+        try {
+            log.info("Creating execution directory: {}", execution.getExecutionFolderName());
+            executionStaging.stage(execution);
+            execution.createExecutionDirectory();
+        } catch (Throwable e) {
+            throw new CompilerServerInternalException(e.getMessage());
+        }
+    }
+    
+    private void deleteExecutionDirectory(Execution execution) {
+        try {
+            execution.deleteExecutionDirectory();
+            log.info("Execution directory {} has been deleted", execution.getExecutionFolderName());
+        } catch (IOException e) {
+            log.warn("Error while trying to delete execution directory, {}", e);
         }
     }
 }
@@ -0,0 +1,30 @@
+package com.cp.compiler.services;
+
+/**
+ * The interface Container janitor.
+ * Images of ended executions are deleted in the background in batches, off the path of requests, and images,
+ * stopped containers and execution directories leaked by crashes are collected periodically.
+ */
+public interface ContainerJanitor {
+    
+    /**
+     * Is enabled boolean.
+     *
+     * @return true if images are deleted in the background
+     */
+    boolean isEnabled();
+    
+    /**
+     * Queue the image of an ended execution, it's deleted in the background with the images of other executions.
+     *
+     * @param imageName the image name
+     */
+    void collectImage(String imageName);
+    
+    /**
+     * Gets pending images.
+     *
+     * @return the number of images waiting to be deleted
+     */
+    int getPendingImages();
+}
@@ -0,0 +1,248 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.executions.Execution;
+import com.cp.compiler.models.Language;
+import com.cp.compiler.wellknownconstants.WellKnownLabels;
+import com.cp.compiler.wellknownconstants.WellKnownMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * The type Container janitor.
+ * Pending images are deleted with a single command per batch, at most one batch per interval. Sweeps prune the
+ * labeled images and stopped containers, and delete the execution directories, that are older than the min age,
+ * so resources of running executions are never collected. Deletions run on a single thread, one at a time.
+ */
+@Slf4j
+@Service
+public class ContainerJanitorDefault implements ContainerJanitor {
+    
+    private static final String IMAGES = "images";
+    
+    private static final String CONTAINERS = "containers";
+    
+    private static final String DIRECTORIES = "directories";
+    
+    private final ContainerService containerService;
+    
+    private final ExecutionStaging executionStaging;
+    
+    private final MeterRegistry meterRegistry;
+    
+    private final Queue<String> pendingImages = new ConcurrentLinkedQueue<>();
+    
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "container-janitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    @Getter
+    @Value("${compiler.janitor.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${compiler.janitor.interval:5000}")
+    private long interval; // in millis
+    
+    @Value("${compiler.janitor.batch-size:50}")
+    private int batchSize;
+    
+    @Value("${compiler.janitor.sweep-interval:300000}")
+    private long sweepInterval; // in millis
+    
+    @Value("${compiler.janitor.min-age:1800000}")
+    private long minAge; // in millis
+    
+    @Value("${compiler.docker.image.delete:true}")
+    private boolean deleteDockerImage;
+    
+    /**
+     * Instantiates a new Container janitor.
+     *
+     * @param containerService the container service
+     * @param executionStaging the execution staging
+     * @param meterRegistry    the meter registry
+     */
+    public ContainerJanitorDefault(ContainerService containerService,
+                                   ExecutionStaging executionStaging,
+                                   MeterRegistry meterRegistry) {
+        this.containerService = containerService;
+        this.executionStaging = executionStaging;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    /**
+     * Init.
+     */
+    @PostConstruct
+    public void init() {
+        meterRegistry.gauge(WellKnownMetrics.JANITOR_PENDING_IMAGES_GAUGE, this, ContainerJanitor::getPendingImages);
+    }
+    
+    /**
+     * Start collecting once the application is ready, the first sweep collects what the last run leaked.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        log.info("Deleting up to {} images every {} ms, sweeping every {} ms", batchSize, interval, sweepInterval);
+        scheduler.scheduleWithFixedDelay(this::deletePendingImages, interval, interval, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::sweep, 0, sweepInterval, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Stop collecting, pending images are pruned by the first sweep of the next run.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+    
+    @Override
+    public void collectImage(String imageName) {
+        pendingImages.add(imageName);
+    }
+    
+    @Override
+    public int getPendingImages() {
+        return pendingImages.size();
+    }
+    
+    /**
+     * Delete a batch of pending images.
+     *
+     * @return the number of images of the batch
+     */
+    public int deletePendingImages() {
+        List<String> batch = new ArrayList<>();
+        String imageName;
+        while (batch.size() < batchSize && (imageName = pendingImages.poll()) != null) {
+            batch.add(imageName);
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            containerService.deleteImages(batch);
+            meterRegistry.counter(WellKnownMetrics.JANITOR_COLLECTED_COUNTER, "type", IMAGES).increment(batch.size());
+            log.info("{} images have been deleted", batch.size());
+        } catch (Exception e) {
+            // Images that have not been deleted are pruned by a next sweep
+            log.warn("Error while deleting {} images: {}", batch.size(), e.getMessage());
+        }
+        return batch.size();
+    }
+    
+    /**
+     * Collect the images, stopped containers and execution directories older than the min age.
+     *
+     * @return the reclaimed space in bytes
+     */
+    public long sweep() {
+        // Containers first, so their images are no longer used
+        long reclaimedSpace = prune(CONTAINERS, () -> containerService.pruneContainers(
+                WellKnownLabels.EXECUTION_LABEL, minAge));
+        // Images are kept when they should not be deleted at the end of executions
+        if (deleteDockerImage) {
+            reclaimedSpace += prune(IMAGES, () -> containerService.pruneImages(
+                    WellKnownLabels.EXECUTION_LABEL, minAge));
+        }
+        reclaimedSpace += deleteOrphanedExecutionDirectories();
+        return reclaimedSpace;
+    }
+    
+    private long prune(String type, LongSupplier pruneOperation) {
+        try {
+            long reclaimedSpace = pruneOperation.getAsLong();
+            reclaimed(type, reclaimedSpace);
+            log.info("{} bytes of {} have been reclaimed", reclaimedSpace, type);
+            return reclaimedSpace;
+        } catch (Exception e) {
+            log.warn("Error while pruning {}: {}", type, e.getMessage());
+            return 0;
+        }
+    }
+    
+    // At most one batch of directories per sweep
+    private long deleteOrphanedExecutionDirectories() {
+        long reclaimedSpace = 0;
+        int deletedDirectories = 0;
+        long now = System.currentTimeMillis();
+        for (Path languageFolder : getLanguageFolders()) {
+            if (!Files.isDirectory(languageFolder)) {
+                continue;
+            }
+            try (Stream<Path> files = Files.list(languageFolder)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    if (deletedDirectories >= batchSize) {
+                        break;
+                    }
+                    if (isOrphanedExecutionDirectory(file, now)) {
+                        long size = sizeOf(file);
+                        FileSystemUtils.deleteRecursively(file);
+                        reclaimedSpace += size;
+                        deletedDirectories++;
+                        log.info("Orphaned execution directory {} has been deleted", file);
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("Error while deleting orphaned execution directories of {}: {}", languageFolder, e);
+            }
+        }
+        reclaimed(DIRECTORIES, reclaimedSpace);
+        meterRegistry.counter(WellKnownMetrics.JANITOR_COLLECTED_COUNTER, "type", DIRECTORIES)
+                .increment(deletedDirectories);
+        return reclaimedSpace;
+    }
+    
+    private List<Path> getLanguageFolders() {
+        List<Path> languageFolders = new ArrayList<>();
+        String stagingDirectory = executionStaging.getDirectory();
+        for (Language language : Language.values()) {
+            languageFolders.add(Path.of(language.getFolderName()));
+            if (stagingDirectory != null && !stagingDirectory.isBlank()) {
+                languageFolders.add(Path.of(stagingDirectory, language.getFolderName()));
+            }
+        }
+        return languageFolders;
+    }
+    
+    private boolean isOrphanedExecutionDirectory(Path file, long now) throws IOException {
+        return file.getFileName().toString().startsWith(Execution.EXECUTION_FOLDER_PREFIX_NAME)
+                && Files.isDirectory(file)
+                && now - Files.getLastModifiedTime(file).toMillis() > minAge;
+    }
+    
+    private static long sizeOf(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+    
+    private void reclaimed(String type, long reclaimedSpace) {
+        meterRegistry.counter(WellKnownMetrics.JANITOR_RECLAIMED_COUNTER, "type", type).increment(reclaimedSpace);
+    }
+}
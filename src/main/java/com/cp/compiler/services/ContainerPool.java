@@ -0,0 +1,50 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.models.Language;
+
+/**
+ * The interface Container pool.
+ * A container pool keeps idle containers started from runner images, so executions of pooled languages
+ * do not pay the cost of creating and starting a container.
+ */
+public interface ContainerPool {
+    
+    /**
+     * Is enabled boolean.
+     *
+     * @return true if the container pool is enabled
+     */
+    boolean isEnabled();
+    
+    /**
+     * Is pooled boolean.
+     *
+     * @param language the language
+     * @return true if idle containers are kept for the given language
+     */
+    boolean isPooled(Language language);
+    
+    /**
+     * Checkout an idle container, the caller owns the container until it's released.
+     *
+     * @param language the language
+     * @return the container id, or null if there is no idle container available
+     */
+    String checkout(Language language);
+    
+    /**
+     * Release a container previously checked out, the container is recycled and replaced by a fresh one.
+     *
+     * @param language    the language
+     * @param containerId the container id
+     */
+    void release(Language language, String containerId);
+    
+    /**
+     * Gets the number of idle containers.
+     *
+     * @param language the language
+     * @return the number of idle containers
+     */
+    int getIdleContainers(Language language);
+}
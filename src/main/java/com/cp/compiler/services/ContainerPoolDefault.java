@@ -0,0 +1,243 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.executions.ExecutionFactory;
+import com.cp.compiler.models.Language;
+import com.cp.compiler.wellknownconstants.WellKnownMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The type Container pool.
+ * Idle containers are started from runner images with a command that keeps them alive,
+ * an execution is copied into a checked out container and its entrypoint is executed with docker exec.
+ * Containers are never reused between executions: a released container is deleted and replaced by a fresh one.
+ * Containers are started and deleted in parallel by a few threads, as many as the containers of the largest pool.
+ */
+@Slf4j
+@Service
+public class ContainerPoolDefault implements ContainerPool {
+    
+    private static final String LANGUAGE_TAG = "language";
+    
+    private static final String RECYCLE_THREAD_NAME_PREFIX = "container-pool-";
+    
+    private final ContainerService containerService;
+    
+    private final RunnerImageService runnerImageService;
+    
+    private final Resources resources;
+    
+    private final MeterRegistry meterRegistry;
+    
+    private final Map<Language, BlockingQueue<String>> idleContainers = new ConcurrentHashMap<>();
+    
+    private final Map<Language, Counter> hitCounters = new ConcurrentHashMap<>();
+    
+    private final Map<Language, Counter> missCounters = new ConcurrentHashMap<>();
+    
+    private final Map<Language, Timer> waitTimers = new ConcurrentHashMap<>();
+    
+    private ExecutorService recycleExecutor;
+    
+    @Getter
+    @Value("${compiler.docker.container-pool.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${compiler.docker.container-pool.size:0}")
+    private int size;
+    
+    @Value("${compiler.docker.container-pool.languages:CPP,PYTHON,JAVA}")
+    private String[] languages;
+    
+    @Value("${compiler.docker.container-pool.max-wait:20}")
+    private long maxWait;
+    
+    /**
+     * Instantiates a new Container pool.
+     *
+     * @param containerService   the container service
+     * @param runnerImageService the runner image service
+     * @param resources          the resources
+     * @param meterRegistry      the meter registry
+     */
+    public ContainerPoolDefault(ContainerService containerService,
+                                RunnerImageService runnerImageService,
+                                Resources resources,
+                                MeterRegistry meterRegistry) {
+        this.containerService = containerService;
+        this.runnerImageService = runnerImageService;
+        this.resources = resources;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    /**
+     * Fill the pool once runner images are built.
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        
+        int defaultPoolSize = getPoolSize();
+        Map<Language, Integer> poolSizes = new EnumMap<>(Language.class);
+        
+        for (String languageName : languages) {
+            Language language = Language.valueOf(languageName.trim().toUpperCase());
+            if (!runnerImageService.isReady(language)) {
+                log.warn("Runner image of {} is not available, containers of this language will not be pooled", language);
+                continue;
+            }
+            
+            BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+            registerMetrics(language, queue);
+            idleContainers.put(language, queue);
+            
+            // The size of the pool can be set for each language in its definition
+            int languagePoolSize = ExecutionFactory.getLanguageDefinition(language).getPoolSize();
+            int poolSize = languagePoolSize > 0 ? languagePoolSize : defaultPoolSize;
+            log.info("Starting {} idle containers for {}", poolSize, language);
+            poolSizes.put(language, poolSize);
+        }
+        
+        if (poolSizes.isEmpty()) {
+            return;
+        }
+        
+        int recycleThreads = Math.max(1, poolSizes.values().stream().max(Integer::compare).orElse(1));
+        recycleExecutor = Executors.newFixedThreadPool(
+                recycleThreads, new CustomizableThreadFactory(RECYCLE_THREAD_NAME_PREFIX));
+        
+        // Containers of all languages are started together, round robin so every language gets its first ones early
+        List<Language> pendingContainers = new ArrayList<>();
+        for (int i = 0; i < recycleThreads; i++) {
+            for (Map.Entry<Language, Integer> poolSize : poolSizes.entrySet()) {
+                if (i < poolSize.getValue()) {
+                    pendingContainers.add(poolSize.getKey());
+                }
+            }
+        }
+        pendingContainers.forEach(language -> recycleExecutor.submit(() -> addIdleContainer(language)));
+    }
+    
+    @Override
+    public boolean isPooled(Language language) {
+        return idleContainers.containsKey(language);
+    }
+    
+    @Override
+    public String checkout(Language language) {
+        BlockingQueue<String> queue = idleContainers.get(language);
+        if (queue == null) {
+            return null;
+        }
+        
+        long start = System.nanoTime();
+        String containerId;
+        try {
+            containerId = queue.poll(maxWait, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            containerId = null;
+        }
+        waitTimers.get(language).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        
+        if (containerId == null) {
+            missCounters.get(language).increment();
+        } else {
+            hitCounters.get(language).increment();
+        }
+        return containerId;
+    }
+    
+    @Override
+    public void release(Language language, String containerId) {
+        recycleExecutor.submit(() -> {
+            try {
+                containerService.deleteContainer(containerId);
+            } catch (Exception e) {
+                log.warn("Error, can't delete container {} : {}", containerId, e);
+            }
+            addIdleContainer(language);
+        });
+    }
+    
+    @Override
+    public int getIdleContainers(Language language) {
+        BlockingQueue<String> queue = idleContainers.get(language);
+        return queue == null ? 0 : queue.size();
+    }
+    
+    /**
+     * Delete idle containers before shutting down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (recycleExecutor != null) {
+            recycleExecutor.shutdownNow();
+        }
+        idleContainers.values().forEach(queue -> {
+            String containerId;
+            while ((containerId = queue.poll()) != null) {
+                try {
+                    containerService.deleteContainer(containerId);
+                } catch (Exception e) {
+                    log.warn("Error, can't delete container {} : {}", containerId, e);
+                }
+            }
+        });
+    }
+    
+    private void addIdleContainer(Language language) {
+        try {
+            String containerId = containerService.startIdleContainer(runnerImageService.getRunnerImageName(language));
+            if (containerId == null || containerId.isEmpty()) {
+                log.warn("Error while starting an idle container for {}, no container id returned", language);
+                return;
+            }
+            idleContainers.get(language).offer(containerId);
+        } catch (Exception e) {
+            log.warn("Error while starting an idle container for {} : {}", language, e);
+        }
+    }
+    
+    private int getPoolSize() {
+        if (size > 0) {
+            return size;
+        }
+        // As many containers as executions that can run in parallel
+        return resources.getMaxParallelExecutions();
+    }
+    
+    private void registerMetrics(Language language, BlockingQueue<String> queue) {
+        Tags tags = Tags.of(LANGUAGE_TAG, language.name());
+        hitCounters.put(language, meterRegistry.counter(WellKnownMetrics.CONTAINER_POOL_HIT_COUNTER, tags));
+        missCounters.put(language, meterRegistry.counter(WellKnownMetrics.CONTAINER_POOL_MISS_COUNTER, tags));
+        waitTimers.put(language, meterRegistry.timer(WellKnownMetrics.CONTAINER_POOL_WAIT_TIMER, tags));
+        meterRegistry.gauge(WellKnownMetrics.CONTAINER_POOL_IDLE_GAUGE, tags, queue, BlockingQueue::size);
+    }
+}
@@ -1,8 +1,10 @@
 package com.cp.compiler.services;
 
+import com.cp.compiler.models.ContainerStats;
 import com.cp.compiler.models.ProcessOutput;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  * The interface Container service.
@@ -21,14 +23,98 @@ public interface ContainerService {
     /**
      * Run container container output.
      *
-     * @param imageName the image name
-     * @param timeout   the timeout
+     * @param imageName   the image name
+     * @param timeout     the timeout
+     * @param memoryLimit the memory limit of the container in MB
      * @return the container output
      * @throws IOException          the io exception
      * @throws InterruptedException the interrupted exception
      */
-    ProcessOutput runContainer(String imageName, long timeout);
+    ProcessOutput runContainer(String imageName, long timeout, int memoryLimit);
+
+    /**
+     * Create a container from an image without starting it.
+     *
+     * @param imageName   the image name
+     * @param memoryLimit the memory limit of the container in MB
+     * @return the container id
+     */
+    String createContainer(String imageName, int memoryLimit);
     
+    /**
+     * Create a container from an image without starting it, with a folder bind mounted as its working directory.
+     * Files of the folder shared with other executions are mounted read only.
+     *
+     * @param imageName     the image name
+     * @param memoryLimit   the memory limit of the container in MB
+     * @param folder        the folder
+     * @param readOnlyFiles the names of the files of the folder that are mounted read only
+     * @return the container id
+     */
+    String createContainer(String imageName, int memoryLimit, String folder, List<String> readOnlyFiles);
+
+    /**
+     * Copy the content of a folder into the working directory of a container.
+     *
+     * @param folder      the folder
+     * @param containerId the container id
+     * @return the string
+     */
+    String copyToContainer(String folder, String containerId);
+
+    /**
+     * Copy a file from the working directory of a container.
+     *
+     * @param containerId the container id
+     * @param fileName    the name of the file in the working directory of the container
+     * @param destination the destination path
+     * @return the string
+     */
+    String copyFromContainer(String containerId, String fileName, String destination);
+    
+    /**
+     * Start a created container and wait for the end of its execution.
+     *
+     * @param containerId the container id
+     * @param timeout     the timeout
+     * @return the container output
+     */
+    ProcessOutput startContainer(String containerId, long timeout);
+
+    /**
+     * Start a detached container that stays idle until commands are executed inside it.
+     *
+     * @param imageName the image name
+     * @return the container id
+     */
+    String startIdleContainer(String imageName);
+    
+    /**
+     * Update the memory, swap and pids limits of a running container.
+     *
+     * @param containerId the container id
+     * @param memoryLimit the memory limit of the container in MB
+     * @return the string
+     */
+    String updateContainerLimits(String containerId, int memoryLimit);
+    
+    /**
+     * Execute the entrypoint of the working directory inside a running container and wait for the end of its execution.
+     *
+     * @param containerId the container id
+     * @param timeout     the timeout
+     * @return the container output
+     */
+    ProcessOutput executeInContainer(String containerId, long timeout);
+    
+    /**
+     * Delete a container, the container is killed if it's still running.
+     *
+     * @param containerId the container id
+     * @return the string
+     */
+    String deleteContainer(String containerId);
+
     /**
      * Gets running containers.
      *
@@ -61,6 +147,13 @@ public interface ContainerService {
      */
     String getAllContainersStats();
     
+    /**
+     * Sample the resource usage of running containers.
+     *
+     * @return the stats of each running container
+     */
+    List<ContainerStats> sampleContainersStats();
+    
     /**
      * Delete image string.
      *
@@ -70,6 +163,32 @@ public interface ContainerService {
      */
     String deleteImage(String imageName);
     
+    /**
+     * Delete several images at once.
+     *
+     * @param imageNames the image names
+     * @return the string
+     */
+    String deleteImages(List<String> imageNames);
+    
+    /**
+     * Delete the images with the given label that are not used by any container and are older than the given age.
+     *
+     * @param label  the label
+     * @param minAge the min age of the images in millis
+     * @return the reclaimed space in bytes
+     */
+    long pruneImages(String label, long minAge);
+    
+    /**
+     * Delete the stopped containers with the given label that are older than the given age.
+     *
+     * @param label  the label
+     * @param minAge the min age of the containers in millis
+     * @return the reclaimed space in bytes
+     */
+    long pruneContainers(String label, long minAge);
+    
     /**
      * Is up boolean.
      *
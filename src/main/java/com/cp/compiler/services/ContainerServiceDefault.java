@@ -1,23 +1,36 @@
 package com.cp.compiler.services;
 
 import com.cp.compiler.exceptions.*;
+import com.cp.compiler.models.ContainerStats;
 import com.cp.compiler.models.ProcessOutput;
+import com.cp.compiler.wellknownconstants.WellKnownFiles;
+import com.cp.compiler.wellknownconstants.WellKnownFolders;
+import com.cp.compiler.wellknownconstants.WellKnownLabels;
 import com.cp.compiler.wellknownconstants.WellKnownMetrics;
 import com.cp.compiler.utils.CmdUtils;
+import com.cp.compiler.utils.ContainerStatsUtils;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
- * This class provides Docker utilities that are used by the compiler
+ * This class provides Docker utilities that are used by the compiler, through the docker CLI
  *
  * @author Zakaria Maaraki
  */
 @Slf4j
 @Service
+@ConditionalOnProperty(name = "compiler.docker.client", havingValue = "cli", matchIfMissing = true)
 public class ContainerServiceDefault implements ContainerService {
     
     /**
@@ -29,6 +42,23 @@ public class ContainerServiceDefault implements ContainerService {
      * The constant COMMAND_TIMEOUT.
      */
     public static final int COMMAND_TIMEOUT = 2000;
+    
+    /**
+     * The constant LIFECYCLE_COMMAND_TIMEOUT, used to create, copy files to and delete containers.
+     */
+    public static final int LIFECYCLE_COMMAND_TIMEOUT = 10000;
+    
+    /**
+     * The constant PRUNE_COMMAND_TIMEOUT, used to delete unused images and containers at once.
+     */
+    public static final int PRUNE_COMMAND_TIMEOUT = 60000;
+    
+    private static final long BYTES_IN_MB = 1024 * 1024;
+    
+    private static final String CONTAINER_NAME_PREFIX = "execution-";
+    
+    // Runner containers are labeled like execution images, so leaked ones can be pruned
+    private static final String EXECUTION_LABEL_OPTION = "--label=" + WellKnownLabels.EXECUTION_LABEL + "=true";
 
     private final MeterRegistry meterRegistry;
 
@@ -38,6 +68,18 @@ public class ContainerServiceDefault implements ContainerService {
     
     private final Resources resources;
     
+    // in MB, max size of the stdout and of the stderr of an execution
+    @Value("${compiler.execution.max-output-size:64}")
+    private long maxOutputSize;
+    
+    // in MB, min memory limit of a container
+    @Value("${compiler.execution.min-container-memory:256}")
+    private int minContainerMemory;
+    
+    // max number of processes and threads in a container, 0 means unlimited
+    @Value("${compiler.execution.max-pids:1024}")
+    private int maxPids;
+    
     /**
      * Instantiates a new Container service.
      *
@@ -77,18 +119,125 @@ public class ContainerServiceDefault implements ContainerService {
      * @return ProcessOutput
      */
     @Override
-    public ProcessOutput runContainer(String imageName, long timeout) {
-        return runTimer.record(() -> {
-            try {
-                var cpus = "--cpus=" + resources.getMaxCpus();
-                String[] dockerCommand = new String[]{"docker", "run", cpus, "--rm", imageName};
-                return CmdUtils.executeProcess(dockerCommand, timeout);
-            } catch(ProcessExecutionTimeoutException processExecutionTimeoutException) {
-                throw new ContainerOperationTimeoutException(processExecutionTimeoutException.getMessage());
-            } catch(ProcessExecutionException processExecutionException) {
-                throw new ContainerFailedDependencyException();
-            }
-        });
+    public ProcessOutput runContainer(String imageName, long timeout, int memoryLimit) {
+        var cpus = "--cpus=" + resources.getMaxCpus();
+        // Named, so the container can be killed if it exceeds the timeout or the output limit
+        String containerName = CONTAINER_NAME_PREFIX + UUID.randomUUID();
+        List<String> dockerCommand = new ArrayList<>(List.of("docker", "run", cpus));
+        dockerCommand.addAll(getLimitsOptions(memoryLimit));
+        dockerCommand.addAll(List.of("--name=" + containerName, "--rm", imageName));
+        return executeContainerRun(dockerCommand.toArray(new String[0]), containerName, timeout);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String createContainer(String imageName, int memoryLimit) {
+        var cpus = "--cpus=" + resources.getMaxCpus();
+        List<String> command = new ArrayList<>(List.of("docker", "create", cpus));
+        command.addAll(getLimitsOptions(memoryLimit));
+        command.add(EXECUTION_LABEL_OPTION);
+        command.add(imageName);
+        return executeContainerCommand(command.toArray(new String[0]), LIFECYCLE_COMMAND_TIMEOUT).trim();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String createContainer(String imageName, int memoryLimit, String folder, List<String> readOnlyFiles) {
+        var cpus = "--cpus=" + resources.getMaxCpus();
+        List<String> command = new ArrayList<>(List.of("docker", "create", cpus));
+        command.addAll(getLimitsOptions(memoryLimit));
+        command.add(EXECUTION_LABEL_OPTION);
+        // The path is resolved by the docker daemon, the folder must have the same path on the host
+        Path source = Path.of(folder).toAbsolutePath();
+        command.add("--volume=" + source + ":" + WellKnownFolders.CONTAINER_WORKING_DIRECTORY);
+        for (String fileName : readOnlyFiles) {
+            command.add("--volume=" + source.resolve(fileName) + ":"
+                    + WellKnownFolders.CONTAINER_WORKING_DIRECTORY + "/" + fileName + ":ro");
+        }
+        command.add(imageName);
+        return executeContainerCommand(command.toArray(new String[0]), LIFECYCLE_COMMAND_TIMEOUT).trim();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String copyToContainer(String folder, String containerId) {
+        // The trailing "/." copies the content of the folder and not the folder itself
+        String destination = containerId + ":" + WellKnownFolders.CONTAINER_WORKING_DIRECTORY;
+        String[] command = {"docker", "cp", folder + "/.", destination};
+        return executeContainerCommand(command, LIFECYCLE_COMMAND_TIMEOUT);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String copyFromContainer(String containerId, String fileName, String destination) {
+        String source = containerId + ":" + WellKnownFolders.CONTAINER_WORKING_DIRECTORY + "/" + fileName;
+        String[] command = {"docker", "cp", source, destination};
+        return executeContainerCommand(command, LIFECYCLE_COMMAND_TIMEOUT);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ProcessOutput startContainer(String containerId, long timeout) {
+        String[] dockerCommand = new String[]{"docker", "start", "--attach", containerId};
+        return executeContainerRun(dockerCommand, containerId, timeout);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String startIdleContainer(String imageName) {
+        var cpus = "--cpus=" + resources.getMaxCpus();
+        // tail is available in all images (including busybox based ones) and keeps the container alive
+        String[] command = {
+                "docker", "run", "-d", cpus, EXECUTION_LABEL_OPTION, "--entrypoint", "tail", imageName, "-f", "/dev/null"
+        };
+        return executeContainerCommand(command, LIFECYCLE_COMMAND_TIMEOUT).trim();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String updateContainerLimits(String containerId, int memoryLimit) {
+        List<String> command = new ArrayList<>(List.of("docker", "update"));
+        command.addAll(getLimitsOptions(memoryLimit));
+        command.add(containerId);
+        return executeContainerCommand(command.toArray(new String[0]), LIFECYCLE_COMMAND_TIMEOUT);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ProcessOutput executeInContainer(String containerId, long timeout) {
+        String[] dockerCommand = new String[]{
+                "docker",
+                "exec",
+                "-w",
+                WellKnownFolders.CONTAINER_WORKING_DIRECTORY,
+                containerId,
+                "./" + WellKnownFiles.ENTRYPOINT_FILE_NAME};
+        return executeContainerRun(dockerCommand, containerId, timeout);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String deleteContainer(String containerId) {
+        String[] command = {"docker", "rm", "-f", containerId};
+        return executeContainerCommand(command, LIFECYCLE_COMMAND_TIMEOUT);
     }
     
     /**
@@ -112,6 +261,16 @@ public class ContainerServiceDefault implements ContainerService {
         return executeContainerCommand(command, COMMAND_TIMEOUT);
     }
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<ContainerStats> sampleContainersStats() {
+        String[] command = {"docker", "stats", "--no-stream", "--format", ContainerStatsUtils.DOCKER_STATS_FORMAT};
+        // docker stats waits for two samples of each container to compute the cpu usage
+        return ContainerStatsUtils.parseDockerStats(executeContainerCommand(command, LIFECYCLE_COMMAND_TIMEOUT));
+    }
+    
     /**
      * {@inheritDoc}
      */
@@ -127,6 +286,37 @@ public class ContainerServiceDefault implements ContainerService {
         return executeContainerCommand(command, COMMAND_TIMEOUT);
     }
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String deleteImages(List<String> imageNames) {
+        List<String> command = new ArrayList<>(List.of("docker", "rmi", "-f"));
+        command.addAll(imageNames);
+        return executeContainerCommand(command.toArray(new String[0]), LIFECYCLE_COMMAND_TIMEOUT);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long pruneImages(String label, long minAge) {
+        // -a prunes unused images and not only dangling ones
+        String[] command = {"docker", "image", "prune", "-a", "-f", "--filter", "label=" + label,
+                "--filter", "until=" + TimeUnit.MILLISECONDS.toSeconds(minAge) + "s"};
+        return ContainerStatsUtils.parseReclaimedSpace(executeContainerCommand(command, PRUNE_COMMAND_TIMEOUT));
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long pruneContainers(String label, long minAge) {
+        String[] command = {"docker", "container", "prune", "-f", "--filter", "label=" + label,
+                "--filter", "until=" + TimeUnit.MILLISECONDS.toSeconds(minAge) + "s"};
+        return ContainerStatsUtils.parseReclaimedSpace(executeContainerCommand(command, PRUNE_COMMAND_TIMEOUT));
+    }
+    
     @Override
     public boolean isUp() {
         String[] command = {"docker", "ps"};
@@ -139,6 +329,50 @@ public class ContainerServiceDefault implements ContainerService {
         return "Docker";
     }
     
+    // Destroying the docker cli does not stop the container, it's killed when it exceeds the timeout or the output limit
+    private ProcessOutput executeContainerRun(String[] dockerCommand, String container, long timeout) {
+        return runTimer.record(() -> {
+            try {
+                return CmdUtils.executeProcess(dockerCommand, timeout, getMaxOutputSizeInBytes());
+            } catch(ProcessExecutionTimeoutException processExecutionTimeoutException) {
+                killQuietly(container);
+                throw new ContainerOperationTimeoutException(processExecutionTimeoutException.getMessage());
+            } catch(ProcessOutputLimitExceededException processOutputLimitExceededException) {
+                killQuietly(container);
+                throw new ContainerOutputLimitExceededException(processOutputLimitExceededException.getMessage());
+            } catch(ProcessExecutionException processExecutionException) {
+                throw new ContainerFailedDependencyException();
+            }
+        });
+    }
+    
+    private void killQuietly(String container) {
+        try {
+            CmdUtils.executeProcess(new String[]{"docker", "kill", container}, COMMAND_TIMEOUT);
+        } catch (Exception e) {
+            // The container might have already exited
+            log.warn("Error while killing the container {}: {}", container, e.getMessage());
+        }
+    }
+    
+    // The swap limit is the same as the memory limit, so the container can't use the swap
+    private List<String> getLimitsOptions(int memoryLimit) {
+        // The compilation runs in the same container, so the container gets at least the min memory
+        int containerMemory = Math.max(memoryLimit, minContainerMemory);
+        List<String> options = new ArrayList<>();
+        options.add("--memory=" + containerMemory + "m");
+        options.add("--memory-swap=" + containerMemory + "m");
+        if (maxPids > 0) {
+            options.add("--pids-limit=" + maxPids);
+        }
+        return options;
+    }
+    
+    private long getMaxOutputSizeInBytes() {
+        // 0 means that the output is not limited
+        return maxOutputSize > 0 ? maxOutputSize * BYTES_IN_MB : CmdUtils.UNLIMITED_OUTPUT_SIZE;
+    }
+    
     private String executeContainerCommand(String[] command, long timeout) {
         try {
             ProcessOutput processOutput = CmdUtils.executeProcess(command, timeout);
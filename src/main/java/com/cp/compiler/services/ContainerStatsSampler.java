@@ -0,0 +1,48 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.models.ContainerStatsSample;
+
+import java.util.List;
+
+/**
+ * The interface Container stats sampler.
+ * The resource usage of running containers is sampled in the background at a fixed interval and kept in memory,
+ * so monitoring reads the samples instead of querying the container engine on each call.
+ */
+public interface ContainerStatsSampler {
+    
+    /**
+     * Is enabled boolean.
+     *
+     * @return true if containers stats are sampled in the background
+     */
+    boolean isEnabled();
+    
+    /**
+     * Gets latest sample, the containers are sampled now if the sampler is disabled or has no sample yet.
+     *
+     * @return the latest sample
+     */
+    ContainerStatsSample getLatestSample();
+    
+    /**
+     * Gets samples.
+     *
+     * @return the kept samples, from the oldest to the latest
+     */
+    List<ContainerStatsSample> getSamples();
+    
+    /**
+     * Gets running containers, cached for the sampling interval.
+     *
+     * @return the running containers
+     */
+    String getRunningContainers();
+    
+    /**
+     * Gets images, cached for the sampling interval.
+     *
+     * @return the images
+     */
+    String getImages();
+}
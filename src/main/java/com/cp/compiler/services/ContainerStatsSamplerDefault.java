@@ -0,0 +1,207 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.models.ContainerStats;
+import com.cp.compiler.models.ContainerStatsSample;
+import com.cp.compiler.wellknownconstants.WellKnownMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The type Container stats sampler.
+ * Samples are kept in a ring buffer of a fixed size, the oldest sample is overwritten by the next one.
+ * Gauges publish the sum of the resource usage of running containers from the latest sample, per container gauges
+ * are not published because containers live for a single execution.
+ */
+@Slf4j
+@Service
+public class ContainerStatsSamplerDefault implements ContainerStatsSampler {
+    
+    private final ContainerService containerService;
+    
+    private final MeterRegistry meterRegistry;
+    
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "container-stats-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private ContainerStatsSample[] samples;
+    
+    // Index of the next sample in the ring buffer
+    private int next;
+    
+    private int count;
+    
+    private CachedOutput runningContainers;
+    
+    private CachedOutput images;
+    
+    @Getter
+    @Value("${compiler.container-stats.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${compiler.container-stats.interval:10000}")
+    private long interval; // in millis
+    
+    @Value("${compiler.container-stats.history-size:60}")
+    private int historySize;
+    
+    /**
+     * Instantiates a new Container stats sampler.
+     *
+     * @param containerService the container service
+     * @param meterRegistry    the meter registry
+     */
+    public ContainerStatsSamplerDefault(ContainerService containerService, MeterRegistry meterRegistry) {
+        this.containerService = containerService;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    /**
+     * Init.
+     */
+    @PostConstruct
+    public void init() {
+        samples = new ContainerStatsSample[Math.max(historySize, 1)];
+        runningContainers = new CachedOutput(containerService::getRunningContainers);
+        images = new CachedOutput(containerService::getImages);
+        
+        registerGauge(WellKnownMetrics.CONTAINERS_GAUGE, stats -> 1);
+        registerGauge(WellKnownMetrics.CONTAINERS_CPU_GAUGE, ContainerStats::getCpuPercentage);
+        registerGauge(WellKnownMetrics.CONTAINERS_MEMORY_GAUGE, ContainerStats::getMemoryUsage);
+        registerGauge(WellKnownMetrics.CONTAINERS_NETWORK_INPUT_GAUGE, ContainerStats::getNetworkInput);
+        registerGauge(WellKnownMetrics.CONTAINERS_NETWORK_OUTPUT_GAUGE, ContainerStats::getNetworkOutput);
+        registerGauge(WellKnownMetrics.CONTAINERS_BLOCK_INPUT_GAUGE, ContainerStats::getBlockInput);
+        registerGauge(WellKnownMetrics.CONTAINERS_BLOCK_OUTPUT_GAUGE, ContainerStats::getBlockOutput);
+        registerGauge(WellKnownMetrics.CONTAINERS_PIDS_GAUGE, ContainerStats::getPids);
+    }
+    
+    /**
+     * Start sampling once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        log.info("Sampling containers stats every {} ms", interval);
+        // With a fixed delay, a slow sample delays the next one instead of piling up
+        scheduler.scheduleWithFixedDelay(this::sample, 0, interval, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Stop sampling.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+    
+    /**
+     * Sample the stats of running containers and add them to the ring buffer.
+     *
+     * @return the sample, null if the container engine could not be sampled
+     */
+    public ContainerStatsSample sample() {
+        try {
+            List<ContainerStats> stats = containerService.sampleContainersStats();
+            ContainerStatsSample sample = new ContainerStatsSample(
+                    LocalDateTime.now(), stats == null ? List.of() : List.copyOf(stats));
+            add(sample);
+            return sample;
+        } catch (Exception e) {
+            log.warn("Error while sampling containers stats: {}", e.getMessage());
+            return null;
+        }
+    }
+    
+    private synchronized void add(ContainerStatsSample sample) {
+        samples[next] = sample;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+    }
+    
+    @Override
+    public ContainerStatsSample getLatestSample() {
+        ContainerStatsSample latestSample = enabled ? getLatestSampledSample() : null;
+        return latestSample != null ? latestSample : sample();
+    }
+    
+    private synchronized ContainerStatsSample getLatestSampledSample() {
+        return count == 0 ? null : samples[(next - 1 + samples.length) % samples.length];
+    }
+    
+    @Override
+    public synchronized List<ContainerStatsSample> getSamples() {
+        List<ContainerStatsSample> orderedSamples = new ArrayList<>(count);
+        int oldest = (next - count + samples.length) % samples.length;
+        for (int i = 0; i < count; i++) {
+            orderedSamples.add(samples[(oldest + i) % samples.length]);
+        }
+        return orderedSamples;
+    }
+    
+    @Override
+    public String getRunningContainers() {
+        return enabled ? runningContainers.get(interval) : containerService.getRunningContainers();
+    }
+    
+    @Override
+    public String getImages() {
+        return enabled ? images.get(interval) : containerService.getImages();
+    }
+    
+    private void registerGauge(String name, ToDoubleFunction<ContainerStats> value) {
+        meterRegistry.gauge(name, this, sampler -> sampler.sumOfLatestSample(value));
+    }
+    
+    private double sumOfLatestSample(ToDoubleFunction<ContainerStats> value) {
+        ContainerStatsSample latestSample = getLatestSampledSample();
+        if (latestSample == null) {
+            return 0;
+        }
+        return latestSample.getContainers().stream().mapToDouble(value).sum();
+    }
+    
+    /**
+     * An output of the container engine, reused until it's older than the given time to live.
+     */
+    private static class CachedOutput {
+        
+        private final Supplier<String> supplier;
+        
+        private String value;
+        
+        private long expiration;
+        
+        private CachedOutput(Supplier<String> supplier) {
+            this.supplier = supplier;
+        }
+        
+        private synchronized String get(long timeToLive) {
+            long now = System.currentTimeMillis();
+            if (value == null || now >= expiration) {
+                value = supplier.get();
+                expiration = now + timeToLive;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,751 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.exceptions.ContainerFailedDependencyException;
+import com.cp.compiler.exceptions.ContainerOperationTimeoutException;
+import com.cp.compiler.exceptions.ContainerOutputLimitExceededException;
+import com.cp.compiler.models.ContainerStats;
+import com.cp.compiler.models.ProcessOutput;
+import com.cp.compiler.utils.CmdUtils;
+import com.cp.compiler.wellknownconstants.WellKnownFiles;
+import com.cp.compiler.wellknownconstants.WellKnownFolders;
+import com.cp.compiler.wellknownconstants.WellKnownLabels;
+import com.cp.compiler.wellknownconstants.WellKnownMetrics;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.command.BuildImageResultCallback;
+import com.github.dockerjava.api.command.InspectExecResponse;
+import com.github.dockerjava.api.command.PruneCmd;
+import com.github.dockerjava.api.command.WaitContainerResultCallback;
+import com.github.dockerjava.api.exception.NotFoundException;
+import com.github.dockerjava.api.model.AccessMode;
+import com.github.dockerjava.api.model.Bind;
+import com.github.dockerjava.api.model.BlkioStatEntry;
+import com.github.dockerjava.api.model.BuildResponseItem;
+import com.github.dockerjava.api.model.Container;
+import com.github.dockerjava.api.model.Frame;
+import com.github.dockerjava.api.model.HostConfig;
+import com.github.dockerjava.api.model.Image;
+import com.github.dockerjava.api.model.PruneType;
+import com.github.dockerjava.api.model.StatisticNetworksConfig;
+import com.github.dockerjava.api.model.Statistics;
+import com.github.dockerjava.api.model.StreamType;
+import com.github.dockerjava.api.model.Volume;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This class provides Docker utilities through the Docker Engine API instead of the docker CLI.
+ * Calls reuse the pooled connections of the docker client, so they don't pay a process fork and the startup of the
+ * CLI, and outputs of executions are streamed from the attached container.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "compiler.docker.client", havingValue = "api")
+public class DockerApiContainerService implements ContainerService {
+    
+    private static final long BYTES_IN_MB = 1024 * 1024;
+    
+    private static final long NANO_CPUS_IN_CPU = 1_000_000_000L;
+    
+    // Time to get the exit code once the output stream of the container is closed
+    private static final long EXIT_CODE_TIMEOUT = 2000;
+    
+    // Time between two inspections of an exec that is still running once its output stream is closed
+    private static final long EXIT_CODE_POLL_INTERVAL = 50;
+    
+    private final MeterRegistry meterRegistry;
+    
+    private final Resources resources;
+    
+    private final DockerClient dockerClient;
+    
+    private Timer buildTimer;
+    
+    private Timer runTimer;
+    
+    // in MB, max size of the stdout and of the stderr of an execution
+    @Value("${compiler.execution.max-output-size:64}")
+    private long maxOutputSize;
+    
+    // in MB, min memory limit of a container
+    @Value("${compiler.execution.min-container-memory:256}")
+    private int minContainerMemory;
+    
+    // max number of processes and threads in a container, 0 means unlimited
+    @Value("${compiler.execution.max-pids:1024}")
+    private int maxPids;
+    
+    /**
+     * Instantiates a new Docker api container service.
+     *
+     * @param meterRegistry the meter registry
+     * @param resources     the resources
+     * @param dockerClient  the docker client
+     */
+    public DockerApiContainerService(MeterRegistry meterRegistry, Resources resources, DockerClient dockerClient) {
+        this.meterRegistry = meterRegistry;
+        this.resources = resources;
+        this.dockerClient = dockerClient;
+    }
+    
+    /**
+     * Init.
+     */
+    @PostConstruct
+    public void init() {
+        buildTimer = meterRegistry.timer(WellKnownMetrics.CONTAINER_BUILD_TIMER, "container", "docker");
+        runTimer = meterRegistry.timer(WellKnownMetrics.CONTAINER_RUN_TIMER, "container", "docker");
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String buildImage(String folder, String imageName) {
+        return buildTimer.record(() -> {
+            StringBuilder buildLogs = new StringBuilder();
+            BuildImageResultCallback callback = new BuildImageResultCallback() {
+                @Override
+                public void onNext(BuildResponseItem item) {
+                    if (item.getStream() != null) {
+                        buildLogs.append(item.getStream());
+                    }
+                    super.onNext(item);
+                }
+            };
+            try {
+                dockerClient.buildImageCmd(new File(folder))
+                        .withTags(Set.of(imageName))
+                        .exec(callback)
+                        .awaitImageId(ContainerServiceDefault.BUILD_TIMEOUT, TimeUnit.MILLISECONDS);
+            } catch (RuntimeException e) {
+                throw failedDependency(e);
+            }
+            return buildLogs.toString();
+        });
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ProcessOutput runContainer(String imageName, long timeout, int memoryLimit) {
+        String containerId = createContainer(imageName, memoryLimit);
+        try {
+            return startContainer(containerId, timeout);
+        } finally {
+            // Same as --rm, the container is removed once it exits
+            deleteQuietly(containerId);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String createContainer(String imageName, int memoryLimit) {
+        return createContainer(imageName, getHostConfig(memoryLimit));
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String createContainer(String imageName, int memoryLimit, String folder, List<String> readOnlyFiles) {
+        // The path is resolved by the docker daemon, the folder must have the same path on the host
+        Path source = Path.of(folder).toAbsolutePath();
+        List<Bind> binds = new ArrayList<>();
+        binds.add(new Bind(source.toString(), new Volume(WellKnownFolders.CONTAINER_WORKING_DIRECTORY)));
+        for (String fileName : readOnlyFiles) {
+            binds.add(new Bind(
+                    source.resolve(fileName).toString(),
+                    new Volume(WellKnownFolders.CONTAINER_WORKING_DIRECTORY + "/" + fileName),
+                    AccessMode.ro));
+        }
+        return createContainer(imageName, getHostConfig(memoryLimit).withBinds(binds));
+    }
+    
+    private String createContainer(String imageName, HostConfig hostConfig) {
+        try {
+            // Runner containers are labeled like execution images, so leaked ones can be pruned
+            return dockerClient.createContainerCmd(imageName)
+                    .withHostConfig(hostConfig)
+                    .withLabels(Map.of(WellKnownLabels.EXECUTION_LABEL, "true"))
+                    .exec()
+                    .getId();
+        } catch (RuntimeException e) {
+            throw failedDependency(e);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String copyToContainer(String folder, String containerId) {
+        try {
+            // Only the content of the folder is copied, and not the folder itself
+            dockerClient.copyArchiveToContainerCmd(containerId)
+                    .withHostResource(folder)
+                    .withDirChildrenOnly(true)
+                    .withRemotePath(WellKnownFolders.CONTAINER_WORKING_DIRECTORY)
+                    .exec();
+            return "";
+        } catch (RuntimeException e) {
+            throw failedDependency(e);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String copyFromContainer(String containerId, String fileName, String destination) {
+        String source = WellKnownFolders.CONTAINER_WORKING_DIRECTORY + "/" + fileName;
+        // The file is received as a tar archive containing a single entry
+        try (InputStream archive = dockerClient.copyArchiveFromContainerCmd(containerId, source).exec();
+             TarArchiveInputStream tarInputStream = new TarArchiveInputStream(archive)) {
+            if (tarInputStream.getNextTarEntry() == null) {
+                throw new ContainerFailedDependencyException();
+            }
+            Files.copy(tarInputStream, Path.of(destination), StandardCopyOption.REPLACE_EXISTING);
+            return "";
+        } catch (ContainerFailedDependencyException e) {
+            throw e;
+        } catch (Exception e) {
+            throw failedDependency(e);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ProcessOutput startContainer(String containerId, long timeout) {
+        return runTimer.record(() -> {
+            OutputCallback callback = new OutputCallback(getMaxOutputSizeInBytes());
+            long executionStartTime = System.currentTimeMillis();
+            try {
+                // Attached before the start, so the beginning of the output is not missed
+                dockerClient.attachContainerCmd(containerId)
+                        .withStdOut(true)
+                        .withStdErr(true)
+                        .withFollowStream(true)
+                        .exec(callback)
+                        .awaitStarted();
+                dockerClient.startContainerCmd(containerId).exec();
+                awaitOutput(callback, containerId, timeout);
+                int status = dockerClient.waitContainerCmd(containerId)
+                        .exec(new WaitContainerResultCallback())
+                        .awaitStatusCode(EXIT_CODE_TIMEOUT, TimeUnit.MILLISECONDS);
+                return callback.toProcessOutput(status, System.currentTimeMillis() - executionStartTime);
+            } catch (ContainerOperationTimeoutException | ContainerOutputLimitExceededException e) {
+                throw e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw failedDependency(e);
+            } catch (Exception e) {
+                throw failedDependency(e);
+            }
+        });
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String startIdleContainer(String imageName) {
+        HostConfig hostConfig = HostConfig.newHostConfig().withNanoCPUs(getNanoCpus());
+        // The pids limit can't be updated through the API, it's set once for all the executions of the container
+        if (maxPids > 0) {
+            hostConfig.withPidsLimit((long) maxPids);
+        }
+        try {
+            // tail is available in all images (including busybox based ones) and keeps the container alive
+            String containerId = dockerClient.createContainerCmd(imageName)
+                    .withEntrypoint("tail")
+                    .withCmd("-f", "/dev/null")
+                    .withLabels(Map.of(WellKnownLabels.EXECUTION_LABEL, "true"))
+                    .withHostConfig(hostConfig)
+                    .exec()
+                    .getId();
+            dockerClient.startContainerCmd(containerId).exec();
+            return containerId;
+        } catch (RuntimeException e) {
+            throw failedDependency(e);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String updateContainerLimits(String containerId, int memoryLimit) {
+        long containerMemory = getContainerMemoryInBytes(memoryLimit);
+        try {
+            dockerClient.updateContainerCmd(containerId)
+                    .withMemory(containerMemory)
+                    .withMemorySwap(containerMemory)
+                    .exec();
+            return containerId;
+        } catch (RuntimeException e) {
+            throw failedDependency(e);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ProcessOutput executeInContainer(String containerId, long timeout) {
+        return runTimer.record(() -> {
+            OutputCallback callback = new OutputCallback(getMaxOutputSizeInBytes());
+            long executionStartTime = System.currentTimeMillis();
+            try {
+                String execId = dockerClient.execCreateCmd(containerId)
+                        .withWorkingDir(WellKnownFolders.CONTAINER_WORKING_DIRECTORY)
+                        .withCmd("./" + WellKnownFiles.ENTRYPOINT_FILE_NAME)
+                        .withAttachStdout(true)
+                        .withAttachStderr(true)
+                        .exec()
+                        .getId();
+                dockerClient.execStartCmd(execId).exec(callback);
+                awaitOutput(callback, containerId, timeout);
+                int status = awaitExitCode(execId);
+                return callback.toProcessOutput(status, System.currentTimeMillis() - executionStartTime);
+            } catch (ContainerOperationTimeoutException | ContainerOutputLimitExceededException e) {
+                throw e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw failedDependency(e);
+            } catch (Exception e) {
+                throw failedDependency(e);
+            }
+        });
+    }
+    
+    // The output stream can be closed before the exec is marked as exited, its exit code is null until then
+    private int awaitExitCode(String execId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + EXIT_CODE_TIMEOUT;
+        while (true) {
+            InspectExecResponse response = dockerClient.inspectExecCmd(execId).exec();
+            if (!Boolean.TRUE.equals(response.isRunning())) {
+                Long exitCode = response.getExitCodeLong();
+                if (exitCode == null) {
+                    throw new IllegalStateException("No exit code reported for the exec " + execId);
+                }
+                return exitCode.intValue();
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                throw new IllegalStateException(
+                        "The exec " + execId + " is still running " + EXIT_CODE_TIMEOUT + " Millis after its output");
+            }
+            Thread.sleep(EXIT_CODE_POLL_INTERVAL);
+        }
+    }
+    
+    // Waits for the end of the output stream, the container is killed if it exceeds the timeout or the output limit
+    private void awaitOutput(OutputCallback callback, String containerId, long timeout) throws Exception {
+        boolean completed = callback.awaitCompletion(timeout, TimeUnit.MILLISECONDS);
+        if (callback.isOutputLimitExceeded()) {
+            log.info("The container output exceeded the {} bytes allowed", callback.maxOutputSize);
+            killQuietly(containerId);
+            callback.close();
+            throw new ContainerOutputLimitExceededException(
+                    "The container output exceeded the " + callback.maxOutputSize + " bytes allowed");
+        }
+        if (!completed) {
+            log.info("The container exceeded the {} Millis allowed for its execution", timeout);
+            killQuietly(containerId);
+            callback.close();
+            throw new ContainerOperationTimeoutException(
+                    "The container exceeded the " + timeout + " Millis allowed for its execution");
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String deleteContainer(String containerId) {
+        try {
+            dockerClient.removeContainerCmd(containerId).withForce(true).exec();
+            return containerId;
+        } catch (RuntimeException e) {
+            throw failedDependency(e);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getRunningContainers() {
+        try {
+            StringBuilder containers = new StringBuilder("CONTAINER ID\tIMAGE\tSTATUS\tNAMES\n");
+            for (Container container : dockerClient.listContainersCmd().exec()) {
+                containers.append(shortId(container.getId())).append('\t')
+                        .append(container.getImage()).append('\t')
+                        .append(container.getStatus()).append('\t')
+                        .append(String.join(",", container.getNames())).append('\n');
+            }
+            return containers.toString();
+        } catch (RuntimeException e) {
+            throw failedDependency(e);
+        }
+    }
+    
+    @Override
+    public String getContainersStats() {
+        return getContainersStats(false);
+    }
+    
+    @Override
+    public String getAllContainersStats() {
+        return getContainersStats(true);
+    }
+    
+    private String getContainersStats(boolean all) {
+        try {
+            StringBuilder stats = new StringBuilder("CONTAINER ID\tMEM USAGE\tMEM LIMIT\n");
+            for (Container container : dockerClient.listContainersCmd().withShowAll(all).exec()) {
+                Statistics statistics = getStatistics(container.getId());
+                stats.append(shortId(container.getId())).append('\t');
+                if (statistics == null || statistics.getMemoryStats() == null) {
+                    stats.append("-\t-\n");
+                    continue;
+                }
+                stats.append(statistics.getMemoryStats().getUsage()).append('\t')
+                        .append(statistics.getMemoryStats().getLimit()).append('\n');
+            }
+            return stats.toString();
+        } catch (RuntimeException e) {
+            throw failedDependency(e);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<ContainerStats> sampleContainersStats() {
+        try {
+            List<ContainerStats> stats = new ArrayList<>();
+            for (Container container : dockerClient.listContainersCmd().exec()) {
+                Statistics statistics = getStatistics(container.getId());
+                // The container might have exited in between
+                if (statistics != null && statistics.getMemoryStats() != null) {
+                    stats.add(toContainerStats(container, statistics));
+                }
+            }
+            return stats;
+        } catch (RuntimeException e) {
+            throw failedDependency(e);
+        }
+    }
+    
+    private static ContainerStats toContainerStats(Container container, Statistics statistics) {
+        long networkInput = 0;
+        long networkOutput = 0;
+        if (statistics.getNetworks() != null) {
+            for (StatisticNetworksConfig network : statistics.getNetworks().values()) {
+                networkInput += valueOf(network.getRxBytes());
+                networkOutput += valueOf(network.getTxBytes());
+            }
+        }
+        long blockInput = 0;
+        long blockOutput = 0;
+        if (statistics.getBlkioStats() != null && statistics.getBlkioStats().getIoServiceBytesRecursive() != null) {
+            for (BlkioStatEntry entry : statistics.getBlkioStats().getIoServiceBytesRecursive()) {
+                if ("read".equalsIgnoreCase(entry.getOp())) {
+                    blockInput += valueOf(entry.getValue());
+                } else if ("write".equalsIgnoreCase(entry.getOp())) {
+                    blockOutput += valueOf(entry.getValue());
+                }
+            }
+        }
+        return ContainerStats
+                .builder()
+                .id(shortId(container.getId()))
+                .name(container.getNames().length > 0 ? container.getNames()[0].replaceFirst("^/", "") : "")
+                .cpuPercentage(getCpuPercentage(statistics))
+                .memoryUsage(valueOf(statistics.getMemoryStats().getUsage()))
+                .memoryLimit(valueOf(statistics.getMemoryStats().getLimit()))
+                .networkInput(networkInput)
+                .networkOutput(networkOutput)
+                .blockInput(blockInput)
+                .blockOutput(blockOutput)
+                .pids(statistics.getPidsStats() == null ? 0 : valueOf(statistics.getPidsStats().getCurrent()))
+                .build();
+    }
+    
+    // Same computation as docker stats, from the cpu usage of the previous sample
+    private static double getCpuPercentage(Statistics statistics) {
+        if (statistics.getCpuStats() == null || statistics.getPreCpuStats() == null
+                || statistics.getCpuStats().getCpuUsage() == null
+                || statistics.getPreCpuStats().getCpuUsage() == null) {
+            return 0;
+        }
+        long cpuDelta = valueOf(statistics.getCpuStats().getCpuUsage().getTotalUsage())
+                - valueOf(statistics.getPreCpuStats().getCpuUsage().getTotalUsage());
+        long systemDelta = valueOf(statistics.getCpuStats().getSystemCpuUsage())
+                - valueOf(statistics.getPreCpuStats().getSystemCpuUsage());
+        long onlineCpus = valueOf(statistics.getCpuStats().getOnlineCpus());
+        if (cpuDelta <= 0 || systemDelta <= 0) {
+            return 0;
+        }
+        return (double) cpuDelta / systemDelta * Math.max(onlineCpus, 1) * 100;
+    }
+    
+    private static long valueOf(Long value) {
+        return value == null ? 0 : value;
+    }
+    
+    // A single sample, like docker stats --no-stream
+    private Statistics getStatistics(String containerId) {
+        StatisticsCallback callback = new StatisticsCallback();
+        try (callback) {
+            dockerClient.statsCmd(containerId).withNoStream(true).exec(callback);
+            callback.awaitCompletion(ContainerServiceDefault.COMMAND_TIMEOUT, TimeUnit.MILLISECONDS);
+            return callback.statistics;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            log.debug("Can't get the stats of the container {}: {}", containerId, e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getImages() {
+        try {
+            StringBuilder images = new StringBuilder("IMAGE ID\tREPOSITORY:TAG\tSIZE\n");
+            for (Image image : dockerClient.listImagesCmd().exec()) {
+                String[] repoTags = image.getRepoTags() == null ? new String[0] : image.getRepoTags();
+                images.append(shortId(image.getId())).append('\t')
+                        .append(String.join(",", repoTags)).append('\t')
+                        .append(image.getSize()).append('\n');
+            }
+            return images.toString();
+        } catch (RuntimeException e) {
+            throw failedDependency(e);
+        }
+    }
+    
+    @Override
+    public String deleteImage(String imageName) {
+        try {
+            dockerClient.removeImageCmd(imageName).withForce(true).exec();
+            return imageName;
+        } catch (RuntimeException e) {
+            throw failedDependency(e);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String deleteImages(List<String> imageNames) {
+        // The API removes one image per call, the calls share the pooled connections
+        try {
+            for (String imageName : imageNames) {
+                try {
+                    dockerClient.removeImageCmd(imageName).withForce(true).exec();
+                } catch (NotFoundException e) {
+                    log.debug("The image {} has already been deleted", imageName);
+                }
+            }
+            return String.join(",", imageNames);
+        } catch (RuntimeException e) {
+            throw failedDependency(e);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long pruneImages(String label, long minAge) {
+        // Not dangling only, same as docker image prune -a
+        return prune(dockerClient.pruneCmd(PruneType.IMAGES).withDangling(false), label, minAge);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long pruneContainers(String label, long minAge) {
+        return prune(dockerClient.pruneCmd(PruneType.CONTAINERS), label, minAge);
+    }
+    
+    private long prune(PruneCmd pruneCmd, String label, long minAge) {
+        try {
+            Long spaceReclaimed = pruneCmd
+                    .withLabelFilter(label)
+                    .withUntilFilter(TimeUnit.MILLISECONDS.toSeconds(minAge) + "s")
+                    .exec()
+                    .getSpaceReclaimed();
+            return valueOf(spaceReclaimed);
+        } catch (RuntimeException e) {
+            throw failedDependency(e);
+        }
+    }
+    
+    @Override
+    public boolean isUp() {
+        try {
+            dockerClient.pingCmd().exec();
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("The docker daemon is not reachable: {}", e.getMessage());
+            return false;
+        }
+    }
+    
+    @Override
+    public String getContainerizationName() {
+        return "Docker";
+    }
+    
+    // The swap limit is the same as the memory limit, so the container can't use the swap
+    private HostConfig getHostConfig(int memoryLimit) {
+        long containerMemory = getContainerMemoryInBytes(memoryLimit);
+        HostConfig hostConfig = HostConfig.newHostConfig()
+                .withNanoCPUs(getNanoCpus())
+                .withMemory(containerMemory)
+                .withMemorySwap(containerMemory);
+        if (maxPids > 0) {
+            hostConfig.withPidsLimit((long) maxPids);
+        }
+        return hostConfig;
+    }
+    
+    // The compilation runs in the same container, so the container gets at least the min memory
+    private long getContainerMemoryInBytes(int memoryLimit) {
+        return Math.max(memoryLimit, minContainerMemory) * BYTES_IN_MB;
+    }
+    
+    // 0 means that the cpus of the container are not limited, as with --cpus=0
+    private long getNanoCpus() {
+        return (long) (resources.getMaxCpus() * NANO_CPUS_IN_CPU);
+    }
+    
+    private long getMaxOutputSizeInBytes() {
+        // 0 means that the output is not limited
+        return maxOutputSize > 0 ? maxOutputSize * BYTES_IN_MB : CmdUtils.UNLIMITED_OUTPUT_SIZE;
+    }
+    
+    private void killQuietly(String containerId) {
+        try {
+            dockerClient.killContainerCmd(containerId).exec();
+        } catch (RuntimeException e) {
+            // The container might have exited in between
+            log.debug("Can't kill the container {}: {}", containerId, e.getMessage());
+        }
+    }
+    
+    private void deleteQuietly(String containerId) {
+        try {
+            dockerClient.removeContainerCmd(containerId).withForce(true).exec();
+        } catch (RuntimeException e) {
+            log.warn("Error, can't delete container {} : {}", containerId, e.getMessage());
+        }
+    }
+    
+    private static String shortId(String id) {
+        String hash = id.startsWith("sha256:") ? id.substring("sha256:".length()) : id;
+        return hash.length() > 12 ? hash.substring(0, 12) : hash;
+    }
+    
+    private static ContainerFailedDependencyException failedDependency(Exception e) {
+        log.error("Fatal error : {}", e.getMessage());
+        return new ContainerFailedDependencyException();
+    }
+    
+    /**
+     * Collects the stdout and the stderr frames of an attached container, until the output limit is exceeded.
+     */
+    private static class OutputCallback extends ResultCallback.Adapter<Frame> {
+        
+        private final long maxOutputSize;
+        
+        private final ByteArrayOutputStream stdOut = new ByteArrayOutputStream();
+        
+        private final ByteArrayOutputStream stdErr = new ByteArrayOutputStream();
+        
+        private final AtomicBoolean outputLimitExceeded = new AtomicBoolean(false);
+        
+        private OutputCallback(long maxOutputSize) {
+            this.maxOutputSize = maxOutputSize;
+        }
+        
+        @Override
+        public void onNext(Frame frame) {
+            ByteArrayOutputStream output = frame.getStreamType() == StreamType.STDERR ? stdErr : stdOut;
+            byte[] payload = frame.getPayload();
+            synchronized (this) {
+                if (output.size() + (long) payload.length > maxOutputSize) {
+                    outputLimitExceeded.set(true);
+                    // Stops the stream, the container is killed by the caller
+                    onComplete();
+                    return;
+                }
+                output.write(payload, 0, payload.length);
+            }
+        }
+        
+        private boolean isOutputLimitExceeded() {
+            return outputLimitExceeded.get();
+        }
+        
+        private synchronized ProcessOutput toProcessOutput(int status, long executionDuration) {
+            return ProcessOutput
+                    .builder()
+                    .stdOut(stdOut.toString(Charset.defaultCharset()))
+                    .stdErr(CmdUtils.buildErrorOutput(stdErr.toString(Charset.defaultCharset())))
+                    .status(status)
+                    .executionDuration(executionDuration)
+                    .build();
+        }
+    }
+    
+    /**
+     * Keeps the first stats sample of a container.
+     */
+    private static class StatisticsCallback extends ResultCallback.Adapter<Statistics> {
+        
+        private volatile Statistics statistics;
+        
+        @Override
+        public void onNext(Statistics statistics) {
+            if (this.statistics == null) {
+                this.statistics = statistics;
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.executions.Execution;
+
+/**
+ * The interface Execution queue.
+ * Executions that can't reserve their resources wait in the queue instead of being throttled right away,
+ * tenants share the capacity released by previous executions according to their weights.
+ */
+public interface ExecutionQueue {
+    
+    /**
+     * Reserve the resources of an execution, waiting for them up to the max wait of the queue.
+     * An admitted execution must release its reservation by calling {@link #releaseResources(Execution)}.
+     *
+     * @param execution the execution
+     * @return true if the execution has been admitted, false if it should be throttled
+     */
+    boolean reserveResources(Execution execution);
+    
+    /**
+     * Release the resources of an execution and admit waiting executions that fit in the released capacity.
+     *
+     * @param execution the execution
+     */
+    void releaseResources(Execution execution);
+    
+    /**
+     * Gets size.
+     *
+     * @return the number of waiting executions
+     */
+    int getSize();
+}
@@ -0,0 +1,258 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.executions.Execution;
+import com.cp.compiler.wellknownconstants.WellKnownMetrics;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The type Execution queue.
+ * Waiting executions are grouped by tenant, executions of a tenant are admitted in order,
+ * and tenants are served in a weighted round robin: a tenant with a weight of n gets up to n admissions per turn.
+ */
+@Slf4j
+@Service
+public class ExecutionQueueDefault implements ExecutionQueue {
+    
+    private static final String QUEUE_GAUGE_DESCRIPTION = "Current number of executions waiting for resources";
+    
+    private static final String ADMITTED = "admitted";
+    
+    private static final String THROTTLED = "throttled";
+    
+    private static final int DEFAULT_TENANT_WEIGHT = 1;
+    
+    private final Resources resources;
+    
+    private final MeterRegistry meterRegistry;
+    
+    @Getter
+    @Value("${compiler.queue.capacity:1000}")
+    private int capacity;
+    
+    @Getter
+    @Value("${compiler.queue.max-wait:5000}")
+    private long maxWait;
+    
+    @Value("${compiler.queue.tenant-weights:}")
+    private String[] tenantWeightsProperty;
+    
+    private final Map<String, Integer> tenantWeights = new HashMap<>();
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    
+    // Waiting executions of each tenant
+    private final Map<String, Deque<Ticket>> tenantsQueues = new HashMap<>();
+    
+    // Tenants with waiting executions, in round robin order, the head is the tenant being served
+    private final Deque<String> tenantsRotation = new ArrayDeque<>();
+    
+    // Admissions left to the tenant being served in the current turn
+    private int remainingAdmissions;
+    
+    private int size;
+    
+    /**
+     * Instantiates a new Execution queue.
+     *
+     * @param resources     the resources
+     * @param meterRegistry the meter registry
+     */
+    public ExecutionQueueDefault(Resources resources, MeterRegistry meterRegistry) {
+        this.resources = resources;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    /**
+     * Init.
+     */
+    @PostConstruct
+    public void init() {
+        for (String tenantWeight : tenantWeightsProperty) {
+            if (tenantWeight.isBlank()) {
+                continue;
+            }
+            String[] keyValue = tenantWeight.split(":");
+            tenantWeights.put(keyValue[0].trim(), Math.max(1, Integer.parseInt(keyValue[1].trim())));
+        }
+        
+        Gauge.builder(WellKnownMetrics.EXECUTIONS_QUEUE_GAUGE, this, ExecutionQueue::getSize)
+                .description(QUEUE_GAUGE_DESCRIPTION)
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public boolean reserveResources(Execution execution) {
+        long startTime = System.nanoTime();
+        boolean admitted = admit(execution);
+        
+        meterRegistry.timer(WellKnownMetrics.EXECUTIONS_QUEUE_WAIT_TIMER, "outcome", admitted ? ADMITTED : THROTTLED)
+                .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        return admitted;
+    }
+    
+    private boolean admit(Execution execution) {
+        Ticket ticket;
+        
+        lock.lock();
+        try {
+            // Waiting executions go first, a new execution never overtakes them
+            if (size == 0 && resources.reserveResources(execution)) {
+                return true;
+            }
+            if (size >= capacity || maxWait <= 0) {
+                return false;
+            }
+            ticket = enqueue(execution);
+            log.info("Execution {} of the tenant {} is waiting for resources, queue size: {}",
+                    execution.getId(), ticket.tenant, size);
+            
+            long remainingWait = TimeUnit.MILLISECONDS.toNanos(maxWait);
+            try {
+                while (!ticket.admitted && remainingWait > 0) {
+                    remainingWait = ticket.condition.awaitNanos(remainingWait);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel(ticket);
+                return false;
+            }
+            
+            if (!ticket.admitted) {
+                remove(ticket);
+            }
+            return ticket.admitted;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public void releaseResources(Execution execution) {
+        lock.lock();
+        try {
+            resources.releaseResources(execution);
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public int getSize() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private Ticket enqueue(Execution execution) {
+        Ticket ticket = new Ticket(execution, lock.newCondition());
+        Deque<Ticket> tenantQueue = tenantsQueues.computeIfAbsent(ticket.tenant, tenant -> new ArrayDeque<>());
+        if (tenantQueue.isEmpty()) {
+            if (tenantsRotation.isEmpty()) {
+                remainingAdmissions = getWeight(ticket.tenant);
+            }
+            tenantsRotation.addLast(ticket.tenant);
+        }
+        tenantQueue.addLast(ticket);
+        size++;
+        return ticket;
+    }
+    
+    private void remove(Ticket ticket) {
+        Deque<Ticket> tenantQueue = tenantsQueues.get(ticket.tenant);
+        if (tenantQueue != null && tenantQueue.remove(ticket)) {
+            size--;
+            if (tenantQueue.isEmpty()) {
+                removeTenant(ticket.tenant);
+            }
+        }
+        // The capacity might fit the next waiting executions
+        dispatch();
+    }
+    
+    // The caller gives up, so the resources reserved for the execution in the meantime are released
+    private void cancel(Ticket ticket) {
+        if (ticket.admitted) {
+            resources.releaseResources(ticket.execution);
+            dispatch();
+        } else {
+            remove(ticket);
+        }
+    }
+    
+    /**
+     * Admit waiting executions in a weighted round robin while their resources are available.
+     * The scheduling stops at the first execution that does not fit, so large executions are not starved.
+     */
+    private void dispatch() {
+        while (!tenantsRotation.isEmpty()) {
+            String tenant = tenantsRotation.peekFirst();
+            Deque<Ticket> tenantQueue = tenantsQueues.get(tenant);
+            Ticket ticket = tenantQueue.peekFirst();
+            
+            if (!resources.reserveResources(ticket.execution)) {
+                return;
+            }
+            
+            tenantQueue.pollFirst();
+            size--;
+            ticket.admitted = true;
+            ticket.condition.signal();
+            
+            if (tenantQueue.isEmpty()) {
+                removeTenant(tenant);
+            } else if (--remainingAdmissions <= 0) {
+                // End of the turn of the tenant
+                tenantsRotation.addLast(tenantsRotation.pollFirst());
+                remainingAdmissions = getWeight(tenantsRotation.peekFirst());
+            }
+        }
+    }
+    
+    private void removeTenant(String tenant) {
+        tenantsQueues.remove(tenant);
+        boolean wasServed = tenant.equals(tenantsRotation.peekFirst());
+        tenantsRotation.remove(tenant);
+        if (wasServed && !tenantsRotation.isEmpty()) {
+            remainingAdmissions = getWeight(tenantsRotation.peekFirst());
+        }
+    }
+    
+    private int getWeight(String tenant) {
+        return tenantWeights.getOrDefault(tenant, DEFAULT_TENANT_WEIGHT);
+    }
+    
+    private static class Ticket {
+        
+        private final Execution execution;
+        
+        private final String tenant;
+        
+        private final Condition condition;
+        
+        private boolean admitted;
+        
+        private Ticket(Execution execution, Condition condition) {
+            this.execution = execution;
+            this.tenant = execution.getTenant();
+            this.condition = condition;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.executions.Execution;
+
+/**
+ * The interface Execution staging.
+ * Execution directories can be placed on a configurable directory (a tmpfs for example), where the files shared by
+ * executions are staged once and hard linked, and they can be bind mounted into runner containers instead of being
+ * copied.
+ */
+public interface ExecutionStaging {
+    
+    /**
+     * Is bind mount enabled boolean.
+     *
+     * @return true if execution directories are bind mounted into runner containers
+     */
+    boolean isBindMountEnabled();
+    
+    /**
+     * Gets directory.
+     *
+     * @return the staging directory, empty if execution directories are created in the executions folder
+     */
+    String getDirectory();
+    
+    /**
+     * Place the execution directory under the staging directory, if one is configured.
+     * It should be called before the execution directory is created.
+     *
+     * @param execution the execution
+     */
+    void stage(Execution execution);
+}
@@ -0,0 +1,61 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.executions.Execution;
+import com.cp.compiler.models.Language;
+import com.cp.compiler.wellknownconstants.WellKnownFiles;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * The type Execution staging.
+ * The Dockerfile of each language is copied once to the staging directory at startup, execution directories are
+ * created next to it so they get hard links to it.
+ */
+@Slf4j
+@Service
+public class ExecutionStagingDefault implements ExecutionStaging {
+    
+    @Getter
+    @Value("${compiler.execution.staging.directory:}")
+    private String directory;
+    
+    @Getter
+    @Value("${compiler.execution.staging.bind-mount:false}")
+    private boolean bindMountEnabled;
+    
+    /**
+     * Init.
+     *
+     * @throws IOException the io exception
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        if (directory.isBlank()) {
+            return;
+        }
+        for (Language language : Language.values()) {
+            Path languageFolder = Path.of(directory, language.getFolderName());
+            Files.createDirectories(languageFolder);
+            Files.copy(
+                    Path.of(language.getFolderName(), WellKnownFiles.DOCKERFILE_NAME),
+                    languageFolder.resolve(WellKnownFiles.DOCKERFILE_NAME),
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+        log.info("Execution directories are staged in {}", directory);
+    }
+    
+    @Override
+    public void stage(Execution execution) {
+        if (!directory.isBlank()) {
+            execution.setStagingDirectory(directory);
+        }
+    }
+}
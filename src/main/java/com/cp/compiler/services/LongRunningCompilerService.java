@@ -2,68 +2,160 @@ package com.cp.compiler.services;
 
 import com.cp.compiler.executions.Execution;
 import com.cp.compiler.repositories.HooksRepository;
+import com.cp.compiler.wellknownconstants.WellKnownMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
-import java.net.URI;
-import java.net.URISyntaxException;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The type Long running compiler service.
- * Used for push notification
+ * Used for push notification, executions run on a bounded pool of workers,
+ * when all workers are busy and the queue is full new executions are throttled.
+ * Responses are handed to the webhook delivery service.
+ * The resources reserved for an accepted execution are released once it ends.
  */
 @Slf4j
 @Service("longRunning")
 public class LongRunningCompilerService extends CompilerServiceDecorator {
     
-    private final RestTemplate restTemplate;
-
+    private static final String WORKER_THREAD_NAME_PREFIX = "push-execution-";
+    
+    private static final String QUEUE_GAUGE_DESCRIPTION = "Current number of push executions waiting for a worker";
+    
+    private static final String ACTIVE_GAUGE_DESCRIPTION = "Current number of running push executions";
+    
     private final HooksRepository hooksRepository;
     
+    private final WebhookDeliveryService webhookDeliveryService;
+    
+    private final ExecutionQueue executionQueue;
+    
+    private final MeterRegistry meterRegistry;
+    
+    @Getter
+    @Value("${compiler.features.push-notification.workers:10}")
+    private int workers;
+    
+    @Getter
+    @Value("${compiler.features.push-notification.queue-capacity:100}")
+    private int queueCapacity;
+    
+    private ThreadPoolExecutor executor;
+    
+    private Timer waitTimer;
+    
+    private Counter throttlingCounterMetric;
+    
     /**
      * Instantiates a new Long running compiler service.
      *
-     * @param compilerService the compiler service
-     * @param restTemplate    the rest template
-     * @param hooksRepository the hooks storage
+     * @param compilerService        the compiler service
+     * @param hooksRepository        the hooks storage
+     * @param webhookDeliveryService the webhook delivery service
+     * @param executionQueue         the execution queue, that reserved the resources of executions
+     * @param meterRegistry          the meter registry
      */
     public LongRunningCompilerService(@Qualifier("client") CompilerService compilerService,
-                                      RestTemplate restTemplate,
-                                      HooksRepository hooksRepository) {
+                                      HooksRepository hooksRepository,
+                                      WebhookDeliveryService webhookDeliveryService,
+                                      ExecutionQueue executionQueue,
+                                      MeterRegistry meterRegistry) {
         super(compilerService);
-        this.restTemplate = restTemplate;
         this.hooksRepository = hooksRepository;
+        this.webhookDeliveryService = webhookDeliveryService;
+        this.executionQueue = executionQueue;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    /**
+     * Init.
+     */
+    @PostConstruct
+    public void init() {
+        executor = new ThreadPoolExecutor(
+                workers,
+                workers,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory(WORKER_THREAD_NAME_PREFIX),
+                new ThreadPoolExecutor.AbortPolicy());
+        
+        waitTimer = meterRegistry.timer(WellKnownMetrics.PUSH_EXECUTIONS_WAIT_TIMER);
+        throttlingCounterMetric = meterRegistry.counter(WellKnownMetrics.THROTTLING_COUNTER_NAME);
+        Gauge.builder(WellKnownMetrics.PUSH_EXECUTIONS_QUEUE_GAUGE, () -> executor.getQueue().size())
+                .description(QUEUE_GAUGE_DESCRIPTION)
+                .register(meterRegistry);
+        Gauge.builder(WellKnownMetrics.PUSH_EXECUTIONS_ACTIVE_GAUGE, () -> executor.getActiveCount())
+                .description(ACTIVE_GAUGE_DESCRIPTION)
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Stop accepting executions, executions already submitted are completed.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
     }
     
     @Override
     public ResponseEntity compile(Execution execution) {
         String url = hooksRepository.get(execution.getId());
-        new Thread(() -> {
-            try {
-                run(execution, url);
-            } catch (Exception exception) {
-                // Other exception not expected
-                // In this case the error will not be returned to the client
-                log.error("Error : {}", exception);
-            }
-        }).start();
+        long submissionTime = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                waitTimer.record(System.nanoTime() - submissionTime, TimeUnit.NANOSECONDS);
+                try {
+                    run(execution, url);
+                } catch (Exception exception) {
+                    // Other exception not expected
+                    // In this case the error will not be returned to the client
+                    log.error("Error : {}", exception);
+                    hooksRepository.getAndRemove(execution.getId());
+                } finally {
+                    // The execution is accepted, its resources are not released by the proxy
+                    executionQueue.releaseResources(execution);
+                }
+            });
+        } catch (RejectedExecutionException exception) {
+            // The request has been throttled
+            throttlingCounterMetric.increment();
+            hooksRepository.getAndRemove(execution.getId());
+            log.info("Push execution has been throttled, all workers are busy and the queue is full");
+            return ResponseEntity
+                    .status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body("Request has been throttled, service reached maximum resources");
+        }
         return ResponseEntity
                 .status(HttpStatus.ACCEPTED)
                 .body("Executing the request, you'll get the response in the following url : " + url);
     }
     
-    // The check of URI syntax is done before the compilation.
-    private void sendResponse(String url, ResponseEntity responseEntity) throws URISyntaxException {
-        restTemplate.postForEntity(new URI(url), responseEntity, Object.class);
-    }
-    
-    private void run(Execution execution, String url) throws URISyntaxException {
-        ResponseEntity response = getCompilerService().compile(execution);
-        log.info("Sending response to {}", url);
-        sendResponse(url, response);
+    private void run(Execution execution, String url) {
+        ResponseEntity response;
+        try {
+            response = getCompilerService().compile(execution);
+        } finally {
+            execution.deletePayloadFiles();
+        }
+        log.info("Adding the response of the execution {} to the outbox of {}", execution.getId(), url);
+        webhookDeliveryService.deliver(execution.getId(), url, response);
     }
 }
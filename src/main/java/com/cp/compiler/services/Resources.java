@@ -1,37 +1,95 @@
 package com.cp.compiler.services;
 
+import com.cp.compiler.executions.Execution;
+
 /**
- * The interface Cpu resources.
+ * The interface Resources.
+ * Executions reserve cpus and memory of the node according to their language and their memory limit,
+ * an execution is admitted only if its reservation fits in the remaining capacity.
  */
 public interface Resources {
     
     /**
      * Gets max cpus.
      *
-     * @return the max cpus
+     * @return the max cpus of a container
      */
     float getMaxCpus();
     
     /**
-     * Allow new execution boolean.
+     * Reserve the cpus and the memory of an execution if they are available.
+     * An admitted execution must release its reservation by calling {@link #releaseResources(Execution)}.
      *
-     * @return the boolean
+     * @param execution the execution
+     * @return true if the execution has been admitted, false if the node reached its capacity
      */
-    boolean allowNewExecution();
+    boolean reserveResources(Execution execution);
     
     /**
-     * Increment number of executions.
+     * Release the cpus and the memory reserved by an execution.
      *
+     * @param execution the execution
      * @return the number of current executions
      */
-    int reserveResources();
+    int releaseResources(Execution execution);
     
     /**
-     * Decrement number of executions.
+     * Gets cpus cost.
      *
-     * @return the number of current executions
+     * @param execution the execution
+     * @return the cpus reserved for the execution
+     */
+    float getCpusCost(Execution execution);
+    
+    /**
+     * Gets memory cost.
+     *
+     * @param execution the execution
+     * @return the memory in MB reserved for the execution
+     */
+    long getMemoryCost(Execution execution);
+    
+    /**
+     * Gets reserved cpus.
+     *
+     * @return the cpus reserved by current executions
+     */
+    float getReservedCpus();
+    
+    /**
+     * Gets max parallel executions.
+     *
+     * @return the number of executions that can run at the same time, when each one reserves the cheapest cpus cost
+     */
+    int getMaxParallelExecutions();
+    
+    /**
+     * Gets cpus capacity.
+     *
+     * @return the cpus that can be reserved
+     */
+    float getCpusCapacity();
+    
+    /**
+     * Gets reserved memory.
+     *
+     * @return the memory in MB reserved by current executions
+     */
+    long getReservedMemory();
+    
+    /**
+     * Gets memory capacity.
+     *
+     * @return the memory in MB that can be reserved
+     */
+    long getMemoryCapacity();
+    
+    /**
+     * Gets free node memory.
+     *
+     * @return the memory of the node that can still be allocated in MB, including the page cache that can be reclaimed
      */
-    int cleanup();
+    long getFreeNodeMemory();
     
     /**
      * Number of executions int.
@@ -1,53 +1,211 @@
 package com.cp.compiler.services;
 
+import com.cp.compiler.executions.Execution;
+import com.cp.compiler.models.Language;
+import com.cp.compiler.utils.MemoryUtils;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PostConstruct;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
 
+@Slf4j
 @Component
 public class ResourcesImpl implements Resources {
     
+    private static final long BYTES_IN_MB = 1024 * 1024;
+    
+    // Cpus are reserved in thousandths to avoid accumulating rounding errors
+    private static final int MILLI_CPUS_IN_CPU = 1000;
+    
+    private static final float DEFAULT_LANGUAGE_CPUS = 1;
+    
     @Getter
     @Value("${compiler.execution.max-cpus}")
     private Float maxCpus;
     
-    private AtomicInteger executionsCounter = new AtomicInteger(0);
-    
     @Getter
     @Value("${compiler.max-requests}")
     private int maxRequests;
     
+    @Value("${compiler.execution.min-container-memory:256}")
+    private int minContainerMemory;
+    
+    @Value("${compiler.admission.cpus:0}")
+    private float cpusCapacityProperty;
+    
+    @Value("${compiler.admission.memory:0}")
+    private long memoryCapacityProperty;
+    
+    @Value("${compiler.admission.free-memory:true}")
+    private boolean freeMemoryCheck;
+    
+    @Value("${compiler.admission.language-cpus:JAVA:2,KOTLIN:2,SCALA:2,CS:2,RUST:2,HASKELL:2}")
+    private String[] languageCpusProperty;
+    
+    private final Map<Language, Float> languageCpus = new EnumMap<>(Language.class);
+    
+    private long cpusCapacity;
+    
+    @Getter
+    private long memoryCapacity;
+    
+    private long reservedCpus;
+    
+    private long reservedMemory;
+    
+    private int executionsCounter;
+    
+    /**
+     * Init.
+     */
+    @PostConstruct
+    public void init() {
+        float cpus = cpusCapacityProperty > 0 ? cpusCapacityProperty : Runtime.getRuntime().availableProcessors();
+        cpusCapacity = (long) (cpus * MILLI_CPUS_IN_CPU);
+        memoryCapacity = memoryCapacityProperty > 0 ? memoryCapacityProperty : getNodeMemory();
+        
+        for (String languageCpu : languageCpusProperty) {
+            String[] keyValue = languageCpu.split(":");
+            languageCpus.put(
+                    Language.valueOf(keyValue[0].trim().toUpperCase()),
+                    Float.parseFloat(keyValue[1].trim()));
+        }
+        
+        log.info("Admission capacity, cpus = {}, memory = {} MB", cpus, memoryCapacity);
+    }
+    
     @Override
     public float getMaxCpus() {
         return maxCpus == 0 ? Runtime.getRuntime().availableProcessors() : maxCpus;
     }
     
     @Override
-    public boolean allowNewExecution() {
-        return executionsCounter.get() < maxRequests && cpuIsAvailable();
+    public synchronized boolean reserveResources(Execution execution) {
+        long cpus = toMilliCpus(getCpusCost(execution));
+        long memory = getMemoryCost(execution);
+        
+        if (executionsCounter >= maxRequests
+                || reservedCpus + cpus > cpusCapacity
+                || reservedMemory + memory > memoryCapacity) {
+            return false;
+        }
+        
+        // Reservations ignore the memory used outside of executions, an execution alone is always admitted
+        if (freeMemoryCheck && executionsCounter > 0 && getFreeNodeMemory() < memory) {
+            log.info("Not enough available memory on the node for {} MB", memory);
+            return false;
+        }
+        
+        executionsCounter++;
+        reservedCpus += cpus;
+        reservedMemory += memory;
+        return true;
     }
     
-    private boolean cpuIsAvailable() {
-        return maxCpus == 0 || maxCpus * executionsCounter.get() < Runtime.getRuntime().availableProcessors();
+    @Override
+    public synchronized int releaseResources(Execution execution) {
+        if (executionsCounter == 0) {
+            return 0;
+        }
+        
+        executionsCounter--;
+        reservedCpus = Math.max(0, reservedCpus - toMilliCpus(getCpusCost(execution)));
+        reservedMemory = Math.max(0, reservedMemory - getMemoryCost(execution));
+        return executionsCounter;
     }
     
+    /**
+     * {@inheritDoc}
+     * Containers can't use more than the max cpus when it's set, otherwise the cost is estimated from the language
+     * (compilers of JVM languages for example use several cpus).
+     * An execution never costs more than the capacity, so it can always run alone.
+     */
     @Override
-    public int reserveResources() {
-        return executionsCounter.incrementAndGet();
+    public float getCpusCost(Execution execution) {
+        float cpus = maxCpus > 0
+                ? maxCpus
+                : languageCpus.getOrDefault(execution.getLanguage(), DEFAULT_LANGUAGE_CPUS);
+        return Math.min(cpus, getCpusCapacity());
     }
     
+    /**
+     * {@inheritDoc}
+     * Containers are limited to the memory limit of the execution, but never below the min container memory.
+     * An execution never costs more than the capacity, so it can always run alone.
+     */
     @Override
-    public int cleanup() {
-        if (executionsCounter.get() == 0) {
-            return 0;
+    public long getMemoryCost(Execution execution) {
+        return Math.min(Math.max(execution.getMemoryLimit(), minContainerMemory), memoryCapacity);
+    }
+    
+    /**
+     * {@inheritDoc}
+     * The cheapest execution reserves the max cpus when it's set, otherwise the cpus of the cheapest language,
+     * the number of executions is also bounded by the max requests.
+     */
+    @Override
+    public int getMaxParallelExecutions() {
+        long cheapestCpus = Math.min(toMilliCpus(maxCpus > 0 ? maxCpus : getCheapestLanguageCpus()), cpusCapacity);
+        long parallelExecutions = cheapestCpus > 0 ? cpusCapacity / cheapestCpus : maxRequests;
+        return (int) Math.max(1, Math.min(parallelExecutions, maxRequests));
+    }
+    
+    @Override
+    public synchronized float getReservedCpus() {
+        return (float) reservedCpus / MILLI_CPUS_IN_CPU;
+    }
+    
+    @Override
+    public float getCpusCapacity() {
+        return (float) cpusCapacity / MILLI_CPUS_IN_CPU;
+    }
+    
+    @Override
+    public synchronized long getReservedMemory() {
+        return reservedMemory;
+    }
+    
+    /**
+     * {@inheritDoc}
+     * The free physical memory reported by the JVM leaves out the page cache, which is reclaimed on demand.
+     */
+    @Override
+    public long getFreeNodeMemory() {
+        long availableMemory = MemoryUtils.getAvailableMemory();
+        if (availableMemory == MemoryUtils.UNKNOWN) {
+            availableMemory = getOperatingSystem().getFreePhysicalMemorySize();
         }
-        return executionsCounter.decrementAndGet();
+        return availableMemory / BYTES_IN_MB;
     }
     
     @Override
-    public int getNumberOfExecutions() {
-        return executionsCounter.get();
+    public synchronized int getNumberOfExecutions() {
+        return executionsCounter;
+    }
+    
+    private long getNodeMemory() {
+        // In a container the JVM reports the memory limit of the container
+        return getOperatingSystem().getTotalPhysicalMemorySize() / BYTES_IN_MB;
+    }
+    
+    private float getCheapestLanguageCpus() {
+        float cpus = Float.MAX_VALUE;
+        for (Language language : Language.values()) {
+            cpus = Math.min(cpus, languageCpus.getOrDefault(language, DEFAULT_LANGUAGE_CPUS));
+        }
+        return cpus;
+    }
+    
+    private static com.sun.management.OperatingSystemMXBean getOperatingSystem() {
+        return (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+    }
+    
+    private static long toMilliCpus(float cpus) {
+        return (long) (cpus * MILLI_CPUS_IN_CPU);
     }
 }
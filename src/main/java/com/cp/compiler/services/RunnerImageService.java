@@ -0,0 +1,39 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.models.Language;
+
+/**
+ * The interface Runner image service.
+ * A runner image is a long-lived image built once per language, executions are copied into containers created from it
+ * instead of building a new image for each execution.
+ */
+public interface RunnerImageService {
+
+    /**
+     * Is enabled boolean.
+     *
+     * @return true if runner images are enabled
+     */
+    boolean isEnabled();
+
+    /**
+     * Build runner images of all registered languages.
+     */
+    void buildRunnerImages();
+
+    /**
+     * Is ready boolean.
+     *
+     * @param language the language
+     * @return true if the runner image of the given language has been built and can be used
+     */
+    boolean isReady(Language language);
+
+    /**
+     * Gets runner image name.
+     *
+     * @param language the language
+     * @return the runner image name
+     */
+    String getRunnerImageName(Language language);
+}
@@ -0,0 +1,119 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.executions.ExecutionFactory;
+import com.cp.compiler.models.Language;
+import com.cp.compiler.utils.FileUtils;
+import com.cp.compiler.wellknownconstants.WellKnownFiles;
+import com.cp.compiler.wellknownconstants.WellKnownFolders;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The type Runner image service.
+ */
+@Slf4j
+@Service
+public class RunnerImageServiceDefault implements RunnerImageService {
+
+    private static final String RUNNER_IMAGE_PREFIX_NAME = "runner-";
+
+    private final ContainerService containerService;
+
+    private final Set<Language> readyImages = ConcurrentHashMap.newKeySet();
+
+    @Getter
+    @Value("${compiler.docker.runner-images.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * Instantiates a new Runner image service.
+     *
+     * @param containerService the container service
+     */
+    public RunnerImageServiceDefault(ContainerService containerService) {
+        this.containerService = containerService;
+    }
+
+    /**
+     * Build runner images once the application is ready,
+     * until then executions fall back to building an image per execution.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            buildRunnerImages();
+        }
+    }
+
+    @Override
+    public void buildRunnerImages() {
+        for (Language language : ExecutionFactory.getRegisteredFactories()) {
+            String imageName = getRunnerImageName(language);
+            String runnerFolder = language.getFolderName() + "/" + WellKnownFolders.RUNNER_FOLDER_NAME;
+            Path buildFolder = null;
+            try {
+                log.info("Building runner image {}", imageName);
+                buildFolder = getBuildFolder(language, runnerFolder);
+                String buildLogs = containerService.buildImage(
+                        buildFolder == null ? runnerFolder : buildFolder.toString(), imageName);
+                log.debug(buildLogs);
+                readyImages.add(language);
+                log.info("Runner image {} has been built", imageName);
+            } catch (Exception e) {
+                // The language will keep using an image per execution
+                log.warn("Error while building runner image {} : {}", imageName, e);
+            } finally {
+                deleteBuildFolder(buildFolder);
+            }
+        }
+    }
+
+    // A temporary folder with the runner Dockerfile using the base image of the language, null if none is configured
+    private static Path getBuildFolder(Language language, String runnerFolder) throws IOException {
+        String image = ExecutionFactory.getLanguageDefinition(language).getImage();
+        if (image == null || image.isBlank()) {
+            return null;
+        }
+        Path buildFolder = Files.createTempDirectory(RUNNER_IMAGE_PREFIX_NAME + language.name().toLowerCase());
+        FileUtils.copyDockerfile(
+                Path.of(runnerFolder, WellKnownFiles.DOCKERFILE_NAME).toString(),
+                buildFolder.resolve(WellKnownFiles.DOCKERFILE_NAME).toString(),
+                image);
+        return buildFolder;
+    }
+
+    private static void deleteBuildFolder(Path buildFolder) {
+        if (buildFolder == null) {
+            return;
+        }
+        try {
+            FileSystemUtils.deleteRecursively(buildFolder);
+        } catch (IOException e) {
+            log.warn("Can't delete the build folder {} : {}", buildFolder, e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isReady(Language language) {
+        return enabled && readyImages.contains(language);
+    }
+
+    @Override
+    public String getRunnerImageName(Language language) {
+        return RUNNER_IMAGE_PREFIX_NAME + language.name().toLowerCase();
+    }
+}
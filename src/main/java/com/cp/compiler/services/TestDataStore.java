@@ -0,0 +1,63 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.executions.PayloadFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The interface Test data store.
+ * Test files (inputs and expected outputs) are uploaded once and stored by the hash of their content,
+ * requests then reference them by hash instead of sending them again.
+ */
+public interface TestDataStore {
+    
+    /**
+     * Is enabled boolean.
+     *
+     * @return true if the test data store is enabled
+     */
+    boolean isEnabled();
+    
+    /**
+     * Store test data.
+     *
+     * @param inputStream the content of the test data
+     * @return the hash of the content, null if the content exceeds the max size of the store
+     * @throws IOException the io exception
+     */
+    String put(InputStream inputStream) throws IOException;
+    
+    /**
+     * Contains boolean.
+     *
+     * @param hash the hash
+     * @return true if the test data is stored
+     */
+    boolean contains(String hash);
+    
+    /**
+     * Resolve a reference to stored test data, the returned payload is a read only link to the stored file
+     * that stays valid until the end of the execution even if the test data is evicted.
+     *
+     * @param reference the reference
+     * @return the resolved payload file, null if the test data is not stored
+     */
+    PayloadFile resolve(PayloadFile reference);
+    
+    /**
+     * Gets the expected output of resolved test data, hot expected outputs are kept in memory.
+     *
+     * @param expectedOutputFile the resolved expected output file
+     * @return the expected output
+     * @throws IOException the io exception
+     */
+    String getExpectedOutput(PayloadFile expectedOutputFile) throws IOException;
+    
+    /**
+     * Gets size.
+     *
+     * @return the size of stored test data in bytes
+     */
+    long getSize();
+}
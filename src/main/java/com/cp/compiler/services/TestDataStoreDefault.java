@@ -0,0 +1,279 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.exceptions.CompilerServerInternalException;
+import com.cp.compiler.executions.PayloadFile;
+import com.cp.compiler.utils.CmdUtils;
+import com.cp.compiler.wellknownconstants.WellKnownMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import javax.annotation.PostConstruct;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * The type Test data store.
+ * Test data is stored on disk under its hash and made read only, the index is kept in memory and evicts the least
+ * recently used test data when the maximum size is exceeded. Executions get hard links to the stored files,
+ * and hot expected outputs are kept in memory so they are not read again for each execution.
+ */
+@Slf4j
+@Service
+public class TestDataStoreDefault implements TestDataStore {
+
+    private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private static final String LINKS_FOLDER_NAME = "links";
+
+    private static final String UPLOAD_FILE_PREFIX = "upload-";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final MeterRegistry meterRegistry;
+
+    // Access ordered, so iteration starts from the least recently used test data
+    private final LinkedHashMap<String, Long> filesSizes = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LinkedHashMap<String, String> expectedOutputs = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long size;
+
+    private long expectedOutputsSize;
+
+    @Getter
+    @Value("${compiler.test-data.enabled:false}")
+    private boolean enabled;
+
+    @Value("${compiler.test-data.directory:test-data}")
+    private String directory;
+
+    @Value("${compiler.test-data.max-size:1024}")
+    private long maxSize; // in MB
+
+    @Value("${compiler.test-data.memory-cache-size:64}")
+    private long memoryCacheSize; // in MB
+
+    /**
+     * Instantiates a new Test data store.
+     *
+     * @param meterRegistry the meter registry
+     */
+    public TestDataStoreDefault(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Init.
+     *
+     * @throws IOException the io exception
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        meterRegistry.gauge(WellKnownMetrics.TEST_DATA_SIZE_GAUGE, this, TestDataStore::getSize);
+        meterRegistry.gauge(
+                WellKnownMetrics.TEST_DATA_MEMORY_SIZE_GAUGE, this, TestDataStoreDefault::getExpectedOutputsSize);
+
+        if (enabled) {
+            Files.createDirectories(Path.of(directory));
+            // Links of executions that did not end before the last shutdown
+            FileSystemUtils.deleteRecursively(Path.of(directory, LINKS_FOLDER_NAME));
+            Files.createDirectories(Path.of(directory, LINKS_FOLDER_NAME));
+            loadStoredFiles();
+        }
+    }
+
+    // Test data stored by a previous run is kept, clients still reference it
+    private synchronized void loadStoredFiles() throws IOException {
+        try (Stream<Path> files = Files.list(Path.of(directory))) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (HASH_PATTERN.matcher(name).matches() && Files.isRegularFile(file)) {
+                    long fileSize = Files.size(file);
+                    filesSizes.put(name, fileSize);
+                    size += fileSize;
+                } else if (name.startsWith(UPLOAD_FILE_PREFIX)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        log.info("{} test data files have been loaded", filesSizes.size());
+        evict();
+    }
+
+    @Override
+    public String put(InputStream inputStream) throws IOException {
+        Path upload = Files.createTempFile(Path.of(directory), UPLOAD_FILE_PREFIX, null);
+        try {
+            MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            long uploadSize = 0;
+            // The content is hashed while it's written, it's never fully loaded in memory
+            try (InputStream digestInputStream = new DigestInputStream(inputStream, digest);
+                 OutputStream outputStream = Files.newOutputStream(upload)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = digestInputStream.read(buffer)) != -1) {
+                    uploadSize += read;
+                    if (uploadSize > maxSize * BYTES_PER_MEGABYTE) {
+                        return null;
+                    }
+                    outputStream.write(buffer, 0, read);
+                }
+            }
+            String hash = String.format("%064x", new BigInteger(1, digest.digest()));
+            store(hash, upload, uploadSize);
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new CompilerServerInternalException(e.getMessage());
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    private synchronized void store(String hash, Path upload, long uploadSize) throws IOException {
+        // get (and not containsKey) marks the test data as recently used
+        if (filesSizes.get(hash) != null) {
+            return;
+        }
+        Path file = Path.of(directory, hash);
+        Files.move(upload, file, StandardCopyOption.REPLACE_EXISTING);
+        // Links share the permissions of the stored file, executions can't modify it
+        file.toFile().setReadOnly();
+        filesSizes.put(hash, uploadSize);
+        size += uploadSize;
+        log.info("Test data {} has been stored", hash);
+        evict();
+    }
+
+    @Override
+    public synchronized boolean contains(String hash) {
+        return filesSizes.containsKey(hash);
+    }
+
+    @Override
+    public PayloadFile resolve(PayloadFile reference) {
+        String hash = reference.getReference();
+        // The pattern also prevents references from escaping the directory
+        if (!enabled || hash == null || !HASH_PATTERN.matcher(hash).matches()) {
+            return null;
+        }
+        Path link = Path.of(directory, LINKS_FOLDER_NAME, UUID.randomUUID().toString());
+        synchronized (this) {
+            if (filesSizes.get(hash) == null) {
+                return null;
+            }
+            // Linked while holding the lock, so the stored file can't be evicted in between
+            Path file = Path.of(directory, hash);
+            try {
+                Files.createLink(link, file);
+            } catch (IOException | UnsupportedOperationException e) {
+                copy(file, link);
+            }
+        }
+        return PayloadFile.ofStoredFile(reference.getOriginalFilename(), link, hash);
+    }
+
+    private void copy(Path file, Path destination) {
+        try {
+            Files.copy(file, destination);
+        } catch (IOException e) {
+            throw new CompilerServerInternalException("Error while resolving the test data: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String getExpectedOutput(PayloadFile expectedOutputFile) throws IOException {
+        String hash = expectedOutputFile.getReference();
+        synchronized (this) {
+            String expectedOutput = expectedOutputs.get(hash);
+            if (expectedOutput != null) {
+                return expectedOutput;
+            }
+        }
+        String expectedOutput;
+        try (BufferedReader reader =
+                     new BufferedReader(new InputStreamReader(expectedOutputFile.getInputStream()))) {
+            expectedOutput = CmdUtils.readOutput(reader);
+        }
+        cacheExpectedOutput(hash, expectedOutput);
+        return expectedOutput;
+    }
+
+    private synchronized void cacheExpectedOutput(String hash, String expectedOutput) {
+        // Strings might use two bytes per character
+        long expectedOutputSize = 2L * expectedOutput.length();
+        if (expectedOutputs.containsKey(hash) || expectedOutputSize > memoryCacheSize * BYTES_PER_MEGABYTE) {
+            return;
+        }
+        expectedOutputs.put(hash, expectedOutput);
+        expectedOutputsSize += expectedOutputSize;
+
+        Iterator<Map.Entry<String, String>> iterator = expectedOutputs.entrySet().iterator();
+        while (expectedOutputsSize > memoryCacheSize * BYTES_PER_MEGABYTE && iterator.hasNext()) {
+            Map.Entry<String, String> leastRecentlyUsed = iterator.next();
+            iterator.remove();
+            expectedOutputsSize -= 2L * leastRecentlyUsed.getValue().length();
+        }
+    }
+
+    @Override
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Gets expected outputs size.
+     *
+     * @return the size of expected outputs kept in memory in bytes
+     */
+    public synchronized long getExpectedOutputsSize() {
+        return expectedOutputsSize;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> iterator = filesSizes.entrySet().iterator();
+        while (size > maxSize * BYTES_PER_MEGABYTE && iterator.hasNext()) {
+            Map.Entry<String, Long> leastRecentlyUsed = iterator.next();
+            iterator.remove();
+            size -= leastRecentlyUsed.getValue();
+            String expectedOutput = expectedOutputs.remove(leastRecentlyUsed.getKey());
+            if (expectedOutput != null) {
+                expectedOutputsSize -= 2L * expectedOutput.length();
+            }
+            deleteFile(leastRecentlyUsed.getKey());
+        }
+    }
+
+    private void deleteFile(String hash) {
+        // Executions keep their links to the file
+        try {
+            Files.deleteIfExists(Path.of(directory, hash));
+            log.info("Test data {} has been evicted", hash);
+        } catch (IOException e) {
+            log.warn("Error while deleting test data {} : {}", hash, e);
+        }
+    }
+}
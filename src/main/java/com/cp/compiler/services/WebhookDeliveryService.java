@@ -0,0 +1,29 @@
+package com.cp.compiler.services;
+
+import org.springframework.http.ResponseEntity;
+
+/**
+ * The interface Webhook delivery service.
+ * Responses of push executions are added to an outbox and posted asynchronously to their url,
+ * failed deliveries are retried with an exponential backoff.
+ */
+public interface WebhookDeliveryService {
+    
+    /**
+     * Add the response of an execution to the outbox.
+     * The hook of the execution is removed once the response is delivered or once all attempts have failed.
+     *
+     * @param executionId the execution id
+     * @param url         the url where the response is posted
+     * @param response    the response
+     * @return false if the outbox is full and the response has been dropped
+     */
+    boolean deliver(String executionId, String url, ResponseEntity response);
+    
+    /**
+     * Gets outbox size.
+     *
+     * @return the number of responses waiting to be posted
+     */
+    int getOutboxSize();
+}
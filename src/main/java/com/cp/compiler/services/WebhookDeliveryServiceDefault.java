@@ -0,0 +1,263 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.repositories.HooksRepository;
+import com.cp.compiler.wellknownconstants.WellKnownMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The type Webhook delivery service.
+ * Senders take responses from a bounded outbox, responses to the same url can be posted together as a list
+ * when the batch size is greater than 1.
+ */
+@Slf4j
+@Service
+public class WebhookDeliveryServiceDefault implements WebhookDeliveryService {
+    
+    private static final String SENDER_THREAD_NAME_PREFIX = "webhook-sender-";
+    
+    private static final String RETRY_THREAD_NAME_PREFIX = "webhook-retry-";
+    
+    private static final String OUTBOX_GAUGE_DESCRIPTION = "Current number of responses waiting to be posted";
+    
+    // Keeps the backoff shift in the range of a long
+    private static final int MAX_BACKOFF_SHIFT = 30;
+    
+    private final RestTemplate restTemplate;
+    
+    private final HooksRepository hooksRepository;
+    
+    private final MeterRegistry meterRegistry;
+    
+    @Getter
+    @Value("${compiler.features.push-notification.delivery.outbox-capacity:1000}")
+    private int outboxCapacity;
+    
+    @Getter
+    @Value("${compiler.features.push-notification.delivery.senders:2}")
+    private int senders;
+    
+    @Getter
+    @Value("${compiler.features.push-notification.delivery.max-attempts:5}")
+    private int maxAttempts;
+    
+    // in millis
+    @Getter
+    @Value("${compiler.features.push-notification.delivery.initial-backoff:1000}")
+    private long initialBackoff;
+    
+    // in millis
+    @Getter
+    @Value("${compiler.features.push-notification.delivery.max-backoff:60000}")
+    private long maxBackoff;
+    
+    @Getter
+    @Value("${compiler.features.push-notification.delivery.batch-size:1}")
+    private int batchSize;
+    
+    private BlockingQueue<Delivery> outbox;
+    
+    private ExecutorService senderExecutor;
+    
+    private ScheduledExecutorService retryScheduler;
+    
+    private Timer deliveryTimer;
+    
+    private Counter retryCounter;
+    
+    private Counter failureCounter;
+    
+    /**
+     * Instantiates a new Webhook delivery service.
+     *
+     * @param restTemplate    the rest template
+     * @param hooksRepository the hooks repository
+     * @param meterRegistry   the meter registry
+     */
+    public WebhookDeliveryServiceDefault(RestTemplate restTemplate,
+                                         HooksRepository hooksRepository,
+                                         MeterRegistry meterRegistry) {
+        this.restTemplate = restTemplate;
+        this.hooksRepository = hooksRepository;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    /**
+     * Init.
+     */
+    @PostConstruct
+    public void init() {
+        outbox = new LinkedBlockingQueue<>(outboxCapacity);
+        
+        deliveryTimer = meterRegistry.timer(WellKnownMetrics.WEBHOOK_DELIVERY_TIMER);
+        retryCounter = meterRegistry.counter(WellKnownMetrics.WEBHOOK_DELIVERY_RETRY_COUNTER);
+        failureCounter = meterRegistry.counter(WellKnownMetrics.WEBHOOK_DELIVERY_FAILURE_COUNTER);
+        Gauge.builder(WellKnownMetrics.WEBHOOK_OUTBOX_GAUGE, () -> outbox.size())
+                .description(OUTBOX_GAUGE_DESCRIPTION)
+                .register(meterRegistry);
+        
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(
+                new CustomizableThreadFactory(RETRY_THREAD_NAME_PREFIX));
+        senderExecutor = Executors.newFixedThreadPool(senders, new CustomizableThreadFactory(SENDER_THREAD_NAME_PREFIX));
+        for (int i = 0; i < senders; i++) {
+            senderExecutor.submit(this::sendResponses);
+        }
+    }
+    
+    /**
+     * Shutdown, responses that are still in the outbox are not delivered.
+     */
+    @PreDestroy
+    public void shutdown() {
+        senderExecutor.shutdownNow();
+        retryScheduler.shutdownNow();
+        if (!outbox.isEmpty()) {
+            log.warn("{} responses have not been delivered", outbox.size());
+        }
+    }
+    
+    @Override
+    public boolean deliver(String executionId, String url, ResponseEntity response) {
+        return addToOutbox(new Delivery(executionId, url, response, System.nanoTime()));
+    }
+    
+    @Override
+    public int getOutboxSize() {
+        return outbox.size();
+    }
+    
+    private boolean addToOutbox(Delivery delivery) {
+        if (outbox.offer(delivery)) {
+            return true;
+        }
+        log.error("The outbox is full, the response of the execution {} has been dropped", delivery.getExecutionId());
+        giveUp(delivery);
+        return false;
+    }
+    
+    private void sendResponses() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                send(takeBatch());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                // Not expected, the sender must keep running
+                log.error("Error while sending responses: {}", e);
+            }
+        }
+    }
+    
+    // Takes the next delivery, and other deliveries to the same url up to the batch size
+    private List<Delivery> takeBatch() throws InterruptedException {
+        Delivery first = outbox.take();
+        List<Delivery> batch = new ArrayList<>();
+        batch.add(first);
+        Iterator<Delivery> iterator = outbox.iterator();
+        while (batch.size() < batchSize && iterator.hasNext()) {
+            Delivery delivery = iterator.next();
+            // Another sender might have taken it
+            if (Objects.equals(delivery.getUrl(), first.getUrl()) && outbox.remove(delivery)) {
+                batch.add(delivery);
+            }
+        }
+        return batch;
+    }
+    
+    private void send(List<Delivery> batch) {
+        String url = batch.get(0).getUrl();
+        // A single response is posted as it is, so receivers that do not expect batches are not affected
+        Object body = batch.size() == 1
+                ? batch.get(0).getResponse()
+                : batch.stream().map(Delivery::getResponse).collect(Collectors.toList());
+        try {
+            log.info("Sending {} response(s) to {}", batch.size(), url);
+            // The check of URI syntax is done before the compilation.
+            restTemplate.postForEntity(new URI(url), body, Object.class);
+        } catch (Exception e) {
+            log.warn("Error while sending {} response(s) to {}: {}", batch.size(), url, e.getMessage());
+            batch.forEach(this::retry);
+            return;
+        }
+        for (Delivery delivery : batch) {
+            deliveryTimer.record(System.nanoTime() - delivery.getCreationTime(), TimeUnit.NANOSECONDS);
+            hooksRepository.getAndRemove(delivery.getExecutionId());
+        }
+    }
+    
+    private void retry(Delivery delivery) {
+        int attempts = delivery.getAttempts() + 1;
+        if (attempts >= maxAttempts) {
+            log.error("The response of the execution {} has not been delivered after {} attempts",
+                    delivery.getExecutionId(), attempts);
+            giveUp(delivery);
+            return;
+        }
+        retryCounter.increment();
+        long backoff = getBackoff(attempts);
+        log.info("Retrying to send the response of the execution {} in {} ms", delivery.getExecutionId(), backoff);
+        retryScheduler.schedule(() -> addToOutbox(delivery.withAttempts(attempts)), backoff, TimeUnit.MILLISECONDS);
+    }
+    
+    private long getBackoff(int attempts) {
+        int shift = Math.min(attempts - 1, MAX_BACKOFF_SHIFT);
+        return Math.min(maxBackoff, initialBackoff << shift);
+    }
+    
+    private void giveUp(Delivery delivery) {
+        failureCounter.increment();
+        hooksRepository.getAndRemove(delivery.getExecutionId());
+    }
+    
+    /**
+     * A response waiting to be posted.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private static final class Delivery {
+        
+        private final String executionId;
+        
+        private final String url;
+        
+        private final ResponseEntity response;
+        
+        // in nanos, used to measure the delivery latency
+        private final long creationTime;
+        
+        private final int attempts;
+        
+        private Delivery(String executionId, String url, ResponseEntity response, long creationTime) {
+            this(executionId, url, response, creationTime, 0);
+        }
+        
+        private Delivery withAttempts(int attempts) {
+            return new Delivery(executionId, url, response, creationTime, attempts);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.cp.compiler.streams;
 
 import com.cp.compiler.wellknownconstants.WellKnownMetrics;
 import com.cp.compiler.services.CompilerService;
+import com.cp.compiler.services.Resources;
+import com.cp.compiler.streams.transformers.AsyncCompilerTransformer;
 import com.cp.compiler.streams.transformers.CompilerTransformer;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
@@ -9,19 +11,28 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
 import org.apache.kafka.streams.Topology;
 import org.apache.kafka.streams.kstream.Consumed;
 import org.apache.kafka.streams.kstream.Produced;
-import org.apache.kafka.streams.kstream.ValueTransformerSupplier;
+import org.apache.kafka.streams.state.Stores;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import org.springframework.kafka.annotation.EnableKafkaStreams;
+import org.springframework.kafka.annotation.KafkaStreamsDefaultConfiguration;
+import org.springframework.kafka.config.KafkaStreamsConfiguration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * The type Kafka streams topology config.
@@ -34,19 +45,38 @@ import javax.annotation.PostConstruct;
 @EnableKafkaStreams
 public class KafkaStreamsTopologyConfig {
     
+    private static final String COMPILATION_THREAD_NAME_PREFIX = "kafka-compilation-";
+    
     private final Serde<String> stringSerde = Serdes.String();
     
     private final MeterRegistry meterRegistry;
     
+    private final Resources resources;
+    
+    @Value("${spring.kafka.async.enabled:false}")
+    private boolean asyncEnabled;
+    
+    @Value("${spring.kafka.async.max-in-flight:0}")
+    private int maxInFlight;
+    
+    @Value("${spring.kafka.stream-threads:0}")
+    private int streamThreads;
+    
+    private ExecutorService compilationExecutor;
+    
     private Counter throttlingRetriesCounter;
     
+    private Counter throttlingDroppedCounter;
+    
     /**
      * Instantiates a new Kafka streams topology config.
      *
      * @param meterRegistry the meter registry
+     * @param resources     the resources
      */
-    public KafkaStreamsTopologyConfig(MeterRegistry meterRegistry) {
+    public KafkaStreamsTopologyConfig(MeterRegistry meterRegistry, Resources resources) {
         this.meterRegistry = meterRegistry;
+        this.resources = resources;
     }
     
     /**
@@ -55,6 +85,47 @@ public class KafkaStreamsTopologyConfig {
     @PostConstruct
     public void init() {
         throttlingRetriesCounter = meterRegistry.counter(WellKnownMetrics.KAFKA_THROTTLING_RETRIES, "broker", "kafka");
+        throttlingDroppedCounter = meterRegistry.counter(WellKnownMetrics.KAFKA_THROTTLING_DROPPED, "broker", "kafka");
+        
+        if (asyncEnabled) {
+            maxInFlight = maxInFlight > 0 ? maxInFlight : resources.getMaxParallelExecutions();
+            compilationExecutor = Executors.newFixedThreadPool(
+                    maxInFlight, new CustomizableThreadFactory(COMPILATION_THREAD_NAME_PREFIX));
+            log.info("Asynchronous processing, max compilations in flight per task = {}", maxInFlight);
+        }
+    }
+    
+    /**
+     * Shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (compilationExecutor != null) {
+            compilationExecutor.shutdown();
+        }
+    }
+    
+    /**
+     * Kafka streams configuration, the configuration of spring boot with a number of stream threads
+     * that fits the capacity of the node.
+     * In the synchronous mode each stream thread runs one compilation at a time, so there are as many threads
+     * as executions that can run in parallel. In the asynchronous mode a single thread dispatches compilations.
+     *
+     * @param kafkaProperties the kafka properties
+     * @param applicationName the application name
+     * @return the kafka streams configuration
+     */
+    @Bean(name = KafkaStreamsDefaultConfiguration.DEFAULT_STREAMS_CONFIG_BEAN_NAME)
+    public KafkaStreamsConfiguration kafkaStreamsConfiguration(KafkaProperties kafkaProperties,
+                                                               @Value("${spring.application.name}") String applicationName) {
+        Map<String, Object> properties = kafkaProperties.buildStreamsProperties();
+        properties.putIfAbsent(StreamsConfig.APPLICATION_ID_CONFIG, applicationName);
+        
+        int threads = streamThreads > 0 ? streamThreads : (asyncEnabled ? 1 : resources.getMaxParallelExecutions());
+        properties.put(StreamsConfig.NUM_STREAM_THREADS_CONFIG, threads);
+        log.info("Kafka streams threads = {}", threads);
+        
+        return new KafkaStreamsConfiguration(properties);
     }
     
     /**
@@ -63,6 +134,7 @@ public class KafkaStreamsTopologyConfig {
      * @param inputTopic         the input topic
      * @param outputTopic        the output topic
      * @param throttlingDuration the throttling duration
+     * @param maxRetries         the max number of retries of a throttled request
      * @param builder            the topology builder
      * @param compilerService    the compiler service
      * @return the topology
@@ -71,14 +143,46 @@ public class KafkaStreamsTopologyConfig {
     public Topology topology(@Value("${spring.kafka.topics.input-topic}") String inputTopic,
                              @Value("${spring.kafka.topics.output-topic}") String outputTopic,
                              @Value("${spring.kafka.throttling-duration}") long throttlingDuration,
+                             @Value("${spring.kafka.throttling-max-retries:30}") int maxRetries,
                              @Autowired StreamsBuilder builder,
                              @Qualifier("proxy") @Autowired CompilerService compilerService) {
         
-        builder.stream(inputTopic, Consumed.with(stringSerde, stringSerde))
-                .transformValues((ValueTransformerSupplier) () -> {
-                    return new CompilerTransformer(compilerService, throttlingDuration, throttlingRetriesCounter);
-                })
-                .to(outputTopic, Produced.with(stringSerde, stringSerde));
+        // Throttled requests wait in a changelogged store, so they are not lost on restarts and rebalances
+        builder.addStateStore(Stores.keyValueStoreBuilder(
+                Stores.persistentKeyValueStore(CompilerTransformer.THROTTLED_REQUESTS_STORE),
+                stringSerde,
+                stringSerde));
+        
+        if (asyncEnabled) {
+            // Dispatched requests wait in a changelogged store until their results are forwarded
+            builder.addStateStore(Stores.keyValueStoreBuilder(
+                    Stores.persistentKeyValueStore(AsyncCompilerTransformer.PENDING_REQUESTS_STORE),
+                    stringSerde,
+                    stringSerde));
+            
+            builder.stream(inputTopic, Consumed.with(stringSerde, stringSerde))
+                    .transform(() -> new AsyncCompilerTransformer(
+                                    compilerService,
+                                    throttlingDuration,
+                                    maxRetries,
+                                    throttlingRetriesCounter,
+                                    throttlingDroppedCounter,
+                                    compilationExecutor,
+                                    maxInFlight),
+                            CompilerTransformer.THROTTLED_REQUESTS_STORE,
+                            AsyncCompilerTransformer.PENDING_REQUESTS_STORE)
+                    .to(outputTopic, Produced.with(stringSerde, stringSerde));
+        } else {
+            builder.stream(inputTopic, Consumed.with(stringSerde, stringSerde))
+                    .transform(() -> new CompilerTransformer(
+                                    compilerService,
+                                    throttlingDuration,
+                                    maxRetries,
+                                    throttlingRetriesCounter,
+                                    throttlingDroppedCounter),
+                            CompilerTransformer.THROTTLED_REQUESTS_STORE)
+                    .to(outputTopic, Produced.with(stringSerde, stringSerde));
+        }
     
         Topology topology = builder.build();
         log.info("Topology: {}", topology.describe());
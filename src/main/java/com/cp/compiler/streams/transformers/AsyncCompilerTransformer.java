@@ -0,0 +1,289 @@
+package com.cp.compiler.streams.transformers;
+
+import com.cp.compiler.exceptions.ThrottlingException;
+import com.cp.compiler.mappers.JsonMapper;
+import com.cp.compiler.services.CompilerService;
+import io.micrometer.core.instrument.Counter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.processor.ProcessorContext;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The type Async compiler transformer.
+ * Compilations are dispatched to an executor so a stream task runs several compilations concurrently,
+ * results are forwarded on the stream thread once they are completed.
+ * Requests with the same key are compiled one after the other, so their results keep the order of the input topic:
+ * a request waits until the result of the previous request of its key is forwarded, and while a throttled request
+ * is in the retry store the later requests of its key wait for it.
+ * Dispatched requests are kept in a changelogged store until their result is forwarded, the offset of a request
+ * can then be committed before its result is produced: the request is dispatched again by the next owner
+ * of the task after a failure (at least once).
+ */
+@Slf4j
+public class AsyncCompilerTransformer extends CompilerTransformer {
+    
+    /**
+     * The name of the store of dispatched requests.
+     */
+    public static final String PENDING_REQUESTS_STORE = "pending-requests";
+    
+    private static final Duration FORWARD_INTERVAL = Duration.ofMillis(100);
+    
+    // Default of the consumer, in millis
+    private static final long DEFAULT_MAX_POLL_INTERVAL = 300000;
+    
+    private final Executor executor;
+    
+    private final int maxInFlight;
+    
+    private KeyValueStore<String, String> pendingRequests;
+    
+    // in millis, the stream thread must poll again before the max poll interval, otherwise its tasks are revoked
+    private long maxAwaitTime;
+    
+    // Started compilations in start order
+    private final List<PendingCompilation> inFlight = new LinkedList<>();
+    
+    // Keys with a compilation in flight or a request in the retry store, with the later requests of each key
+    private final Map<String, Queue<PendingCompilation>> busyKeys = new HashMap<>();
+    
+    // Number of requests waiting for an earlier request of their key
+    private int waitingRequests;
+    
+    private long dispatchSequence;
+    
+    /**
+     * Instantiates a new Async compiler transformer.
+     *
+     * @param compilerService          the compiler service
+     * @param throttlingDuration       the throttling duration
+     * @param maxRetries               the max number of retries of a throttled request
+     * @param throttlingRetriesCounter the throttling retries counter
+     * @param throttlingDroppedCounter the counter of requests dropped after the max number of retries
+     * @param executor                 the executor running compilations
+     * @param maxInFlight              the max number of compilations dispatched by the task at the same time
+     */
+    public AsyncCompilerTransformer(CompilerService compilerService,
+                                    long throttlingDuration,
+                                    int maxRetries,
+                                    Counter throttlingRetriesCounter,
+                                    Counter throttlingDroppedCounter,
+                                    Executor executor,
+                                    int maxInFlight) {
+        super(compilerService, throttlingDuration, maxRetries, throttlingRetriesCounter, throttlingDroppedCounter);
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public void init(ProcessorContext processorContext) {
+        super.init(processorContext);
+        this.pendingRequests = (KeyValueStore<String, String>) processorContext.getStateStore(PENDING_REQUESTS_STORE);
+        this.maxAwaitTime = getMaxPollInterval(processorContext.appConfigs()) / 2;
+        processorContext.schedule(FORWARD_INTERVAL, PunctuationType.WALL_CLOCK_TIME, timestamp -> forwardCompleted());
+        // Restored requests of these keys wait until the throttled request of their key is retried
+        getThrottledKeys().forEach(key -> busyKeys.put(key, new LinkedList<>()));
+        dispatchRestoredRequests();
+    }
+    
+    @Override
+    public KeyValue<String, String> transform(String key, String jsonRequest) {
+        dispatch(new ThrottledRecord(key, jsonRequest, 0));
+        forwardCompleted();
+        // Results are forwarded once compilations are completed
+        return null;
+    }
+    
+    @Override
+    protected boolean retry(ThrottledRecord throttledRecord) {
+        // The key has been held by this request since it was throttled, it goes before the waiting requests
+        awaitCapacity();
+        start(store(throttledRecord));
+        return true;
+    }
+    
+    // Requests dispatched by the previous owner of the task whose results have not been forwarded
+    private void dispatchRestoredRequests() {
+        List<KeyValue<String, String>> restoredRequests = new ArrayList<>();
+        try (KeyValueIterator<String, String> iterator = pendingRequests.all()) {
+            iterator.forEachRemaining(restoredRequests::add);
+        }
+        for (KeyValue<String, String> entry : restoredRequests) {
+            pendingRequests.delete(entry.key);
+            ThrottledRecord throttledRecord = readThrottledRecord(entry.value);
+            if (throttledRecord != null) {
+                dispatch(throttledRecord);
+            }
+        }
+        if (!restoredRequests.isEmpty()) {
+            log.info("{} pending requests have been dispatched again", restoredRequests.size());
+        }
+    }
+    
+    private void dispatch(ThrottledRecord throttledRecord) {
+        awaitCapacity();
+        PendingCompilation pendingCompilation = store(throttledRecord);
+        
+        String key = throttledRecord.getKey();
+        Queue<PendingCompilation> waitingCompilations = key == null ? null : busyKeys.get(key);
+        if (waitingCompilations == null) {
+            start(pendingCompilation);
+        } else {
+            waitingCompilations.add(pendingCompilation);
+            waitingRequests++;
+        }
+    }
+    
+    private void awaitCapacity() {
+        // Backpressure, the stream thread waits for a compilation when the task reached its max.
+        // Requests waiting for a throttled request are released by the retry punctuator of this thread, not awaited
+        long deadline = System.currentTimeMillis() + maxAwaitTime;
+        while (inFlight.size() + waitingRequests >= maxInFlight && !inFlight.isEmpty()) {
+            long timeout = deadline - System.currentTimeMillis();
+            if (timeout <= 0) {
+                log.warn("No compilation completed in {} ms, dispatching above the max in flight", maxAwaitTime);
+                break;
+            }
+            awaitAnyCompilation(timeout);
+            forwardCompleted();
+        }
+    }
+    
+    private PendingCompilation store(ThrottledRecord throttledRecord) {
+        // Pending keys follow the dispatch order, so restored requests are dispatched again in the same order
+        String pendingKey = String.format("%020d-%010d", System.currentTimeMillis(), dispatchSequence++);
+        try {
+            pendingRequests.put(pendingKey, writeThrottledRecord(throttledRecord));
+        } catch (IOException e) {
+            // Not expected, the record only contains strings
+            log.error("Error, the pending request can't be stored : {}", e);
+        }
+        return new PendingCompilation(pendingKey, throttledRecord);
+    }
+    
+    private void start(PendingCompilation pendingCompilation) {
+        String key = pendingCompilation.throttledRecord.getKey();
+        if (key != null) {
+            busyKeys.putIfAbsent(key, new LinkedList<>());
+        }
+        pendingCompilation.compilation = CompletableFuture.supplyAsync(
+                () -> compile(pendingCompilation.throttledRecord.getRequest()), executor);
+        inFlight.add(pendingCompilation);
+    }
+    
+    // The next request of a key is started once the previous one has been forwarded or dropped
+    private void startNext(String key) {
+        Queue<PendingCompilation> waitingCompilations = busyKeys.get(key);
+        PendingCompilation next = waitingCompilations == null ? null : waitingCompilations.poll();
+        if (next == null) {
+            busyKeys.remove(key);
+            return;
+        }
+        waitingRequests--;
+        start(next);
+    }
+    
+    private String compile(String jsonRequest) {
+        try {
+            return JsonMapper.transform(jsonRequest, compilerService);
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+    
+    private void forwardCompleted() {
+        List<String> releasedKeys = new ArrayList<>();
+        Iterator<PendingCompilation> iterator = inFlight.iterator();
+        while (iterator.hasNext()) {
+            PendingCompilation pendingCompilation = iterator.next();
+            if (!pendingCompilation.compilation.isDone()) {
+                continue;
+            }
+            iterator.remove();
+            
+            ThrottledRecord throttledRecord = pendingCompilation.throttledRecord;
+            String key = throttledRecord.getKey();
+            boolean retried = false;
+            
+            try {
+                context.forward(key, pendingCompilation.compilation.join());
+            } catch (CompletionException completionException) {
+                if (completionException.getCause() instanceof ThrottlingException) {
+                    log.info("Request has been throttled {}", completionException.getCause());
+                    retried = retryLater(throttledRecord);
+                } else {
+                    log.error("Error : {}", completionException.getCause());
+                    context.forward(key, null);
+                }
+            }
+            // The result has been forwarded (or the request is in the retry store)
+            pendingRequests.delete(pendingCompilation.pendingKey);
+            
+            // A request in the retry store keeps its key, later requests of the key wait for its retry
+            if (key != null && !retried) {
+                releasedKeys.add(key);
+            }
+        }
+        releasedKeys.forEach(this::startNext);
+    }
+    
+    private void awaitAnyCompilation(long timeout) {
+        CompletableFuture<?>[] compilations = inFlight
+                .stream()
+                .map(pendingCompilation -> pendingCompilation.compilation)
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.anyOf(compilations).get(timeout, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // The failure is handled when the result is forwarded, the timeout by the caller
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a compilation", e);
+        }
+    }
+    
+    private static long getMaxPollInterval(Map<String, Object> configs) {
+        Object maxPollInterval = configs.get(StreamsConfig.consumerPrefix(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG));
+        if (maxPollInterval == null) {
+            maxPollInterval = configs.get(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG);
+        }
+        return maxPollInterval == null ? DEFAULT_MAX_POLL_INTERVAL : Long.parseLong(maxPollInterval.toString());
+    }
+    
+    private static class PendingCompilation {
+        
+        private final String pendingKey;
+        
+        private final ThrottledRecord throttledRecord;
+        
+        // Set once the compilation is started
+        private CompletableFuture<String> compilation;
+        
+        private PendingCompilation(String pendingKey, ThrottledRecord throttledRecord) {
+            this.pendingKey = pendingKey;
+            this.throttledRecord = throttledRecord;
+        }
+    }
+}
@@ -3,64 +3,234 @@ package com.cp.compiler.streams.transformers;
 import com.cp.compiler.exceptions.ThrottlingException;
 import com.cp.compiler.mappers.JsonMapper;
 import com.cp.compiler.services.CompilerService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.core.instrument.Counter;
-import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.kafka.streams.kstream.ValueTransformer;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.Transformer;
 import org.apache.kafka.streams.processor.ProcessorContext;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * The type Compiler transformer.
+ * Throttled requests are not retried on the stream thread, they are kept in a retry store
+ * and retried by a punctuator once their throttling duration elapsed, so the partition keeps being processed.
  *
  * @author Zakaria Maaraki
  */
 @Slf4j
-public class CompilerTransformer implements ValueTransformer<String, String> {
+public class CompilerTransformer implements Transformer<String, String, KeyValue<String, String>> {
+    
+    /**
+     * The name of the store of throttled requests.
+     */
+    public static final String THROTTLED_REQUESTS_STORE = "throttled-requests";
     
-    private CompilerService compilerService;
+    private static final Duration RETRY_INTERVAL = Duration.ofSeconds(1);
+    
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    
+    /**
+     * The compiler service.
+     */
+    protected CompilerService compilerService;
     
     private long throttlingDuration;
     
+    private int maxRetries;
+    
     private Counter throttlingRetriesCounter;
     
+    private Counter throttlingDroppedCounter;
+    
+    /**
+     * The processor context.
+     */
+    protected ProcessorContext context;
+    
+    private KeyValueStore<String, String> throttledRequests;
+    
     /**
      * Instantiates a new Compiler transformer.
      *
      * @param compilerService          the compiler service
      * @param throttlingDuration       the throttling duration
+     * @param maxRetries               the max number of retries of a throttled request
      * @param throttlingRetriesCounter the throttling retries counter
+     * @param throttlingDroppedCounter the counter of requests dropped after the max number of retries
      */
     public CompilerTransformer(CompilerService compilerService,
                                long throttlingDuration,
-                               Counter throttlingRetriesCounter) {
+                               int maxRetries,
+                               Counter throttlingRetriesCounter,
+                               Counter throttlingDroppedCounter) {
         this.compilerService = compilerService;
         this.throttlingDuration = throttlingDuration;
+        this.maxRetries = maxRetries;
         this.throttlingRetriesCounter = throttlingRetriesCounter;
+        this.throttlingDroppedCounter = throttlingDroppedCounter;
     }
     
     @Override
+    @SuppressWarnings("unchecked")
     public void init(ProcessorContext processorContext) {
-        // empty
+        this.context = processorContext;
+        this.throttledRequests = (KeyValueStore<String, String>) processorContext.getStateStore(THROTTLED_REQUESTS_STORE);
+        processorContext.schedule(RETRY_INTERVAL, PunctuationType.WALL_CLOCK_TIME, this::retryThrottledRequests);
     }
     
-    @SneakyThrows
     @Override
-    public String transform(String jsonRequest) {
+    public KeyValue<String, String> transform(String key, String jsonRequest) {
         try {
-            return JsonMapper.transform(jsonRequest, compilerService);
+            return KeyValue.pair(key, JsonMapper.transform(jsonRequest, compilerService));
         } catch (ThrottlingException throttlingException) {
             log.info("Request has been throttled {}, retrying after {}", throttlingException, throttlingDuration);
-            return retryAfter(jsonRequest);
+            delay(new ThrottledRecord(key, jsonRequest, 1));
+            // Nothing is published until the request is retried
+            return null;
+        } catch (Exception e) {
+            log.error("Error : {}", e);
+            return KeyValue.pair(key, null);
+        }
+    }
+    
+    private void retryThrottledRequests(long timestamp) {
+        long now = System.currentTimeMillis();
+        // Keys start with the retry time, so due requests come first
+        List<KeyValue<String, String>> dueRequests = new ArrayList<>();
+        try (KeyValueIterator<String, String> iterator = throttledRequests.all()) {
+            while (iterator.hasNext()) {
+                KeyValue<String, String> entry = iterator.next();
+                if (getRetryTime(entry.key) > now) {
+                    break;
+                }
+                dueRequests.add(entry);
+            }
+        }
+        
+        for (KeyValue<String, String> entry : dueRequests) {
+            throttledRequests.delete(entry.key);
+            ThrottledRecord throttledRecord = readThrottledRecord(entry.value);
+            if (throttledRecord == null) {
+                continue;
+            }
+            throttlingRetriesCounter.increment();
+            if (!retry(throttledRecord)) {
+                // Other due requests would most likely be throttled too, they are retried at the next punctuation
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Retry a throttled request.
+     *
+     * @param throttledRecord the throttled record
+     * @return false if the request has been throttled again
+     */
+    protected boolean retry(ThrottledRecord throttledRecord) {
+        try {
+            String jsonResponse = JsonMapper.transform(throttledRecord.getRequest(), compilerService);
+            context.forward(throttledRecord.getKey(), jsonResponse);
+        } catch (ThrottlingException throttlingException) {
+            retryLater(throttledRecord);
+            return false;
         } catch (Exception e) {
             log.error("Error : {}", e);
+            context.forward(throttledRecord.getKey(), null);
+        }
+        return true;
+    }
+    
+    /**
+     * Keep a throttled request in the retry store, or drop it if it reached the max number of retries.
+     *
+     * @param throttledRecord the throttled record
+     * @return true if the request is kept in the retry store, false if it has been dropped
+     */
+    protected boolean retryLater(ThrottledRecord throttledRecord) {
+        // The number of attempts is also the number of retries done, this one included
+        if (throttledRecord.getAttempts() >= maxRetries) {
+            log.warn("Request dropped after {} throttling retries", maxRetries);
+            throttlingDroppedCounter.increment();
+            context.forward(throttledRecord.getKey(), null);
+            return false;
+        }
+        delay(new ThrottledRecord(
+                throttledRecord.getKey(),
+                throttledRecord.getRequest(),
+                throttledRecord.getAttempts() + 1));
+        return true;
+    }
+    
+    /**
+     * Gets the keys of the requests in the retry store.
+     *
+     * @return the keys of the throttled requests
+     */
+    protected Set<String> getThrottledKeys() {
+        Set<String> keys = new HashSet<>();
+        try (KeyValueIterator<String, String> iterator = throttledRequests.all()) {
+            iterator.forEachRemaining(entry -> {
+                ThrottledRecord throttledRecord = readThrottledRecord(entry.value);
+                if (throttledRecord != null && throttledRecord.getKey() != null) {
+                    keys.add(throttledRecord.getKey());
+                }
+            });
+        }
+        return keys;
+    }
+    
+    private void delay(ThrottledRecord throttledRecord) {
+        long retryTime = System.currentTimeMillis() + throttlingDuration;
+        try {
+            throttledRequests.put(
+                    String.format("%020d-%s", retryTime, UUID.randomUUID()),
+                    writeThrottledRecord(throttledRecord));
+        } catch (IOException e) {
+            // Not expected, the record only contains strings
+            log.error("Error, the throttled request can't be stored : {}", e);
+        }
+    }
+    
+    /**
+     * Write a throttled record as json.
+     *
+     * @param throttledRecord the throttled record
+     * @return the json value
+     * @throws IOException the io exception
+     */
+    protected static String writeThrottledRecord(ThrottledRecord throttledRecord) throws IOException {
+        return objectMapper.writeValueAsString(throttledRecord);
+    }
+    
+    /**
+     * Read a throttled record from its json value.
+     *
+     * @param value the json value
+     * @return the throttled record, null if the value is not valid
+     */
+    protected static ThrottledRecord readThrottledRecord(String value) {
+        try {
+            return objectMapper.readValue(value, ThrottledRecord.class);
+        } catch (IOException e) {
+            log.error("Error, invalid throttled request : {}", e);
             return null;
         }
     }
     
-    private String retryAfter(String jsonRequest) throws InterruptedException {
-        throttlingRetriesCounter.increment();
-        Thread.sleep(throttlingDuration);
-        return transform(jsonRequest);
+    private static long getRetryTime(String storeKey) {
+        return Long.parseLong(storeKey.substring(0, storeKey.indexOf('-')));
     }
     
     @Override
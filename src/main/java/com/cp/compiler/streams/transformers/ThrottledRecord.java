@@ -0,0 +1,26 @@
+package com.cp.compiler.streams.transformers;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * The type Throttled record, a record of the input topic waiting in the retry store (or being compiled
+ * in the asynchronous mode).
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ThrottledRecord {
+    
+    @JsonProperty("key")
+    private String key;
+    
+    @JsonProperty("request")
+    private String request;
+    
+    // Number of times the request has been throttled, 0 for a new request
+    @JsonProperty("attempts")
+    private int attempts;
+}
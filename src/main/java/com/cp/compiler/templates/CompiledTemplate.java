@@ -0,0 +1,90 @@
+package com.cp.compiler.templates;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The type Compiled template.
+ * A text template parsed once into literal parts and attributes, so rendering it is a concatenation.
+ * It supports the unescaped inlined expressions of the entrypoint templates, [(${compiler.name})] and
+ * [(${compiler['name']})], and renders missing attributes as empty strings, like Thymeleaf.
+ */
+public final class CompiledTemplate {
+    
+    private static final Pattern ATTRIBUTE_PATTERN =
+            Pattern.compile("\\[\\(\\$\\{compiler(?:\\.(\\w+)|\\['(\\w+)'\\])\\}\\)\\]");
+    
+    // Inlined expressions and elements of the Thymeleaf text mode that are not supported
+    private static final Pattern UNSUPPORTED_PATTERN = Pattern.compile("\\[\\[|\\[\\(|\\[#|\\[/");
+    
+    // Literal parts, the attribute i is rendered between the literal parts i and i + 1
+    private final String[] literals;
+    
+    private final String[] attributes;
+    
+    private final int literalsLength;
+    
+    private CompiledTemplate(String[] literals, String[] attributes) {
+        this.literals = literals;
+        this.attributes = attributes;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalsLength = length;
+    }
+    
+    /**
+     * Compile a template.
+     *
+     * @param template the content of the template
+     * @return the compiled template
+     */
+    public static CompiledTemplate compile(String template) {
+        List<String> literals = new ArrayList<>();
+        List<String> attributes = new ArrayList<>();
+        Matcher matcher = ATTRIBUTE_PATTERN.matcher(template);
+        int start = 0;
+        while (matcher.find()) {
+            literals.add(checkLiteral(template.substring(start, matcher.start())));
+            attributes.add(matcher.group(1) != null ? matcher.group(1) : matcher.group(2));
+            start = matcher.end();
+        }
+        literals.add(checkLiteral(template.substring(start)));
+        return new CompiledTemplate(literals.toArray(new String[0]), attributes.toArray(new String[0]));
+    }
+    
+    private static String checkLiteral(String literal) {
+        Matcher matcher = UNSUPPORTED_PATTERN.matcher(literal);
+        if (matcher.find()) {
+            throw new IllegalArgumentException("Unsupported template expression at: "
+                    + literal.substring(matcher.start(), Math.min(literal.length(), matcher.start() + 40)));
+        }
+        return literal;
+    }
+    
+    /**
+     * Render the template.
+     *
+     * @param values the values of the attributes
+     * @return the rendered content
+     */
+    public String render(Map<String, String> values) {
+        String[] renderedValues = new String[attributes.length];
+        int length = literalsLength;
+        for (int i = 0; i < attributes.length; i++) {
+            String value = values.get(attributes[i]);
+            renderedValues[i] = value == null ? "" : value;
+            length += renderedValues[i].length();
+        }
+        StringBuilder content = new StringBuilder(length);
+        content.append(literals[0]);
+        for (int i = 0; i < attributes.length; i++) {
+            content.append(renderedValues[i]).append(literals[i + 1]);
+        }
+        return content.toString();
+    }
+}
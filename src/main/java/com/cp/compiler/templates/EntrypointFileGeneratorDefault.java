@@ -1,25 +1,76 @@
 package com.cp.compiler.templates;
 
-import lombok.AllArgsConstructor;
+import com.cp.compiler.wellknownconstants.WellKnownTemplates;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Component;
-import org.thymeleaf.context.Context;
-import org.thymeleaf.spring5.SpringTemplateEngine;
 
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The type Entry point file generator.
+ * Templates are compiled once, at startup for the templates of the languages, and each entrypoint is rendered from
+ * the compiled template without a template engine.
  */
+@Slf4j
 @Component
-@AllArgsConstructor
 public class EntrypointFileGeneratorDefault implements EntrypointFileGenerator {
     
-    private final SpringTemplateEngine templateEngine;
+    private final ResourceLoader resourceLoader;
+    
+    private final Map<String, CompiledTemplate> compiledTemplates = new ConcurrentHashMap<>();
+    
+    @Value("${spring.thymeleaf.prefix:classpath:/templates/}")
+    private String prefix;
+    
+    @Value("${spring.thymeleaf.suffix:.sh}")
+    private String suffix;
+    
+    /**
+     * Instantiates a new Entrypoint file generator.
+     *
+     * @param resourceLoader the resource loader
+     */
+    public EntrypointFileGeneratorDefault(ResourceLoader resourceLoader) {
+        this.resourceLoader = resourceLoader;
+    }
+    
+    /**
+     * Init.
+     */
+    @PostConstruct
+    public void init() {
+        for (String templatePath : List.of(
+                WellKnownTemplates.ENTRYPOINT_TEMPLATE, WellKnownTemplates.SCALA_ENTRYPOINT_TEMPLATE)) {
+            getCompiledTemplate(templatePath);
+        }
+        log.info("{} entrypoint templates have been compiled", compiledTemplates.size());
+    }
     
     @Override
     public String createEntrypointFile(String templatePath, Map<String, String> attributes) {
-        Context context = new Context();
-        context.setVariable("compiler", attributes);
-        return templateEngine.process(templatePath, context);
+        return getCompiledTemplate(templatePath).render(attributes);
+    }
+    
+    private CompiledTemplate getCompiledTemplate(String templatePath) {
+        return compiledTemplates.computeIfAbsent(templatePath, this::compile);
+    }
+    
+    private CompiledTemplate compile(String templatePath) {
+        Resource resource = resourceLoader.getResource(prefix + templatePath + suffix);
+        try (InputStream inputStream = resource.getInputStream()) {
+            return CompiledTemplate.compile(new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't read the template " + templatePath, e);
+        }
     }
 }
@@ -0,0 +1,118 @@
+package com.cp.compiler.utils;
+
+import com.cp.compiler.models.ProcessOutput;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The type Batch utils.
+ * The entrypoint of a batch execution first announces the boundary of test cases: "{prefix} {nonce}",
+ * the nonce is random and only known by the entrypoint, so it can't be written by the programs.
+ * Then it writes the output of each test case after a boundary line:
+ * "{prefix}-{nonce} stdout {index} {status} {cpuTime} {wallTime}" followed by the standard output,
+ * then "{prefix}-{nonce} stderr {index}" followed by the standard error.
+ * The CPU time and the wall time of the test case are in microseconds.
+ */
+public abstract class BatchUtils {
+    
+    private static final String STDOUT_SECTION = "stdout";
+    
+    private static final String STDERR_SECTION = "stderr";
+    
+    private static final long MICROS_IN_MILLI = 1000;
+    
+    private BatchUtils() {}
+    
+    /**
+     * Parse the output of a batch execution.
+     * Sections are expected in the order they are written by the entrypoint, the stdout then the stderr of each test
+     * case from the first one, a boundary line that is out of this order is kept in the content of the section.
+     *
+     * @param output the output of the container
+     * @param prefix the prefix of the boundary of test cases
+     * @return the output of each executed test case, ordered by index
+     */
+    public static List<ProcessOutput> parseTestCasesOutputs(String output, String prefix) {
+        Matcher announcement = Pattern
+                .compile("^" + Pattern.quote(prefix) + " ([0-9a-f]+) *\\R", Pattern.MULTILINE)
+                .matcher(output);
+        if (!announcement.find()) {
+            return new ArrayList<>();
+        }
+        String boundary = prefix + "-" + announcement.group(1);
+        
+        Pattern header = Pattern.compile(
+                "^" + Pattern.quote(boundary) + " (stdout|stderr) (\\d+)(?: (\\d+))?(?: (\\d+) (\\d+))? *\\R",
+                Pattern.MULTILINE);
+        Matcher matcher = header.matcher(output);
+        
+        List<ProcessOutput.ProcessOutputBuilder> builders = new ArrayList<>();
+        
+        String section = null;
+        int index = 0;
+        int contentStart = announcement.end();
+        while (matcher.find()) {
+            String nextSection = STDOUT_SECTION.equals(section) ? STDERR_SECTION : STDOUT_SECTION;
+            int nextIndex = STDOUT_SECTION.equals(nextSection) ? index + 1 : index;
+            if (!isHeader(matcher, nextSection, nextIndex)) {
+                continue;
+            }
+            
+            setContent(builders, section, output.substring(contentStart, matcher.start()));
+            if (STDOUT_SECTION.equals(nextSection)) {
+                String cpuTime = matcher.group(4);
+                String wallTime = matcher.group(5);
+                builders.add(ProcessOutput
+                        .builder()
+                        .stdOut("")
+                        .stdErr("")
+                        .status(Integer.parseInt(matcher.group(3)))
+                        .cpuTime(cpuTime == null ? 0 : Long.parseLong(cpuTime) / MICROS_IN_MILLI)
+                        .executionDuration(wallTime == null ? 0 : Long.parseLong(wallTime) / MICROS_IN_MILLI));
+            }
+            section = nextSection;
+            index = nextIndex;
+            contentStart = matcher.end();
+        }
+        setContent(builders, section, output.substring(contentStart));
+        
+        List<ProcessOutput> testCasesOutputs = new ArrayList<>(builders.size());
+        builders.forEach(builder -> testCasesOutputs.add(builder.build()));
+        return testCasesOutputs;
+    }
+    
+    // Only the header of the next section is accepted, so a header can't be repeated or written out of order
+    private static boolean isHeader(Matcher matcher, String section, int index) {
+        boolean hasStatus = matcher.group(3) != null;
+        return section.equals(matcher.group(1))
+                && index == Integer.parseInt(matcher.group(2))
+                && hasStatus == STDOUT_SECTION.equals(section);
+    }
+    
+    private static void setContent(List<ProcessOutput.ProcessOutputBuilder> builders, String section, String content) {
+        // The content before the first header belongs to no test case
+        if (section == null) {
+            return;
+        }
+        ProcessOutput.ProcessOutputBuilder builder = builders.get(builders.size() - 1);
+        if (STDOUT_SECTION.equals(section)) {
+            builder.stdOut(removeTrailingLineSeparator(content));
+        } else {
+            builder.stdErr(CmdUtils.buildErrorOutput(removeTrailingLineSeparator(content)));
+        }
+    }
+    
+    // The entrypoint adds a line separator after each section
+    private static String removeTrailingLineSeparator(String content) {
+        if (content.endsWith("\r\n")) {
+            return content.substring(0, content.length() - 2);
+        }
+        if (content.endsWith("\n")) {
+            return content.substring(0, content.length() - 1);
+        }
+        return content;
+    }
+}
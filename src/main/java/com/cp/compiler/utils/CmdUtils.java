@@ -2,13 +2,22 @@ package com.cp.compiler.utils;
 
 import com.cp.compiler.exceptions.ProcessExecutionException;
 import com.cp.compiler.exceptions.ProcessExecutionTimeoutException;
+import com.cp.compiler.exceptions.ProcessOutputLimitExceededException;
 import com.cp.compiler.models.ProcessOutput;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * The type Cmd util.
@@ -19,6 +28,32 @@ import java.util.concurrent.TimeUnit;
 public abstract class CmdUtils {
 
     private static final int MAX_ERROR_LENGTH = 200; // number of chars
+    
+    private static final int COMPARISON_BUFFER_SIZE = 8192; // number of chars
+    
+    private static final int END_OF_STREAM = -1;
+    
+    private static final int OUTPUT_BUFFER_SIZE = 8192; // number of bytes
+    
+    private static final long OUTPUT_DRAIN_TIMEOUT = 1000; // in millis, once the process has exited
+    
+    // Reads stdout and stderr of processes while they are running
+    private static final ExecutorService OUTPUT_READERS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "process-output-reader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    /**
+     * The constant UNLIMITED_OUTPUT_SIZE.
+     */
+    public static final long UNLIMITED_OUTPUT_SIZE = Long.MAX_VALUE;
+    
+    /**
+     * The constant NO_MISMATCH, returned when an output matches the expected output.
+     */
+    public static final long NO_MISMATCH = -1;
+    
     /**
      * The constant LONG_MESSAGE_TRAIL.
      */
@@ -45,6 +80,28 @@ public abstract class CmdUtils {
         return builder.toString();
     }
     
+    /**
+     * Read output string, up to a max length.
+     *
+     * @param reader    the reader
+     * @param maxLength the max number of chars, a longer output is truncated and ends with the long message trail
+     * @return the string
+     * @throws IOException the io exception
+     */
+    public static String readOutput(Reader reader, long maxLength) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        char[] buffer = new char[COMPARISON_BUFFER_SIZE];
+        int read;
+        while ((read = reader.read(buffer)) != END_OF_STREAM) {
+            if (builder.length() + read > maxLength) {
+                builder.append(buffer, 0, (int) (maxLength - builder.length()));
+                return builder.append(LONG_MESSAGE_TRAIL).toString();
+            }
+            builder.append(buffer, 0, read);
+        }
+        return builder.toString();
+    }
+    
     /**
      * Compare output boolean.
      *
@@ -53,21 +110,108 @@ public abstract class CmdUtils {
      * @return the boolean
      */
     public static boolean compareOutput(String output, String expectedOutput) {
-        return trimText(output)
-          .equals(trimText(expectedOutput));
+        try {
+            return findMismatch(new StringReader(output), new StringReader(expectedOutput)) == NO_MISMATCH;
+        } catch (IOException e) {
+            // Not expected, string readers do not throw
+            throw new IllegalStateException(e);
+        }
     }
-
+    
     /**
-     * Remove extra white space and trailing carriage returns
+     * Compare an output to the expected output token by token, tokens are separated by white spaces,
+     * so extra white spaces and line breaks are ignored.
+     * Both readers are consumed incrementally until the first mismatch.
      *
-     * @param text
-     * @return cleaned text
+     * @param output         the output
+     * @param expectedOutput the expected output
+     * @return the position in the output of the first token that does not match, or -1 if outputs match
+     * @throws IOException the io exception
+     */
+    public static long findMismatch(Reader output, Reader expectedOutput) throws IOException {
+        CharCursor outputCursor = new CharCursor(output);
+        CharCursor expectedOutputCursor = new CharCursor(expectedOutput);
+        
+        while (true) {
+            int outputChar = outputCursor.skipWhiteSpaces();
+            int expectedOutputChar = expectedOutputCursor.skipWhiteSpaces();
+            
+            if (outputChar == END_OF_STREAM && expectedOutputChar == END_OF_STREAM) {
+                return NO_MISMATCH;
+            }
+            
+            // The position of the current char, or the end of the output if it's over
+            long tokenPosition = outputChar == END_OF_STREAM
+                    ? outputCursor.getPosition()
+                    : outputCursor.getPosition() - 1;
+            
+            // Compare the current token of each reader
+            while (!isTokenEnd(outputChar) && !isTokenEnd(expectedOutputChar)) {
+                if (outputChar != expectedOutputChar) {
+                    return tokenPosition;
+                }
+                outputChar = outputCursor.next();
+                expectedOutputChar = expectedOutputCursor.next();
+            }
+            
+            if (isTokenEnd(outputChar) != isTokenEnd(expectedOutputChar)) {
+                return tokenPosition;
+            }
+        }
+    }
+    
+    private static boolean isTokenEnd(int c) {
+        return c == END_OF_STREAM || isWhiteSpace(c);
+    }
+    
+    // Same characters as the \s regex class
+    private static boolean isWhiteSpace(int c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+    
+    /**
+     * Reads characters from a reader through a fixed size buffer and keeps track of the position.
      */
-    private static String trimText(String text) {
-        return text
-          .trim()
-          .replaceAll("\\s+", " ")
-          .replaceAll("/n","");
+    private static final class CharCursor {
+        
+        private final Reader reader;
+        
+        private final char[] buffer = new char[COMPARISON_BUFFER_SIZE];
+        
+        private int index;
+        
+        private int limit;
+        
+        private long position;
+        
+        private CharCursor(Reader reader) {
+            this.reader = reader;
+        }
+        
+        private int next() throws IOException {
+            if (index == limit) {
+                limit = reader.read(buffer, 0, buffer.length);
+                index = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return END_OF_STREAM;
+                }
+            }
+            position++;
+            return buffer[index++];
+        }
+        
+        private int skipWhiteSpaces() throws IOException {
+            int c = next();
+            while (c != END_OF_STREAM && isWhiteSpace(c)) {
+                c = next();
+            }
+            return c;
+        }
+        
+        private long getPosition() {
+            return position;
+        }
     }
     
     /**
@@ -95,6 +239,24 @@ public abstract class CmdUtils {
      */
     public static ProcessOutput executeProcess(String[] commands, long timeout)
             throws ProcessExecutionException, ProcessExecutionTimeoutException {
+        return executeProcess(commands, timeout, UNLIMITED_OUTPUT_SIZE);
+    }
+    
+    /**
+     * Execute process process output.
+     * Stdout and stderr are drained while the process is running, so the process never blocks on a full pipe,
+     * and the process is killed as soon as one of them exceeds the max output size.
+     *
+     * @param commands      the commands
+     * @param timeout       the timeout
+     * @param maxOutputSize the max size in bytes of stdout and of stderr
+     * @return the process output
+     * @throws ProcessExecutionException           the process execution exception
+     * @throws ProcessExecutionTimeoutException    the process execution timeout exception
+     * @throws ProcessOutputLimitExceededException the process output limit exceeded exception
+     */
+    public static ProcessOutput executeProcess(String[] commands, long timeout, long maxOutputSize)
+            throws ProcessExecutionException, ProcessExecutionTimeoutException, ProcessOutputLimitExceededException {
         
         if (timeout <= 0) {
             throw new IllegalArgumentException("timeout should be a positive value");
@@ -104,36 +266,47 @@ public abstract class CmdUtils {
             throw new IllegalArgumentException("commands should have at least one element");
         }
         
+        if (maxOutputSize <= 0) {
+            throw new IllegalArgumentException("maxOutputSize should be a positive value");
+        }
+        
         try {
             ProcessBuilder processbuilder = new ProcessBuilder(commands);
             Process process = processbuilder.start();
             long executionStartTime = System.currentTimeMillis();
+            
+            AtomicBoolean outputLimitExceeded = new AtomicBoolean(false);
+            Future<String> stdOutReader = OUTPUT_READERS.submit(
+                    () -> drainOutput(process, process.getInputStream(), maxOutputSize, outputLimitExceeded));
+            Future<String> stdErrReader = OUTPUT_READERS.submit(
+                    () -> drainOutput(process, process.getErrorStream(), maxOutputSize, outputLimitExceeded));
     
             // Do not let the process exceed the timeout
-            process.waitFor(timeout, TimeUnit.MILLISECONDS);
+            boolean exited = process.waitFor(timeout, TimeUnit.MILLISECONDS);
             long executionEndTime = System.currentTimeMillis();
-    
-            int status = 0;
-            String stdOut = "";
-            String stdErr = "";
+            
+            if (outputLimitExceeded.get()) {
+                log.info("The process output exceeded the {} bytes allowed", maxOutputSize);
+                throw new ProcessOutputLimitExceededException(maxOutputSize);
+            }
     
             // Check if the process is alive,
             // if it's so then destroy it and return a timeout status
-            if (process.isAlive()) {
+            if (!exited) {
                 log.info("The process exceeded the {} Millis allowed for its execution", timeout);
                 process.destroy();
                 log.info("The process has been destroyed");
                 throw new ProcessExecutionTimeoutException(timeout);
-            } else {
-                status = process.exitValue();
-        
-                BufferedReader containerOutputReader =
-                        new BufferedReader(new InputStreamReader(process.getInputStream()));
-                stdOut = CmdUtils.readOutput(containerOutputReader);
-        
-                BufferedReader containerErrorReader =
-                        new BufferedReader(new InputStreamReader(process.getErrorStream()));
-                stdErr = CmdUtils.buildErrorOutput(CmdUtils.readOutput(containerErrorReader));
+            }
+            
+            int status = process.exitValue();
+            String stdOut = stdOutReader.get(OUTPUT_DRAIN_TIMEOUT, TimeUnit.MILLISECONDS);
+            String stdErr = CmdUtils.buildErrorOutput(stdErrReader.get(OUTPUT_DRAIN_TIMEOUT, TimeUnit.MILLISECONDS));
+            
+            // The limit might have been reached by the last chunk written before the process exited
+            if (outputLimitExceeded.get()) {
+                log.info("The process output exceeded the {} bytes allowed", maxOutputSize);
+                throw new ProcessOutputLimitExceededException(maxOutputSize);
             }
     
             return ProcessOutput
@@ -144,10 +317,31 @@ public abstract class CmdUtils {
                     .executionDuration(executionEndTime - executionStartTime)
                     .build();
             
-        } catch(ProcessExecutionTimeoutException processExecutionTimeoutException) {
-            throw processExecutionTimeoutException;
+        } catch(ProcessExecutionTimeoutException | ProcessOutputLimitExceededException exception) {
+            throw exception;
         } catch(Exception exception) {
             throw new ProcessExecutionException("Fatal error for command " + commands + " : " + exception.getMessage());
         }
     }
+    
+    // Reads a stream of the process until its end, or kills the process if the stream exceeds the max size
+    private static String drainOutput(Process process,
+                                      InputStream stream,
+                                      long maxOutputSize,
+                                      AtomicBoolean outputLimitExceeded) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[OUTPUT_BUFFER_SIZE];
+        try (stream) {
+            int length;
+            while ((length = stream.read(buffer)) != END_OF_STREAM) {
+                if (output.size() + (long) length > maxOutputSize) {
+                    outputLimitExceeded.set(true);
+                    process.destroyForcibly();
+                    break;
+                }
+                output.write(buffer, 0, length);
+            }
+        }
+        return output.toString(Charset.defaultCharset());
+    }
 }
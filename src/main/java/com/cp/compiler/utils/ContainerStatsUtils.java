@@ -0,0 +1,156 @@
+package com.cp.compiler.utils;
+
+import com.cp.compiler.models.ContainerStats;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The type Container stats utils.
+ * Parses the output of "docker stats --no-stream --format {{json .}}", one json object per container, where sizes
+ * are human readable: decimal units for network and block IO (kB, MB...) and binary units for memory (KiB, MiB...).
+ */
+public abstract class ContainerStatsUtils {
+    
+    /**
+     * The constant DOCKER_STATS_FORMAT.
+     */
+    public static final String DOCKER_STATS_FORMAT = "{{json .}}";
+    
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    
+    private static final Pattern SIZE_PATTERN = Pattern.compile("([0-9.]+)\\s*([a-zA-Z]*)");
+    
+    private static final Pattern RECLAIMED_SPACE_PATTERN = Pattern.compile("Total reclaimed space:\\s*(\\S+)");
+    
+    private static final String PAIR_SEPARATOR = "/";
+    
+    private static final String PERCENTAGE_SUFFIX = "%";
+    
+    private static final Map<String, Long> UNITS = Map.ofEntries(
+            Map.entry("", 1L),
+            Map.entry("b", 1L),
+            Map.entry("kb", 1000L),
+            Map.entry("mb", 1000L * 1000),
+            Map.entry("gb", 1000L * 1000 * 1000),
+            Map.entry("tb", 1000L * 1000 * 1000 * 1000),
+            Map.entry("kib", 1024L),
+            Map.entry("mib", 1024L * 1024),
+            Map.entry("gib", 1024L * 1024 * 1024),
+            Map.entry("tib", 1024L * 1024 * 1024 * 1024));
+    
+    private ContainerStatsUtils() {}
+    
+    /**
+     * Parse the output of docker stats, lines that can't be parsed are ignored.
+     *
+     * @param output the output of docker stats with the json format
+     * @return the stats of each container
+     */
+    public static List<ContainerStats> parseDockerStats(String output) {
+        List<ContainerStats> stats = new ArrayList<>();
+        for (String line : output.split("\n")) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                stats.add(parseDockerStatsLine(line));
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                // A container that exited while its stats were read
+            }
+        }
+        return stats;
+    }
+    
+    private static ContainerStats parseDockerStatsLine(String line) throws JsonProcessingException {
+        Map<String, String> fields = OBJECT_MAPPER.readValue(line, new TypeReference<Map<String, String>>() {});
+        long[] memory = parseSizes(fields.get("MemUsage"));
+        long[] network = parseSizes(fields.get("NetIO"));
+        long[] block = parseSizes(fields.get("BlockIO"));
+        return ContainerStats
+                .builder()
+                .id(fields.get("ID"))
+                .name(fields.get("Name"))
+                .cpuPercentage(parsePercentage(fields.get("CPUPerc")))
+                .memoryUsage(memory[0])
+                .memoryLimit(memory[1])
+                .networkInput(network[0])
+                .networkOutput(network[1])
+                .blockInput(block[0])
+                .blockOutput(block[1])
+                .pids(parseLong(fields.get("PIDs")))
+                .build();
+    }
+    
+    /**
+     * Parse a pair of sizes, like "1.5MiB / 7.6GiB".
+     *
+     * @param pair the pair of sizes
+     * @return the sizes in bytes, 0 if missing
+     */
+    public static long[] parseSizes(String pair) {
+        long[] sizes = new long[2];
+        if (pair == null) {
+            return sizes;
+        }
+        String[] values = pair.split(PAIR_SEPARATOR);
+        for (int i = 0; i < Math.min(values.length, sizes.length); i++) {
+            sizes[i] = parseSize(values[i]);
+        }
+        return sizes;
+    }
+    
+    /**
+     * Parse a human readable size, like "12.3kB" or "1.5MiB".
+     *
+     * @param size the size
+     * @return the size in bytes, 0 if it's not a size (for example "--")
+     */
+    public static long parseSize(String size) {
+        Matcher matcher = SIZE_PATTERN.matcher(size.trim());
+        if (!matcher.matches()) {
+            return 0;
+        }
+        Long unit = UNITS.get(matcher.group(2).toLowerCase());
+        if (unit == null) {
+            throw new IllegalArgumentException("Unknown size unit " + matcher.group(2));
+        }
+        return Math.round(Double.parseDouble(matcher.group(1)) * unit);
+    }
+    
+    /**
+     * Parse the reclaimed space reported by docker prune commands.
+     *
+     * @param output the output of a docker prune command
+     * @return the reclaimed space in bytes, 0 if it's not reported
+     */
+    public static long parseReclaimedSpace(String output) {
+        Matcher matcher = RECLAIMED_SPACE_PATTERN.matcher(output);
+        return matcher.find() ? parseSize(matcher.group(1)) : 0;
+    }
+    
+    private static double parsePercentage(String percentage) {
+        if (percentage == null || !percentage.endsWith(PERCENTAGE_SUFFIX)) {
+            return 0;
+        }
+        try {
+            return Double.parseDouble(percentage.substring(0, percentage.length() - PERCENTAGE_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+    
+    private static long parseLong(String value) {
+        try {
+            return value == null ? 0 : Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
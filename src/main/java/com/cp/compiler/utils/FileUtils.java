@@ -1,13 +1,17 @@
 package com.cp.compiler.utils;
 
+import com.cp.compiler.executions.PayloadFile;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * The type Files util.
@@ -17,11 +21,16 @@ import java.nio.file.StandardCopyOption;
 @Slf4j
 public abstract class FileUtils {
     
+    // The first FROM instruction of a Dockerfile, the image is the first argument after the optional flags
+    private static final Pattern FROM_INSTRUCTION_PATTERN =
+            Pattern.compile("^(\\s*FROM\\s+(?:--\\S+\\s+)*)\\S+", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE);
+    
     private FileUtils() {
     }
     
     /**
      * Save uploaded files.
+     * Payload files are written directly from their in memory content or their local file.
      *
      * @param file the file that we want to save locally
      * @param name the path where the file will be saved
@@ -30,8 +39,12 @@ public abstract class FileUtils {
     public static void saveUploadedFiles(MultipartFile file, String name) throws IOException {
         if (file.isEmpty())
             return;
-        byte[] bytes = file.getBytes();
         Path path = Paths.get(name);
+        if (file instanceof PayloadFile) {
+            ((PayloadFile) file).writeTo(path);
+            return;
+        }
+        byte[] bytes = file.getBytes();
         Files.write(path, bytes);
     }
     
@@ -47,4 +60,46 @@ public abstract class FileUtils {
         Path originalPath = Paths.get(src);
         Files.copy(originalPath, copied, StandardCopyOption.REPLACE_EXISTING);
     }
+    
+    /**
+     * Create a hard link to a file, the file is copied if it can't be linked (another file system for example).
+     * The link shares the content of the file, it should not be modified.
+     *
+     * @param src Original path
+     * @param dest Linked path
+     * @throws IOException
+     */
+    public static void linkOrCopyFile(String src, String dest) throws IOException {
+        Path link = Paths.get(dest);
+        Path originalPath = Paths.get(src);
+        try {
+            Files.deleteIfExists(link);
+            Files.createLink(link, originalPath);
+        } catch (IOException | UnsupportedOperationException e) {
+            log.debug("Can't link the file {}, it will be copied: {}", src, e.getMessage());
+            Files.copy(originalPath, link, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    
+    /**
+     * Copy a Dockerfile from src to dest, replacing the image of its first FROM instruction.
+     *
+     * @param src   Original path
+     * @param dest  Copied path
+     * @param image the base image
+     * @throws IOException
+     */
+    public static void copyDockerfile(String src, String dest, String image) throws IOException {
+        String dockerfile = Files.readString(Paths.get(src), StandardCharsets.UTF_8);
+        Matcher matcher = FROM_INSTRUCTION_PATTERN.matcher(dockerfile);
+        if (!matcher.find()) {
+            throw new IOException("No FROM instruction found in the Dockerfile " + src);
+        }
+        String content = dockerfile.substring(0, matcher.start())
+                + matcher.group(1) + image
+                + dockerfile.substring(matcher.end());
+        Path copied = Paths.get(dest);
+        Files.deleteIfExists(copied);
+        Files.writeString(copied, content, StandardCharsets.UTF_8);
+    }
 }
@@ -0,0 +1,128 @@
+package com.cp.compiler.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The type Memory utils.
+ * Reads the memory that can still be allocated, the free memory and the page cache that can be reclaimed,
+ * from /proc/meminfo (MemAvailable) and from the memory cgroup of the process (v2 or v1) when it's limited.
+ */
+@Slf4j
+public abstract class MemoryUtils {
+    
+    /**
+     * The constant UNKNOWN, returned when the available memory can't be read (not on Linux for example).
+     */
+    public static final long UNKNOWN = -1;
+    
+    private static final Path MEMINFO = Path.of("/proc/meminfo");
+    
+    private static final Path CGROUP = Path.of("/sys/fs/cgroup");
+    
+    private static final String MEM_AVAILABLE = "MemAvailable:";
+    
+    private static final long BYTES_IN_KB = 1024;
+    
+    // Without a memory limit, cgroup v2 reports "max" and cgroup v1 a value close to Long.MAX_VALUE
+    private static final String CGROUP_V2_UNLIMITED = "max";
+    
+    private MemoryUtils() {}
+    
+    /**
+     * Gets available memory.
+     *
+     * @return the available memory in bytes, or UNKNOWN
+     */
+    public static long getAvailableMemory() {
+        return getAvailableMemory(MEMINFO, CGROUP);
+    }
+    
+    /**
+     * Gets available memory, the lowest of the available memory of the node and of the cgroup.
+     *
+     * @param meminfo the meminfo file
+     * @param cgroup  the cgroup directory
+     * @return the available memory in bytes, or UNKNOWN
+     */
+    public static long getAvailableMemory(Path meminfo, Path cgroup) {
+        long nodeAvailableMemory = getNodeAvailableMemory(meminfo);
+        long cgroupAvailableMemory = getCgroupAvailableMemory(cgroup);
+        if (nodeAvailableMemory == UNKNOWN || cgroupAvailableMemory == UNKNOWN) {
+            return Math.max(nodeAvailableMemory, cgroupAvailableMemory);
+        }
+        return Math.min(nodeAvailableMemory, cgroupAvailableMemory);
+    }
+    
+    private static long getNodeAvailableMemory(Path meminfo) {
+        for (String line : readLines(meminfo)) {
+            if (line.startsWith(MEM_AVAILABLE)) {
+                // MemAvailable:    1234567 kB
+                return Long.parseLong(line.substring(MEM_AVAILABLE.length()).trim().split("\\s+")[0]) * BYTES_IN_KB;
+            }
+        }
+        return UNKNOWN;
+    }
+    
+    // The usage of a cgroup includes its page cache, the inactive part of it can be reclaimed
+    private static long getCgroupAvailableMemory(Path cgroup) {
+        if (Files.exists(cgroup.resolve("memory.max"))) {
+            String limit = readFirstLine(cgroup.resolve("memory.max"));
+            if (limit == null || CGROUP_V2_UNLIMITED.equals(limit)) {
+                return UNKNOWN;
+            }
+            return getCgroupAvailableMemory(
+                    Long.parseLong(limit),
+                    readFirstLine(cgroup.resolve("memory.current")),
+                    getStat(cgroup.resolve("memory.stat"), "inactive_file"));
+        }
+        Path memoryController = cgroup.resolve("memory");
+        String limit = readFirstLine(memoryController.resolve("memory.limit_in_bytes"));
+        if (limit == null) {
+            return UNKNOWN;
+        }
+        return getCgroupAvailableMemory(
+                Long.parseLong(limit),
+                readFirstLine(memoryController.resolve("memory.usage_in_bytes")),
+                getStat(memoryController.resolve("memory.stat"), "total_inactive_file"));
+    }
+    
+    private static long getCgroupAvailableMemory(long limit, String usage, long inactiveFile) {
+        if (usage == null) {
+            return UNKNOWN;
+        }
+        long workingSet = Math.max(0, Long.parseLong(usage) - inactiveFile);
+        return Math.max(0, limit - workingSet);
+    }
+    
+    private static long getStat(Path stat, String key) {
+        for (String line : readLines(stat)) {
+            String[] keyValue = line.split(" ");
+            if (keyValue.length == 2 && keyValue[0].equals(key)) {
+                return Long.parseLong(keyValue[1].trim());
+            }
+        }
+        return 0;
+    }
+    
+    private static String readFirstLine(Path file) {
+        List<String> lines = readLines(file);
+        return lines.isEmpty() ? null : lines.get(0).trim();
+    }
+    
+    private static List<String> readLines(Path file) {
+        if (!Files.isReadable(file)) {
+            return List.of();
+        }
+        try {
+            return Files.readAllLines(file);
+        } catch (IOException e) {
+            log.warn("Could not read {} : {}", file, e.getMessage());
+            return List.of();
+        }
+    }
+}
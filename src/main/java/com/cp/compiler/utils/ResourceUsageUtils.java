@@ -0,0 +1,106 @@
+package com.cp.compiler.utils;
+
+import com.cp.compiler.models.ProcessOutput;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The type Resource usage utils.
+ * The entrypoint ends the output of the container with a line break followed by the resource usage line:
+ * "{boundary} peakMemory={bytes} oomKills={count} cpuTime={micros} wallTime={micros}".
+ * CPU and wall times are measured around the program only, so they do not include the compilation
+ * and the startup of the container. The peak memory is the one of the container, compilation included.
+ * When compiled artifacts are archived, the output starts with the line "{boundary} compiledArtifacts={sha256}",
+ * written before the program runs so the program can't write it first.
+ */
+public abstract class ResourceUsageUtils {
+    
+    private static final String PEAK_MEMORY_KEY = "peakMemory";
+    
+    private static final String OOM_KILLS_KEY = "oomKills";
+    
+    private static final String CPU_TIME_KEY = "cpuTime";
+    
+    private static final String WALL_TIME_KEY = "wallTime";
+    
+    private static final String COMPILED_ARTIFACTS_KEY = "compiledArtifacts";
+    
+    private static final String KEY_VALUE_SEPARATOR = "=";
+    
+    private static final long BYTES_IN_KB = 1024;
+    
+    private static final long MICROS_IN_MILLI = 1000;
+    
+    private ResourceUsageUtils() {}
+    
+    /**
+     * Remove the resource usage line from the output of the container, and add the resource usage to it.
+     *
+     * @param processOutput the output of the container
+     * @param boundary      the resource usage boundary
+     * @return the output of the program with the resource usage of the container,
+     * or the given output if it does not contain a resource usage line.
+     * The execution duration is replaced by the wall time of the program when it's reported.
+     */
+    public static ProcessOutput extractResourceUsage(ProcessOutput processOutput, String boundary) {
+        if (processOutput.getStdOut() == null) {
+            return processOutput;
+        }
+        processOutput = extractCompiledArtifactsHash(processOutput, boundary);
+        String output = processOutput.getStdOut();
+        
+        int lineStart = output.lastIndexOf("\n" + boundary + " ");
+        if (lineStart < 0) {
+            return processOutput;
+        }
+        
+        int valuesStart = lineStart + boundary.length() + 2;
+        int lineEnd = output.indexOf('\n', valuesStart);
+        String values = output.substring(valuesStart, lineEnd < 0 ? output.length() : lineEnd).trim();
+        Map<String, Long> resourceUsage = parseValues(values);
+        
+        long wallTime = resourceUsage.getOrDefault(WALL_TIME_KEY, 0L) / MICROS_IN_MILLI;
+        
+        return processOutput
+                .toBuilder()
+                .stdOut(output.substring(0, lineStart))
+                .containerPeakMemory(resourceUsage.getOrDefault(PEAK_MEMORY_KEY, 0L) / BYTES_IN_KB)
+                .oomKilled(resourceUsage.getOrDefault(OOM_KILLS_KEY, 0L) > 0)
+                .cpuTime(resourceUsage.getOrDefault(CPU_TIME_KEY, 0L) / MICROS_IN_MILLI)
+                .executionDuration(wallTime > 0 ? wallTime : processOutput.getExecutionDuration())
+                .build();
+    }
+    
+    // Only the first line is considered, later lines are written by the program
+    private static ProcessOutput extractCompiledArtifactsHash(ProcessOutput processOutput, String boundary) {
+        String output = processOutput.getStdOut();
+        String prefix = boundary + " " + COMPILED_ARTIFACTS_KEY + KEY_VALUE_SEPARATOR;
+        if (!output.startsWith(prefix)) {
+            return processOutput;
+        }
+        int lineEnd = output.indexOf('\n');
+        String hash = output.substring(prefix.length(), lineEnd < 0 ? output.length() : lineEnd).trim();
+        return processOutput
+                .toBuilder()
+                .stdOut(lineEnd < 0 ? "" : output.substring(lineEnd + 1))
+                .compiledArtifactsHash(hash.isEmpty() ? null : hash)
+                .build();
+    }
+    
+    // Values that are not numbers are ignored
+    private static Map<String, Long> parseValues(String values) {
+        Map<String, Long> resourceUsage = new HashMap<>();
+        for (String keyValue : values.split("\\s+")) {
+            String[] parts = keyValue.split(KEY_VALUE_SEPARATOR, 2);
+            if (parts.length == 2) {
+                try {
+                    resourceUsage.put(parts[0], Long.parseLong(parts[1]));
+                } catch (NumberFormatException e) {
+                    // Not reported by the container
+                }
+            }
+        }
+        return resourceUsage;
+    }
+}
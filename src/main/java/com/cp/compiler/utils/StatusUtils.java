@@ -49,4 +49,20 @@ public abstract class StatusUtils {
             default: return Verdict.RUNTIME_ERROR;
         }
     }
+    
+    /**
+     * Status response string.
+     *
+     * @param status    an integer that represents the status returned by the docker container
+     * @param oomKilled true if a process of the container has been killed because the container exceeded its memory limit
+     * @param ans       if the status code is 0, then this boolean must be equal to true or false to specify if Response is Accepted, or it's a Wrong answer
+     * @return return a Verdict representing the status response
+     */
+    public static Verdict statusResponse(int status, boolean oomKilled, boolean ans) {
+        // The program did not end normally because it has been killed by the kernel
+        if (oomKilled && status != ACCEPTED_OR_WRONG_ANSWER_STATUS) {
+            return Verdict.OUT_OF_MEMORY;
+        }
+        return statusResponse(status, ans);
+    }
 }
@@ -77,6 +77,16 @@ public abstract class WellKnownFiles {
      */
     public static final String ENTRYPOINT_FILE_NAME = "entrypoint.sh";
     
+    /**
+     * The constant COMPILED_ARTIFACTS_FILE_NAME, archive of compiled artifacts (must match entrypoint templates).
+     */
+    public static final String COMPILED_ARTIFACTS_FILE_NAME = "compiled-artifacts.tar";
+    
+    /**
+     * The constant DOCKERFILE_NAME.
+     */
+    public static final String DOCKERFILE_NAME = "Dockerfile";
+    
     /**
      * The constant FILE_NAME_REGEX.
      */
@@ -61,4 +61,14 @@ public abstract class WellKnownFolders {
      * The constant HASKELL_EXECUTION_FOLDER_NAME.
      */
     public static final String HASKELL_EXECUTION_FOLDER_NAME = "executions/utility_hs";
+    
+    /**
+     * The constant RUNNER_FOLDER_NAME, sub folder of each execution folder containing the runner image Dockerfile.
+     */
+    public static final String RUNNER_FOLDER_NAME = "runner";
+    
+    /**
+     * The constant CONTAINER_WORKING_DIRECTORY.
+     */
+    public static final String CONTAINER_WORKING_DIRECTORY = "/app";
 }
@@ -0,0 +1,14 @@
+package com.cp.compiler.wellknownconstants;
+
+/**
+ * The type Well known labels of images and containers.
+ */
+public abstract class WellKnownLabels {
+    
+    private WellKnownLabels() {}
+    
+    /**
+     * The constant EXECUTION_LABEL, set on execution images (by their Dockerfile) and on runner containers.
+     */
+    public static final String EXECUTION_LABEL = "com.cp.compiler.execution";
+}
@@ -72,6 +72,41 @@ public abstract class WellKnownMetrics {
      */
     public static final String EXECUTIONS_GAUGE = "executions";
     
+    /**
+     * The constant EXECUTIONS_QUEUE_GAUGE.
+     */
+    public static final String EXECUTIONS_QUEUE_GAUGE = "executions.queue";
+    
+    /**
+     * The constant EXECUTIONS_QUEUE_WAIT_TIMER.
+     */
+    public static final String EXECUTIONS_QUEUE_WAIT_TIMER = "executions.queue.wait";
+    
+    /**
+     * The constant RESERVED_CPUS_GAUGE.
+     */
+    public static final String RESERVED_CPUS_GAUGE = "resources.cpus.reserved";
+    
+    /**
+     * The constant CPUS_CAPACITY_GAUGE.
+     */
+    public static final String CPUS_CAPACITY_GAUGE = "resources.cpus.capacity";
+    
+    /**
+     * The constant RESERVED_MEMORY_GAUGE.
+     */
+    public static final String RESERVED_MEMORY_GAUGE = "resources.memory.reserved";
+    
+    /**
+     * The constant MEMORY_CAPACITY_GAUGE.
+     */
+    public static final String MEMORY_CAPACITY_GAUGE = "resources.memory.capacity";
+    
+    /**
+     * The constant FREE_NODE_MEMORY_GAUGE.
+     */
+    public static final String FREE_NODE_MEMORY_GAUGE = "resources.node.memory.free";
+    
     /**
      * The constant SHORT_RUNNING_EXECUTIONS_COUNTER.
      */
@@ -92,16 +127,176 @@ public abstract class WellKnownMetrics {
      */
     public static final String CONTAINER_RUN_TIMER = "container.build";
     
+    /**
+     * The constant CONTAINER_POOL_HIT_COUNTER.
+     */
+    public static final String CONTAINER_POOL_HIT_COUNTER = "container-pool.hit.counter";
+    
+    /**
+     * The constant CONTAINER_POOL_MISS_COUNTER.
+     */
+    public static final String CONTAINER_POOL_MISS_COUNTER = "container-pool.miss.counter";
+    
+    /**
+     * The constant CONTAINER_POOL_WAIT_TIMER.
+     */
+    public static final String CONTAINER_POOL_WAIT_TIMER = "container-pool.wait";
+    
+    /**
+     * The constant CONTAINER_POOL_IDLE_GAUGE.
+     */
+    public static final String CONTAINER_POOL_IDLE_GAUGE = "container-pool.idle";
+    
+    /**
+     * The constant COMPILATION_CACHE_HIT_COUNTER.
+     */
+    public static final String COMPILATION_CACHE_HIT_COUNTER = "compilation-cache.hit.counter";
+    
+    /**
+     * The constant COMPILATION_CACHE_MISS_COUNTER.
+     */
+    public static final String COMPILATION_CACHE_MISS_COUNTER = "compilation-cache.miss.counter";
+    
+    /**
+     * The constant COMPILATION_CACHE_SIZE_GAUGE.
+     */
+    public static final String COMPILATION_CACHE_SIZE_GAUGE = "compilation-cache.size";
+    
+    /**
+     * The constant TEST_DATA_SIZE_GAUGE.
+     */
+    public static final String TEST_DATA_SIZE_GAUGE = "test-data.size";
+    
+    /**
+     * The constant TEST_DATA_MEMORY_SIZE_GAUGE.
+     */
+    public static final String TEST_DATA_MEMORY_SIZE_GAUGE = "test-data.memory.size";
+    
+    /**
+     * The constant CONTAINERS_GAUGE.
+     */
+    public static final String CONTAINERS_GAUGE = "containers.running";
+    
+    /**
+     * The constant CONTAINERS_CPU_GAUGE.
+     */
+    public static final String CONTAINERS_CPU_GAUGE = "containers.cpu";
+    
+    /**
+     * The constant CONTAINERS_MEMORY_GAUGE.
+     */
+    public static final String CONTAINERS_MEMORY_GAUGE = "containers.memory";
+    
+    /**
+     * The constant CONTAINERS_NETWORK_INPUT_GAUGE.
+     */
+    public static final String CONTAINERS_NETWORK_INPUT_GAUGE = "containers.network.input";
+    
+    /**
+     * The constant CONTAINERS_NETWORK_OUTPUT_GAUGE.
+     */
+    public static final String CONTAINERS_NETWORK_OUTPUT_GAUGE = "containers.network.output";
+    
+    /**
+     * The constant CONTAINERS_BLOCK_INPUT_GAUGE.
+     */
+    public static final String CONTAINERS_BLOCK_INPUT_GAUGE = "containers.block.input";
+    
+    /**
+     * The constant CONTAINERS_BLOCK_OUTPUT_GAUGE.
+     */
+    public static final String CONTAINERS_BLOCK_OUTPUT_GAUGE = "containers.block.output";
+    
+    /**
+     * The constant CONTAINERS_PIDS_GAUGE.
+     */
+    public static final String CONTAINERS_PIDS_GAUGE = "containers.pids";
+    
+    /**
+     * The constant JANITOR_RECLAIMED_COUNTER.
+     */
+    public static final String JANITOR_RECLAIMED_COUNTER = "janitor.reclaimed";
+    
+    /**
+     * The constant JANITOR_COLLECTED_COUNTER.
+     */
+    public static final String JANITOR_COLLECTED_COUNTER = "janitor.collected";
+    
+    /**
+     * The constant JANITOR_PENDING_IMAGES_GAUGE.
+     */
+    public static final String JANITOR_PENDING_IMAGES_GAUGE = "janitor.pending-images";
+    
+    /**
+     * The constant PUSH_EXECUTIONS_QUEUE_GAUGE.
+     */
+    public static final String PUSH_EXECUTIONS_QUEUE_GAUGE = "push-executions.queue";
+    
+    /**
+     * The constant PUSH_EXECUTIONS_ACTIVE_GAUGE.
+     */
+    public static final String PUSH_EXECUTIONS_ACTIVE_GAUGE = "push-executions.active";
+    
+    /**
+     * The constant PUSH_EXECUTIONS_WAIT_TIMER.
+     */
+    public static final String PUSH_EXECUTIONS_WAIT_TIMER = "push-executions.wait";
+    
+    /**
+     * The constant WEBHOOK_DELIVERY_TIMER.
+     */
+    public static final String WEBHOOK_DELIVERY_TIMER = "webhooks.delivery";
+    
+    /**
+     * The constant WEBHOOK_DELIVERY_RETRY_COUNTER.
+     */
+    public static final String WEBHOOK_DELIVERY_RETRY_COUNTER = "webhooks.delivery.retry.counter";
+    
+    /**
+     * The constant WEBHOOK_DELIVERY_FAILURE_COUNTER.
+     */
+    public static final String WEBHOOK_DELIVERY_FAILURE_COUNTER = "webhooks.delivery.failure.counter";
+    
+    /**
+     * The constant WEBHOOK_OUTBOX_GAUGE.
+     */
+    public static final String WEBHOOK_OUTBOX_GAUGE = "webhooks.outbox";
+    
     /**
      * The constant KAFKA_THROTTLING_RETRIES.
      */
     public static final String KAFKA_THROTTLING_RETRIES = "kafka.throttling.retries";
     
+    /**
+     * The constant KAFKA_THROTTLING_DROPPED.
+     */
+    public static final String KAFKA_THROTTLING_DROPPED = "kafka.throttling.dropped";
+    
     /**
      * The constant AMQP_THROTTLING_RETRIES.
      */
     public static final String AMQP_THROTTLING_RETRIES = "amqp.throttling.retries";
     
+    /**
+     * The constant AMQP_THROTTLING_DROPPED.
+     */
+    public static final String AMQP_THROTTLING_DROPPED = "amqp.throttling.dropped";
+    
+    /**
+     * The constant AMQP_DEAD_LETTERED.
+     */
+    public static final String AMQP_DEAD_LETTERED = "amqp.dead-lettered";
+    
+    /**
+     * The constant AMQP_PROCESSING_TIMER.
+     */
+    public static final String AMQP_PROCESSING_TIMER = "amqp.processing";
+    
+    /**
+     * The constant AMQP_PUBLISH_TIMER.
+     */
+    public static final String AMQP_PUBLISH_TIMER = "amqp.publish";
+    
     /**
      * The constant ACCEPTED_VERDICT_COUNTER.
      */
@@ -131,4 +326,24 @@ public abstract class WellKnownMetrics {
      * The constant OUT_OF_MEMORY_VERDICT_COUNTER.
      */
     public static final String OUT_OF_MEMORY_VERDICT_COUNTER = "verdict.out-of-memory.counter";
+    
+    /**
+     * The constant OUTPUT_LIMIT_EXCEEDED_VERDICT_COUNTER.
+     */
+    public static final String OUTPUT_LIMIT_EXCEEDED_VERDICT_COUNTER = "verdict.output-limit-exceeded.counter";
+    
+    /**
+     * The constant EXECUTION_CPU_TIME_SUMMARY.
+     */
+    public static final String EXECUTION_CPU_TIME_SUMMARY = "execution.cpu-time";
+    
+    /**
+     * The constant EXECUTION_WALL_TIME_SUMMARY.
+     */
+    public static final String EXECUTION_WALL_TIME_SUMMARY = "execution.wall-time";
+    
+    /**
+     * The constant EXECUTION_CONTAINER_PEAK_MEMORY_SUMMARY.
+     */
+    public static final String EXECUTION_CONTAINER_PEAK_MEMORY_SUMMARY = "execution.container-peak-memory";
 }
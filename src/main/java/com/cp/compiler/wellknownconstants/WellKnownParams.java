@@ -17,6 +17,11 @@ public abstract class WellKnownParams {
      */
     public static final String PREFER_PUSH = "preferPush";
     
+    /**
+     * The constant TENANT.
+     */
+    public static final String TENANT = "tenant";
+    
     /**
      * The constant OUTPUT_FILE.
      */
@@ -1,12 +1,168 @@
 #!/usr/bin/env bash
 
+compilationCache=[(${compiler['compilationCache']})]
+resourceUsageBoundary=[(${compiler['resourceUsageBoundary']})]
+testCases=[(${compiler['testCases']})]
+
+# The boundary of test cases ends with a random nonce that is only kept in memory by the runner,
+# it's announced before the compilation, so the programs can neither read it nor write it first
+if [ -n "$testCases" ];
+then
+  nonce=$(od -An -N16 -tx1 /dev/urandom | tr -d ' \n')
+  echo "[(${compiler['testCasesBoundary']})] $nonce"
+  boundary="[(${compiler['testCasesBoundary']})]-$nonce"
+fi
+
+# CPU time (user + system) of the container in microseconds, read from the cgroup (v2 or v1)
+cpuUsage() {
+  usage=$(grep -h '^usage_usec ' /sys/fs/cgroup/cpu.stat 2>/dev/null | cut -d ' ' -f 2)
+  if [ -z "$usage" ] && [ -f /sys/fs/cgroup/cpuacct/cpuacct.usage ];
+  then
+    usage=$(( $(cat /sys/fs/cgroup/cpuacct/cpuacct.usage) / 1000 ))
+  fi
+  echo "${usage:-0}"
+}
+
+# Current time in microseconds, with a precision of a second when EPOCHREALTIME is not available (bash < 5)
+currentTime() {
+  if [ -n "$EPOCHREALTIME" ];
+  then
+    echo "${EPOCHREALTIME/[.,]/}"
+  else
+    echo "$(( $(date +%s) * 1000000 ))"
+  fi
+}
+
+# Called right before running the program, so the compilation is not measured
+startMeasure() {
+  cpuStart=$(cpuUsage)
+  wallStart=$(currentTime)
+}
+
+# The resource usage of the container is written after the output, it's read from the cgroup (v2 or v1)
+printResourceUsage() {
+  if [ -n "$resourceUsageBoundary" ];
+  then
+    if [ -n "$wallStart" ];
+    then
+      wallTime=$(( $(currentTime) - wallStart ))
+      cpuTime=$(( $(cpuUsage) - cpuStart ))
+    fi
+    peakMemory=$(cat /sys/fs/cgroup/memory.peak /sys/fs/cgroup/memory/memory.max_usage_in_bytes 2>/dev/null | head -n 1)
+    oomKills=$(grep -h '^oom_kill ' /sys/fs/cgroup/memory.events /sys/fs/cgroup/memory/memory.oom_control 2>/dev/null | head -n 1 | cut -d ' ' -f 2)
+    echo ""
+    echo "$resourceUsageBoundary peakMemory=${peakMemory:-0} oomKills=${oomKills:-0} cpuTime=${cpuTime:-0} wallTime=${wallTime:-0}"
+  fi
+}
+
 mv [(${compiler.defaultName})] [(${compiler.fileName})]
-[(${compiler.compilationCommand})] 1> /dev/null
-ret=$?
-if [ $ret -ne 0 ];
+if [ "$compilationCache" = true ] && [ -f compiled-artifacts.tar ];
 then
-  exit [(${compiler.compilationErrorStatusCode})]
+  tar -xf compiled-artifacts.tar
+else
+  if [ "$compilationCache" = true ];
+  then
+    ls -A > /tmp/files-before-compilation
+  fi
+  [(${compiler.compilationCommand})] 1> /dev/null
+  ret=$?
+  if [ $ret -ne 0 ];
+  then
+    printResourceUsage
+    exit [(${compiler.compilationErrorStatusCode})]
+  fi
+  if [ "$compilationCache" = true ];
+  then
+    ls -A | grep -vxFf /tmp/files-before-compilation > /tmp/compiled-artifacts
+    tar -cf compiled-artifacts.tar -T /tmp/compiled-artifacts
+    # Written before the program runs, the archive is cached only if it still has this hash once the program ends
+    echo "$resourceUsageBoundary compiledArtifacts=$(sha256sum compiled-artifacts.tar | cut -d ' ' -f 1)"
+  fi
 fi
 ulimit -s [(${compiler.memoryLimit})]
-timeout -t [(${compiler.timeLimit})] -s SIGTERM [(${compiler.executionCommand})]
-exit $?    
+
+if [ -z "$testCases" ];
+then
+  startMeasure
+  timeout -t [(${compiler.timeLimit})] -s SIGTERM [(${compiler.executionCommand})]
+  ret=$?
+  printResourceUsage
+  exit $ret
+fi
+
+# Batch execution, the output of each test case is written after a boundary line
+failFast=[(${compiler['failFast']})]
+parallel=[(${compiler['parallel']})]
+TIMEFORMAT='%3U %3S %3R'
+
+# The output, the error and the result of each test case are written in files deleted as soon as they are opened,
+# so they can only be reached through the file descriptors of the runner, which are closed for the programs
+runnerDirectory=$(mktemp -d)
+openTestCaseFiles() {
+  exec {stdoutFd}<>"$runnerDirectory/stdout-$1" {stderrFd}<>"$runnerDirectory/stderr-$1" {resultFd}<>"$runnerDirectory/result-$1"
+  rm -f "$runnerDirectory/stdout-$1" "$runnerDirectory/stderr-$1" "$runnerDirectory/result-$1"
+  stdoutFds[$1]=$stdoutFd
+  stderrFds[$1]=$stderrFd
+  resultFds[$1]=$resultFd
+}
+
+# The files are read through new descriptors, so from their beginning
+readTestCaseFile() {
+  cat "/dev/fd/$1"
+}
+
+# Runs in a subshell that only keeps the files of its test case, so test cases running in parallel can't reach
+# the files of each other, time reports the CPU time (user + system) and the wall time of this test case only
+runTestCase() (
+  inputFile=input-$1.txt
+  stdoutFd=${stdoutFds[$1]}
+  stderrFd=${stderrFds[$1]}
+  resultFd=${resultFds[$1]}
+  for fd in "${stdoutFds[@]}" "${stderrFds[@]}" "${resultFds[@]}";
+  do
+    if [ "$fd" -ne "$stdoutFd" ] && [ "$fd" -ne "$stderrFd" ] && [ "$fd" -ne "$resultFd" ];
+    then
+      exec {fd}>&-
+    fi
+  done
+  times=$( { time {
+    timeout -t [(${compiler.timeLimit})] -s SIGTERM [(${compiler.executionCommand})]
+  } >&"$stdoutFd" 2>&"$stderrFd" {stdoutFd}>&- {stderrFd}>&- {resultFd}>&- ; } 2>&1 )
+  ret=$?
+  # The result is "status cpuMicros wallMicros"
+  echo "$ret $(echo "$times" | awk '{ printf "%.0f %.0f\n", ($1 + $2) * 1000000, $3 * 1000000 }')" >&"$resultFd"
+)
+
+startMeasure
+i=1
+while [ $i -le $testCases ];
+do
+  openTestCaseFiles $i
+  if [ "$parallel" = true ];
+  then
+    runTestCase $i &
+  else
+    runTestCase $i
+    if [ "$failFast" = true ] && [ "$(readTestCaseFile ${resultFds[$i]} | cut -d ' ' -f 1)" -ne 0 ];
+    then
+      break
+    fi
+  fi
+  i=$((i + 1))
+done
+wait
+
+i=1
+while [ $i -le $testCases ] && [ -n "${resultFds[$i]}" ];
+do
+  echo "$boundary stdout $i $(readTestCaseFile ${resultFds[$i]})"
+  readTestCaseFile ${stdoutFds[$i]}
+  echo ""
+  echo "$boundary stderr $i"
+  readTestCaseFile ${stderrFds[$i]}
+  echo ""
+  i=$((i + 1))
+done
+rmdir "$runnerDirectory"
+printResourceUsage
+exit 0
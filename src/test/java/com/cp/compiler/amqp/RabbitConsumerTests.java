@@ -0,0 +1,256 @@
+package com.cp.compiler.amqp;
+
+import com.cp.compiler.models.Response;
+import com.cp.compiler.models.Result;
+import com.cp.compiler.models.Verdict;
+import com.cp.compiler.services.CompilerService;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * The type Rabbit consumer tests, with a broker mocked through the rabbit template and the channel.
+ * The Spring context registers the languages, the consumer itself is created by the tests.
+ */
+@DirtiesContext
+@SpringBootTest
+class RabbitConsumerTests {
+    
+    private static final String INPUT_QUEUE = "input";
+    
+    private static final String OUTPUT_QUEUE = "output";
+    
+    private static final long DELIVERY_TAG = 7;
+    
+    private static final String JSON_REQUEST = "{\"expectedOutput\": \"1\", \"sourceCode\": \"print(1)\","
+            + " \"language\": \"PYTHON\", \"timeLimit\": 3, \"memoryLimit\": 100}";
+    
+    private CompilerService compilerService;
+    
+    private RabbitOperations operations;
+    
+    private Channel channel;
+    
+    private RabbitConsumer rabbitConsumer;
+    
+    /**
+     * Create the consumer, the rabbit template runs the operations of the consumer on a mock.
+     */
+    @BeforeEach
+    void setUp() {
+        compilerService = Mockito.mock(CompilerService.class);
+        operations = Mockito.mock(RabbitOperations.class);
+        channel = Mockito.mock(Channel.class);
+        
+        RabbitTemplate rabbitTemplate = Mockito.mock(RabbitTemplate.class);
+        Mockito.when(rabbitTemplate.invoke(ArgumentMatchers.<RabbitOperations.OperationsCallback<Object>>any()))
+                .thenAnswer(invocation -> invocation
+                        .<RabbitOperations.OperationsCallback<Object>>getArgument(0)
+                        .doInRabbit(operations));
+        
+        rabbitConsumer = new RabbitConsumer();
+        ReflectionTestUtils.setField(rabbitConsumer, "compilerService", compilerService);
+        ReflectionTestUtils.setField(rabbitConsumer, "rabbitTemplate", rabbitTemplate);
+        ReflectionTestUtils.setField(rabbitConsumer, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(rabbitConsumer, "inputQueue", INPUT_QUEUE);
+        ReflectionTestUtils.setField(rabbitConsumer, "outputQueue", OUTPUT_QUEUE);
+        ReflectionTestUtils.setField(rabbitConsumer, "throttlingDuration", 5000L);
+        ReflectionTestUtils.setField(rabbitConsumer, "maxRetries", 2);
+        ReflectionTestUtils.setField(rabbitConsumer, "confirmTimeout", 1000L);
+        ReflectionTestUtils.setField(rabbitConsumer, "maxPublishFailures", 3);
+        rabbitConsumer.init();
+    }
+    
+    /**
+     * The request should be acknowledged once the publication of its result is confirmed.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void requestShouldBeAcknowledgedOnceItsResultIsConfirmed() throws IOException {
+        // Given
+        Mockito.when(compilerService.compile(ArgumentMatchers.any()))
+                .thenReturn(ResponseEntity.ok(new Response(
+                        new Result(Verdict.ACCEPTED, "1", "", "1", 100), LocalDateTime.now())));
+        
+        // When
+        rabbitConsumer.listen(JSON_REQUEST, null, null, channel, DELIVERY_TAG);
+        
+        // Then
+        InOrder inOrder = Mockito.inOrder(operations, channel);
+        inOrder.verify(operations).convertAndSend(
+                ArgumentMatchers.eq(OUTPUT_QUEUE),
+                ArgumentMatchers.any(Object.class),
+                ArgumentMatchers.any(MessagePostProcessor.class));
+        inOrder.verify(operations).waitForConfirmsOrDie(1000L);
+        inOrder.verify(channel).basicAck(DELIVERY_TAG, false);
+        Mockito.verify(channel, Mockito.never())
+                .basicNack(ArgumentMatchers.anyLong(), ArgumentMatchers.anyBoolean(), ArgumentMatchers.anyBoolean());
+    }
+    
+    /**
+     * The request should be requeued when the publication of its result is not confirmed.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void requestShouldBeRequeuedWhenItsResultIsNotConfirmed() throws IOException {
+        // Given
+        Mockito.when(compilerService.compile(ArgumentMatchers.any()))
+                .thenReturn(ResponseEntity.ok(new Response(
+                        new Result(Verdict.ACCEPTED, "1", "", "1", 100), LocalDateTime.now())));
+        Mockito.doThrow(new AmqpException("nack")).when(operations).waitForConfirmsOrDie(ArgumentMatchers.anyLong());
+        
+        // When
+        rabbitConsumer.listen(JSON_REQUEST, null, null, channel, DELIVERY_TAG);
+        
+        // Then
+        Mockito.verify(channel).basicNack(DELIVERY_TAG, false, true);
+        Mockito.verify(channel, Mockito.never()).basicAck(ArgumentMatchers.anyLong(), ArgumentMatchers.anyBoolean());
+    }
+    
+    /**
+     * A request whose result is not confirmed should be retried through the queue of throttled requests,
+     * with its number of publish failures.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void requestShouldBeRetriedWithItsNumberOfFailuresWhenItsResultIsNotConfirmed() throws IOException {
+        // Given only the publication of the result is not confirmed
+        Mockito.when(compilerService.compile(ArgumentMatchers.any()))
+                .thenReturn(ResponseEntity.ok(new Response(
+                        new Result(Verdict.ACCEPTED, "1", "", "1", 100), LocalDateTime.now())));
+        Mockito.doThrow(new AmqpException("nack")).doNothing()
+                .when(operations).waitForConfirmsOrDie(ArgumentMatchers.anyLong());
+        
+        // When
+        rabbitConsumer.listen(JSON_REQUEST, null, 1, channel, DELIVERY_TAG);
+        
+        // Then
+        ArgumentCaptor<MessagePostProcessor> messagePostProcessor = ArgumentCaptor.forClass(MessagePostProcessor.class);
+        Mockito.verify(operations).convertAndSend(
+                ArgumentMatchers.eq(RabbitQueuesConfig.getThrottledQueueName(INPUT_QUEUE)),
+                ArgumentMatchers.eq((Object) JSON_REQUEST),
+                messagePostProcessor.capture());
+        Mockito.verify(channel).basicAck(DELIVERY_TAG, false);
+        
+        Message message = messagePostProcessor.getValue().postProcessMessage(
+                new Message(JSON_REQUEST.getBytes(), new MessageProperties()));
+        Assertions.assertEquals(2, (Integer) message.getMessageProperties().getHeader("x-publish-failures"));
+    }
+    
+    /**
+     * A request should be moved to the dead letter queue after the max number of publish failures.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void requestShouldBeMovedToTheDeadLetterQueueAfterTheMaxNumberOfPublishFailures() throws IOException {
+        // Given
+        Mockito.when(compilerService.compile(ArgumentMatchers.any()))
+                .thenReturn(ResponseEntity.ok(new Response(
+                        new Result(Verdict.ACCEPTED, "1", "", "1", 100), LocalDateTime.now())));
+        Mockito.doThrow(new AmqpException("nack")).doNothing()
+                .when(operations).waitForConfirmsOrDie(ArgumentMatchers.anyLong());
+        
+        // When
+        rabbitConsumer.listen(JSON_REQUEST, null, 2, channel, DELIVERY_TAG);
+        
+        // Then
+        Mockito.verify(operations).convertAndSend(
+                ArgumentMatchers.eq(RabbitQueuesConfig.getDeadLetterQueueName(INPUT_QUEUE)),
+                ArgumentMatchers.eq((Object) JSON_REQUEST),
+                ArgumentMatchers.any(MessagePostProcessor.class));
+        Mockito.verify(channel).basicAck(DELIVERY_TAG, false);
+    }
+    
+    /**
+     * After the max number of publish failures, a request should not be requeued even if the broker
+     * does not confirm any publication.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void requestShouldNotBeRequeuedAfterTheMaxNumberOfPublishFailures() throws IOException {
+        // Given
+        Mockito.when(compilerService.compile(ArgumentMatchers.any()))
+                .thenReturn(ResponseEntity.ok(new Response(
+                        new Result(Verdict.ACCEPTED, "1", "", "1", 100), LocalDateTime.now())));
+        Mockito.doThrow(new AmqpException("nack")).when(operations).waitForConfirmsOrDie(ArgumentMatchers.anyLong());
+        
+        // When
+        rabbitConsumer.listen(JSON_REQUEST, null, 2, channel, DELIVERY_TAG);
+        
+        // Then
+        Mockito.verify(channel).basicNack(DELIVERY_TAG, false, false);
+        Mockito.verify(channel, Mockito.never()).basicAck(ArgumentMatchers.anyLong(), ArgumentMatchers.anyBoolean());
+    }
+    
+    /**
+     * A throttled request should be published to the queue of throttled requests with a delay, then acknowledged.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void throttledRequestShouldBeDelayedThroughTheThrottledQueue() throws IOException {
+        // Given
+        Mockito.when(compilerService.compile(ArgumentMatchers.any()))
+                .thenReturn(new ResponseEntity<>(HttpStatus.TOO_MANY_REQUESTS));
+        
+        // When
+        rabbitConsumer.listen(JSON_REQUEST, 1, null, channel, DELIVERY_TAG);
+        
+        // Then
+        ArgumentCaptor<MessagePostProcessor> messagePostProcessor = ArgumentCaptor.forClass(MessagePostProcessor.class);
+        Mockito.verify(operations).convertAndSend(
+                ArgumentMatchers.eq(RabbitQueuesConfig.getThrottledQueueName(INPUT_QUEUE)),
+                ArgumentMatchers.eq((Object) JSON_REQUEST),
+                messagePostProcessor.capture());
+        Mockito.verify(channel).basicAck(DELIVERY_TAG, false);
+        
+        Message message = messagePostProcessor.getValue().postProcessMessage(
+                new Message(JSON_REQUEST.getBytes(), new MessageProperties()));
+        Assertions.assertEquals("5000", message.getMessageProperties().getExpiration());
+        Assertions.assertEquals(2, (Integer) message.getMessageProperties().getHeader("x-throttling-retries"));
+    }
+    
+    /**
+     * A throttled request should be dropped and acknowledged after the max number of retries.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void throttledRequestShouldBeDroppedAfterTheMaxNumberOfRetries() throws IOException {
+        // Given
+        Mockito.when(compilerService.compile(ArgumentMatchers.any()))
+                .thenReturn(new ResponseEntity<>(HttpStatus.TOO_MANY_REQUESTS));
+        
+        // When
+        rabbitConsumer.listen(JSON_REQUEST, 2, null, channel, DELIVERY_TAG);
+        
+        // Then
+        Mockito.verifyNoInteractions(operations);
+        Mockito.verify(channel).basicAck(DELIVERY_TAG, false);
+    }
+}
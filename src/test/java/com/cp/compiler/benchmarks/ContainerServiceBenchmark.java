@@ -0,0 +1,123 @@
+package com.cp.compiler.benchmarks;
+
+import com.cp.compiler.services.ContainerService;
+import com.cp.compiler.services.ContainerServiceDefault;
+import com.cp.compiler.services.DockerApiContainerService;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.core.DefaultDockerClientConfig;
+import com.github.dockerjava.core.DockerClientImpl;
+import com.github.dockerjava.httpclient5.ApacheDockerHttpClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per call overhead of the docker CLI with the Docker Engine API, on calls that do almost no work
+ * in the daemon. It requires a running docker daemon.
+ * Run it with the main method, it's not executed with the unit tests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+public class ContainerServiceBenchmark {
+    
+    private ContainerService cliContainerService;
+    
+    private ContainerService apiContainerService;
+    
+    private DockerClient dockerClient;
+    
+    /**
+     * Creates both container services, the resources are not used by the benchmarked calls.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        ContainerServiceDefault containerServiceDefault = new ContainerServiceDefault(new SimpleMeterRegistry(), null);
+        containerServiceDefault.init();
+        cliContainerService = containerServiceDefault;
+        
+        DefaultDockerClientConfig config = DefaultDockerClientConfig.createDefaultConfigBuilder().build();
+        dockerClient = DockerClientImpl.getInstance(
+                config,
+                new ApacheDockerHttpClient.Builder()
+                        .dockerHost(config.getDockerHost())
+                        .sslConfig(config.getSSLConfig())
+                        .build());
+        DockerApiContainerService dockerApiContainerService =
+                new DockerApiContainerService(new SimpleMeterRegistry(), null, dockerClient);
+        dockerApiContainerService.init();
+        apiContainerService = dockerApiContainerService;
+    }
+    
+    /**
+     * Tear down.
+     *
+     * @throws IOException the io exception
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        dockerClient.close();
+    }
+    
+    /**
+     * Health check through the docker CLI (docker ps).
+     *
+     * @return true if the daemon is up
+     */
+    @Benchmark
+    public boolean cliIsUp() {
+        return cliContainerService.isUp();
+    }
+    
+    /**
+     * Health check through the Docker Engine API (ping).
+     *
+     * @return true if the daemon is up
+     */
+    @Benchmark
+    public boolean apiIsUp() {
+        return apiContainerService.isUp();
+    }
+    
+    /**
+     * Running containers through the docker CLI.
+     *
+     * @return the running containers
+     */
+    @Benchmark
+    public String cliRunningContainers() {
+        return cliContainerService.getRunningContainers();
+    }
+    
+    /**
+     * Running containers through the Docker Engine API.
+     *
+     * @return the running containers
+     */
+    @Benchmark
+    public String apiRunningContainers() {
+        return apiContainerService.getRunningContainers();
+    }
+    
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the args
+     * @throws RunnerException the runner exception
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ContainerServiceBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,120 @@
+package com.cp.compiler.benchmarks;
+
+import com.cp.compiler.models.Language;
+import com.cp.compiler.templates.EntrypointFileGeneratorDefault;
+import com.cp.compiler.wellknownconstants.WellKnownTemplates;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the generation of the entrypoint of each language by the template engine (with its template cache, as
+ * configured in application.yml) with the generation from the compiled templates.
+ * Run it with the main method, it's not executed with the unit tests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+public class EntrypointGenerationBenchmark {
+    
+    @Param({"PYTHON", "C", "CPP", "JAVA", "GO", "CS", "KOTLIN", "SCALA", "RUST", "RUBY", "HASKELL"})
+    private Language language;
+    
+    private String template;
+    
+    private Map<String, String> attributes;
+    
+    private SpringTemplateEngine templateEngine;
+    
+    private EntrypointFileGeneratorDefault entrypointFileGenerator;
+    
+    /**
+     * Creates the template engine and the generator, and the attributes of a batch execution of the language.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("templates/");
+        templateResolver.setSuffix(".sh");
+        templateResolver.setTemplateMode(TemplateMode.TEXT);
+        templateResolver.setCacheable(true);
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        
+        entrypointFileGenerator = new EntrypointFileGeneratorDefault(new DefaultResourceLoader());
+        ReflectionTestUtils.setField(entrypointFileGenerator, "prefix", "classpath:/templates/");
+        ReflectionTestUtils.setField(entrypointFileGenerator, "suffix", ".sh");
+        entrypointFileGenerator.init();
+        
+        template = language == Language.SCALA
+                ? WellKnownTemplates.SCALA_ENTRYPOINT_TEMPLATE
+                : WellKnownTemplates.ENTRYPOINT_TEMPLATE;
+        
+        attributes = new HashMap<>();
+        attributes.put("rename", "false");
+        attributes.put("compile", "true");
+        attributes.put("fileName", language.getSourceCodeFileName());
+        attributes.put("defaultName", language.getSourceCodeFileName());
+        attributes.put("timeLimit", "10");
+        attributes.put("compilationCommand", language.getCompilationCommand() + " " + language.getSourceCodeFileName());
+        attributes.put("compilationErrorStatusCode", "2");
+        attributes.put("memoryLimit", "500");
+        attributes.put("executionCommand", "./exec < $inputFile");
+        attributes.put("compilationCache", "false");
+        attributes.put("resourceUsageBoundary", "resource-usage-boundary");
+        attributes.put("testCases", "10");
+        attributes.put("testCasesBoundary", "test-cases-boundary");
+        attributes.put("failFast", "false");
+        attributes.put("parallel", "false");
+    }
+    
+    /**
+     * Generation by the template engine, as before the compiled templates.
+     *
+     * @return the entrypoint
+     */
+    @Benchmark
+    public String templateEngine() {
+        Context context = new Context();
+        context.setVariable("compiler", attributes);
+        return templateEngine.process(template, context);
+    }
+    
+    /**
+     * Generation from the compiled template.
+     *
+     * @return the entrypoint
+     */
+    @Benchmark
+    public String compiledTemplate() {
+        return entrypointFileGenerator.createEntrypointFile(template, attributes);
+    }
+    
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the args
+     * @throws RunnerException the runner exception
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(EntrypointGenerationBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,92 @@
+package com.cp.compiler.benchmarks;
+
+import com.cp.compiler.utils.CmdUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the regex based output comparison that was used before with the streaming comparison of CmdUtils.
+ * Run it with the main method, it's not executed with the unit tests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class OutputComparisonBenchmark {
+    
+    @Param({"1024", "1048576", "104857600"})
+    private int outputSize;
+    
+    private String output;
+    
+    private String expectedOutput;
+    
+    /**
+     * Generates an output and its expected output with different line breaks and spaces.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        StringBuilder outputBuilder = new StringBuilder(outputSize);
+        StringBuilder expectedOutputBuilder = new StringBuilder(outputSize);
+        int i = 0;
+        while (outputBuilder.length() < outputSize) {
+            outputBuilder.append(i).append(' ');
+            expectedOutputBuilder.append(i).append('\n');
+            i++;
+        }
+        output = outputBuilder.toString();
+        expectedOutput = expectedOutputBuilder.toString();
+    }
+    
+    /**
+     * Regex based comparison.
+     *
+     * @return the comparison result
+     */
+    @Benchmark
+    public boolean regexComparison() {
+        return trimText(output).equals(trimText(expectedOutput));
+    }
+    
+    /**
+     * Streaming comparison.
+     *
+     * @return the comparison result
+     * @throws IOException the io exception
+     */
+    @Benchmark
+    public boolean streamingComparison() throws IOException {
+        return CmdUtils.findMismatch(new StringReader(output), new StringReader(expectedOutput))
+                == CmdUtils.NO_MISMATCH;
+    }
+    
+    // The comparison used before the streaming one
+    private static String trimText(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.replaceAll("\\s+", " ").replaceAll("/n", "").trim();
+    }
+    
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the args
+     * @throws RunnerException the runner exception
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(OutputComparisonBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
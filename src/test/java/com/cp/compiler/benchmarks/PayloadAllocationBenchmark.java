@@ -0,0 +1,105 @@
+package com.cp.compiler.benchmarks;
+
+import com.cp.compiler.executions.PayloadFile;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the MockMultipartFile that was used before to save the input of json requests with payload files.
+ * The gc profiler reports the allocated bytes per operation (gc.alloc.rate.norm).
+ * Run it with the main method, it's not executed with the unit tests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class PayloadAllocationBenchmark {
+    
+    @Param({"1024", "1048576", "104857600"})
+    private int inputSize;
+    
+    private String input;
+    
+    private Path directory;
+    
+    /**
+     * Generates the input and creates the directory where it's saved.
+     *
+     * @throws IOException the io exception
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        StringBuilder inputBuilder = new StringBuilder(inputSize);
+        int i = 0;
+        while (inputBuilder.length() < inputSize) {
+            inputBuilder.append(i++).append('\n');
+        }
+        input = inputBuilder.toString();
+        directory = Files.createTempDirectory("payload-benchmark");
+    }
+    
+    /**
+     * Deletes the saved input.
+     *
+     * @throws IOException the io exception
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(directory.resolve("input.txt"));
+        Files.deleteIfExists(directory);
+    }
+    
+    /**
+     * Saves the input through a MockMultipartFile.
+     *
+     * @throws IOException the io exception
+     */
+    @Benchmark
+    public void mockMultipartFile() throws IOException {
+        MultipartFile file = new MockMultipartFile(
+                "input.txt",
+                "input.txt",
+                null,
+                new ByteArrayInputStream(input.getBytes()));
+        Files.write(directory.resolve(file.getOriginalFilename()), file.getBytes());
+    }
+    
+    /**
+     * Saves the input through a payload file.
+     *
+     * @throws IOException the io exception
+     */
+    @Benchmark
+    public void payloadFile() throws IOException {
+        PayloadFile file = PayloadFile.of("input.txt", input);
+        file.writeTo(directory.resolve(file.getOriginalFilename()));
+    }
+    
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the args
+     * @throws RunnerException the runner exception
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PayloadAllocationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -56,6 +56,7 @@ public class CSE2ETests {
                 10,
                 500,
                 null,
+                null,
                 null);
         
         // Then
@@ -96,6 +97,7 @@ public class CSE2ETests {
                 10,
                 500,
                 null,
+                null,
                 null);
         
         // Then
@@ -136,6 +138,7 @@ public class CSE2ETests {
                 10,
                 500,
                 null,
+                null,
                 null);
         
         // Then
@@ -176,6 +179,7 @@ public class CSE2ETests {
                 10,
                 500,
                 null,
+                null,
                 null);
         
         // Then
@@ -216,6 +220,7 @@ public class CSE2ETests {
                 10,
                 1,
                 null,
+                null,
                 null);
         
         // Then
@@ -254,6 +259,7 @@ public class CSE2ETests {
                 10,
                 500,
                 null,
+                null,
                 null);
         
         // Then
@@ -54,6 +54,7 @@ public class CppE2ETests {
                 10,
                 500,
                 null,
+                null,
                 null);
         
         // Then
@@ -92,6 +93,7 @@ public class CppE2ETests {
                 10,
                 500,
                 null,
+                null,
                 null);
         
         // Then
@@ -131,6 +133,7 @@ public class CppE2ETests {
                 10,
                 500,
                 null,
+                null,
                 null);
         
         // Then
@@ -169,6 +172,7 @@ public class CppE2ETests {
                 10,
                 500,
                 null,
+                null,
                 null);
         
         // Then
@@ -207,6 +211,7 @@ public class CppE2ETests {
                 10,
                 1,
                 null,
+                null,
                 null);
         
         // Then
@@ -245,6 +250,7 @@ public class CppE2ETests {
                 10,
                 500,
                 null,
+                null,
                 null);
         
         // Then
@@ -57,6 +57,7 @@ class KotlinE2ETests {
                 10,
                 500,
                 null,
+                null,
                 null);
     
         // Then
@@ -94,6 +95,7 @@ class KotlinE2ETests {
                 10,
                 500,
                 null,
+                null,
                 null);
         
         // Then
@@ -131,6 +133,7 @@ class KotlinE2ETests {
                 10,
                 500,
                 null,
+                null,
                 null);
         
         // Then
@@ -168,6 +171,7 @@ class KotlinE2ETests {
                 10,
                 500,
                 null,
+                null,
                 null);
         
         // Then
@@ -205,6 +209,7 @@ class KotlinE2ETests {
                 10,
                 1,
                 null,
+                null,
                 null);
         
         // Then
@@ -242,6 +247,7 @@ class KotlinE2ETests {
                 10,
                 500,
                 null,
+                null,
                 null);
         
         // Then
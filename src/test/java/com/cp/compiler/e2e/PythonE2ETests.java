@@ -54,6 +54,7 @@ class PythonE2ETests {
                 10,
                 500,
                 null,
+                null,
                 null);
         
         // Then
@@ -91,6 +92,7 @@ class PythonE2ETests {
                 10,
                 500,
                 null,
+                null,
                 null);
         
         // Then
@@ -129,6 +131,7 @@ class PythonE2ETests {
                 10,
                 500,
                 null,
+                null,
                 null);
         
         // Then
@@ -167,6 +170,7 @@ class PythonE2ETests {
                 10,
                 1,
                 null,
+                null,
                 null);
         
         // Then
@@ -205,6 +209,7 @@ class PythonE2ETests {
                 10,
                 500,
                 null,
+                null,
                 null);
         
         // Then
@@ -54,6 +54,7 @@ class ScalaE2ETests {
                 10,
                 500,
                 null,
+                null,
                 null);
         
         // Then
@@ -91,6 +92,7 @@ class ScalaE2ETests {
                 10,
                 500,
                 null,
+                null,
                 null);
         
         // Then
@@ -128,6 +130,7 @@ class ScalaE2ETests {
                 10,
                 500,
                 null,
+                null,
                 null);
         
         // Then
@@ -165,6 +168,7 @@ class ScalaE2ETests {
                 10,
                 500,
                 null,
+                null,
                 null);
         
         // Then
@@ -202,6 +206,7 @@ class ScalaE2ETests {
                 10,
                 1,
                 null,
+                null,
                 null);
         
         // Then
@@ -239,6 +244,7 @@ class ScalaE2ETests {
                 10,
                 500,
                 null,
+                null,
                 null);
         
         // Then
@@ -55,6 +55,7 @@ public class AmShZWinsABetTests {
                 3,
                 2000,
                 null,
+                null,
                 null);
         
         // Then
@@ -94,6 +95,7 @@ public class AmShZWinsABetTests {
                 3,
                 2000,
                 null,
+                null,
                 null);
         
         // Then
@@ -132,6 +134,7 @@ public class AmShZWinsABetTests {
                 3,
                 2000,
                 null,
+                null,
                 null);
         
         // Then
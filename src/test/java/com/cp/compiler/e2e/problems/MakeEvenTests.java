@@ -55,6 +55,7 @@ public class MakeEvenTests {
                 3,
                 500,
                 null,
+                null,
                 null);
         
         // Then
@@ -56,6 +56,7 @@ public class PhysEdOnlineTests {
                 3,
                 500,
                 null,
+                null,
                 null);
         
         // Then
@@ -95,6 +96,7 @@ public class PhysEdOnlineTests {
                 3,
                 500,
                 null,
+                null,
                 null);
         
         // Then
@@ -56,6 +56,7 @@ class WatermelonTests {
                 3,
                 500,
                 null,
+                null,
                 null);
         
         // Then
@@ -95,6 +96,7 @@ class WatermelonTests {
                 3,
                 500,
                 null,
+                null,
                 null);
         
         // Then
@@ -134,6 +136,7 @@ class WatermelonTests {
                 3,
                 500,
                 null,
+                null,
                 null);
         
         // Then
@@ -0,0 +1,202 @@
+package com.cp.compiler.executions;
+
+import com.cp.compiler.config.LanguagesConfig;
+import com.cp.compiler.models.Language;
+import com.cp.compiler.models.LanguageDefinition;
+import com.cp.compiler.services.CompilationCache;
+import com.cp.compiler.services.ContainerService;
+import com.cp.compiler.wellknownconstants.WellKnownFiles;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The type Language definition tests.
+ */
+@DirtiesContext
+@SpringBootTest
+class LanguageDefinitionTests {
+    
+    @MockBean
+    private ContainerService containerService;
+    
+    @Autowired
+    private CompilationCache compilationCache;
+    
+    @Autowired
+    private LanguagesConfig languagesConfig;
+    
+    private LanguageDefinition cppDefinition;
+    
+    private LanguageDefinition pythonDefinition;
+    
+    private MultipartFile file = new MockMultipartFile(
+            "test.txt",
+            "test.txt",
+            null,
+            (byte[]) null);
+    
+    /**
+     * Register definitions as they would be loaded from the configuration.
+     */
+    @BeforeEach
+    void setUp() {
+        cppDefinition = ExecutionFactory.getLanguageDefinition(Language.CPP);
+        pythonDefinition = ExecutionFactory.getLanguageDefinition(Language.PYTHON);
+        
+        LanguageDefinition optimizedCpp = new LanguageDefinition();
+        optimizedCpp.setCompilationCommand("g++ -O3 {fileName} -o exec");
+        optimizedCpp.setExecutionCommand("./exec");
+        optimizedCpp.setTimeLimit(3);
+        ExecutionFactory.registerDefinition(Language.CPP, optimizedCpp);
+        
+        LanguageDefinition pypy = new LanguageDefinition();
+        pypy.setImage("pypy:3");
+        pypy.setExecutionCommand("pypy3 {fileName}");
+        pypy.setCompilationCache(false);
+        ExecutionFactory.registerDefinition(Language.PYTHON, pypy);
+    }
+    
+    /**
+     * Restore the definitions of the configuration.
+     */
+    @AfterEach
+    void tearDown() {
+        ExecutionFactory.registerDefinition(Language.CPP, cppDefinition);
+        ExecutionFactory.registerDefinition(Language.PYTHON, pythonDefinition);
+    }
+    
+    /**
+     * Every language should be defined in the configuration.
+     */
+    @Test
+    void everyLanguageShouldBeDefined() {
+        for (Language language : Language.values()) {
+            Assertions.assertTrue(languagesConfig.getLanguages().containsKey(language));
+            Assertions.assertTrue(ExecutionFactory.getRegisteredFactories().contains(language));
+        }
+        Assertions.assertTrue(languagesConfig.getLanguages().get(Language.JAVA).isKeepFileName());
+        Assertions.assertFalse(languagesConfig.getLanguages().get(Language.PYTHON).isCompiled());
+    }
+    
+    /**
+     * The configured compilation command should be used by the entrypoint.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void shouldCompileWithTheConfiguredCommand() throws IOException {
+        // Given
+        Execution execution = ExecutionFactory.createExecution(file, file, file, 10, 500, Language.CPP);
+        
+        // When
+        execution.createExecutionDirectory();
+        
+        // Then
+        String entrypoint = Files.readString(Path.of(execution.getPath(), WellKnownFiles.ENTRYPOINT_FILE_NAME));
+        Assertions.assertTrue(entrypoint.contains("g++ -O3 main.cpp -o exec"));
+        
+        // Clean up
+        execution.deleteExecutionDirectory();
+    }
+    
+    /**
+     * The configured image should replace the base image of the Dockerfile of the execution.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void shouldRunWithTheConfiguredImageAndCommand() throws IOException {
+        // Given
+        Execution execution = ExecutionFactory.createExecution(file, file, file, 10, 500, Language.PYTHON);
+        
+        // When
+        execution.createExecutionDirectory();
+        
+        // Then
+        String dockerfile = Files.readString(Path.of(execution.getPath(), WellKnownFiles.DOCKERFILE_NAME));
+        String entrypoint = Files.readString(Path.of(execution.getPath(), WellKnownFiles.ENTRYPOINT_FILE_NAME));
+        Assertions.assertTrue(dockerfile.startsWith("FROM pypy:3"));
+        Assertions.assertTrue(entrypoint.contains("pypy3 main.py"));
+        
+        // Clean up
+        execution.deleteExecutionDirectory();
+    }
+    
+    /**
+     * Java source code should be compiled under the name sent by the user.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void shouldKeepTheFileNameOfJavaSourceCode() throws IOException {
+        // Given
+        MultipartFile sourceCode = new MockMultipartFile(
+                "sourceCode",
+                "Solution.java",
+                null,
+                "public class Solution {}".getBytes());
+        Execution execution = ExecutionFactory.createExecution(sourceCode, file, file, 10, 500, Language.JAVA);
+        
+        // When
+        execution.createExecutionDirectory();
+        
+        // Then
+        String entrypoint = Files.readString(Path.of(execution.getPath(), WellKnownFiles.ENTRYPOINT_FILE_NAME));
+        Assertions.assertTrue(entrypoint.contains("javac Solution.java"));
+        Assertions.assertTrue(entrypoint.contains("java Solution"));
+        
+        // Clean up
+        execution.deleteExecutionDirectory();
+    }
+    
+    /**
+     * The default limits of the language should be used when the request does not set them.
+     */
+    @Test
+    void shouldUseTheDefaultLimitsOfTheLanguage() {
+        // When
+        Execution execution = ExecutionFactory.createExecution(file, file, file, 0, 500, Language.CPP);
+        
+        // Then
+        Assertions.assertEquals(3, execution.getTimeLimit());
+        Assertions.assertEquals(500, execution.getMemoryLimit());
+    }
+    
+    /**
+     * Negative limits should not be replaced by the default limits of the language.
+     */
+    @Test
+    void shouldKeepNegativeLimits() {
+        // When
+        Execution execution = ExecutionFactory.createExecution(file, file, file, -1, 500, Language.CPP);
+        
+        // Then
+        Assertions.assertEquals(-1, execution.getTimeLimit());
+    }
+    
+    /**
+     * Languages with the compilation cache disabled should not have a cache key.
+     */
+    @Test
+    void shouldNotCacheLanguagesWithTheCompilationCacheDisabled() {
+        // Given
+        Execution pythonExecution = ExecutionFactory.createExecution(file, file, file, 10, 500, Language.PYTHON);
+        Execution cppExecution = ExecutionFactory.createExecution(file, file, file, 10, 500, Language.CPP);
+        
+        // Then
+        Assertions.assertNull(compilationCache.getKey(pythonExecution));
+        Assertions.assertNotNull(compilationCache.getKey(cppExecution));
+    }
+}
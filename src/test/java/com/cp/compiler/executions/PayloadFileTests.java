@@ -0,0 +1,92 @@
+package com.cp.compiler.executions;
+
+import com.cp.compiler.models.Language;
+import com.cp.compiler.models.Request;
+import com.cp.compiler.utils.FileUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class PayloadFileTests {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void shouldKeepTheContentInMemory() throws IOException {
+        // Given
+        String content = "print('héllo')";
+        
+        // When
+        PayloadFile file = PayloadFile.of("test.py", content);
+        
+        // Then
+        Assertions.assertTrue(file.isInMemory());
+        Assertions.assertEquals("test.py", file.getOriginalFilename());
+        Assertions.assertEquals(content.getBytes(StandardCharsets.UTF_8).length, file.getSize());
+        Assertions.assertArrayEquals(content.getBytes(StandardCharsets.UTF_8), file.getBytes());
+        Assertions.assertArrayEquals(content.getBytes(StandardCharsets.UTF_8), file.getInputStream().readAllBytes());
+    }
+    
+    @Test
+    void shouldNotCopyTheInMemoryContent() throws IOException {
+        // Given
+        byte[] content = "test".getBytes();
+        
+        // When
+        PayloadFile file = PayloadFile.of("test.txt", content);
+        
+        // Then
+        Assertions.assertSame(content, file.getBytes());
+    }
+    
+    @Test
+    void shouldReadTheContentOfALocalFile() throws IOException {
+        // Given
+        Path path = tempDir.resolve("payload.txt");
+        Files.writeString(path, "test");
+        
+        // When
+        PayloadFile file = PayloadFile.of("input.txt", path);
+        
+        // Then
+        Assertions.assertFalse(file.isInMemory());
+        Assertions.assertEquals("input.txt", file.getOriginalFilename());
+        Assertions.assertEquals(4, file.getSize());
+        Assertions.assertArrayEquals("test".getBytes(), file.getBytes());
+    }
+    
+    @Test
+    void shouldSavePayloadFiles() throws IOException {
+        // Given
+        Path path = tempDir.resolve("payload.txt");
+        Files.writeString(path, "from file");
+        PayloadFile inMemoryFile = PayloadFile.of("test.txt", "in memory");
+        PayloadFile localFile = PayloadFile.of("input.txt", path);
+        
+        // When
+        FileUtils.saveUploadedFiles(inMemoryFile, tempDir.resolve("test.txt").toString());
+        FileUtils.saveUploadedFiles(localFile, tempDir.resolve("input.txt").toString());
+        
+        // Then
+        Assertions.assertEquals("in memory", Files.readString(tempDir.resolve("test.txt")));
+        Assertions.assertEquals("from file", Files.readString(tempDir.resolve("input.txt")));
+    }
+    
+    @Test
+    void requestFilesShouldBePayloadFiles() throws IOException {
+        // Given
+        Request request = new Request(null, "test", "print('test')", Language.PYTHON, 10, 100, null, null, null);
+        
+        // Then
+        Assertions.assertTrue(request.getSourceCode() instanceof PayloadFile);
+        Assertions.assertEquals(Language.PYTHON.getSourceCodeFileName(), request.getSourceCode().getOriginalFilename());
+        Assertions.assertTrue(request.getExpectedOutput() instanceof PayloadFile);
+        Assertions.assertNull(request.getInput());
+    }
+}
@@ -1,16 +1,26 @@
 package com.cp.compiler.healths;
 
 import com.cp.compiler.healthchecks.ContainerHealthIndicator;
+import com.cp.compiler.services.ContainerPool;
 import com.cp.compiler.services.ContainerService;
+import com.cp.compiler.services.Resources;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 @ExtendWith(SpringExtension.class)
 @RunWith(MockitoJUnitRunner.class)
@@ -19,12 +29,32 @@ class ContainerHealthIndicatorTests {
     @Mock
     private ContainerService containerService;
     
+    @Mock
+    private ContainerPool containerPool;
+    
+    @Mock
+    private Resources resources;
+    
+    @Mock
+    private ApplicationAvailability applicationAvailability;
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    private ContainerHealthIndicator healthIndicator;
+    
+    @BeforeEach
+    void setUp() {
+        healthIndicator = new ContainerHealthIndicator(
+                containerService, containerPool, resources, applicationAvailability, eventPublisher);
+        Mockito.when(containerService.getContainerizationName()).thenReturn("Docker");
+    }
+    
     @Test
     void shouldReturnHealthUp() {
         // Given
-        var healthIndicator = new ContainerHealthIndicator(containerService);
         Mockito.when(containerService.isUp()).thenReturn(true);
-        Mockito.when(containerService.getContainerizationName()).thenReturn("Docker");
+        healthIndicator.refresh();
         
         // When
         Health health = healthIndicator.health();
@@ -36,9 +66,8 @@ class ContainerHealthIndicatorTests {
     @Test
     void shouldReturnHealthDown() {
         // Given
-        var healthIndicator = new ContainerHealthIndicator(containerService);
         Mockito.when(containerService.isUp()).thenReturn(false);
-        Mockito.when(containerService.getContainerizationName()).thenReturn("Docker");
+        healthIndicator.refresh();
         
         // When
         Health health = healthIndicator.health();
@@ -46,4 +75,96 @@ class ContainerHealthIndicatorTests {
         // Then
         Assertions.assertEquals(Health.down().build().getStatus(), health.getStatus());
     }
+    
+    @Test
+    void shouldReturnHealthUnknownBeforeTheFirstCheck() {
+        // When
+        Health health = healthIndicator.health();
+        
+        // Then
+        Assertions.assertEquals(Status.UNKNOWN, health.getStatus());
+        Mockito.verify(containerService, Mockito.never()).isUp();
+    }
+    
+    @Test
+    void shouldNotCheckTheContainerEngineOnEachProbe() {
+        // Given
+        Mockito.when(containerService.isUp()).thenReturn(true);
+        healthIndicator.refresh();
+        
+        // When
+        healthIndicator.health();
+        healthIndicator.health();
+        
+        // Then
+        Mockito.verify(containerService, Mockito.times(1)).isUp();
+    }
+    
+    @Test
+    void shouldReturnHealthDownWhenTheLastCheckIsStale() throws InterruptedException {
+        // Given
+        ReflectionTestUtils.setField(healthIndicator, "staleness", 1L);
+        Mockito.when(containerService.isUp()).thenReturn(true);
+        healthIndicator.refresh();
+        Thread.sleep(10);
+        
+        // When
+        Health health = healthIndicator.health();
+        
+        // Then
+        Assertions.assertEquals(Status.DOWN, health.getStatus());
+        Assertions.assertEquals("Stale", health.getDetails().get("State"));
+    }
+    
+    @Test
+    void shouldRefuseTrafficWhenTheLastCheckIsStale() throws InterruptedException {
+        // Given
+        ReflectionTestUtils.setField(healthIndicator, "staleness", 1L);
+        Mockito.when(containerService.isUp()).thenReturn(true);
+        Mockito.when(applicationAvailability.getReadinessState()).thenReturn(ReadinessState.ACCEPTING_TRAFFIC);
+        healthIndicator.refresh();
+        Thread.sleep(10);
+        
+        // When
+        healthIndicator.checkStaleness();
+        
+        // Then
+        ArgumentCaptor<AvailabilityChangeEvent> event = ArgumentCaptor.forClass(AvailabilityChangeEvent.class);
+        Mockito.verify(eventPublisher).publishEvent(event.capture());
+        Assertions.assertEquals(ReadinessState.REFUSING_TRAFFIC, event.getValue().getState());
+    }
+    
+    @Test
+    void shouldRefuseTrafficWhenTheNodeIsSaturated() {
+        // Given
+        ReflectionTestUtils.setField(healthIndicator, "saturationThreshold", 0.9);
+        Mockito.when(containerService.isUp()).thenReturn(true);
+        Mockito.when(resources.getReservedCpus()).thenReturn(4f);
+        Mockito.when(resources.getCpusCapacity()).thenReturn(4f);
+        Mockito.when(applicationAvailability.getReadinessState()).thenReturn(ReadinessState.ACCEPTING_TRAFFIC);
+        
+        // When
+        healthIndicator.refresh();
+        
+        // Then
+        Assertions.assertEquals(1.0, healthIndicator.getSaturation());
+        Assertions.assertEquals(Status.UP, healthIndicator.health().getStatus());
+        ArgumentCaptor<AvailabilityChangeEvent> event = ArgumentCaptor.forClass(AvailabilityChangeEvent.class);
+        Mockito.verify(eventPublisher).publishEvent(event.capture());
+        Assertions.assertEquals(ReadinessState.REFUSING_TRAFFIC, event.getValue().getState());
+    }
+    
+    @Test
+    void shouldNotPublishTheReadinessWhenItDidNotChange() {
+        // Given
+        ReflectionTestUtils.setField(healthIndicator, "saturationThreshold", 0.9);
+        Mockito.when(containerService.isUp()).thenReturn(true);
+        Mockito.when(applicationAvailability.getReadinessState()).thenReturn(ReadinessState.ACCEPTING_TRAFFIC);
+        
+        // When
+        healthIndicator.refresh();
+        
+        // Then
+        Mockito.verifyNoInteractions(eventPublisher);
+    }
 }
@@ -0,0 +1,177 @@
+package com.cp.compiler.kafka;
+
+import com.cp.compiler.executions.Execution;
+import com.cp.compiler.models.Response;
+import com.cp.compiler.models.Result;
+import com.cp.compiler.models.Verdict;
+import com.cp.compiler.services.CompilerService;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The type Async topology tests, each stream task runs up to 2 compilations at the same time,
+ * throttled requests are retried right away.
+ */
+@ActiveProfiles({"kafka", "kafkaAsync"})
+@EmbeddedKafka(bootstrapServersProperty = "localhost:9092")
+@DirtiesContext
+@SpringBootTest
+public class AsyncTopologyTests {
+    
+    private static final String JSON_REQUEST = "{\n\"expectedOutput\": \"0\",\n\"sourceCode\": \"print(0)\",\n"
+            + "\"language\": \"PYTHON\",\"timeLimit\": 15,\"memoryLimit\": 500\n}";
+    
+    private static final long TIMEOUT = 5000;
+    
+    @Autowired
+    private Topology topology;
+    
+    @MockBean(name = "proxy")
+    private CompilerService compilerService;
+    
+    @TempDir
+    Path stateDirectory;
+    
+    private TopologyTestDriver streamTest;
+    private TestInputTopic<String, String> inputTopic;
+    private TestOutputTopic<String, String> outputTopic;
+    
+    private final Serde<String> stringSerde = new Serdes.StringSerde();
+    
+    @BeforeEach
+    public void setUp() {
+        final Properties props = new Properties();
+        props.setProperty(StreamsConfig.APPLICATION_ID_CONFIG, "compilerIdTest");
+        props.setProperty(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        props.setProperty(StreamsConfig.STATE_DIR_CONFIG, stateDirectory.toString());
+        props.setProperty(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
+        props.setProperty(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
+        streamTest = new TopologyTestDriver(topology, props);
+        
+        inputTopic = streamTest.createInputTopic("kafka.topic.input",
+                                                 stringSerde.serializer(),
+                                                 stringSerde.serializer());
+        
+        outputTopic = streamTest.createOutputTopic("kafka.topic.output",
+                                                   stringSerde.deserializer(),
+                                                   stringSerde.deserializer());
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        streamTest.close();
+    }
+    
+    @Test
+    public void requestsWithDifferentKeysShouldBeCompiledConcurrently() throws InterruptedException {
+        // Given compilations that end only once both of them have started
+        CountDownLatch startedCompilations = new CountDownLatch(2);
+        Mockito.when(compilerService.compile(Mockito.any())).thenAnswer(invocation -> {
+            startedCompilations.countDown();
+            startedCompilations.await(TIMEOUT, TimeUnit.MILLISECONDS);
+            return okResponse("0");
+        });
+        
+        // When
+        inputTopic.pipeInput("key1", JSON_REQUEST);
+        inputTopic.pipeInput("key2", JSON_REQUEST);
+        
+        // Then
+        Assertions.assertTrue(startedCompilations.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        List<KeyValue<String, String>> outputs = readOutputs(2);
+        Assertions.assertEquals(2, outputs.size());
+    }
+    
+    @Test
+    public void resultsOfRequestsWithTheSameKeyShouldKeepTheirOrder() throws InterruptedException {
+        // Given a first compilation slower than the second one
+        AtomicInteger compilations = new AtomicInteger();
+        Mockito.when(compilerService.compile(Mockito.any())).thenAnswer(invocation -> {
+            int compilation = compilations.incrementAndGet();
+            if (compilation == 1) {
+                Thread.sleep(300);
+            }
+            return okResponse(String.valueOf(compilation));
+        });
+        
+        // When
+        inputTopic.pipeInput("key", JSON_REQUEST);
+        inputTopic.pipeInput("key", JSON_REQUEST);
+        
+        // Then
+        List<KeyValue<String, String>> outputs = readOutputs(2);
+        Assertions.assertEquals(2, outputs.size());
+        Assertions.assertTrue(outputs.get(0).value.contains("\"output\":\"1\""));
+        Assertions.assertTrue(outputs.get(1).value.contains("\"output\":\"2\""));
+    }
+    
+    @Test
+    public void requestsShouldWaitForAThrottledRequestWithTheSameKey() throws InterruptedException {
+        // Given a first request throttled once, each result is the time limit of its request
+        AtomicInteger compilations = new AtomicInteger();
+        Mockito.when(compilerService.compile(Mockito.any())).thenAnswer(invocation -> {
+            if (compilations.incrementAndGet() == 1) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body("Request has been throttled");
+            }
+            return okResponse(String.valueOf(invocation.<Execution>getArgument(0).getTimeLimit()));
+        });
+        
+        // When
+        inputTopic.pipeInput("key", JSON_REQUEST);
+        inputTopic.pipeInput("key", JSON_REQUEST.replace("\"timeLimit\": 15", "\"timeLimit\": 10"));
+        
+        // Then the second request is compiled after the retry of the first one
+        List<KeyValue<String, String>> outputs = readOutputs(2);
+        Assertions.assertEquals(2, outputs.size());
+        Assertions.assertTrue(outputs.get(0).value.contains("\"output\":\"15\""));
+        Assertions.assertTrue(outputs.get(1).value.contains("\"output\":\"10\""));
+        Assertions.assertEquals(3, compilations.get());
+    }
+    
+    // Results are forwarded by the punctuator of the stream thread once compilations are completed
+    private List<KeyValue<String, String>> readOutputs(int count) throws InterruptedException {
+        List<KeyValue<String, String>> outputs = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (outputs.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            streamTest.advanceWallClockTime(Duration.ofMillis(100));
+            while (!outputTopic.isEmpty()) {
+                outputs.add(outputTopic.readKeyValue());
+            }
+        }
+        return outputs;
+    }
+    
+    private ResponseEntity okResponse(String output) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new Response(
+                        new Result(Verdict.ACCEPTED, output, "", "0", 0),
+                        LocalDateTime.now()));
+    }
+}
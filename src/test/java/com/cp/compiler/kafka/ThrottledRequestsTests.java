@@ -0,0 +1,129 @@
+package com.cp.compiler.kafka;
+
+import com.cp.compiler.models.Response;
+import com.cp.compiler.models.Result;
+import com.cp.compiler.models.Verdict;
+import com.cp.compiler.services.CompilerService;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Properties;
+
+/**
+ * The type Throttled requests tests, throttled requests are retried right away and dropped after one retry.
+ */
+@ActiveProfiles({"kafka", "kafkaThrottling"})
+@EmbeddedKafka(bootstrapServersProperty = "localhost:9092")
+@DirtiesContext
+@SpringBootTest
+public class ThrottledRequestsTests {
+    
+    private static final String JSON_REQUEST = "{\n\"expectedOutput\": \"0\",\n\"sourceCode\": \"print(0)\",\n"
+            + "\"language\": \"PYTHON\",\"timeLimit\": 15,\"memoryLimit\": 500\n}";
+    
+    @Autowired
+    private Topology topology;
+    
+    @MockBean(name = "proxy")
+    private CompilerService compilerService;
+    
+    @TempDir
+    Path stateDirectory;
+    
+    private TopologyTestDriver streamTest;
+    private TestInputTopic<String, String> inputTopic;
+    private TestOutputTopic<String, String> outputTopic;
+    
+    private final Serde<String> stringSerde = new Serdes.StringSerde();
+    
+    private final ResponseEntity throttledResponse = ResponseEntity
+            .status(HttpStatus.TOO_MANY_REQUESTS)
+            .body("Request has been throttled, service reached maximum resources");
+    
+    private final ResponseEntity okResponse = ResponseEntity
+            .status(HttpStatus.OK)
+            .body(new Response(
+                    new Result(Verdict.ACCEPTED, "0", "", "0", 0),
+                    LocalDateTime.now()));
+    
+    @BeforeEach
+    public void setUp() {
+        final Properties props = new Properties();
+        props.setProperty(StreamsConfig.APPLICATION_ID_CONFIG, "compilerIdTest");
+        props.setProperty(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        props.setProperty(StreamsConfig.STATE_DIR_CONFIG, stateDirectory.toString());
+        props.setProperty(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
+        props.setProperty(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
+        streamTest = new TopologyTestDriver(topology, props);
+        
+        inputTopic = streamTest.createInputTopic("kafka.topic.input",
+                                                 stringSerde.serializer(),
+                                                 stringSerde.serializer());
+        
+        outputTopic = streamTest.createOutputTopic("kafka.topic.output",
+                                                   stringSerde.deserializer(),
+                                                   stringSerde.deserializer());
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        streamTest.close();
+    }
+    
+    @Test
+    public void aThrottledRequestShouldBeRetriedWithoutBlockingTheStream() {
+        // Given
+        Mockito.when(compilerService.compile(Mockito.any()))
+                .thenReturn(throttledResponse)
+                .thenReturn(okResponse);
+        
+        // When
+        inputTopic.pipeInput("key", JSON_REQUEST);
+        
+        // Then nothing is published until the retry
+        Assertions.assertTrue(outputTopic.isEmpty());
+        
+        streamTest.advanceWallClockTime(Duration.ofSeconds(1));
+        
+        KeyValue<String, String> output = outputTopic.readKeyValue();
+        Assertions.assertEquals("key", output.key);
+        Assertions.assertNotNull(output.value);
+        Mockito.verify(compilerService, Mockito.times(2)).compile(Mockito.any());
+    }
+    
+    @Test
+    public void aRequestThrottledMoreThanTheMaxRetriesShouldBeDropped() {
+        // Given
+        Mockito.when(compilerService.compile(Mockito.any())).thenReturn(throttledResponse);
+        
+        // When
+        inputTopic.pipeInput("key", JSON_REQUEST);
+        streamTest.advanceWallClockTime(Duration.ofSeconds(1));
+        streamTest.advanceWallClockTime(Duration.ofSeconds(1));
+        
+        // Then
+        KeyValue<String, String> output = outputTopic.readKeyValue();
+        Assertions.assertEquals("key", output.key);
+        Assertions.assertNull(output.value);
+        Assertions.assertTrue(outputTopic.isEmpty());
+        Mockito.verify(compilerService, Mockito.times(2)).compile(Mockito.any());
+    }
+}
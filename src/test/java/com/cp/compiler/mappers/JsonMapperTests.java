@@ -40,7 +40,10 @@ public class JsonMapperTests {
                     "{\nSystem.out.println(i++);\n}}}",
             Language.JAVA,
             15,
-            500
+            500,
+            null,
+            null,
+            null
     );
     
     private final static String jsonRequest = "{\n\"expectedOutput\": \"0\\n1\\n2\\n3\\n4\\n5\\n6\\n7\\n8\\n9\\n\",\n\"sourceCode\": " +
@@ -0,0 +1,132 @@
+package com.cp.compiler.mappers;
+
+import com.cp.compiler.executions.PayloadFile;
+import com.cp.compiler.models.Language;
+import com.cp.compiler.models.StreamedRequest;
+import com.cp.compiler.wellknownconstants.WellKnownFiles;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class StreamingRequestReaderTests {
+    
+    @TempDir
+    Path spillDirectory;
+    
+    private StreamedRequest read(String json, long maxInMemorySize) throws IOException {
+        StreamingRequestReader reader = new StreamingRequestReader(maxInMemorySize, spillDirectory);
+        return reader.read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+    }
+    
+    @Test
+    void shouldReadSmallFieldsInMemory() throws IOException {
+        // Given
+        String json = "{\"input\": \"1 2\", \"expectedOutput\": \"3\\n\", \"sourceCode\": \"print(\\\"h\\u00e9\\\")\","
+                + " \"language\": \"PYTHON\", \"timeLimit\": 3, \"memoryLimit\": \"500\", \"tenant\": \"tenantA\"}";
+        
+        // When
+        StreamedRequest request = read(json, 1024);
+        
+        // Then
+        Assertions.assertEquals(Language.PYTHON, request.getLanguage());
+        Assertions.assertEquals(3, request.getTimeLimit());
+        Assertions.assertEquals(500, request.getMemoryLimit());
+        Assertions.assertEquals("tenantA", request.getTenant());
+        Assertions.assertEquals(Language.PYTHON.getSourceCodeFileName(), request.getSourceCode().getOriginalFilename());
+        Assertions.assertEquals("print(\"hé\")", new String(request.getSourceCode().getBytes(), StandardCharsets.UTF_8));
+        Assertions.assertEquals(WellKnownFiles.INPUT_FILE_NAME, request.getInput().getOriginalFilename());
+        Assertions.assertEquals("1 2", new String(request.getInput().getBytes()));
+        Assertions.assertEquals("3\n", new String(request.getExpectedOutput().getBytes()));
+        Assertions.assertTrue(((PayloadFile) request.getInput()).isInMemory());
+    }
+    
+    @Test
+    void shouldSpillLargeFieldsToLocalFiles() throws IOException {
+        // Given
+        String input = "1 2 3\\n".repeat(10000);
+        String json = "{\"language\": \"CPP\", \"sourceCode\": \"int main() {}\", \"input\": \"" + input + "\","
+                + " \"expectedOutput\": \"ok\", \"timeLimit\": 3, \"memoryLimit\": 500}";
+        
+        // When
+        StreamedRequest request = read(json, 1024);
+        
+        // Then
+        PayloadFile inputFile = (PayloadFile) request.getInput();
+        Assertions.assertFalse(inputFile.isInMemory());
+        Assertions.assertTrue(inputFile.isTemporary());
+        Assertions.assertEquals("1 2 3\n".repeat(10000), new String(inputFile.getBytes()));
+        Assertions.assertTrue(((PayloadFile) request.getExpectedOutput()).isInMemory());
+        
+        // When
+        Path destination = spillDirectory.resolve("input.txt");
+        inputFile.writeTo(destination);
+        request.deletePayloadFiles();
+        
+        // Then the linked file is kept, and the temporary file is deleted
+        Assertions.assertEquals("1 2 3\n".repeat(10000), Files.readString(destination));
+        Assertions.assertEquals(1, Files.list(spillDirectory).count());
+    }
+    
+    @Test
+    void shouldSkipUnknownFieldsAndAcceptNullInput() throws IOException {
+        // Given
+        String json = "{\"extra\": {\"a\": [1, \"}\", {\"b\": null}], \"c\": true}, \"input\": null,"
+                + " \"sourceCode\": \"x\", \"expectedOutput\": \"\", \"language\": \"C\", \"timeLimit\": 1,"
+                + " \"memoryLimit\": 100, \"tenant\": null}";
+        
+        // When
+        StreamedRequest request = read(json, 1024);
+        
+        // Then
+        Assertions.assertNull(request.getInput());
+        Assertions.assertNull(request.getTenant());
+        Assertions.assertEquals(Language.C, request.getLanguage());
+        Assertions.assertEquals(0, request.getExpectedOutput().getSize());
+    }
+    
+    @Test
+    void invalidRequestsShouldThrowAndDeleteSpilledFiles() throws IOException {
+        // Given a truncated request with a spilled input
+        String json = "{\"language\": \"CPP\", \"sourceCode\": \"x\", \"input\": \"" + "1".repeat(10000) + "\", \"timeL";
+        
+        // Then
+        Assertions.assertThrows(StreamingRequestReader.JsonRequestException.class, () -> read(json, 1024));
+        Assertions.assertEquals(0, Files.list(spillDirectory).count());
+    }
+    
+    @Test
+    void repeatedFieldsShouldReplaceAndDeleteThePreviousPayload() throws IOException {
+        // Given a spilled input replaced by a small one
+        String json = "{\"language\": \"CPP\", \"sourceCode\": \"x\", \"input\": \"" + "1".repeat(10000) + "\","
+                + " \"input\": \"2\", \"expectedOutput\": \"2\"}";
+        
+        // When
+        StreamedRequest request = read(json, 1024);
+        
+        // Then
+        Assertions.assertEquals("2", new String(request.getInput().getBytes()));
+        Assertions.assertEquals(0, Files.list(spillDirectory).count());
+    }
+    
+    @Test
+    void shouldRejectUnknownLanguagesAndMissingFields() {
+        Assertions.assertThrows(
+                StreamingRequestReader.JsonRequestException.class,
+                () -> read("{\"language\": \"COBOL\", \"sourceCode\": \"x\", \"expectedOutput\": \"x\"}", 1024));
+        Assertions.assertThrows(
+                StreamingRequestReader.JsonRequestException.class,
+                () -> read("{\"language\": \"C\", \"sourceCode\": \"x\"}", 1024));
+        Assertions.assertThrows(
+                StreamingRequestReader.JsonRequestException.class,
+                () -> read("{\"sourceCode\": \"x\", \"expectedOutput\": \"x\"}", 1024));
+        Assertions.assertThrows(
+                StreamingRequestReader.JsonRequestException.class,
+                () -> read("{\"language\": \"C\", \"sourceCode\": null, \"expectedOutput\": \"x\"}", 1024));
+    }
+}
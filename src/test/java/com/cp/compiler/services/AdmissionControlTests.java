@@ -0,0 +1,128 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.executions.Execution;
+import com.cp.compiler.executions.ExecutionFactory;
+import com.cp.compiler.models.Language;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * The type Admission control tests, with a capacity of 4 cpus and 1000 MB.
+ */
+@DirtiesContext
+@SpringBootTest
+@ActiveProfiles("admission")
+class AdmissionControlTests {
+    
+    @Autowired
+    private Resources resources;
+    
+    private MultipartFile file = new MockMultipartFile(
+            "test.txt",
+            "test.txt",
+            null,
+            (byte[]) null);
+    
+    @Test
+    void executionsShouldReserveCpusAccordingToTheirLanguage() {
+        // Given
+        Execution scalaExecution = createExecution(100, Language.SCALA);
+        Execution cExecution = createExecution(100, Language.C);
+        
+        // When
+        boolean scalaReserved = resources.reserveResources(scalaExecution);
+        boolean cReserved = resources.reserveResources(cExecution);
+        boolean secondScalaReserved = resources.reserveResources(createExecution(100, Language.SCALA));
+        
+        // Then
+        Assertions.assertTrue(scalaReserved);
+        Assertions.assertTrue(cReserved);
+        Assertions.assertFalse(secondScalaReserved);
+        Assertions.assertEquals(4, resources.getReservedCpus());
+        
+        resources.releaseResources(scalaExecution);
+        resources.releaseResources(cExecution);
+    }
+    
+    @Test
+    void executionsShouldReserveTheirMemoryLimit() {
+        // Given
+        Execution execution = createExecution(600, Language.C);
+        
+        // When
+        boolean reserved = resources.reserveResources(execution);
+        boolean secondReserved = resources.reserveResources(createExecution(600, Language.C));
+        
+        // Then
+        Assertions.assertTrue(reserved);
+        Assertions.assertFalse(secondReserved);
+        Assertions.assertEquals(600, resources.getReservedMemory());
+        
+        resources.releaseResources(execution);
+    }
+    
+    @Test
+    void executionsShouldNotBeAdmittedAboveTheFreeMemoryOfTheNodeUnlessAlone() {
+        // Given 50 MB of free memory on the node
+        Resources resourcesWithLowFreeMemory = Mockito.spy(resources);
+        ReflectionTestUtils.setField(resourcesWithLowFreeMemory, "freeMemoryCheck", true);
+        Mockito.doReturn(50L).when(resourcesWithLowFreeMemory).getFreeNodeMemory();
+        
+        // When
+        boolean reserved = resourcesWithLowFreeMemory.reserveResources(createExecution(100, Language.C));
+        boolean secondReserved = resourcesWithLowFreeMemory.reserveResources(createExecution(100, Language.C));
+        
+        // Then
+        Assertions.assertTrue(reserved);
+        Assertions.assertFalse(secondReserved);
+        Assertions.assertEquals(100, resourcesWithLowFreeMemory.getReservedMemory());
+    }
+    
+    @Test
+    void memoryCostShouldNotBeBelowTheMinContainerMemory() {
+        // Given
+        Execution execution = createExecution(10, Language.C);
+        
+        // When
+        long memoryCost = resources.getMemoryCost(execution);
+        
+        // Then
+        Assertions.assertEquals(100, memoryCost);
+    }
+    
+    @Test
+    void anExecutionLargerThanTheCapacityShouldBeAdmittedWhenTheNodeIsIdle() {
+        // Given
+        Execution execution = createExecution(5000, Language.C);
+        
+        // When
+        boolean reserved = resources.reserveResources(execution);
+        
+        // Then
+        Assertions.assertTrue(reserved);
+        Assertions.assertEquals(1000, resources.getReservedMemory());
+        
+        resources.releaseResources(execution);
+    }
+    
+    @Test
+    void maxParallelExecutionsShouldBeTheNumberOfExecutionsOfTheCheapestLanguageThatFitInTheCapacity() {
+        // When
+        int maxParallelExecutions = resources.getMaxParallelExecutions();
+        
+        // Then 4 cpus for executions of languages that reserve 1 cpu, not 4 cpus / the cpus of the node
+        Assertions.assertEquals(4, maxParallelExecutions);
+    }
+    
+    private Execution createExecution(int memoryLimit, Language language) {
+        return ExecutionFactory.createExecution(file, file, file, 10, memoryLimit, language);
+    }
+}
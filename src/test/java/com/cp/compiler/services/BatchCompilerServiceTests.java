@@ -0,0 +1,238 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.executions.Execution;
+import com.cp.compiler.executions.ExecutionFactory;
+import com.cp.compiler.models.*;
+import com.cp.compiler.utils.StatusUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The type Batch compiler service tests.
+ */
+@DirtiesContext
+@SpringBootTest
+class BatchCompilerServiceTests {
+    
+    // The nonce announced by the entrypoint
+    private static final String NONCE = "5f3a";
+    
+    @MockBean
+    private ContainerService containerService;
+    
+    @Qualifier("proxy")
+    @Autowired
+    private CompilerService compilerService;
+    
+    /**
+     * The verdict of a batch should be the verdict of the first test case that fails.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void batchVerdictShouldBeTheVerdictOfTheFirstTestCaseThatFails() throws IOException {
+        // Given
+        Execution execution = createBatchExecution(false, "1", "2", "3");
+        mockContainerOutput(execution, "1", "0", "3");
+        
+        // When
+        ResponseEntity<Object> responseEntity = compilerService.compile(execution);
+        
+        // Then
+        Result result = ((Response) responseEntity.getBody()).getResult();
+        Assertions.assertEquals(Verdict.WRONG_ANSWER.getStatusResponse(), result.getStatusResponse());
+        Assertions.assertEquals(3, result.getTestCasesResults().size());
+        Assertions.assertEquals(
+                Verdict.ACCEPTED.getStatusResponse(),
+                result.getTestCasesResults().get(0).getStatusResponse());
+        Assertions.assertEquals(
+                Verdict.WRONG_ANSWER.getStatusResponse(),
+                result.getTestCasesResults().get(1).getStatusResponse());
+        Assertions.assertEquals(
+                Verdict.ACCEPTED.getStatusResponse(),
+                result.getTestCasesResults().get(2).getStatusResponse());
+    }
+    
+    /**
+     * With fail fast, results after the first test case that fails should not be returned.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void withFailFastResultsAfterTheFirstFailureShouldNotBeReturned() throws IOException {
+        // Given
+        Execution execution = createBatchExecution(true, "1", "2", "3");
+        mockContainerOutput(execution, "1", "0", "3");
+        
+        // When
+        ResponseEntity<Object> responseEntity = compilerService.compile(execution);
+        
+        // Then
+        Result result = ((Response) responseEntity.getBody()).getResult();
+        Assertions.assertEquals(Verdict.WRONG_ANSWER.getStatusResponse(), result.getStatusResponse());
+        Assertions.assertEquals(2, result.getTestCasesResults().size());
+    }
+    
+    /**
+     * When all test cases pass the verdict should be accepted.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void whenAllTestCasesPassVerdictShouldBeAccepted() throws IOException {
+        // Given
+        Execution execution = createBatchExecution(false, "1", "2");
+        mockContainerOutput(execution, "1", "2");
+        
+        // When
+        ResponseEntity<Object> responseEntity = compilerService.compile(execution);
+        
+        // Then
+        Result result = ((Response) responseEntity.getBody()).getResult();
+        Assertions.assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        Assertions.assertEquals(Verdict.ACCEPTED.getStatusResponse(), result.getStatusResponse());
+        Assertions.assertEquals(2, result.getTestCasesResults().size());
+    }
+    
+    /**
+     * A test case whose CPU time exceeds the time limit should get a time limit exceeded verdict.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void testCaseWhoseCpuTimeExceedsTheTimeLimitShouldGetTimeLimitExceededVerdict() throws IOException {
+        // Given
+        Execution execution = createBatchExecution(false, "1", "2");
+        
+        // 12 seconds of CPU time in 3 seconds of wall time for the second test case, with a time limit of 10 seconds
+        String boundary = execution.getTestCasesBoundary() + "-" + NONCE;
+        String stdOut = execution.getTestCasesBoundary() + " " + NONCE + "\n"
+                + boundary + " stdout 1 0 500000 600000\n"
+                + "1\n\n"
+                + boundary + " stderr 1\n\n"
+                + boundary + " stdout 2 0 12000000 3000000\n"
+                + "2\n\n"
+                + boundary + " stderr 2\n\n";
+        
+        Mockito.when(containerService.runContainer(ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt()))
+                .thenReturn(ProcessOutput
+                        .builder()
+                        .stdOut(stdOut)
+                        .stdErr("")
+                        .status(StatusUtils.ACCEPTED_OR_WRONG_ANSWER_STATUS)
+                        .build());
+        
+        // When
+        ResponseEntity<Object> responseEntity = compilerService.compile(execution);
+        
+        // Then
+        Result result = ((Response) responseEntity.getBody()).getResult();
+        Assertions.assertEquals(Verdict.TIME_LIMIT_EXCEEDED.getStatusResponse(), result.getStatusResponse());
+        Assertions.assertEquals(
+                Verdict.ACCEPTED.getStatusResponse(),
+                result.getTestCasesResults().get(0).getStatusResponse());
+        Assertions.assertEquals(500, result.getTestCasesResults().get(0).getCpuTime());
+        Assertions.assertEquals(600, result.getTestCasesResults().get(0).getExecutionDuration());
+        Assertions.assertEquals(
+                Verdict.TIME_LIMIT_EXCEEDED.getStatusResponse(),
+                result.getTestCasesResults().get(1).getStatusResponse());
+        Assertions.assertEquals(3000, result.getTestCasesResults().get(1).getExecutionDuration());
+    }
+    
+    /**
+     * A compilation error should be returned for the whole batch.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void compilationErrorShouldBeReturnedForTheWholeBatch() throws IOException {
+        // Given
+        Execution execution = createBatchExecution(false, "1", "2");
+        
+        Mockito.when(containerService.runContainer(ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt()))
+                .thenReturn(ProcessOutput
+                        .builder()
+                        .stdOut("")
+                        .stdErr("error")
+                        .status(StatusUtils.COMPILATION_ERROR_STATUS)
+                        .build());
+        
+        // When
+        ResponseEntity<Object> responseEntity = compilerService.compile(execution);
+        
+        // Then
+        Result result = ((Response) responseEntity.getBody()).getResult();
+        Assertions.assertEquals(Verdict.COMPILATION_ERROR.getStatusResponse(), result.getStatusResponse());
+    }
+    
+    /**
+     * When the number of test cases exceeds the maximum should return bad request.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void whenTheNumberOfTestCasesExceedsTheMaximumShouldReturnBadRequest() throws IOException {
+        // Given
+        String[] expectedOutputs = new String[101];
+        Arrays.fill(expectedOutputs, "1");
+        Execution execution = createBatchExecution(false, expectedOutputs);
+        
+        // When
+        ResponseEntity<Object> responseEntity = compilerService.compile(execution);
+        
+        // Then
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+    }
+    
+    private Execution createBatchExecution(boolean failFast, String... expectedOutputs) throws IOException {
+        List<TestCase> testCases = new ArrayList<>();
+        for (String expectedOutput : expectedOutputs) {
+            testCases.add(new TestCase(null, expectedOutput, null, null));
+        }
+        BatchRequest batchRequest = new BatchRequest(
+                "print(input())", Language.PYTHON, 10, 100, testCases, failFast, false);
+        
+        Execution execution = ExecutionFactory.createExecution(
+                batchRequest.getSourceCode(),
+                null,
+                null,
+                batchRequest.getTimeLimit(),
+                batchRequest.getMemoryLimit(),
+                batchRequest.getLanguage());
+        execution.setTestCases(batchRequest.getExecutionTestCases());
+        execution.setFailFast(batchRequest.isFailFast());
+        return execution;
+    }
+    
+    private void mockContainerOutput(Execution execution, String... outputs) {
+        String boundary = execution.getTestCasesBoundary() + "-" + NONCE;
+        StringBuilder stdOut = new StringBuilder(execution.getTestCasesBoundary() + " " + NONCE + "\n");
+        for (int index = 1; index <= outputs.length; index++) {
+            stdOut.append(boundary).append(" stdout ").append(index).append(" 0\n")
+                    .append(outputs[index - 1]).append("\n\n")
+                    .append(boundary).append(" stderr ").append(index).append("\n\n");
+        }
+        
+        Mockito.when(containerService.runContainer(ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt()))
+                .thenReturn(ProcessOutput
+                        .builder()
+                        .stdOut(stdOut.toString())
+                        .stdErr("")
+                        .status(StatusUtils.ACCEPTED_OR_WRONG_ANSWER_STATUS)
+                        .build());
+    }
+}
@@ -0,0 +1,167 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.executions.Execution;
+import com.cp.compiler.executions.ExecutionFactory;
+import com.cp.compiler.models.Language;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * The type Compilation cache tests.
+ */
+@DirtiesContext
+@SpringBootTest
+@ActiveProfiles("compilationCache")
+class CompilationCacheTests {
+    
+    private static final int KILOBYTE = 1024;
+    
+    @MockBean
+    private ContainerService containerService;
+    
+    @Autowired
+    private CompilationCache compilationCache;
+    
+    @TempDir
+    Path temporaryDirectory;
+    
+    /**
+     * The key should depend on the source code.
+     */
+    @Test
+    void keyShouldDependOnTheSourceCode() {
+        // Given
+        Execution execution = createExecution("int main() { return 0; }");
+        Execution sameSourceCodeExecution = createExecution("int main() { return 0; }");
+        Execution otherSourceCodeExecution = createExecution("int main() { return 1; }");
+        
+        // Then
+        Assertions.assertEquals(
+                compilationCache.getKey(execution),
+                compilationCache.getKey(sameSourceCodeExecution));
+        Assertions.assertNotEquals(
+                compilationCache.getKey(execution),
+                compilationCache.getKey(otherSourceCodeExecution));
+    }
+    
+    /**
+     * Stored compiled artifacts should be restored.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void storedCompiledArtifactsShouldBeRestored() throws IOException {
+        // Given
+        byte[] content = "compiled".getBytes();
+        compilationCache.put("restored", createArtifacts("artifacts", content), sha256(content));
+        Path destination = temporaryDirectory.resolve("destination");
+        
+        // When
+        boolean restored = compilationCache.restore("restored", destination);
+        
+        // Then
+        Assertions.assertTrue(restored);
+        Assertions.assertArrayEquals(content, Files.readAllBytes(destination));
+        Assertions.assertFalse(compilationCache.restore("unknown", destination));
+    }
+    
+    /**
+     * Least recently used compiled artifacts should be evicted when the max size is exceeded.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void leastRecentlyUsedCompiledArtifactsShouldBeEvicted() throws IOException {
+        // Given
+        byte[] content = new byte[400 * KILOBYTE];
+        Path destination = temporaryDirectory.resolve("destination");
+        compilationCache.put("first", createArtifacts("first", content), sha256(content));
+        compilationCache.put("second", createArtifacts("second", content), sha256(content));
+        
+        // When
+        compilationCache.restore("first", destination);
+        compilationCache.put("third", createArtifacts("third", content), sha256(content));
+        
+        // Then
+        Assertions.assertTrue(compilationCache.restore("first", destination));
+        Assertions.assertFalse(compilationCache.restore("second", destination));
+        Assertions.assertTrue(compilationCache.restore("third", destination));
+        Assertions.assertTrue(compilationCache.getSize() <= KILOBYTE * KILOBYTE);
+    }
+    
+    /**
+     * Compiled artifacts modified after the compilation should not be cached.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void modifiedCompiledArtifactsShouldNotBeCached() throws IOException {
+        // Given
+        Path artifacts = createArtifacts("modified", "modified by the program".getBytes());
+        Path destination = temporaryDirectory.resolve("destination");
+        
+        // When
+        compilationCache.put("modified", artifacts, sha256("compiled".getBytes()));
+        
+        // Then
+        Assertions.assertFalse(compilationCache.restore("modified", destination));
+        Assertions.assertFalse(Files.exists(artifacts));
+    }
+    
+    /**
+     * Compiled artifacts replaced by a symbolic link should not be cached.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void symbolicLinksShouldNotBeCached() throws IOException {
+        // Given
+        byte[] content = "host file".getBytes();
+        Path hostFile = createArtifacts("host-file", content);
+        Path artifacts = Files.createSymbolicLink(temporaryDirectory.resolve("link"), hostFile);
+        Path destination = temporaryDirectory.resolve("destination");
+        
+        // When
+        compilationCache.put("link", artifacts, sha256(content));
+        
+        // Then
+        Assertions.assertFalse(compilationCache.restore("link", destination));
+        Assertions.assertTrue(Files.exists(hostFile));
+    }
+    
+    private Path createArtifacts(String name, byte[] content) throws IOException {
+        return Files.write(temporaryDirectory.resolve(name), content);
+    }
+    
+    private static String sha256(byte[] content) {
+        try {
+            return String.format("%064x", new BigInteger(1, MessageDigest.getInstance("SHA-256").digest(content)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private Execution createExecution(String sourceCode) {
+        MockMultipartFile sourceCodeFile = new MockMultipartFile(
+                "sourceCode",
+                "main.c",
+                null,
+                sourceCode.getBytes());
+        return ExecutionFactory.createExecution(
+                sourceCodeFile, null, sourceCodeFile, 10, 100, Language.C);
+    }
+}
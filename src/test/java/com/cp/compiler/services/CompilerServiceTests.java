@@ -3,6 +3,7 @@ package com.cp.compiler.services;
 import com.cp.compiler.exceptions.ContainerBuildException;
 import com.cp.compiler.exceptions.ContainerFailedDependencyException;
 import com.cp.compiler.exceptions.ContainerOperationTimeoutException;
+import com.cp.compiler.exceptions.ContainerOutputLimitExceededException;
 import com.cp.compiler.executions.Execution;
 import com.cp.compiler.executions.ExecutionFactory;
 import com.cp.compiler.models.*;
@@ -179,7 +180,7 @@ class CompilerServiceTests {
                 .status(StatusUtils.ACCEPTED_OR_WRONG_ANSWER_STATUS)
                 .build();
     
-        Mockito.when(containerService.runContainer(ArgumentMatchers.any(), ArgumentMatchers.anyLong()))
+        Mockito.when(containerService.runContainer(ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt()))
                 .thenReturn(containerOutput);
         
         Execution execution = ExecutionFactory.createExecution(
@@ -225,7 +226,7 @@ class CompilerServiceTests {
                 .status(StatusUtils.ACCEPTED_OR_WRONG_ANSWER_STATUS)
                 .build();
     
-        Mockito.when(containerService.runContainer(ArgumentMatchers.any(), ArgumentMatchers.anyLong()))
+        Mockito.when(containerService.runContainer(ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt()))
                 .thenReturn(containerOutput);
     
         Execution execution = ExecutionFactory.createExecution(
@@ -275,7 +276,7 @@ class CompilerServiceTests {
                 .status(StatusUtils.ACCEPTED_OR_WRONG_ANSWER_STATUS)
                 .build();
     
-        Mockito.when(containerService.runContainer(ArgumentMatchers.any(), ArgumentMatchers.anyLong()))
+        Mockito.when(containerService.runContainer(ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt()))
                 .thenReturn(containerOutput);
     
         Execution execution = ExecutionFactory.createExecution(
@@ -318,7 +319,7 @@ class CompilerServiceTests {
                 .status(StatusUtils.TIME_LIMIT_EXCEEDED_STATUS)
                 .build();
     
-        Mockito.when(containerService.runContainer(ArgumentMatchers.any(), ArgumentMatchers.anyLong()))
+        Mockito.when(containerService.runContainer(ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt()))
                 .thenReturn(containerOutput);
     
         Execution execution = ExecutionFactory.createExecution(
@@ -361,7 +362,7 @@ class CompilerServiceTests {
                 .status(999) // Runtime error
                 .build();
     
-        Mockito.when(containerService.runContainer(ArgumentMatchers.any(), ArgumentMatchers.anyLong()))
+        Mockito.when(containerService.runContainer(ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt()))
                 .thenReturn(containerOutput);
     
         Execution execution = ExecutionFactory.createExecution(
@@ -404,7 +405,7 @@ class CompilerServiceTests {
                 .status(StatusUtils.OUT_OF_MEMORY_STATUS)
                 .build();
     
-        Mockito.when(containerService.runContainer(ArgumentMatchers.any(), ArgumentMatchers.anyLong()))
+        Mockito.when(containerService.runContainer(ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt()))
                 .thenReturn(containerOutput);
     
         Execution execution = ExecutionFactory.createExecution(
@@ -447,7 +448,7 @@ class CompilerServiceTests {
                 .status(StatusUtils.COMPILATION_ERROR_STATUS)
                 .build();
     
-        Mockito.when(containerService.runContainer(ArgumentMatchers.any(), ArgumentMatchers.anyLong()))
+        Mockito.when(containerService.runContainer(ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt()))
                 .thenReturn(containerOutput);
     
         Execution execution = ExecutionFactory.createExecution(
@@ -461,6 +462,123 @@ class CompilerServiceTests {
         Assertions.assertEquals(Verdict.COMPILATION_ERROR.getStatusResponse(), response.getResult().getStatusResponse());
     }
     
+    /**
+     * When the container has been oom killed compile method should return out of memory verdict.
+     */
+    @Test
+    void WhenTheContainerHasBeenOomKilledCompileMethodShouldReturnOutOfMemoryVerdict() {
+        // Given
+        Mockito.when(containerService.buildImage(ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenReturn("build log");
+    
+        MockMultipartFile file = new MockMultipartFile(
+                "file",
+                "hello.txt",
+                MediaType.TEXT_PLAIN_VALUE,
+                "test".getBytes()
+        );
+    
+        Execution execution = ExecutionFactory.createExecution(
+                file, null, file, 10, 100, Language.JAVA);
+    
+        ProcessOutput containerOutput = ProcessOutput
+                .builder()
+                .stdOut("\n" + execution.getResourceUsageBoundary() + " peakMemory=104857600 oomKills=1\n")
+                .stdErr("")
+                .status(137)
+                .build();
+    
+        Mockito.when(containerService.runContainer(
+                    ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt()))
+                .thenReturn(containerOutput);
+    
+        // When
+        ResponseEntity<Object> responseEntity = compilerService.compile(execution);
+        
+        // Then
+        Response response = (Response) responseEntity.getBody();
+        Assertions.assertEquals(Verdict.OUT_OF_MEMORY.getStatusResponse(), response.getResult().getStatusResponse());
+        Assertions.assertEquals(102400, response.getResult().getContainerPeakMemory());
+        Assertions.assertEquals("", response.getResult().getOutput());
+    }
+    
+    /**
+     * When the cpu time exceeds the time limit compile method should return time limit exceeded verdict.
+     */
+    @Test
+    void WhenTheCpuTimeExceedsTheTimeLimitCompileMethodShouldReturnTimeLimitExceededVerdict() {
+        // Given
+        Mockito.when(containerService.buildImage(ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenReturn("build log");
+    
+        MockMultipartFile file = new MockMultipartFile(
+                "file",
+                "hello.txt",
+                MediaType.TEXT_PLAIN_VALUE,
+                "test".getBytes()
+        );
+    
+        Execution execution = ExecutionFactory.createExecution(
+                file, null, file, 1, 100, Language.JAVA);
+    
+        // 3 seconds of CPU time in 800 ms of wall time
+        ProcessOutput containerOutput = ProcessOutput
+                .builder()
+                .stdOut("test\n" + execution.getResourceUsageBoundary()
+                        + " peakMemory=0 oomKills=0 cpuTime=3000000 wallTime=800000\n")
+                .stdErr("")
+                .status(StatusUtils.ACCEPTED_OR_WRONG_ANSWER_STATUS)
+                .build();
+    
+        Mockito.when(containerService.runContainer(
+                    ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt()))
+                .thenReturn(containerOutput);
+    
+        // When
+        ResponseEntity<Object> responseEntity = compilerService.compile(execution);
+        
+        // Then
+        Response response = (Response) responseEntity.getBody();
+        Assertions.assertEquals(
+                Verdict.TIME_LIMIT_EXCEEDED.getStatusResponse(), response.getResult().getStatusResponse());
+        Assertions.assertEquals(3000, response.getResult().getCpuTime());
+        Assertions.assertEquals(800, response.getResult().getExecutionDuration());
+    }
+    
+    /**
+     * When the output exceeds the limit compile method should return output limit exceeded verdict.
+     */
+    @Test
+    void WhenTheOutputExceedsTheLimitCompileMethodShouldReturnOutputLimitExceededVerdict() {
+        // Given
+        Mockito.when(containerService.buildImage(ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenReturn("build log");
+    
+        String output = "test";
+    
+        MockMultipartFile file = new MockMultipartFile(
+                "file",
+                "hello.txt",
+                MediaType.TEXT_PLAIN_VALUE,
+                output.getBytes()
+        );
+    
+        Mockito.when(containerService.runContainer(ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt()))
+                .thenThrow(new ContainerOutputLimitExceededException("exception"));
+    
+        Execution execution = ExecutionFactory.createExecution(
+                file, null, file, 10, 100, Language.JAVA);
+    
+        // When
+        ResponseEntity<Object> responseEntity = compilerService.compile(execution);
+        
+        // Then
+        Response response = (Response) responseEntity.getBody();
+        Assertions.assertEquals(
+                Verdict.OUTPUT_LIMIT_EXCEEDED.getStatusResponse(),
+                response.getResult().getStatusResponse());
+    }
+    
     @Test
     void shouldThrownContainerFailedDependencyException() {
         // Given
@@ -476,7 +594,7 @@ class CompilerServiceTests {
                 output.getBytes()
         );
         
-        Mockito.when(containerService.runContainer(ArgumentMatchers.any(), ArgumentMatchers.anyLong()))
+        Mockito.when(containerService.runContainer(ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt()))
                 .thenThrow(new ContainerFailedDependencyException());
         
         Execution execution = ExecutionFactory.createExecution(
@@ -0,0 +1,91 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.models.Language;
+import com.cp.compiler.wellknownconstants.WellKnownLabels;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The type Container janitor tests, with batches of two images and a min age of one minute.
+ */
+@DirtiesContext
+@SpringBootTest
+@ActiveProfiles("containerJanitor")
+class ContainerJanitorTests {
+    
+    private static final String STAGING_DIRECTORY = "target/janitor";
+    
+    @MockBean
+    private ContainerService containerService;
+    
+    @Autowired
+    private ContainerJanitorDefault containerJanitor;
+    
+    /**
+     * Pending images should be deleted in batches.
+     */
+    @Test
+    void pendingImagesShouldBeDeletedInBatches() {
+        // Given
+        containerJanitor.collectImage("image-1");
+        containerJanitor.collectImage("image-2");
+        containerJanitor.collectImage("image-3");
+        
+        // When
+        int deletedImages = containerJanitor.deletePendingImages();
+        
+        // Then
+        Assertions.assertEquals(2, deletedImages);
+        Assertions.assertEquals(1, containerJanitor.getPendingImages());
+        Mockito.verify(containerService).deleteImages(List.of("image-1", "image-2"));
+        
+        Assertions.assertEquals(1, containerJanitor.deletePendingImages());
+        Assertions.assertEquals(0, containerJanitor.getPendingImages());
+    }
+    
+    /**
+     * A sweep should collect leaked images, containers and execution directories older than the min age.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void sweepShouldCollectWhatIsOlderThanTheMinAge() throws IOException {
+        // Given
+        Mockito.when(containerService.pruneContainers(
+                ArgumentMatchers.eq(WellKnownLabels.EXECUTION_LABEL), ArgumentMatchers.anyLong())).thenReturn(100L);
+        Mockito.when(containerService.pruneImages(
+                ArgumentMatchers.eq(WellKnownLabels.EXECUTION_LABEL), ArgumentMatchers.anyLong())).thenReturn(200L);
+        
+        Path languageFolder = Path.of(STAGING_DIRECTORY, Language.CPP.getFolderName());
+        Path orphanedDirectory = Files.createDirectories(languageFolder.resolve("execution-orphaned"));
+        Files.writeString(orphanedDirectory.resolve("main.cpp"), "0123456789");
+        Files.setLastModifiedTime(orphanedDirectory, FileTime.fromMillis(
+                System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1)));
+        Path runningDirectory = Files.createDirectories(languageFolder.resolve("execution-running"));
+        // The directory may be left by a previous run
+        Files.setLastModifiedTime(runningDirectory, FileTime.fromMillis(System.currentTimeMillis()));
+        
+        // When
+        long reclaimedSpace = containerJanitor.sweep();
+        
+        // Then
+        Assertions.assertEquals(310, reclaimedSpace);
+        Assertions.assertFalse(Files.exists(orphanedDirectory));
+        Assertions.assertTrue(Files.exists(runningDirectory));
+        Assertions.assertTrue(Files.exists(languageFolder.resolve("Dockerfile")));
+    }
+}
@@ -0,0 +1,118 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.executions.Execution;
+import com.cp.compiler.executions.ExecutionFactory;
+import com.cp.compiler.models.Language;
+import com.cp.compiler.models.ProcessOutput;
+import com.cp.compiler.models.Response;
+import com.cp.compiler.models.Verdict;
+import com.cp.compiler.utils.StatusUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * The type Container pool tests.
+ */
+@DirtiesContext
+@SpringBootTest
+@ActiveProfiles("containerPool")
+class ContainerPoolTests {
+    
+    private static final String CONTAINER_ID = "containerId";
+    
+    private static final String USED_CONTAINER_ID = "usedContainerId";
+    
+    @MockBean
+    private ContainerService containerService;
+    
+    @Autowired
+    private ContainerPool containerPool;
+    
+    @Qualifier("client")
+    @Autowired
+    private CompilerService compilerService;
+    
+    /**
+     * Sets up, the mock is stubbed after the initial fill of the pool,
+     * so a used container is released to get an idle container.
+     */
+    @BeforeEach
+    void setUp() {
+        Mockito.when(containerService.startIdleContainer(ArgumentMatchers.any())).thenReturn(CONTAINER_ID);
+        containerPool.release(Language.PYTHON, USED_CONTAINER_ID);
+    }
+    
+    /**
+     * Only configured languages should be pooled.
+     */
+    @Test
+    void onlyConfiguredLanguagesShouldBePooled() {
+        Assertions.assertTrue(containerPool.isEnabled());
+        Assertions.assertTrue(containerPool.isPooled(Language.PYTHON));
+        Assertions.assertFalse(containerPool.isPooled(Language.C));
+        Assertions.assertNull(containerPool.checkout(Language.C));
+    }
+    
+    /**
+     * A released container should be deleted and replaced by a new idle container.
+     */
+    @Test
+    void releasedContainerShouldBeDeletedAndReplaced() {
+        // When
+        String containerId = containerPool.checkout(Language.PYTHON);
+        
+        // Then
+        Mockito.verify(containerService, Mockito.timeout(5000).atLeastOnce()).deleteContainer(USED_CONTAINER_ID);
+        Assertions.assertEquals(CONTAINER_ID, containerId);
+    }
+    
+    /**
+     * Executions of pooled languages should run in an idle container.
+     */
+    @Test
+    void executionsOfPooledLanguagesShouldRunInAnIdleContainer() {
+        // Given
+        String output = "test";
+        
+        MockMultipartFile file = new MockMultipartFile(
+                "file",
+                "hello.txt",
+                MediaType.TEXT_PLAIN_VALUE,
+                output.getBytes());
+        
+        ProcessOutput containerOutput = ProcessOutput
+                .builder()
+                .stdOut(output)
+                .status(StatusUtils.ACCEPTED_OR_WRONG_ANSWER_STATUS)
+                .build();
+        
+        Mockito.when(containerService.executeInContainer(ArgumentMatchers.eq(CONTAINER_ID), ArgumentMatchers.anyLong()))
+                .thenReturn(containerOutput);
+        
+        Execution execution = ExecutionFactory.createExecution(
+                file, null, file, 10, 100, Language.PYTHON);
+        
+        // When
+        ResponseEntity<Object> responseEntity = compilerService.compile(execution);
+        
+        // Then
+        Response response = (Response) responseEntity.getBody();
+        Assertions.assertEquals(Verdict.ACCEPTED.getStatusResponse(), response.getResult().getStatusResponse());
+        
+        Mockito.verify(containerService).copyToContainer(ArgumentMatchers.any(), ArgumentMatchers.eq(CONTAINER_ID));
+        Mockito.verify(containerService, Mockito.never()).createContainer(ArgumentMatchers.any(), ArgumentMatchers.anyInt());
+        Mockito.verify(containerService, Mockito.never()).runContainer(ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt());
+    }
+}
@@ -26,6 +26,6 @@ public class ContainerServiceTests {
         // Then
         Assertions.assertThrows(
                 ContainerOperationTimeoutException.class,
-                () -> containerService.runContainer("does not exists", 1));
+                () -> containerService.runContainer("does not exists", 1, 100));
     }
 }
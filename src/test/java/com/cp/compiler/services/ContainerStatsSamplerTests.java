@@ -0,0 +1,85 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.models.ContainerStats;
+import com.cp.compiler.models.ContainerStatsSample;
+import com.cp.compiler.wellknownconstants.WellKnownMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+/**
+ * The type Container stats sampler tests, with a history of two samples.
+ * The sampler is created without a Spring context, so its scheduler is never started
+ * and the container service is only called by the tests.
+ */
+class ContainerStatsSamplerTests {
+    
+    private ContainerService containerService;
+    
+    private MeterRegistry meterRegistry;
+    
+    private ContainerStatsSamplerDefault containerStatsSampler;
+    
+    /**
+     * Create the sampler as it would be configured.
+     */
+    @BeforeEach
+    void setUp() {
+        containerService = Mockito.mock(ContainerService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        containerStatsSampler = new ContainerStatsSamplerDefault(containerService, meterRegistry);
+        ReflectionTestUtils.setField(containerStatsSampler, "enabled", true);
+        ReflectionTestUtils.setField(containerStatsSampler, "interval", 3600000L);
+        ReflectionTestUtils.setField(containerStatsSampler, "historySize", 2);
+        containerStatsSampler.init();
+    }
+    
+    /**
+     * The oldest samples should be overwritten, and the latest one published as gauges.
+     */
+    @Test
+    void oldestSamplesShouldBeOverwrittenAndTheLatestOnePublishedAsGauges() {
+        // Given
+        List<ContainerStats> stats = List.of(
+                ContainerStats.builder().id("a").memoryUsage(100).cpuPercentage(10).build(),
+                ContainerStats.builder().id("b").memoryUsage(200).cpuPercentage(20).build());
+        Mockito.when(containerService.sampleContainersStats()).thenReturn(List.of(), List.of(), stats);
+        
+        // When
+        containerStatsSampler.sample();
+        containerStatsSampler.sample();
+        containerStatsSampler.sample();
+        
+        // Then
+        List<ContainerStatsSample> samples = containerStatsSampler.getSamples();
+        Assertions.assertEquals(2, samples.size());
+        Assertions.assertEquals(stats, samples.get(1).getContainers());
+        Assertions.assertEquals(stats, containerStatsSampler.getLatestSample().getContainers());
+        Assertions.assertEquals(2, meterRegistry.get(WellKnownMetrics.CONTAINERS_GAUGE).gauge().value());
+        Assertions.assertEquals(300, meterRegistry.get(WellKnownMetrics.CONTAINERS_MEMORY_GAUGE).gauge().value());
+        Assertions.assertEquals(30, meterRegistry.get(WellKnownMetrics.CONTAINERS_CPU_GAUGE).gauge().value());
+    }
+    
+    /**
+     * Running containers should be cached for the sampling interval.
+     */
+    @Test
+    void runningContainersShouldBeCachedForTheSamplingInterval() {
+        // Given
+        Mockito.when(containerService.getRunningContainers()).thenReturn("containers");
+        
+        // When
+        containerStatsSampler.getRunningContainers();
+        String runningContainers = containerStatsSampler.getRunningContainers();
+        
+        // Then
+        Assertions.assertEquals("containers", runningContainers);
+        Mockito.verify(containerService, Mockito.times(1)).getRunningContainers();
+    }
+}
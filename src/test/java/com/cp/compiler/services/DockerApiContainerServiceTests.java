@@ -0,0 +1,130 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.exceptions.ContainerFailedDependencyException;
+import com.cp.compiler.models.ProcessOutput;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.command.ExecCreateCmd;
+import com.github.dockerjava.api.command.ExecCreateCmdResponse;
+import com.github.dockerjava.api.command.ExecStartCmd;
+import com.github.dockerjava.api.command.InspectExecCmd;
+import com.github.dockerjava.api.command.InspectExecResponse;
+import com.github.dockerjava.api.command.PingCmd;
+import com.github.dockerjava.api.exception.DockerException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * The type Docker api container service tests.
+ */
+@DirtiesContext
+@SpringBootTest
+@ActiveProfiles("dockerApi")
+class DockerApiContainerServiceTests {
+    
+    @MockBean
+    private DockerClient dockerClient;
+    
+    @Autowired
+    private ContainerService containerService;
+    
+    /**
+     * The Docker Engine API client should be used when it's selected.
+     */
+    @Test
+    void dockerApiContainerServiceShouldBeUsedWhenItIsSelected() {
+        Assertions.assertTrue(containerService instanceof DockerApiContainerService);
+    }
+    
+    /**
+     * The daemon should be up when it answers the ping.
+     */
+    @Test
+    void daemonShouldBeUpWhenItAnswersThePing() {
+        // Given
+        PingCmd pingCmd = Mockito.mock(PingCmd.class);
+        Mockito.when(dockerClient.pingCmd()).thenReturn(pingCmd);
+        
+        // Then
+        Assertions.assertTrue(containerService.isUp());
+    }
+    
+    /**
+     * The daemon should be down when the ping fails.
+     */
+    @Test
+    void daemonShouldBeDownWhenThePingFails() {
+        // Given
+        PingCmd pingCmd = Mockito.mock(PingCmd.class);
+        Mockito.when(pingCmd.exec()).thenThrow(new DockerException("daemon unavailable", 500));
+        Mockito.when(dockerClient.pingCmd()).thenReturn(pingCmd);
+        
+        // Then
+        Assertions.assertFalse(containerService.isUp());
+    }
+    
+    /**
+     * The exit code should be read once the exec is no longer running, even if its output stream is already closed.
+     */
+    @Test
+    void exitCodeShouldBeReadOnceTheExecIsNoLongerRunning() {
+        // Given
+        InspectExecResponse running = Mockito.mock(InspectExecResponse.class);
+        Mockito.when(running.isRunning()).thenReturn(true);
+        InspectExecResponse exited = Mockito.mock(InspectExecResponse.class);
+        Mockito.when(exited.isRunning()).thenReturn(false);
+        Mockito.when(exited.getExitCodeLong()).thenReturn(137L);
+        mockExec(running, exited);
+        
+        // When
+        ProcessOutput processOutput = containerService.executeInContainer("container", 1000);
+        
+        // Then
+        Assertions.assertEquals(137, processOutput.getStatus());
+    }
+    
+    /**
+     * An exec without exit code should be a failed dependency, not an accepted execution.
+     */
+    @Test
+    void execWithoutExitCodeShouldBeAFailedDependency() {
+        // Given
+        InspectExecResponse exited = Mockito.mock(InspectExecResponse.class);
+        Mockito.when(exited.isRunning()).thenReturn(false);
+        Mockito.when(exited.getExitCodeLong()).thenReturn(null);
+        mockExec(exited);
+        
+        // Then
+        Assertions.assertThrows(
+                ContainerFailedDependencyException.class,
+                () -> containerService.executeInContainer("container", 1000));
+    }
+    
+    // The output stream of the exec is closed as soon as it's started
+    private void mockExec(InspectExecResponse response, InspectExecResponse... nextResponses) {
+        ExecCreateCmd execCreateCmd = Mockito.mock(ExecCreateCmd.class, Mockito.RETURNS_SELF);
+        ExecCreateCmdResponse execCreateCmdResponse = Mockito.mock(ExecCreateCmdResponse.class);
+        Mockito.when(execCreateCmdResponse.getId()).thenReturn("exec");
+        Mockito.doReturn(execCreateCmdResponse).when(execCreateCmd).exec();
+        Mockito.when(dockerClient.execCreateCmd("container")).thenReturn(execCreateCmd);
+        
+        ExecStartCmd execStartCmd = Mockito.mock(ExecStartCmd.class);
+        Mockito.when(execStartCmd.exec(ArgumentMatchers.any())).thenAnswer(invocation -> {
+            ResultCallback<?> callback = invocation.getArgument(0);
+            callback.onComplete();
+            return callback;
+        });
+        Mockito.when(dockerClient.execStartCmd("exec")).thenReturn(execStartCmd);
+        
+        InspectExecCmd inspectExecCmd = Mockito.mock(InspectExecCmd.class);
+        Mockito.when(inspectExecCmd.exec()).thenReturn(response, nextResponses);
+        Mockito.when(dockerClient.inspectExecCmd("exec")).thenReturn(inspectExecCmd);
+    }
+}
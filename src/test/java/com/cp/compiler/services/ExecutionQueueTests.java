@@ -0,0 +1,146 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.executions.Execution;
+import com.cp.compiler.executions.ExecutionFactory;
+import com.cp.compiler.models.Language;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The type Execution queue tests, a single execution can run at a time and the others wait up to 2 seconds.
+ */
+@DirtiesContext
+@SpringBootTest
+@ActiveProfiles("executionQueue")
+class ExecutionQueueTests {
+    
+    @Autowired
+    private ExecutionQueue executionQueue;
+    
+    @Autowired
+    private Resources resources;
+    
+    private MultipartFile file = new MockMultipartFile(
+            "test.txt",
+            "test.txt",
+            null,
+            (byte[]) null);
+    
+    @Test
+    void aWaitingExecutionShouldBeAdmittedWhenResourcesAreReleased() throws Exception {
+        // Given
+        Execution runningExecution = createExecution("tenantA");
+        Assertions.assertTrue(executionQueue.reserveResources(runningExecution));
+        
+        Execution waitingExecution = createExecution("tenantA");
+        CompletableFuture<Boolean> admission =
+                CompletableFuture.supplyAsync(() -> executionQueue.reserveResources(waitingExecution));
+        awaitQueueSize(1);
+        
+        // When
+        executionQueue.releaseResources(runningExecution);
+        
+        // Then
+        Assertions.assertTrue(admission.get());
+        Assertions.assertEquals(0, executionQueue.getSize());
+        executionQueue.releaseResources(waitingExecution);
+    }
+    
+    @Test
+    void aWaitingExecutionShouldBeThrottledAfterTheMaxWait() {
+        // Given
+        Execution runningExecution = createExecution("tenantA");
+        Assertions.assertTrue(executionQueue.reserveResources(runningExecution));
+        
+        // When
+        boolean admitted = executionQueue.reserveResources(createExecution("tenantB"));
+        
+        // Then
+        Assertions.assertFalse(admitted);
+        Assertions.assertEquals(0, executionQueue.getSize());
+        executionQueue.releaseResources(runningExecution);
+    }
+    
+    @Test
+    void anInterruptedExecutionShouldLeaveTheQueueWithoutReservingResources() throws Exception {
+        // Given
+        Execution runningExecution = createExecution("tenantA");
+        Assertions.assertTrue(executionQueue.reserveResources(runningExecution));
+        
+        AtomicBoolean admitted = new AtomicBoolean(true);
+        Thread waitingThread = new Thread(() -> admitted.set(executionQueue.reserveResources(createExecution("tenantA"))));
+        waitingThread.start();
+        awaitQueueSize(1);
+        
+        // When
+        waitingThread.interrupt();
+        waitingThread.join();
+        executionQueue.releaseResources(runningExecution);
+        
+        // Then
+        Assertions.assertFalse(admitted.get());
+        Assertions.assertEquals(0, executionQueue.getSize());
+        Assertions.assertEquals(0, resources.getReservedCpus());
+        Assertions.assertEquals(0, resources.getReservedMemory());
+    }
+    
+    @Test
+    void tenantsShouldBeServedAccordingToTheirWeights() throws Exception {
+        // Given tenantA (weight 2) and tenantB (weight 1) waiting for a running execution
+        Execution runningExecution = createExecution("tenantA");
+        Assertions.assertTrue(executionQueue.reserveResources(runningExecution));
+        
+        List<String> admissions = Collections.synchronizedList(new ArrayList<>());
+        List<String> names = List.of("A1", "A2", "A3", "B1");
+        for (int index = 0; index < names.size(); index++) {
+            String name = names.get(index);
+            Execution execution = createExecution(name.startsWith("A") ? "tenantA" : "tenantB");
+            CompletableFuture.runAsync(() -> {
+                if (executionQueue.reserveResources(execution)) {
+                    admissions.add(name);
+                }
+            });
+            awaitQueueSize(index + 1);
+        }
+        
+        // When each admitted execution ends
+        for (int index = 0; index < names.size(); index++) {
+            executionQueue.releaseResources(runningExecution);
+            awaitAdmissions(admissions, index + 1);
+        }
+        
+        // Then
+        Assertions.assertEquals(List.of("A1", "A2", "B1", "A3"), admissions);
+        executionQueue.releaseResources(runningExecution);
+    }
+    
+    private Execution createExecution(String tenant) {
+        Execution execution = ExecutionFactory.createExecution(file, file, file, 10, 100, Language.C);
+        execution.setTenant(tenant);
+        return execution;
+    }
+    
+    private void awaitQueueSize(int size) throws InterruptedException {
+        while (executionQueue.getSize() < size) {
+            Thread.sleep(10);
+        }
+    }
+    
+    private void awaitAdmissions(List<String> admissions, int size) throws InterruptedException {
+        while (admissions.size() < size) {
+            Thread.sleep(10);
+        }
+    }
+}
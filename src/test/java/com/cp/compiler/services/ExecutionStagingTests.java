@@ -0,0 +1,116 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.executions.Execution;
+import com.cp.compiler.executions.ExecutionFactory;
+import com.cp.compiler.models.Language;
+import com.cp.compiler.models.ProcessOutput;
+import com.cp.compiler.models.Response;
+import com.cp.compiler.models.Verdict;
+import com.cp.compiler.utils.StatusUtils;
+import com.cp.compiler.wellknownconstants.WellKnownFiles;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The type Execution staging tests.
+ */
+@DirtiesContext
+@SpringBootTest
+@ActiveProfiles("executionStaging")
+class ExecutionStagingTests {
+    
+    private static final String CONTAINER_ID = "containerId";
+    
+    private static final String STAGING_DIRECTORY = "target/executions";
+    
+    @MockBean
+    private ContainerService containerService;
+    
+    @Autowired
+    private RunnerImageService runnerImageService;
+    
+    @Qualifier("client")
+    @Autowired
+    private CompilerService compilerService;
+    
+    /**
+     * Dockerfiles should be staged once the application is started.
+     */
+    @Test
+    void dockerfilesShouldBeStagedOnceTheApplicationIsStarted() {
+        for (Language language : Language.values()) {
+            Assertions.assertTrue(Files.isRegularFile(
+                    Path.of(STAGING_DIRECTORY, language.getFolderName(), WellKnownFiles.DOCKERFILE_NAME)));
+        }
+    }
+    
+    /**
+     * The execution directory should be staged and bind mounted into the runner container.
+     */
+    @Test
+    void executionDirectoryShouldBeStagedAndBindMountedIntoTheRunnerContainer() {
+        // Given
+        String output = "test";
+        
+        MockMultipartFile file = new MockMultipartFile(
+                "file",
+                "hello.txt",
+                MediaType.TEXT_PLAIN_VALUE,
+                output.getBytes());
+        
+        ProcessOutput containerOutput = ProcessOutput
+                .builder()
+                .stdOut(output)
+                .status(StatusUtils.ACCEPTED_OR_WRONG_ANSWER_STATUS)
+                .build();
+        
+        Execution execution = ExecutionFactory.createExecution(
+                file, null, file, 10, 100, Language.JAVA);
+        
+        Mockito.when(containerService.createContainer(
+                ArgumentMatchers.any(), ArgumentMatchers.anyInt(), ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenReturn(CONTAINER_ID);
+        Mockito.when(containerService.startContainer(ArgumentMatchers.eq(CONTAINER_ID), ArgumentMatchers.anyLong()))
+                .thenAnswer(invocation -> {
+                    // The Dockerfile is a link to the staged one
+                    Path dockerfile = Path.of(execution.getPath(), WellKnownFiles.DOCKERFILE_NAME);
+                    Path stagedDockerfile = Path.of(
+                            STAGING_DIRECTORY, Language.JAVA.getFolderName(), WellKnownFiles.DOCKERFILE_NAME);
+                    Assertions.assertTrue(Files.isSameFile(dockerfile, stagedDockerfile));
+                    return containerOutput;
+                });
+        
+        // When
+        ResponseEntity<Object> responseEntity = compilerService.compile(execution);
+        
+        // Then
+        Response response = (Response) responseEntity.getBody();
+        Assertions.assertEquals(Verdict.ACCEPTED.getStatusResponse(), response.getResult().getStatusResponse());
+        Assertions.assertTrue(Path.of(execution.getPath()).startsWith(Path.of(STAGING_DIRECTORY)));
+        Assertions.assertFalse(Files.exists(Path.of(execution.getPath())));
+        
+        Mockito.verify(containerService).createContainer(
+                ArgumentMatchers.eq(runnerImageService.getRunnerImageName(Language.JAVA)),
+                ArgumentMatchers.anyInt(),
+                ArgumentMatchers.eq(execution.getPath()),
+                ArgumentMatchers.eq(List.of(WellKnownFiles.DOCKERFILE_NAME)));
+        Mockito.verify(containerService, Mockito.never())
+                .copyToContainer(ArgumentMatchers.any(), ArgumentMatchers.any());
+        Mockito.verify(containerService).deleteContainer(CONTAINER_ID);
+    }
+}
@@ -0,0 +1,140 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.executions.Execution;
+import com.cp.compiler.executions.ExecutionFactory;
+import com.cp.compiler.models.Language;
+import com.cp.compiler.models.ProcessOutput;
+import com.cp.compiler.repositories.HooksRepository;
+import com.cp.compiler.utils.StatusUtils;
+import com.cp.compiler.wellknownconstants.WellKnownMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * The type Push executions tests, with a single worker and a queue of a single execution.
+ */
+@DirtiesContext
+@SpringBootTest
+@ActiveProfiles("pushExecutions")
+class PushExecutionsTests {
+
+    @Autowired
+    private LongRunningCompilerService compilerService;
+
+    @Qualifier("proxy")
+    @Autowired
+    private CompilerService compilerProxy;
+
+    @Autowired
+    private Resources resources;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private ContainerService containerService;
+
+    @MockBean
+    private RestTemplate restTemplate;
+
+    @MockBean
+    private HooksRepository hooksRepository;
+
+    private final CountDownLatch runningExecution = new CountDownLatch(1);
+
+    private final CountDownLatch endOfExecutions = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(containerService.buildImage(ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenReturn("build log");
+
+        ProcessOutput containerOutput = ProcessOutput
+                .builder()
+                .stdOut("test")
+                .status(StatusUtils.ACCEPTED_OR_WRONG_ANSWER_STATUS)
+                .build();
+
+        // Keep the worker busy until the end of the test
+        Mockito.when(containerService.runContainer(ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt()))
+                .thenAnswer(invocation -> {
+                    runningExecution.countDown();
+                    endOfExecutions.await();
+                    return containerOutput;
+                });
+
+        Mockito.when(hooksRepository.get(ArgumentMatchers.any())).thenReturn("http://localhost/post");
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        endOfExecutions.countDown();
+        // Executions release their resources once they end, so they should not overlap the next test
+        while (meterRegistry.get(WellKnownMetrics.PUSH_EXECUTIONS_ACTIVE_GAUGE).gauge().value() > 0
+                || meterRegistry.get(WellKnownMetrics.PUSH_EXECUTIONS_QUEUE_GAUGE).gauge().value() > 0) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void whenAllWorkersAreBusyAndTheQueueIsFullShouldReturnTooManyRequests() throws InterruptedException {
+        // Given a running execution and a queued one
+        Assertions.assertEquals(HttpStatus.ACCEPTED, compilerService.compile(createExecution()).getStatusCode());
+        runningExecution.await();
+        Assertions.assertEquals(HttpStatus.ACCEPTED, compilerService.compile(createExecution()).getStatusCode());
+
+        // When
+        var response = compilerService.compile(createExecution());
+
+        // Then
+        Assertions.assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+    }
+
+    @Test
+    void theResourcesOfAPushExecutionShouldBeReservedUntilItEnds() throws InterruptedException {
+        // Given
+        Mockito.when(hooksRepository.contains(ArgumentMatchers.any())).thenReturn(true);
+
+        // When
+        var response = compilerProxy.compile(createExecution());
+        runningExecution.await();
+
+        // Then
+        Assertions.assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        Assertions.assertEquals(1, resources.getNumberOfExecutions());
+
+        endOfExecutions.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (resources.getNumberOfExecutions() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(0, resources.getNumberOfExecutions());
+    }
+
+    private Execution createExecution() {
+        MultipartFile file = new MockMultipartFile(
+                "test.c",
+                "test.c",
+                null,
+                (byte[]) null);
+
+        return ExecutionFactory.createExecution(file, file, file, 10, 100, Language.JAVA);
+    }
+}
@@ -1,10 +1,15 @@
 package com.cp.compiler.services;
 
+import com.cp.compiler.executions.Execution;
+import com.cp.compiler.executions.ExecutionFactory;
+import com.cp.compiler.models.Language;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.multipart.MultipartFile;
 
 @DirtiesContext
 @SpringBootTest
@@ -13,6 +18,12 @@ public class ResourcesTests {
     @Autowired
     private Resources resources;
     
+    private MultipartFile file = new MockMultipartFile(
+            "test.txt",
+            "test.txt",
+            null,
+            (byte[]) null);
+    
     @Test
     void shouldReturnMaxCpus() {
         // Given
@@ -26,39 +37,53 @@ public class ResourcesTests {
     }
     
     @Test
-    void allowNewExecutionShouldReturnTrue() {
+    void reserveResourcesShouldReturnTrue() {
+        // Given
+        Execution execution = ExecutionFactory.createExecution(file, file, file, 10, 500, Language.C);
+        
         // When
-        boolean allowNewExecution = resources.allowNewExecution();
+        boolean reserved = resources.reserveResources(execution);
     
         // Then
-        Assertions.assertTrue(allowNewExecution);
+        Assertions.assertTrue(reserved);
+        resources.releaseResources(execution);
     }
     
     @Test
     void reserveResourcesShouldIncrementTheCounter() {
+        // Given
+        Execution execution = ExecutionFactory.createExecution(file, file, file, 10, 500, Language.C);
+        
         // When
-        int counter = resources.reserveResources();
+        resources.reserveResources(execution);
         
         // Then
-        Assertions.assertEquals(counter, 1);
+        Assertions.assertEquals(1, resources.getNumberOfExecutions());
+        resources.releaseResources(execution);
     }
     
     @Test
-    void cleanupShouldDecrementTheCounter() {
+    void releaseResourcesShouldDecrementTheCounter() {
         // Given
-        resources.reserveResources();
+        Execution execution = ExecutionFactory.createExecution(file, file, file, 10, 500, Language.C);
+        resources.reserveResources(execution);
         
         // When
-        int counter = resources.cleanup();
+        int counter = resources.releaseResources(execution);
         
         // Then
         Assertions.assertEquals(counter, 0);
+        Assertions.assertEquals(0, resources.getReservedCpus());
+        Assertions.assertEquals(0, resources.getReservedMemory());
     }
     
     @Test
-    void cleanupShouldReturn0() {
+    void releaseResourcesShouldReturn0() {
+        // Given
+        Execution execution = ExecutionFactory.createExecution(file, file, file, 10, 500, Language.C);
+        
         // When
-        int counter = resources.cleanup();
+        int counter = resources.releaseResources(execution);
         
         // Then
         Assertions.assertEquals(counter, 0);
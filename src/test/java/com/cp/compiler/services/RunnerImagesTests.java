@@ -0,0 +1,98 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.executions.Execution;
+import com.cp.compiler.executions.ExecutionFactory;
+import com.cp.compiler.models.Language;
+import com.cp.compiler.models.ProcessOutput;
+import com.cp.compiler.models.Response;
+import com.cp.compiler.models.Verdict;
+import com.cp.compiler.utils.StatusUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * The type Runner images tests.
+ */
+@DirtiesContext
+@SpringBootTest
+@ActiveProfiles("runnerImages")
+class RunnerImagesTests {
+    
+    private static final String CONTAINER_ID = "containerId";
+    
+    @MockBean
+    private ContainerService containerService;
+    
+    @Autowired
+    private RunnerImageService runnerImageService;
+    
+    @Qualifier("client")
+    @Autowired
+    private CompilerService compilerService;
+    
+    /**
+     * Runner images should be ready once the application is started.
+     */
+    @Test
+    void runnerImagesShouldBeReadyOnceTheApplicationIsStarted() {
+        Assertions.assertTrue(runnerImageService.isEnabled());
+        for (Language language : ExecutionFactory.getRegisteredFactories()) {
+            Assertions.assertTrue(runnerImageService.isReady(language));
+        }
+    }
+    
+    /**
+     * When runner image is ready the execution should run in a container created from it.
+     */
+    @Test
+    void whenRunnerImageIsReadyExecutionShouldRunInAContainerCreatedFromIt() {
+        // Given
+        String output = "test";
+        
+        MockMultipartFile file = new MockMultipartFile(
+                "file",
+                "hello.txt",
+                MediaType.TEXT_PLAIN_VALUE,
+                output.getBytes());
+        
+        ProcessOutput containerOutput = ProcessOutput
+                .builder()
+                .stdOut(output)
+                .status(StatusUtils.ACCEPTED_OR_WRONG_ANSWER_STATUS)
+                .build();
+        
+        Mockito.when(containerService.createContainer(ArgumentMatchers.any(), ArgumentMatchers.anyInt())).thenReturn(CONTAINER_ID);
+        Mockito.when(containerService.startContainer(ArgumentMatchers.eq(CONTAINER_ID), ArgumentMatchers.anyLong()))
+                .thenReturn(containerOutput);
+        
+        Execution execution = ExecutionFactory.createExecution(
+                file, null, file, 10, 100, Language.JAVA);
+        
+        // When
+        ResponseEntity<Object> responseEntity = compilerService.compile(execution);
+        
+        // Then
+        Response response = (Response) responseEntity.getBody();
+        Assertions.assertEquals(Verdict.ACCEPTED.getStatusResponse(), response.getResult().getStatusResponse());
+        
+        Mockito.verify(containerService).createContainer(
+                ArgumentMatchers.eq(runnerImageService.getRunnerImageName(Language.JAVA)),
+                ArgumentMatchers.anyInt());
+        Mockito.verify(containerService).copyToContainer(ArgumentMatchers.any(), ArgumentMatchers.eq(CONTAINER_ID));
+        Mockito.verify(containerService).deleteContainer(CONTAINER_ID);
+        Mockito.verify(containerService, Mockito.never())
+                .buildImage(ArgumentMatchers.any(), ArgumentMatchers.eq(execution.getImageName()));
+        Mockito.verify(containerService, Mockito.never()).runContainer(ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt());
+    }
+}
@@ -0,0 +1,238 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.executions.Execution;
+import com.cp.compiler.executions.ExecutionFactory;
+import com.cp.compiler.executions.ExecutionTestCase;
+import com.cp.compiler.executions.PayloadFile;
+import com.cp.compiler.models.Language;
+import com.cp.compiler.models.ProcessOutput;
+import com.cp.compiler.models.Response;
+import com.cp.compiler.models.TestCase;
+import com.cp.compiler.models.Verdict;
+import com.cp.compiler.utils.StatusUtils;
+import com.cp.compiler.wellknownconstants.WellKnownFiles;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The type Test data store tests.
+ */
+@DirtiesContext
+@SpringBootTest
+@ActiveProfiles("testData")
+class TestDataStoreTests {
+    
+    private static final int KILOBYTE = 1024;
+    
+    @MockBean
+    private ContainerService containerService;
+    
+    @Autowired
+    private TestDataStore testDataStore;
+    
+    @Autowired
+    @Qualifier("proxy")
+    private CompilerService compilerService;
+    
+    private final Random random = new Random();
+    
+    /**
+     * Stored test data should be resolved to a read only link.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void storedTestDataShouldBeResolved() throws IOException {
+        // Given
+        byte[] content = randomContent(KILOBYTE);
+        String hash = testDataStore.put(new ByteArrayInputStream(content));
+        
+        // When
+        PayloadFile inputFile = testDataStore.resolve(PayloadFile.ofReference(WellKnownFiles.INPUT_FILE_NAME, hash));
+        
+        // Then
+        Assertions.assertTrue(hash.matches("[0-9a-f]{64}"));
+        Assertions.assertEquals(hash, testDataStore.put(new ByteArrayInputStream(content)));
+        Assertions.assertTrue(testDataStore.contains(hash));
+        Assertions.assertEquals(WellKnownFiles.INPUT_FILE_NAME, inputFile.getOriginalFilename());
+        Assertions.assertEquals(hash, inputFile.getReference());
+        Assertions.assertArrayEquals(content, inputFile.getBytes());
+        
+        // When the execution ends
+        inputFile.deleteTemporaryFile();
+        
+        // Then the stored file is kept
+        Assertions.assertTrue(testDataStore.contains(hash));
+    }
+    
+    /**
+     * Unknown test data should not be resolved.
+     */
+    @Test
+    void unknownTestDataShouldNotBeResolved() {
+        Assertions.assertNull(testDataStore.resolve(PayloadFile.ofReference("input.txt", "0".repeat(64))));
+        Assertions.assertNull(testDataStore.resolve(PayloadFile.ofReference("input.txt", "../application.yml")));
+    }
+    
+    /**
+     * Least recently used test data should be evicted when the max size is exceeded.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void leastRecentlyUsedTestDataShouldBeEvicted() throws IOException {
+        // Given
+        String first = testDataStore.put(new ByteArrayInputStream(randomContent(400 * KILOBYTE)));
+        String second = testDataStore.put(new ByteArrayInputStream(randomContent(400 * KILOBYTE)));
+        PayloadFile firstFile = testDataStore.resolve(PayloadFile.ofReference("input.txt", first));
+        
+        // When
+        String third = testDataStore.put(new ByteArrayInputStream(randomContent(400 * KILOBYTE)));
+        
+        // Then
+        Assertions.assertTrue(testDataStore.contains(first));
+        Assertions.assertFalse(testDataStore.contains(second));
+        Assertions.assertTrue(testDataStore.contains(third));
+        Assertions.assertTrue(testDataStore.getSize() <= KILOBYTE * KILOBYTE);
+        Assertions.assertNull(testDataStore.put(new ByteArrayInputStream(new byte[2 * KILOBYTE * KILOBYTE])));
+        firstFile.deleteTemporaryFile();
+    }
+    
+    /**
+     * Expected outputs should be read from the resolved file.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void expectedOutputsShouldBeRead() throws IOException {
+        // Given
+        String hash = testDataStore.put(new ByteArrayInputStream(("1\n2\n" + random.nextInt()).getBytes()));
+        PayloadFile expectedOutputFile = testDataStore.resolve(
+                PayloadFile.ofReference(WellKnownFiles.EXPECTED_OUTPUT_FILE_NAME, hash));
+        
+        // When
+        String expectedOutput = testDataStore.getExpectedOutput(expectedOutputFile);
+        expectedOutputFile.deleteTemporaryFile();
+        
+        // Then the cached expected output is used
+        Assertions.assertTrue(expectedOutput.startsWith("1"));
+        Assertions.assertSame(expectedOutput, testDataStore.getExpectedOutput(expectedOutputFile));
+    }
+    
+    /**
+     * Requests referencing unknown test data should be rejected.
+     */
+    @Test
+    void requestsReferencingUnknownTestDataShouldReturnBadRequest() {
+        // Given
+        Execution execution = ExecutionFactory.createExecution(
+                PayloadFile.of("test.py", "print(input())"),
+                null,
+                PayloadFile.ofReference(WellKnownFiles.EXPECTED_OUTPUT_FILE_NAME, "0".repeat(64)),
+                10,
+                100,
+                Language.PYTHON);
+        
+        // When
+        var response = compilerService.compile(execution);
+        
+        // Then
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+    
+    /**
+     * Test cases of batch requests should resolve their references to stored test data.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void batchTestCasesShouldResolveStoredTestData() throws IOException {
+        // Given
+        String inputHash = testDataStore.put(new ByteArrayInputStream("1".getBytes()));
+        String expectedOutputHash = testDataStore.put(new ByteArrayInputStream(("1\n" + random.nextInt()).getBytes()));
+        String expectedOutput = testDataStore.getExpectedOutput(testDataStore.resolve(
+                PayloadFile.ofReference(WellKnownFiles.EXPECTED_OUTPUT_FILE_NAME, expectedOutputHash)));
+        
+        Execution execution = createBatchExecution(new TestCase(null, null, inputHash, expectedOutputHash));
+        
+        String boundary = execution.getTestCasesBoundary() + "-5f3a";
+        Mockito.when(containerService.runContainer(ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt()))
+                .thenAnswer(invocation -> {
+                    // The input of the test case is linked to the execution directory
+                    Assertions.assertEquals(
+                            List.of(WellKnownFiles.DOCKERFILE_NAME, Execution.getTestCaseInputFileName(1)),
+                            execution.getSharedFileNames());
+                    return ProcessOutput
+                            .builder()
+                            .stdOut(execution.getTestCasesBoundary() + " 5f3a\n"
+                                    + boundary + " stdout 1 0\n" + expectedOutput + "\n\n"
+                                    + boundary + " stderr 1\n\n")
+                            .stdErr("")
+                            .status(StatusUtils.ACCEPTED_OR_WRONG_ANSWER_STATUS)
+                            .build();
+                });
+        
+        // When
+        var response = compilerService.compile(execution);
+        
+        // Then
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertEquals(
+                Verdict.ACCEPTED.getStatusResponse(),
+                ((Response) response.getBody()).getResult().getStatusResponse());
+    }
+    
+    /**
+     * Batch requests referencing unknown test data should be rejected.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void batchRequestsReferencingUnknownTestDataShouldReturnBadRequest() throws IOException {
+        // Given
+        String inputHash = testDataStore.put(new ByteArrayInputStream("1".getBytes()));
+        Execution execution = createBatchExecution(
+                new TestCase(null, "1", inputHash, null),
+                new TestCase(null, null, null, "0".repeat(64)));
+        
+        // When
+        var response = compilerService.compile(execution);
+        
+        // Then
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        Mockito.verify(containerService, Mockito.never())
+                .runContainer(ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt());
+    }
+    
+    private Execution createBatchExecution(TestCase... testCases) throws IOException {
+        Execution execution = ExecutionFactory.createExecution(
+                PayloadFile.of("test.py", "print(input())"), null, null, 10, 100, Language.PYTHON);
+        List<ExecutionTestCase> executionTestCases = new ArrayList<>();
+        for (int index = 1; index <= testCases.length; index++) {
+            executionTestCases.add(testCases[index - 1].getExecutionTestCase(index));
+        }
+        execution.setTestCases(executionTestCases);
+        return execution;
+    }
+    
+    private byte[] randomContent(int size) {
+        byte[] content = new byte[size];
+        random.nextBytes(content);
+        return content;
+    }
+}
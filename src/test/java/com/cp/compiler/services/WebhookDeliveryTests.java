@@ -0,0 +1,123 @@
+package com.cp.compiler.services;
+
+import com.cp.compiler.repositories.HooksRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * The type Webhook delivery tests, with a single sender, 3 attempts and batches of up to 10 responses.
+ */
+@DirtiesContext
+@SpringBootTest
+@ActiveProfiles("webhookDelivery")
+class WebhookDeliveryTests {
+    
+    private static final String URL = "http://localhost/post";
+    
+    private static final long VERIFICATION_TIMEOUT = 2000;
+    
+    @Autowired
+    private WebhookDeliveryService webhookDeliveryService;
+    
+    @MockBean
+    private ContainerService containerService;
+    
+    @MockBean
+    private RestTemplate restTemplate;
+    
+    @MockBean
+    private HooksRepository hooksRepository;
+    
+    private final CountDownLatch blockedSender = new CountDownLatch(1);
+    
+    @AfterEach
+    void tearDown() {
+        blockedSender.countDown();
+    }
+    
+    @Test
+    void whenTheResponseIsDeliveredTheHookShouldBeRemoved() {
+        // When
+        webhookDeliveryService.deliver("execution", URL, ResponseEntity.ok("result"));
+        
+        // Then
+        Mockito.verify(restTemplate, Mockito.timeout(VERIFICATION_TIMEOUT))
+                .postForEntity(
+                        ArgumentMatchers.eq(URI.create(URL)),
+                        ArgumentMatchers.any(),
+                        ArgumentMatchers.eq(Object.class));
+        Mockito.verify(hooksRepository, Mockito.timeout(VERIFICATION_TIMEOUT)).getAndRemove("execution");
+    }
+    
+    @Test
+    void whenThePostFailsTheDeliveryShouldBeRetriedUntilTheMaxAttempts() {
+        // Given
+        Mockito.when(restTemplate.postForEntity(
+                    ArgumentMatchers.any(URI.class),
+                    ArgumentMatchers.any(),
+                    ArgumentMatchers.eq(Object.class)))
+                .thenThrow(new RestClientException("Connection refused"));
+        
+        // When
+        webhookDeliveryService.deliver("execution", URL, ResponseEntity.ok("result"));
+        
+        // Then
+        Mockito.verify(hooksRepository, Mockito.timeout(VERIFICATION_TIMEOUT)).getAndRemove("execution");
+        Mockito.verify(restTemplate, Mockito.times(3))
+                .postForEntity(
+                        ArgumentMatchers.any(URI.class),
+                        ArgumentMatchers.any(),
+                        ArgumentMatchers.eq(Object.class));
+    }
+    
+    @Test
+    void responsesToTheSameUrlShouldBePostedTogether() throws InterruptedException {
+        // Given a sender blocked by the first post
+        CountDownLatch firstPost = new CountDownLatch(1);
+        Mockito.when(restTemplate.postForEntity(
+                    ArgumentMatchers.any(URI.class),
+                    ArgumentMatchers.any(),
+                    ArgumentMatchers.eq(Object.class)))
+                .thenAnswer(invocation -> {
+                    firstPost.countDown();
+                    blockedSender.await();
+                    return null;
+                })
+                .thenReturn(null);
+        
+        webhookDeliveryService.deliver("execution1", URL, ResponseEntity.ok("result1"));
+        firstPost.await();
+        
+        // When
+        webhookDeliveryService.deliver("execution2", URL, ResponseEntity.ok("result2"));
+        webhookDeliveryService.deliver("execution3", URL, ResponseEntity.ok("result3"));
+        blockedSender.countDown();
+        
+        // Then
+        Mockito.verify(hooksRepository, Mockito.timeout(VERIFICATION_TIMEOUT)).getAndRemove("execution3");
+        ArgumentCaptor<Object> bodies = ArgumentCaptor.forClass(Object.class);
+        Mockito.verify(restTemplate, Mockito.times(2))
+                .postForEntity(
+                        ArgumentMatchers.any(URI.class),
+                        bodies.capture(),
+                        ArgumentMatchers.eq(Object.class));
+        List<?> batch = (List<?>) bodies.getAllValues().get(1);
+        Assertions.assertEquals(2, batch.size());
+    }
+}
@@ -0,0 +1,32 @@
+package com.cp.compiler.templates;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+class CompiledTemplateTests {
+    
+    @Test
+    void shouldRenderAttributesAndMissingAttributesAsEmptyStrings() {
+        // Given
+        CompiledTemplate template = CompiledTemplate.compile(
+                "a=[(${compiler.a})]\nb=[(${compiler['b']})]\n[ \"$a\" = [(${compiler.a})] ]");
+        
+        // When
+        String content = template.render(Map.of("a", "1"));
+        
+        // Then
+        Assertions.assertEquals("a=1\nb=\n[ \"$a\" = 1 ]", content);
+    }
+    
+    @Test
+    void shouldRejectUnsupportedExpressions() {
+        Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> CompiledTemplate.compile("a=[(${compiler.a + 1})]"));
+        Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> CompiledTemplate.compile("a=[[${compiler.a}]]"));
+    }
+}
@@ -5,7 +5,11 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring5.SpringTemplateEngine;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @SpringBootTest
@@ -14,25 +18,54 @@ class EntrypointGeneratorTests {
     @Autowired
     private EntrypointFileGenerator entrypointFileGenerator;
     
+    @Autowired
+    private SpringTemplateEngine templateEngine;
+    
+    private final Map<String, String> attributes = Map.of(
+            "rename", "false",
+            "compile", "true",
+            "fileName", "main.c",
+            "defaultName", "main.c",
+            "timeLimit", "10",
+            "compilationCommand", "cmd",
+            "compilationErrorStatusCode", "90",
+            "memoryLimit", "500",
+            "executionCommand", "cmd");
+    
     @Test
     void shouldParseAndGenerateAnEntrypointContent() {
-        // Given
-        Map<String, String> attributes = Map.of(
-                "rename", "false",
-                "compile", "true",
-                "fileName", "main.c",
-                "defaultName", "main.c",
-                "timeLimit", "10",
-                "compilationCommand", "cmd",
-                "compilationErrorStatusCode", "90",
-                "memoryLimit", "500",
-                "executionCommand", "cmd");
-    
         // When
         String content = entrypointFileGenerator
                 .createEntrypointFile(WellKnownTemplates.ENTRYPOINT_TEMPLATE, attributes);
         
         // Then
         Assertions.assertNotNull(content);
+        Assertions.assertTrue(content.contains("ulimit -s 500"));
+        Assertions.assertFalse(content.contains("${compiler"));
+    }
+    
+    @Test
+    void shouldGenerateTheSameContentAsTheTemplateEngine() {
+        // Given
+        Map<String, String> batchAttributes = new HashMap<>(attributes);
+        batchAttributes.put("compilationCache", "true");
+        batchAttributes.put("resourceUsageBoundary", "boundary");
+        batchAttributes.put("testCases", "3");
+        batchAttributes.put("testCasesBoundary", "testCasesBoundary");
+        batchAttributes.put("failFast", "true");
+        batchAttributes.put("parallel", "false");
+        
+        for (String template : new String[]{
+                WellKnownTemplates.ENTRYPOINT_TEMPLATE, WellKnownTemplates.SCALA_ENTRYPOINT_TEMPLATE}) {
+            for (Map<String, String> templateAttributes : List.of(attributes, batchAttributes)) {
+                // When
+                String content = entrypointFileGenerator.createEntrypointFile(template, templateAttributes);
+                
+                // Then
+                Context context = new Context();
+                context.setVariable("compiler", templateAttributes);
+                Assertions.assertEquals(templateEngine.process(template, context), content);
+            }
+        }
     }
 }
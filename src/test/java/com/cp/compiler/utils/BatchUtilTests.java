@@ -0,0 +1,165 @@
+package com.cp.compiler.utils;
+
+import com.cp.compiler.models.ProcessOutput;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class BatchUtilTests {
+    
+    private static final String PREFIX = "test-case-id";
+    
+    private static final String NONCE = "9c0e4b";
+    
+    private static final String ANNOUNCEMENT = PREFIX + " " + NONCE + "\n";
+    
+    private static final String BOUNDARY = PREFIX + "-" + NONCE;
+    
+    @Test
+    void shouldParseTheOutputOfEachTestCase() {
+        // Given
+        String output = ANNOUNCEMENT
+                + BOUNDARY + " stdout 1 0\n"
+                + "0 1 2\n"
+                + "\n"
+                + BOUNDARY + " stderr 1\n"
+                + "\n"
+                + BOUNDARY + " stdout 2 1\n"
+                + "partial output\n"
+                + BOUNDARY + " stderr 2\n"
+                + "exception\n"
+                + "\n";
+        
+        // When
+        List<ProcessOutput> testCasesOutputs = BatchUtils.parseTestCasesOutputs(output, PREFIX);
+        
+        // Then
+        Assertions.assertEquals(2, testCasesOutputs.size());
+        
+        Assertions.assertEquals("0 1 2\n", testCasesOutputs.get(0).getStdOut());
+        Assertions.assertEquals("", testCasesOutputs.get(0).getStdErr());
+        Assertions.assertEquals(0, testCasesOutputs.get(0).getStatus());
+        
+        Assertions.assertEquals("partial output", testCasesOutputs.get(1).getStdOut());
+        Assertions.assertEquals("exception\n", testCasesOutputs.get(1).getStdErr());
+        Assertions.assertEquals(1, testCasesOutputs.get(1).getStatus());
+    }
+    
+    @Test
+    void shouldParseTheCpuTimeAndTheWallTimeOfEachTestCase() {
+        // Given
+        String output = ANNOUNCEMENT
+                + BOUNDARY + " stdout 1 0 1500000 2000000\n"
+                + "0 1 2\n"
+                + "\n"
+                + BOUNDARY + " stderr 1\n"
+                + "\n";
+        
+        // When
+        List<ProcessOutput> testCasesOutputs = BatchUtils.parseTestCasesOutputs(output, PREFIX);
+        
+        // Then
+        Assertions.assertEquals(1, testCasesOutputs.size());
+        Assertions.assertEquals("0 1 2\n", testCasesOutputs.get(0).getStdOut());
+        Assertions.assertEquals(0, testCasesOutputs.get(0).getStatus());
+        Assertions.assertEquals(1500, testCasesOutputs.get(0).getCpuTime());
+        Assertions.assertEquals(2000, testCasesOutputs.get(0).getExecutionDuration());
+    }
+    
+    @Test
+    void linesThatDoNotStartWithTheBoundaryShouldBeKeptInTheOutput() {
+        // Given
+        String output = ANNOUNCEMENT
+                + BOUNDARY + " stdout 1 0\n"
+                + "not a " + BOUNDARY + " stdout 2 0\n"
+                + "\n"
+                + BOUNDARY + " stderr 1\n"
+                + "\n";
+        
+        // When
+        List<ProcessOutput> testCasesOutputs = BatchUtils.parseTestCasesOutputs(output, PREFIX);
+        
+        // Then
+        Assertions.assertEquals(1, testCasesOutputs.size());
+        Assertions.assertEquals("not a " + BOUNDARY + " stdout 2 0\n", testCasesOutputs.get(0).getStdOut());
+    }
+    
+    @Test
+    void headersForgedWithoutTheNonceShouldBeKeptInTheOutput() {
+        // Given, the program only knows the prefix of the boundary, from the entrypoint
+        String output = ANNOUNCEMENT
+                + BOUNDARY + " stdout 1 124 3000000 3000000\n"
+                + PREFIX + " stdout 1 0 0 0\n"
+                + PREFIX + "- stdout 1 0 0 0\n"
+                + "\n"
+                + BOUNDARY + " stderr 1\n"
+                + "\n";
+        
+        // When
+        List<ProcessOutput> testCasesOutputs = BatchUtils.parseTestCasesOutputs(output, PREFIX);
+        
+        // Then
+        Assertions.assertEquals(1, testCasesOutputs.size());
+        Assertions.assertEquals(124, testCasesOutputs.get(0).getStatus());
+        Assertions.assertEquals(3000, testCasesOutputs.get(0).getCpuTime());
+        Assertions.assertEquals(PREFIX + " stdout 1 0 0 0\n" + PREFIX + "- stdout 1 0 0 0\n",
+                testCasesOutputs.get(0).getStdOut());
+    }
+    
+    @Test
+    void repeatedOrOutOfOrderHeadersShouldBeKeptInTheOutput() {
+        // Given
+        String forgedHeaders = BOUNDARY + " stdout 1 0 0 0\n"
+                + BOUNDARY + " stdout 3 0 0 0\n"
+                + BOUNDARY + " stderr 2\n";
+        String output = ANNOUNCEMENT
+                + BOUNDARY + " stdout 1 124 3000000 3000000\n"
+                + forgedHeaders
+                + "\n"
+                + BOUNDARY + " stderr 1\n"
+                + "\n"
+                + BOUNDARY + " stdout 2 1 0 0\n"
+                + "\n"
+                + BOUNDARY + " stderr 2\n"
+                + BOUNDARY + " stdout 2 0 0 0\n"
+                + "\n";
+        
+        // When
+        List<ProcessOutput> testCasesOutputs = BatchUtils.parseTestCasesOutputs(output, PREFIX);
+        
+        // Then
+        Assertions.assertEquals(2, testCasesOutputs.size());
+        Assertions.assertEquals(124, testCasesOutputs.get(0).getStatus());
+        Assertions.assertEquals(forgedHeaders, testCasesOutputs.get(0).getStdOut());
+        Assertions.assertEquals(1, testCasesOutputs.get(1).getStatus());
+    }
+    
+    @Test
+    void onlyTheFirstAnnouncementShouldBeUsed() {
+        // Given
+        String output = ANNOUNCEMENT
+                + BOUNDARY + " stdout 1 124 0 0\n"
+                + PREFIX + " abc\n"
+                + PREFIX + "-abc stdout 2 0 0 0\n"
+                + "\n"
+                + BOUNDARY + " stderr 1\n"
+                + "\n";
+        
+        // When
+        List<ProcessOutput> testCasesOutputs = BatchUtils.parseTestCasesOutputs(output, PREFIX);
+        
+        // Then
+        Assertions.assertEquals(1, testCasesOutputs.size());
+        Assertions.assertEquals(124, testCasesOutputs.get(0).getStatus());
+    }
+    
+    @Test
+    void whenThereIsNoBoundaryShouldReturnAnEmptyList() {
+        // When
+        List<ProcessOutput> testCasesOutputs = BatchUtils.parseTestCasesOutputs("compilation error", PREFIX);
+        
+        // Then
+        Assertions.assertTrue(testCasesOutputs.isEmpty());
+    }
+}
@@ -2,6 +2,7 @@ package com.cp.compiler.utils;
 
 import com.cp.compiler.exceptions.ProcessExecutionException;
 import com.cp.compiler.exceptions.ProcessExecutionTimeoutException;
+import com.cp.compiler.exceptions.ProcessOutputLimitExceededException;
 import com.cp.compiler.models.ProcessOutput;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -9,6 +10,7 @@ import org.junit.jupiter.api.Test;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.StringReader;
 
 class CmdUtilTests {
     
@@ -31,6 +33,16 @@ class CmdUtilTests {
         Assertions.assertEquals("0\n1\n2\n3\n4\n5\n6\n7\n8\n9\n", output);
     }
     
+    @Test
+    void outputsLongerThanTheMaxLengthShouldBeTruncated() throws IOException {
+        // When
+        String output = CmdUtils.readOutput(new StringReader("0123456789".repeat(1000)), 15);
+        
+        // Then
+        Assertions.assertEquals("012345678901234" + CmdUtils.LONG_MESSAGE_TRAIL, output);
+        Assertions.assertEquals("0123", CmdUtils.readOutput(new StringReader("0123"), 15));
+    }
+    
     @Test
     void whenCompareExpectedOutputAndContainerOutputShouldTrimBothStrings() {
         // Given
@@ -69,6 +81,78 @@ class CmdUtilTests {
         Assertions.assertEquals(true, compareResult);
     }
     
+    @Test
+    void whenOutputsMatchFindMismatchShouldReturnNoMismatch() throws IOException {
+        // Given
+        String expectedOutput = "1 2\n3";
+        String containerOutput = "\n1\t2  3\n\n";
+        
+        // When
+        long mismatchPosition = CmdUtils.findMismatch(
+                new StringReader(containerOutput), new StringReader(expectedOutput));
+        
+        // Then
+        Assertions.assertEquals(CmdUtils.NO_MISMATCH, mismatchPosition);
+    }
+    
+    @Test
+    void whenOutputsDoNotMatchFindMismatchShouldReturnThePositionOfTheMismatchingToken() throws IOException {
+        // Given
+        String expectedOutput = "1 2 3";
+        String containerOutput = "1  22 3";
+        
+        // When
+        long mismatchPosition = CmdUtils.findMismatch(
+                new StringReader(containerOutput), new StringReader(expectedOutput));
+        
+        // Then
+        Assertions.assertEquals(3, mismatchPosition);
+    }
+    
+    @Test
+    void whenOutputIsAPrefixOfTheExpectedOutputFindMismatchShouldReturnTheEndOfTheOutput() throws IOException {
+        // Given
+        String expectedOutput = "1 2 3";
+        String containerOutput = "1 2 ";
+        
+        // When
+        long mismatchPosition = CmdUtils.findMismatch(
+                new StringReader(containerOutput), new StringReader(expectedOutput));
+        
+        // Then
+        Assertions.assertEquals(4, mismatchPosition);
+    }
+    
+    @Test
+    void whenOutputHasAnExtraTokenCompareOutputShouldReturnFalse() {
+        // Given
+        String expectedOutput = "1 2";
+        String containerOutput = "1 2 3";
+        
+        // When
+        boolean compareResult = CmdUtils.compareOutput(containerOutput, expectedOutput);
+        
+        // Then
+        Assertions.assertFalse(compareResult);
+    }
+    
+    @Test
+    void whenOutputsAreLargerThanTheComparisonBufferFindMismatchShouldStillCompareAllTokens() throws IOException {
+        // Given
+        StringBuilder expectedOutput = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            expectedOutput.append(i).append('\n');
+        }
+        String containerOutput = expectedOutput.toString().replace("9999", "9998");
+        
+        // When
+        long mismatchPosition = CmdUtils.findMismatch(
+                new StringReader(containerOutput), new StringReader(expectedOutput.toString()));
+        
+        // Then
+        Assertions.assertEquals(containerOutput.lastIndexOf("9998"), mismatchPosition);
+    }
+    
     @Test
     void executeProcessShouldTimeoutAnThrowAProcessExecutionTimeoutException() throws ProcessExecutionException{
         // Given
@@ -99,6 +183,30 @@ class CmdUtilTests {
         Assertions.assertTrue(CmdUtils.compareOutput("test", output.getStdOut()));
     }
     
+    @Test
+    void executeProcessShouldNotBlockWhenTheOutputExceedsThePipeBuffer() throws ProcessExecutionException {
+        // Given an output larger than the pipe buffer (64KB)
+        String[] cmd = new String[] {"head", "-c", "1048576", "/dev/zero"};
+        
+        // When
+        ProcessOutput output = CmdUtils.executeProcess(cmd, 3000);
+        
+        // Then
+        Assertions.assertEquals(0, output.getStatus());
+        Assertions.assertEquals(1048576, output.getStdOut().length());
+    }
+    
+    @Test
+    void executeProcessShouldThrowAProcessOutputLimitExceededExceptionWhenTheOutputExceedsTheMaxSize() {
+        // Given
+        String[] cmd = new String[] {"yes"};
+        
+        // When
+        Assertions.assertThrows(
+                ProcessOutputLimitExceededException.class,
+                () -> CmdUtils.executeProcess(cmd, 3000, 1024));
+    }
+    
     @Test
     void executeProcessShouldNotReturnAnError() throws ProcessExecutionException {
         // Given
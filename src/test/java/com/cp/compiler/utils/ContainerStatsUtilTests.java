@@ -0,0 +1,62 @@
+package com.cp.compiler.utils;
+
+import com.cp.compiler.models.ContainerStats;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class ContainerStatsUtilTests {
+    
+    @Test
+    void shouldParseTheJsonOutputOfDockerStats() {
+        // Given
+        String output = "{\"BlockIO\":\"4.1kB / 0B\",\"CPUPerc\":\"12.50%\",\"Container\":\"abc\",\"ID\":\"abc\","
+                + "\"MemPerc\":\"0.02%\",\"MemUsage\":\"1.5MiB / 2GiB\",\"Name\":\"runner\",\"NetIO\":\"1kB / 250B\","
+                + "\"PIDs\":\"3\"}\n";
+        
+        // When
+        List<ContainerStats> stats = ContainerStatsUtils.parseDockerStats(output);
+        
+        // Then
+        Assertions.assertEquals(1, stats.size());
+        ContainerStats containerStats = stats.get(0);
+        Assertions.assertEquals("abc", containerStats.getId());
+        Assertions.assertEquals("runner", containerStats.getName());
+        Assertions.assertEquals(12.5, containerStats.getCpuPercentage());
+        Assertions.assertEquals(1536 * 1024, containerStats.getMemoryUsage());
+        Assertions.assertEquals(2L * 1024 * 1024 * 1024, containerStats.getMemoryLimit());
+        Assertions.assertEquals(1000, containerStats.getNetworkInput());
+        Assertions.assertEquals(250, containerStats.getNetworkOutput());
+        Assertions.assertEquals(4100, containerStats.getBlockInput());
+        Assertions.assertEquals(0, containerStats.getBlockOutput());
+        Assertions.assertEquals(3, containerStats.getPids());
+    }
+    
+    @Test
+    void shouldIgnoreLinesThatAreNotStats() {
+        // Given
+        String output = "not json\n\n{\"ID\":\"abc\",\"MemUsage\":\"-- / --\",\"CPUPerc\":\"--\"}\n";
+        
+        // When
+        List<ContainerStats> stats = ContainerStatsUtils.parseDockerStats(output);
+        
+        // Then
+        Assertions.assertEquals(1, stats.size());
+        Assertions.assertEquals(0, stats.get(0).getMemoryUsage());
+        Assertions.assertEquals(0, stats.get(0).getCpuPercentage());
+    }
+    
+    @Test
+    void shouldParseTheReclaimedSpaceOfDockerPrune() {
+        // Given
+        String output = "Deleted Images:\nuntagged: image-1:latest\n\nTotal reclaimed space: 1.5MB\n";
+        
+        // When
+        long reclaimedSpace = ContainerStatsUtils.parseReclaimedSpace(output);
+        
+        // Then
+        Assertions.assertEquals(1500000, reclaimedSpace);
+        Assertions.assertEquals(0, ContainerStatsUtils.parseReclaimedSpace("Total reclaimed space: 0B"));
+    }
+}
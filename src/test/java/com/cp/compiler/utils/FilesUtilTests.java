@@ -46,4 +46,20 @@ class FilesUtilTests {
         // Then
         Assertions.assertTrue(Files.exists(Path.of(dest)));
     }
+    
+    @Test
+    void shouldCopyDockerfileWithTheGivenBaseImage() throws IOException {
+        // Given
+        Path src = tempDir.resolve("Dockerfile");
+        Files.writeString(src, "FROM python:3\n\nWORKDIR /app\n\nFROM python:3 AS second\n");
+        String dest = tempDir.resolve("Dockerfile.copy").toString();
+        
+        // When
+        FileUtils.copyDockerfile(src.toString(), dest, "pypy:3");
+        
+        // Then
+        Assertions.assertEquals(
+                "FROM pypy:3\n\nWORKDIR /app\n\nFROM python:3 AS second\n",
+                Files.readString(Path.of(dest)));
+    }
 }
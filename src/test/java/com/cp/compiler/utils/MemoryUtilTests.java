@@ -0,0 +1,89 @@
+package com.cp.compiler.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class MemoryUtilTests {
+    
+    private static final long BYTES_IN_MB = 1024 * 1024;
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void shouldReadTheAvailableMemoryOfTheNode() throws IOException {
+        // Given 1000 MB free and 3000 MB available once the page cache is reclaimed
+        Path meminfo = Files.writeString(directory.resolve("meminfo"),
+                "MemTotal:        8192000 kB\n"
+                        + "MemFree:         1024000 kB\n"
+                        + "MemAvailable:    3072000 kB\n");
+        
+        // When
+        long availableMemory = MemoryUtils.getAvailableMemory(meminfo, directory.resolve("cgroup"));
+        
+        // Then
+        Assertions.assertEquals(3000, availableMemory / BYTES_IN_MB);
+    }
+    
+    @Test
+    void theInactivePageCacheOfTheCgroupShouldBeAvailable() throws IOException {
+        // Given a cgroup v2 limited to 2000 MB, using 1500 MB of which 1000 MB of inactive page cache
+        Path meminfo = Files.writeString(directory.resolve("meminfo"), "MemAvailable:    8192000 kB\n");
+        Path cgroup = Files.createDirectories(directory.resolve("cgroup"));
+        Files.writeString(cgroup.resolve("memory.max"), 2000 * BYTES_IN_MB + "\n");
+        Files.writeString(cgroup.resolve("memory.current"), 1500 * BYTES_IN_MB + "\n");
+        Files.writeString(cgroup.resolve("memory.stat"),
+                "anon " + 500 * BYTES_IN_MB + "\n" + "inactive_file " + 1000 * BYTES_IN_MB + "\n");
+        
+        // When
+        long availableMemory = MemoryUtils.getAvailableMemory(meminfo, cgroup);
+        
+        // Then
+        Assertions.assertEquals(1500, availableMemory / BYTES_IN_MB);
+    }
+    
+    @Test
+    void theAvailableMemoryOfACgroupV1ShouldBeRead() throws IOException {
+        // Given a cgroup v1 limited to 2000 MB, using 1500 MB of which 200 MB of inactive page cache
+        Path meminfo = Files.writeString(directory.resolve("meminfo"), "MemAvailable:    8192000 kB\n");
+        Path memoryController = Files.createDirectories(directory.resolve("cgroup").resolve("memory"));
+        Files.writeString(memoryController.resolve("memory.limit_in_bytes"), 2000 * BYTES_IN_MB + "\n");
+        Files.writeString(memoryController.resolve("memory.usage_in_bytes"), 1500 * BYTES_IN_MB + "\n");
+        Files.writeString(memoryController.resolve("memory.stat"), "total_inactive_file " + 200 * BYTES_IN_MB + "\n");
+        
+        // When
+        long availableMemory = MemoryUtils.getAvailableMemory(meminfo, directory.resolve("cgroup"));
+        
+        // Then
+        Assertions.assertEquals(700, availableMemory / BYTES_IN_MB);
+    }
+    
+    @Test
+    void anUnlimitedCgroupShouldNotLimitTheAvailableMemory() throws IOException {
+        // Given
+        Path meminfo = Files.writeString(directory.resolve("meminfo"), "MemAvailable:    3072000 kB\n");
+        Path cgroup = Files.createDirectories(directory.resolve("cgroup"));
+        Files.writeString(cgroup.resolve("memory.max"), "max\n");
+        Files.writeString(cgroup.resolve("memory.current"), 1500 * BYTES_IN_MB + "\n");
+        
+        // When
+        long availableMemory = MemoryUtils.getAvailableMemory(meminfo, cgroup);
+        
+        // Then
+        Assertions.assertEquals(3000, availableMemory / BYTES_IN_MB);
+    }
+    
+    @Test
+    void whenNothingCanBeReadShouldReturnUnknown() {
+        // When
+        long availableMemory = MemoryUtils.getAvailableMemory(directory.resolve("meminfo"), directory.resolve("cgroup"));
+        
+        // Then
+        Assertions.assertEquals(MemoryUtils.UNKNOWN, availableMemory);
+    }
+}
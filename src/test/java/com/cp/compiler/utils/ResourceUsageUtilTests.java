@@ -0,0 +1,132 @@
+package com.cp.compiler.utils;
+
+import com.cp.compiler.models.ProcessOutput;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ResourceUsageUtilTests {
+    
+    private static final String BOUNDARY = "resource-usage-id";
+    
+    @Test
+    void shouldRemoveTheResourceUsageLineFromTheOutput() {
+        // Given
+        ProcessOutput processOutput = ProcessOutput
+                .builder()
+                .stdOut("0 1 2\n\n" + BOUNDARY + " peakMemory=2097152 oomKills=0\n")
+                .status(0)
+                .build();
+        
+        // When
+        ProcessOutput output = ResourceUsageUtils.extractResourceUsage(processOutput, BOUNDARY);
+        
+        // Then
+        Assertions.assertEquals("0 1 2\n", output.getStdOut());
+        Assertions.assertEquals(2048, output.getContainerPeakMemory());
+        Assertions.assertFalse(output.isOomKilled());
+    }
+    
+    @Test
+    void shouldConvertCpuAndWallTimesToMilliseconds() {
+        // Given
+        ProcessOutput processOutput = ProcessOutput
+                .builder()
+                .stdOut("output\n" + BOUNDARY + " peakMemory=0 oomKills=0 cpuTime=1500000 wallTime=2000000\n")
+                .executionDuration(2500)
+                .status(0)
+                .build();
+        
+        // When
+        ProcessOutput output = ResourceUsageUtils.extractResourceUsage(processOutput, BOUNDARY);
+        
+        // Then
+        Assertions.assertEquals(1500, output.getCpuTime());
+        Assertions.assertEquals(2000, output.getExecutionDuration());
+    }
+    
+    @Test
+    void whenTheWallTimeIsNotReportedShouldKeepTheExecutionDuration() {
+        // Given
+        ProcessOutput processOutput = ProcessOutput
+                .builder()
+                .stdOut("output\n" + BOUNDARY + " peakMemory=0 oomKills=0\n")
+                .executionDuration(2500)
+                .build();
+        
+        // When
+        ProcessOutput output = ResourceUsageUtils.extractResourceUsage(processOutput, BOUNDARY);
+        
+        // Then
+        Assertions.assertEquals(0, output.getCpuTime());
+        Assertions.assertEquals(2500, output.getExecutionDuration());
+    }
+    
+    @Test
+    void whenTheContainerHasBeenOomKilledShouldReturnOomKilled() {
+        // Given
+        ProcessOutput processOutput = ProcessOutput
+                .builder()
+                .stdOut("\n" + BOUNDARY + " peakMemory=1024 oomKills=1\n")
+                .status(137)
+                .build();
+        
+        // When
+        ProcessOutput output = ResourceUsageUtils.extractResourceUsage(processOutput, BOUNDARY);
+        
+        // Then
+        Assertions.assertEquals("", output.getStdOut());
+        Assertions.assertTrue(output.isOomKilled());
+        Assertions.assertEquals(137, output.getStatus());
+    }
+    
+    @Test
+    void whenTheResourceUsageIsNotReportedShouldReturnTheOutputAsItIs() {
+        // Given
+        ProcessOutput processOutput = ProcessOutput
+                .builder()
+                .stdOut("0 1 2")
+                .build();
+        
+        // When
+        ProcessOutput output = ResourceUsageUtils.extractResourceUsage(processOutput, BOUNDARY);
+        
+        // Then
+        Assertions.assertEquals("0 1 2", output.getStdOut());
+        Assertions.assertEquals(0, output.getContainerPeakMemory());
+        Assertions.assertFalse(output.isOomKilled());
+    }
+    
+    @Test
+    void valuesThatAreNotNumbersShouldBeIgnored() {
+        // Given
+        ProcessOutput processOutput = ProcessOutput
+                .builder()
+                .stdOut("output\n" + BOUNDARY + " peakMemory=max oomKills=0")
+                .build();
+        
+        // When
+        ProcessOutput output = ResourceUsageUtils.extractResourceUsage(processOutput, BOUNDARY);
+        
+        // Then
+        Assertions.assertEquals("output", output.getStdOut());
+        Assertions.assertEquals(0, output.getContainerPeakMemory());
+    }
+    
+    @Test
+    void shouldExtractTheCompiledArtifactsHashWrittenBeforeTheProgram() {
+        // Given
+        ProcessOutput processOutput = ProcessOutput
+                .builder()
+                .stdOut(BOUNDARY + " compiledArtifacts=abc123\noutput\n"
+                        + BOUNDARY + " compiledArtifacts=forged\n\n" + BOUNDARY + " peakMemory=0 oomKills=0\n")
+                .status(0)
+                .build();
+        
+        // When
+        ProcessOutput output = ResourceUsageUtils.extractResourceUsage(processOutput, BOUNDARY);
+        
+        // Then
+        Assertions.assertEquals("abc123", output.getCompiledArtifactsHash());
+        Assertions.assertEquals("output\n" + BOUNDARY + " compiledArtifacts=forged\n", output.getStdOut());
+    }
+}
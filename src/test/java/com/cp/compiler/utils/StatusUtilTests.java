@@ -59,4 +59,22 @@ class StatusUtilTests {
         // Then
         Assertions.assertEquals(Verdict.TIME_LIMIT_EXCEEDED, status);
     }
+    
+    @Test
+    void whenTheContainerHasBeenOomKilledShouldReturnOutOfMemory() {
+        // When
+        Verdict status = StatusUtils.statusResponse(137, true, false);
+        
+        // Then
+        Assertions.assertEquals(Verdict.OUT_OF_MEMORY, status);
+    }
+    
+    @Test
+    void whenTheProgramEndsNormallyAfterAnOomKillShouldReturnTheVerdictOfTheOutput() {
+        // When
+        Verdict status = StatusUtils.statusResponse(StatusUtils.ACCEPTED_OR_WRONG_ANSWER_STATUS, true, true);
+        
+        // Then
+        Assertions.assertEquals(Verdict.ACCEPTED, status);
+    }
 }